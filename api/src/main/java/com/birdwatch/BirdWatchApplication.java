@@ -2,6 +2,8 @@ package com.birdwatch;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for the Spring Boot BirdWatch project.
@@ -10,6 +12,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @version 0.1
  */
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class BirdWatchApplication {
     public static void main(String[] args) {
         SpringApplication.run(BirdWatchApplication.class, args);
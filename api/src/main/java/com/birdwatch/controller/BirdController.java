@@ -2,19 +2,26 @@ package com.birdwatch.controller;
 
 import com.birdwatch.entity.Bird;
 import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.BulkDeleteResult;
 import com.birdwatch.service.BirdService;
+import com.birdwatch.service.DataVersionService;
+import com.birdwatch.utils.ETags;
 import com.birdwatch.utils.InputSanitizer;
+import com.birdwatch.utils.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * REST controller for managing bird-related operations.
  * Provides endpoints for CRUD operations and searching birds.
+ * Read endpoints return an entity tag of the current bird data and answer a matching
+ * If-None-Match header with 304 Not Modified before any bird is loaded.
  */
 @RestController
 @RequestMapping("/api/birds")
@@ -37,32 +44,76 @@ public class BirdController {
         );
     }
 
+    /**
+     * Builds the response for a page of birds.
+     * When the page is full, the ID of its last bird is returned in the
+     * {@value Pagination#NEXT_CURSOR_HEADER} header so the client can request the next page.
+     *
+     * @param birds The birds on the page
+     * @param limit The requested page size
+     * @param eTag The entity tag of the bird data the page was read from
+     * @return ResponseEntity containing the page, its entity tag and the next page cursor, if any
+     */
+    private ResponseEntity<List<BirdDTO>> toPageResponse(List<BirdDTO> birds, int limit, String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (birds.size() >= limit) {
+            response.header(Pagination.NEXT_CURSOR_HEADER,
+                String.valueOf(birds.get(birds.size() - 1).getId()));
+        }
+
+        return response.body(birds);
+    }
+
     @Autowired
     private BirdService birdService;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
     /**
-     * Retrieves all birds in the system.
+     * Retrieves a page of birds ordered by ID.
      *
-     * @return A list of all birds as DTOs
+     * @param after Optional ID of the last bird on the previous page
+     * @param limit Optional page size, capped at {@value Pagination#MAX_PAGE_SIZE}
+     * @param ifNoneMatch Optional entity tags of the representations the client already has
+     * @return ResponseEntity containing the page of birds as DTOs and the next page cursor, if any,
+     *         or 304 if the bird data has not changed
      */
     @GetMapping
-    public List<BirdDTO> getAllBirds() {
-        return birdService.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BirdDTO>> getAllBirds(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        int pageSize = Pagination.resolveLimit(limit);
+
+        String eTag = dataVersionService.getBirdsTag();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+
+        return toPageResponse(birdService.findPage(after, pageSize), pageSize, eTag);
     }
 
     /**
      * Searches for birds based on name and/or color.
+     * Results are paged by ID.
      *
      * @param name Optional parameter to filter birds by name
      * @param color Optional parameter to filter birds by color
-     * @return A list of matching birds as DTOs
+     * @param after Optional ID of the last bird on the previous page
+     * @param limit Optional page size, capped at {@value Pagination#MAX_PAGE_SIZE}
+     * @param ifNoneMatch Optional entity tags of the representations the client already has
+     * @return ResponseEntity containing the page of matching birds as DTOs and the next page cursor, if any,
+     *         or 304 if the bird data has not changed
      */
     @GetMapping("/search")
-    public List<BirdDTO> searchBirds(
+    public ResponseEntity<List<BirdDTO>> searchBirds(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String color) {
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
             
         // Sanitize string inputs
         try {
@@ -72,22 +123,37 @@ public class BirdController {
             throw e;
         }
 
-        return birdService.searchBirds(name, color).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        int pageSize = Pagination.resolveLimit(limit);
+
+        String eTag = dataVersionService.getBirdsTag();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+
+        return toPageResponse(birdService.searchBirdsPage(name, color, after, pageSize), pageSize, eTag);
     }
 
     /**
      * Retrieves a specific bird by its ID.
      *
      * @param id The ID of the bird to retrieve
-     * @return ResponseEntity containing the bird DTO if found, or 404 if not found
+     * @param ifNoneMatch Optional entity tags of the representations the client already has
+     * @return ResponseEntity containing the bird DTO if found, 304 if the bird data has not changed,
+     *         or 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BirdDTO> getBirdById(@PathVariable Long id) {
+    public ResponseEntity<BirdDTO> getBirdById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        String eTag = dataVersionService.getBirdsTag();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+
         return birdService.findById(id)
                 .map(this::convertToDTO)
-                .map(ResponseEntity::ok)
+                .map(bird -> ResponseEntity.ok().eTag(eTag).body(bird))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -120,18 +186,33 @@ public class BirdController {
     }
 
     /**
-     * Deletes a bird by its ID.
+     * Deletes a bird by its ID, together with its sightings.
+     * The bird is not looked up first; whether it existed follows from the number of deleted rows.
      *
      * @param id The ID of the bird to delete
      * @return ResponseEntity with status 200 if deleted, or 404 if not found
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBird(@PathVariable Long id) {
-        return birdService.findById(id)
-                .map(bird -> {
-                    birdService.deleteById(id);
-                    return ResponseEntity.ok().<Void>build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+        if (!birdService.deleteById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Deletes the birds with the given IDs in one request, together with their sightings.
+     * IDs without a bird are ignored.
+     *
+     * @param ids The IDs of the birds to delete
+     * @return ResponseEntity containing the number of deleted birds
+     * @throws ResponseStatusException if the list contains a null ID
+     */
+    @DeleteMapping
+    public ResponseEntity<BulkDeleteResult> deleteBirds(@RequestBody List<Long> ids) {
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bird IDs must not be null");
+        }
+        return ResponseEntity.ok(new BulkDeleteResult(birdService.deleteAllById(ids)));
     }
-} 
\ No newline at end of file
+}
@@ -1,20 +1,50 @@
 package com.birdwatch.controller;
 
+import com.birdwatch.entity.Bird;
 import com.birdwatch.entity.Sighting;
 import com.birdwatch.dto.SightingDTO;
 import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.BulkDeleteResult;
+import com.birdwatch.dto.BulkSightingResult;
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingCursor;
 import com.birdwatch.dto.SightingRequest;
+import com.birdwatch.dto.SightingStats;
 import com.birdwatch.service.SightingService;
 import com.birdwatch.service.BirdService;
+import com.birdwatch.service.DataVersionService;
+import com.birdwatch.service.SightingEventService;
+import com.birdwatch.service.SightingGeoIndexService;
+import com.birdwatch.service.SightingAnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import java.time.format.DateTimeFormatter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.server.ResponseStatusException;
+import com.birdwatch.utils.ETags;
 import com.birdwatch.utils.InputSanitizer;
+import com.birdwatch.utils.Pagination;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import java.time.LocalDateTime;
@@ -23,11 +53,28 @@ import java.time.format.DateTimeParseException;
 /**
  * REST controller for managing bird sighting operations.
  * Provides endpoints for CRUD operations and searching bird sightings.
+ * Read endpoints return an entity tag of the current sighting data and answer a matching
+ * If-None-Match header with 304 Not Modified before any sighting is loaded.
  */
 @RestController
 @RequestMapping("/api/sightings")
 public class SightingController {
 
+    /**
+     * Media type of newline-delimited JSON, one sighting object per line.
+     */
+    private static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * Maximum number of sightings accepted in one bulk upload.
+     */
+    private static final int MAX_BULK_SIZE = 10_000;
+
+    /**
+     * Maximum length of a sighting location, as mapped on the entity.
+     */
+    private static final int MAX_LOCATION_LENGTH = 100;
+
     /**
      * Converts a Sighting entity to a SightingDTO.
      *
@@ -47,45 +94,234 @@ public class SightingController {
         return new SightingDTO(
             sighting.getId(),
             sighting.getLocation(),
+            sighting.getLatitude(),
+            sighting.getLongitude(),
             sighting.getSightingDate(),
             sighting.getCreatedAt(),
             birdDTO
         );
     }
 
+    /**
+     * Builds the response for a page of sightings.
+     * When the page is full, the cursor of its last sighting is returned in the
+     * {@value Pagination#NEXT_CURSOR_HEADER} header so the client can request the next page.
+     *
+     * @param sightings The sightings on the page
+     * @param limit The requested page size
+     * @param eTag The entity tag of the sighting data the page was read from
+     * @return ResponseEntity containing the page, its entity tag and the next page cursor, if any
+     */
+    private ResponseEntity<List<SightingDTO>> toPageResponse(List<SightingDTO> sightings, int limit, String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (sightings.size() >= limit) {
+            SightingDTO last = sightings.get(sightings.size() - 1);
+            response.header(Pagination.NEXT_CURSOR_HEADER,
+                new SightingCursor(last.getSightingDate(), last.getId()).encode());
+        }
+
+        return response.body(sightings);
+    }
+
+    /**
+     * Validates one sighting of a bulk upload.
+     *
+     * @param request The sighting request to validate
+     * @param birds The birds referenced by the upload, by ID
+     * @return The reason the sighting is rejected, or null if it is valid
+     */
+    private String validateBulkSighting(SightingRequest request, Map<Long, Bird> birds) {
+        if (request == null) {
+            return "Sighting is missing";
+        }
+        if (request.getBirdId() == null) {
+            return "Bird ID is required";
+        }
+        if (!birds.containsKey(request.getBirdId())) {
+            return "Bird not found: " + request.getBirdId();
+        }
+        if (request.getLocation() == null || request.getLocation().trim().isEmpty()) {
+            return "Location is required";
+        }
+        if (request.getLocation().length() > MAX_LOCATION_LENGTH) {
+            return "Location cannot exceed " + MAX_LOCATION_LENGTH + " characters";
+        }
+        if (request.getSightingDate() == null) {
+            return "Sighting date is required";
+        }
+        return validateCoordinates(request);
+    }
+
+    /**
+     * Validates the optional coordinates of a sighting request.
+     *
+     * @param request The sighting request to validate
+     * @return The reason the coordinates are rejected, or null if they are absent or valid
+     */
+    private static String validateCoordinates(SightingRequest request) {
+        if (request.getLatitude() == null && request.getLongitude() == null) {
+            return null;
+        }
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            return "Latitude and longitude must be given together";
+        }
+        if (!GeoArea.isValid(request.getLatitude(), request.getLongitude())) {
+            return "Latitude must be between -90 and 90 and longitude between -180 and 180";
+        }
+        return null;
+    }
+
+    /**
+     * Rejects a single sighting request with invalid coordinates.
+     *
+     * @param request The sighting request to check
+     * @throws ResponseStatusException if the coordinates are incomplete or out of range
+     */
+    private static void checkCoordinates(SightingRequest request) {
+        String error = validateCoordinates(request);
+        if (error != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error);
+        }
+    }
+
+    /**
+     * Creates the valid sightings of a bulk upload.
+     * All referenced birds are loaded with one query and the valid sightings are saved
+     * in one transaction with batched inserts; invalid sightings are reported, not saved.
+     *
+     * @param requests The uploaded sighting requests
+     * @return The result of every sighting, in upload order
+     */
+    private List<BulkSightingResult> createSightings(List<SightingRequest> requests) {
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "A bulk upload cannot contain more than " + MAX_BULK_SIZE + " sightings");
+        }
+
+        Set<Long> birdIds = requests.stream()
+            .filter(Objects::nonNull)
+            .map(SightingRequest::getBirdId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, Bird> birds = birdService.findAllById(birdIds).stream()
+            .collect(Collectors.toMap(Bird::getId, Function.identity()));
+
+        List<BulkSightingResult> results = new ArrayList<>(requests.size());
+        List<BulkSightingResult> created = new ArrayList<>();
+        List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            SightingRequest request = requests.get(i);
+            String error = validateBulkSighting(request, birds);
+            BulkSightingResult result = new BulkSightingResult(i, null, error);
+            results.add(result);
+
+            if (error == null) {
+                Sighting sighting = new Sighting();
+                sighting.setBird(birds.get(request.getBirdId()));
+                sighting.setLocation(request.getLocation());
+                sighting.setLatitude(request.getLatitude());
+                sighting.setLongitude(request.getLongitude());
+                sighting.setSightingDate(request.getSightingDate());
+                sightings.add(sighting);
+                created.add(result);
+            }
+        }
+
+        if (!sightings.isEmpty()) {
+            List<Sighting> saved = sightingService.saveAll(sightings);
+            for (int i = 0; i < saved.size(); i++) {
+                created.get(i).setId(saved.get(i).getId());
+            }
+        }
+
+        return results;
+    }
+
     @Autowired
     private SightingService sightingService;
 
     @Autowired
     private BirdService birdService;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private SightingEventService sightingEventService;
+
+    @Autowired
+    private SightingGeoIndexService sightingGeoIndexService;
+
+    @Autowired
+    private SightingAnalyticsService sightingAnalyticsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
-     * Retrieves all bird sightings in the system.
+     * Retrieves a page of bird sightings ordered by sighting date and ID.
      *
-     * @return A list of all sightings as DTOs
+     * @param after Optional cursor of the last sighting on the previous page, as {@code <sightingDate>,<id>}
+     * @param limit Optional page size, capped at {@value Pagination#MAX_PAGE_SIZE}
+     * @param ifNoneMatch Optional entity tags of the representations the client already has
+     * @return ResponseEntity containing the page of sightings as DTOs and the next page cursor, if any,
+     *         or 304 if the sighting data has not changed
      */
     @GetMapping
-    public List<SightingDTO> getAllSightings() {
-        return sightingService.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<SightingDTO>> getAllSightings(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        SightingCursor cursor = SightingCursor.parse(InputSanitizer.sanitizeInput(after));
+        int pageSize = Pagination.resolveLimit(limit);
+
+        String eTag = dataVersionService.getSightingsTag();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+
+        return toPageResponse(sightingService.findPage(cursor, pageSize), pageSize, eTag);
     }
 
     /**
-     * Searches for bird sightings based on bird name, location, and/or date range.
+     * Searches for bird sightings based on bird name, location, date range and/or geographic area.
+     * The area is either a bounding box or a radius around a point, and is evaluated by the database.
+     * Results are paged by sighting date and ID, and include the archived sightings of the date range.
      *
      * @param birdName Optional parameter to filter sightings by bird name
      * @param location Optional parameter to filter sightings by location
      * @param startDate Optional parameter to filter sightings by start date
      * @param endDate Optional parameter to filter sightings by end date
-     * @return A list of matching sightings as DTOs
+     * @param minLat Optional southern edge of a bounding box, given with minLon, maxLat and maxLon
+     * @param minLon Optional western edge of a bounding box
+     * @param maxLat Optional northern edge of a bounding box
+     * @param maxLon Optional eastern edge of a bounding box
+     * @param lat Optional latitude of the center of a radius search, given with lon and radiusKm
+     * @param lon Optional longitude of the center of a radius search
+     * @param radiusKm Optional radius of a radius search in kilometres
+     * @param after Optional cursor of the last sighting on the previous page, as {@code <sightingDate>,<id>}
+     * @param limit Optional page size, capped at {@value Pagination#MAX_PAGE_SIZE}
+     * @param ifNoneMatch Optional entity tags of the representations the client already has
+     * @return ResponseEntity containing the page of matching sightings as DTOs and the next page cursor, if any,
+     *         or 304 if the sighting data has not changed
      */
     @GetMapping("/search")
-    public List<SightingDTO> searchSightings(
+    public ResponseEntity<List<SightingDTO>> searchSightings(
             @RequestParam(required = false) String birdName,
             @RequestParam(required = false) String location,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLon,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         // Sanitize string inputs
         try {
@@ -93,90 +329,382 @@ public class SightingController {
             location = InputSanitizer.sanitizeInput(location);
             startDate = InputSanitizer.sanitizeInput(startDate);
             endDate = InputSanitizer.sanitizeInput(endDate);
+            after = InputSanitizer.sanitizeInput(after);
         } catch (ResponseStatusException e) {
             throw e;
         }
 
-        // Get all sightings from service
-        List<Sighting> sightings = sightingService.searchSightings(birdName, location);
+        // Parse the date range so it can be evaluated by the database
+        final LocalDateTime startDateTime = parseSearchDate(startDate);
+        final LocalDateTime endDateTime = parseSearchDate(endDate);
+        GeoArea area = GeoArea.of(minLat, minLon, maxLat, maxLon, lat, lon, radiusKm);
+
+        SightingCursor cursor = SightingCursor.parse(after);
+        int pageSize = Pagination.resolveLimit(limit);
+
+        String eTag = dataVersionService.getSightingsTag();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+
+        List<SightingDTO> sightings = sightingService.searchSightingsPage(
+            birdName, location, startDateTime, endDateTime, area, cursor, pageSize);
         
-        // Filter by date range if dates are provided
-        if (startDate != null && !startDate.isEmpty() || endDate != null && !endDate.isEmpty()) {
-            try {
-                final LocalDateTime startDateTime = startDate != null && !startDate.isEmpty() ? 
-                    LocalDateTime.parse(startDate, DateTimeFormatter.ISO_DATE_TIME) : null;
-                
-                final LocalDateTime endDateTime = endDate != null && !endDate.isEmpty() ? 
-                    LocalDateTime.parse(endDate, DateTimeFormatter.ISO_DATE_TIME) : null;
-                
-                sightings = sightings.stream()
-                    .filter(sighting -> {
-                        boolean matchesStart = startDateTime == null || 
-                            !sighting.getSightingDate().isBefore(startDateTime);
-                        boolean matchesEnd = endDateTime == null || 
-                            !sighting.getSightingDate().isAfter(endDateTime);
-                        return matchesStart && matchesEnd;
-                    })
-                    .collect(Collectors.toList());
-            } catch (DateTimeParseException e) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                    "Invalid date format. Please use ISO-8601 format (e.g., 2024-04-14T17:36:21)");
+        return toPageResponse(sightings, pageSize, eTag);
+    }
+
+    /**
+     * Counts bird sightings grouped by bird, location and/or time bucket, with the same optional
+     * filters as the search. The counts are computed in SQL and returned as compact rows of values,
+     * so summarizing a year of sightings does not transfer the sightings themselves.
+     *
+     * @param groupBy Optional comma-separated dimensions to group by: bird, location and at most one
+     *        of hour, day, week or month; without it a single total is returned
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional parameter to filter sightings by start date
+     * @param endDate Optional parameter to filter sightings by end date
+     * @param ifNoneMatch Optional entity tags of the representations the client already has
+     * @return ResponseEntity containing the column names and one row per group,
+     *         or 304 if the sighting data has not changed
+     * @throws ResponseStatusException if a dimension is unknown, more than one time bucket is requested
+     *         or a filter is invalid
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<SightingStats> getSightingStats(
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) String birdName,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        Set<SightingStats.Dimension> dimensions = parseDimensions(groupBy);
+        birdName = InputSanitizer.sanitizeInput(birdName);
+        location = InputSanitizer.sanitizeInput(location);
+        LocalDateTime startDateTime = parseSearchDate(InputSanitizer.sanitizeInput(startDate));
+        LocalDateTime endDateTime = parseSearchDate(InputSanitizer.sanitizeInput(endDate));
+
+        String eTag = dataVersionService.getSightingsTag();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(sightingService.getStats(dimensions, birdName, location, startDateTime, endDateTime));
+    }
+
+    /**
+     * Counts bird sightings grouped by bird, location and/or time bucket, with the same parameters
+     * and response as the statistics endpoint, from the in-memory columnar snapshot of the sightings
+     * instead of the database. Meant for ad hoc analytics over fine-grained groups, like hourly counts
+     * per location, that the daily rollup does not cover. Sighting dates are compared to the second.
+     * The snapshot follows writes once they have committed, so no entity tag is sent.
+     * Until the snapshot has been loaded after startup, the counts are computed by the database
+     * like the statistics endpoint does.
+     *
+     * @param groupBy Optional comma-separated dimensions to group by: bird, location and at most one
+     *        of hour, day, week or month; without it a single total is returned
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional parameter to filter sightings by start date
+     * @param endDate Optional parameter to filter sightings by end date
+     * @return ResponseEntity containing the column names and one row per group
+     * @throws ResponseStatusException if a dimension is unknown, more than one time bucket is requested
+     *         or a filter is invalid
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<SightingStats> getSightingAnalytics(
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) String birdName,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+
+        Set<SightingStats.Dimension> dimensions = parseDimensions(groupBy);
+        birdName = InputSanitizer.sanitizeInput(birdName);
+        location = InputSanitizer.sanitizeInput(location);
+        LocalDateTime startDateTime = parseSearchDate(InputSanitizer.sanitizeInput(startDate));
+        LocalDateTime endDateTime = parseSearchDate(InputSanitizer.sanitizeInput(endDate));
+
+        if (!sightingAnalyticsService.isLoaded()) {
+            return ResponseEntity.ok(sightingService.getStats(dimensions, birdName, location, startDateTime, endDateTime));
+        }
+
+        return ResponseEntity.ok(sightingAnalyticsService.count(dimensions, birdName, location, startDateTime, endDateTime));
+    }
+
+    /**
+     * Finds the recent sightings inside a bounding box or a radius around a point, newest first.
+     * Answered from the in-memory index of the sightings with coordinates of the last
+     * birdwatch.geo-index.recent-days days, without a database query. The result changes as
+     * sightings age out of that window, so no entity tag is sent.
+     * Until the index has been loaded after startup, 503 is returned.
+     *
+     * @param minLat Optional southern edge of a bounding box, given with minLon, maxLat and maxLon
+     * @param minLon Optional western edge of a bounding box
+     * @param maxLat Optional northern edge of a bounding box
+     * @param maxLon Optional eastern edge of a bounding box
+     * @param lat Optional latitude of the center of a radius search, given with lon and radiusKm
+     * @param lon Optional longitude of the center of a radius search
+     * @param radiusKm Optional radius of a radius search in kilometres
+     * @param limit Optional maximum number of sightings, capped at {@value Pagination#MAX_PAGE_SIZE}
+     * @return ResponseEntity containing the newest recent sightings inside the area
+     * @throws ResponseStatusException if no area or an invalid area is given, or the index is still loading
+     */
+    @GetMapping("/recent/area")
+    public ResponseEntity<List<SightingDTO>> getRecentSightingsInArea(
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLon,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit) {
+
+        GeoArea area = GeoArea.of(minLat, minLon, maxLat, maxLon, lat, lon, radiusKm);
+        if (area == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Either minLat, minLon, maxLat and maxLon or lat, lon and radiusKm must be provided");
+        }
+        requireGeoIndexLoaded();
+
+        return ResponseEntity.ok(sightingGeoIndexService.findInArea(area, Pagination.resolveLimit(limit)));
+    }
+
+    /**
+     * Finds the recent sightings nearest to a point, nearest first.
+     * Answered from the in-memory index of the sightings with coordinates of the last
+     * birdwatch.geo-index.recent-days days, without a database query.
+     * Until the index has been loaded after startup, 503 is returned.
+     *
+     * @param lat Latitude of the point
+     * @param lon Longitude of the point
+     * @param k Optional number of sightings, capped at {@value Pagination#MAX_PAGE_SIZE}
+     * @return ResponseEntity containing the nearest recent sightings
+     * @throws ResponseStatusException if the point is invalid or the index is still loading
+     */
+    @GetMapping("/recent/nearest")
+    public ResponseEntity<List<SightingDTO>> getNearestRecentSightings(
+            @RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam(required = false) Integer k) {
+
+        if (!GeoArea.isValid(lat, lon)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "lat must be between -90 and 90 and lon between -180 and 180");
+        }
+        requireGeoIndexLoaded();
+
+        return ResponseEntity.ok(sightingGeoIndexService.findNearest(lat, lon, Pagination.resolveLimit(k)));
+    }
+
+    /**
+     * Rejects lookups in the geo index while it is still loading, as they could miss sightings.
+     * There is no query returning the same result, so the client has to retry.
+     *
+     * @throws ResponseStatusException if the geo index has not been loaded yet
+     */
+    private void requireGeoIndexLoaded() {
+        if (!sightingGeoIndexService.isLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "The index of recent sightings is still loading, try again shortly");
+        }
+    }
+
+    /**
+     * Parses the groupBy parameter of the sighting statistics.
+     *
+     * @param groupBy Comma-separated dimension names, may be null or empty
+     * @return The requested dimensions
+     * @throws ResponseStatusException if a dimension is unknown or more than one time bucket is requested
+     */
+    private static Set<SightingStats.Dimension> parseDimensions(String groupBy) {
+        Set<SightingStats.Dimension> dimensions = EnumSet.noneOf(SightingStats.Dimension.class);
+        if (groupBy == null || groupBy.trim().isEmpty()) {
+            return dimensions;
+        }
+        for (String name : groupBy.split(",")) {
+            SightingStats.Dimension dimension = null;
+            for (SightingStats.Dimension candidate : SightingStats.Dimension.values()) {
+                if (candidate.getParameterName().equals(name.trim().toLowerCase())) {
+                    dimension = candidate;
+                }
+            }
+            if (dimension == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid groupBy dimension. Use bird, location, hour, day, week or month");
             }
+            dimensions.add(dimension);
         }
-        
-        return sightings.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (dimensions.stream().filter(SightingStats.Dimension::isTimeBucket).count() > 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Only one of hour, day, week or month can be grouped by");
+        }
+        return dimensions;
+    }
+
+    /**
+     * Parses an optional date filter of the sighting search.
+     *
+     * @param date The sanitized date parameter, in ISO-8601 format
+     * @return The parsed date, or null if the parameter is absent or empty
+     * @throws ResponseStatusException if the date is not in ISO-8601 format
+     */
+    private static LocalDateTime parseSearchDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(date, DateTimeFormatter.ISO_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                "Invalid date format. Please use ISO-8601 format (e.g., 2024-04-14T17:36:21)");
+        }
+    }
+
+    /**
+     * Exports all bird sightings as newline-delimited JSON, ordered by sighting date and ID.
+     * Sightings are streamed from the database and written to the response one at a time
+     * through a Jackson generator, so memory use does not grow with the number of sightings.
+     *
+     * @return ResponseEntity streaming one sighting DTO per line
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportSightings() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                // Each sighting ends its own line instead of being separated by Jackson's default space
+                generator.setRootValueSeparator(null);
+                sightingService.forEachSighting(sighting -> {
+                    try {
+                        generator.writeObject(sighting);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Opens a stream of server-sent events announcing created, updated and deleted sightings.
+     * Each event is named after its kind of change and carries a SightingEvent as JSON.
+     * A subscriber that falls behind loses its oldest events and is sent a resync event instead.
+     *
+     * @return The emitter of the event stream
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSightingEvents() {
+        return sightingEventService.subscribe();
     }
 
     /**
      * Retrieves a specific sighting by its ID.
      *
      * @param id The ID of the sighting to retrieve
-     * @return ResponseEntity containing the sighting DTO if found, or 404 if not found
+     * @param ifNoneMatch Optional entity tags of the representations the client already has
+     * @return ResponseEntity containing the sighting DTO if found, 304 if the sighting data has not changed,
+     *         or 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<SightingDTO> getSightingById(@PathVariable Long id) {
+    public ResponseEntity<SightingDTO> getSightingById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        String eTag = dataVersionService.getSightingsTag();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+
         return sightingService.findById(id)
                 .map(this::convertToDTO)
-                .map(ResponseEntity::ok)
+                .map(sighting -> ResponseEntity.ok().eTag(eTag).body(sighting))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * Creates a new bird sighting.
      *
-     * @param request The sighting request containing bird ID, location, and sighting date
+     * @param request The sighting request containing bird ID, location, optional coordinates and sighting date
      * @return ResponseEntity containing the created sighting DTO if successful, or 404 if bird not found
+     * @throws ResponseStatusException if the coordinates are incomplete or out of range
      */
     @PostMapping
     public ResponseEntity<SightingDTO> createSighting(@RequestBody SightingRequest request) {
+        checkCoordinates(request);
         return birdService.findById(request.getBirdId())
             .map(bird -> {
                 Sighting sighting = new Sighting();
                 sighting.setBird(bird);
                 sighting.setLocation(request.getLocation());
+                sighting.setLatitude(request.getLatitude());
+                sighting.setLongitude(request.getLongitude());
                 sighting.setSightingDate(request.getSightingDate());
                 return ResponseEntity.ok(convertToDTO(sightingService.save(sighting)));
             })
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Creates many bird sightings at once from a JSON array.
+     * Each sighting is validated on its own; valid sightings are created and invalid ones
+     * are reported without failing the rest of the upload.
+     *
+     * @param requests The sighting requests, at most {@value #MAX_BULK_SIZE}
+     * @return ResponseEntity containing the result of every sighting, in upload order
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkSightingResult>> createSightingsBulk(@RequestBody List<SightingRequest> requests) {
+        return ResponseEntity.ok(createSightings(requests));
+    }
+
+    /**
+     * Creates many bird sightings at once from newline-delimited JSON, one sighting per line.
+     * Each sighting is validated on its own; valid sightings are created and invalid ones
+     * are reported without failing the rest of the upload.
+     *
+     * @param body The request body, one sighting request object per line
+     * @return ResponseEntity containing the result of every sighting, in upload order, or 400 if a line is not valid JSON
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/bulk", consumes = NDJSON)
+    public ResponseEntity<List<BulkSightingResult>> createSightingsBulkStream(InputStream body) throws IOException {
+        List<SightingRequest> requests;
+        try (MappingIterator<SightingRequest> lines = objectMapper.readerFor(SightingRequest.class).readValues(body)) {
+            requests = lines.readAll();
+        } catch (JsonProcessingException e) {
+            String line = e.getLocation() != null ? " at line " + e.getLocation().getLineNr() : "";
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sighting" + line);
+        }
+
+        return ResponseEntity.ok(createSightings(requests));
+    }
+
     /**
      * Updates an existing bird sighting.
      *
      * @param id The ID of the sighting to update
      * @param request The updated sighting data
      * @return ResponseEntity containing the updated sighting DTO if found, or 404 if not found
+     * @throws ResponseStatusException if the coordinates are incomplete or out of range
      */
     @PutMapping("/{id}")
     public ResponseEntity<SightingDTO> updateSighting(@PathVariable Long id, @RequestBody SightingRequest request) {
+        checkCoordinates(request);
         return sightingService.findById(id)
             .flatMap(existingSighting -> 
                 birdService.findById(request.getBirdId())
                     .map(bird -> {
                         existingSighting.setBird(bird);
                         existingSighting.setLocation(request.getLocation());
+                        existingSighting.setLatitude(request.getLatitude());
+                        existingSighting.setLongitude(request.getLongitude());
                         existingSighting.setSightingDate(request.getSightingDate());
                         return ResponseEntity.ok(convertToDTO(sightingService.save(existingSighting)));
                     })
@@ -186,17 +714,88 @@ public class SightingController {
 
     /**
      * Deletes a bird sighting by its ID.
+     * The sighting is not looked up first; whether it existed follows from the number of deleted rows.
      *
      * @param id The ID of the sighting to delete
      * @return ResponseEntity with status 200 if deleted, or 404 if not found
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteSighting(@PathVariable Long id) {
-        return sightingService.findById(id)
-                .map(sighting -> {
-                    sightingService.deleteById(id);
-                    return ResponseEntity.ok().<Void>build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+        if (!sightingService.deleteById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Deletes the bird sightings with the given IDs in one request.
+     * IDs without a sighting are ignored.
+     *
+     * @param ids The IDs of the sightings to delete
+     * @return ResponseEntity containing the number of deleted sightings
+     * @throws ResponseStatusException if the list contains a null ID
+     */
+    @DeleteMapping
+    public ResponseEntity<BulkDeleteResult> deleteSightings(@RequestBody List<Long> ids) {
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sighting IDs must not be null");
+        }
+        return ResponseEntity.ok(new BulkDeleteResult(sightingService.deleteAllById(ids)));
+    }
+
+    /**
+     * Deletes the bird sightings matching the search filters in one request,
+     * the same sightings GET /api/sightings/search returns for these filters.
+     * At least one filter is required, so that a request without parameters cannot delete every sighting,
+     * and a request matching more than 10000 sightings is rejected without deleting any.
+     * Archived sightings cannot be deleted, so a date range reaching into an archived month is rejected,
+     * including a range without a start or end date, which is open on that side.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional parameter to filter sightings by start date
+     * @param endDate Optional parameter to filter sightings by end date
+     * @param minLat Optional southern edge of a bounding box, given with minLon, maxLat and maxLon
+     * @param minLon Optional western edge of a bounding box
+     * @param maxLat Optional northern edge of a bounding box
+     * @param maxLon Optional eastern edge of a bounding box
+     * @param lat Optional latitude of the center of a radius search, given with lon and radiusKm
+     * @param lon Optional longitude of the center of a radius search
+     * @param radiusKm Optional radius of a radius search in kilometres
+     * @return ResponseEntity containing the number of deleted sightings
+     * @throws ResponseStatusException if no filter is given, a filter is invalid, the date range reaches
+     *         into an archived month or too many sightings match
+     */
+    @DeleteMapping("/search")
+    public ResponseEntity<BulkDeleteResult> deleteMatchingSightings(
+            @RequestParam(required = false) String birdName,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLon,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radiusKm) {
+
+        birdName = InputSanitizer.sanitizeInput(birdName);
+        location = InputSanitizer.sanitizeInput(location);
+        LocalDateTime startDateTime = parseSearchDate(InputSanitizer.sanitizeInput(startDate));
+        LocalDateTime endDateTime = parseSearchDate(InputSanitizer.sanitizeInput(endDate));
+        GeoArea area = GeoArea.of(minLat, minLon, maxLat, maxLon, lat, lon, radiusKm);
+
+        boolean filtered = (birdName != null && !birdName.isEmpty())
+            || (location != null && !location.isEmpty())
+            || startDateTime != null
+            || endDateTime != null
+            || area != null;
+        if (!filtered) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one search filter is required");
+        }
+
+        return ResponseEntity.ok(new BulkDeleteResult(
+            sightingService.deleteMatching(birdName, location, startDateTime, endDateTime, area)));
     }
-} 
\ No newline at end of file
+}
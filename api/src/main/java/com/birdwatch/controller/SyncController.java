@@ -0,0 +1,62 @@
+package com.birdwatch.controller;
+
+import com.birdwatch.dto.SyncCursor;
+import com.birdwatch.dto.SyncResponse;
+import com.birdwatch.service.SyncService;
+import com.birdwatch.utils.InputSanitizer;
+import com.birdwatch.utils.Pagination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * REST controller for the delta sync of birds and sightings.
+ * Lets clients fetch only what changed since their last sync instead of reloading the listings.
+ */
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    /**
+     * Retrieves a page of the birds and sightings created, updated or deleted since the given sync token.
+     * Without a token, only the token to start syncing from is returned.
+     * While a page returns a next page cursor, the client requests the next page with the same token
+     * and that cursor, and keeps the returned token once it has read the last page.
+     *
+     * @param since Optional token returned by the previous sync
+     * @param after Optional cursor returned by the previous page of this sync
+     * @param limit Optional maximum number of changes per page, capped at {@value Pagination#MAX_PAGE_SIZE}
+     * @return ResponseEntity containing the page of changes, the token for the next sync and the next page cursor, if any
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        since = InputSanitizer.sanitizeInput(since);
+        after = InputSanitizer.sanitizeInput(after);
+        int pageSize = Pagination.resolveLimit(limit);
+
+        final LocalDateTime sinceDateTime;
+        try {
+            sinceDateTime = since != null && !since.isEmpty() ?
+                LocalDateTime.parse(since, DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+        }
+
+        return ResponseEntity.ok(syncService.changesSince(sinceDateTime, SyncCursor.parse(after), pageSize));
+    }
+}
@@ -0,0 +1,16 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Data Transfer Object reporting the outcome of a bulk delete.
+ */
+@Data
+@AllArgsConstructor
+public class BulkDeleteResult {
+    /**
+     * Number of deleted records, not counting the sightings deleted together with their bird.
+     */
+    private int deleted;
+}
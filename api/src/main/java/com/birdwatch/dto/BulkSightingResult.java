@@ -0,0 +1,27 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Data Transfer Object reporting the outcome of one sighting in a bulk upload.
+ * Exactly one of id and error is set.
+ */
+@Data
+@AllArgsConstructor
+public class BulkSightingResult {
+    /**
+     * Zero-based position of the sighting in the uploaded batch.
+     */
+    private int index;
+
+    /**
+     * ID of the created sighting, or null if the sighting was rejected.
+     */
+    private Long id;
+
+    /**
+     * Reason the sighting was rejected, or null if it was created.
+     */
+    private String error;
+}
@@ -0,0 +1,224 @@
+package com.birdwatch.dto;
+
+import com.birdwatch.utils.GeoHash;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Geographic area of a sighting search: a bounding box, or a circle given by its center and radius.
+ * A circle also has the bounding box enclosing it, which is what the geohash index is searched with
+ * before the exact distance is checked. A circle whose box would cross the antimeridian or
+ * reach a pole spans all longitudes.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class GeoArea {
+    /**
+     * Mean radius of the earth in kilometres, used for great-circle distances.
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final double minLatitude;
+
+    private final double minLongitude;
+
+    private final double maxLatitude;
+
+    private final double maxLongitude;
+
+    /**
+     * Latitude of the center of a circle, null for a bounding box.
+     */
+    private final Double latitude;
+
+    /**
+     * Longitude of the center of a circle, null for a bounding box.
+     */
+    private final Double longitude;
+
+    /**
+     * Radius of a circle in kilometres, null for a bounding box.
+     */
+    private final Double radiusKm;
+
+    /**
+     * Creates a bounding box area.
+     *
+     * @param minLatitude The southern edge of the box
+     * @param minLongitude The western edge of the box
+     * @param maxLatitude The northern edge of the box
+     * @param maxLongitude The eastern edge of the box
+     * @return The area
+     */
+    public static GeoArea boundingBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        return new GeoArea(minLatitude, minLongitude, maxLatitude, maxLongitude, null, null, null);
+    }
+
+    /**
+     * Creates a circular area.
+     *
+     * @param latitude The latitude of the center
+     * @param longitude The longitude of the center
+     * @param radiusKm The radius in kilometres
+     * @return The area
+     */
+    public static GeoArea circle(double latitude, double longitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double minLatitude = latitude - Math.toDegrees(angle);
+        double maxLatitude = latitude + Math.toDegrees(angle);
+        double minLongitude = -180.0;
+        double maxLongitude = 180.0;
+        if (minLatitude > -90.0 && maxLatitude < 90.0) {
+            double deltaLongitude = Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(Math.toRadians(latitude))));
+            if (longitude - deltaLongitude >= -180.0 && longitude + deltaLongitude <= 180.0) {
+                minLongitude = longitude - deltaLongitude;
+                maxLongitude = longitude + deltaLongitude;
+            }
+        }
+        return new GeoArea(Math.max(-90.0, minLatitude), minLongitude, Math.min(90.0, maxLatitude), maxLongitude,
+            latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Builds the area of a search from its request parameters, either all four bounding box
+     * parameters or all three circle parameters.
+     *
+     * @param minLat Optional southern edge of a bounding box
+     * @param minLon Optional western edge of a bounding box
+     * @param maxLat Optional northern edge of a bounding box
+     * @param maxLon Optional eastern edge of a bounding box
+     * @param lat Optional latitude of the center of a circle
+     * @param lon Optional longitude of the center of a circle
+     * @param radiusKm Optional radius of a circle in kilometres
+     * @return The area, or null if no area parameter was given
+     * @throws ResponseStatusException if the parameters are incomplete, mixed or out of range
+     */
+    public static GeoArea of(Double minLat, Double minLon, Double maxLat, Double maxLon,
+                             Double lat, Double lon, Double radiusKm) {
+        boolean box = minLat != null || minLon != null || maxLat != null || maxLon != null;
+        boolean circle = lat != null || lon != null || radiusKm != null;
+        if (box && circle) {
+            throw badRequest("Search by either a bounding box or a radius, not both");
+        }
+        if (box) {
+            if (minLat == null || minLon == null || maxLat == null || maxLon == null) {
+                throw badRequest("A bounding box needs minLat, minLon, maxLat and maxLon");
+            }
+            checkCoordinates(minLat, minLon);
+            checkCoordinates(maxLat, maxLon);
+            if (minLat > maxLat || minLon > maxLon) {
+                throw badRequest("minLat and minLon cannot exceed maxLat and maxLon");
+            }
+            return boundingBox(minLat, minLon, maxLat, maxLon);
+        }
+        if (circle) {
+            if (lat == null || lon == null || radiusKm == null) {
+                throw badRequest("A radius search needs lat, lon and radiusKm");
+            }
+            checkCoordinates(lat, lon);
+            if (!(radiusKm > 0)) {
+                throw badRequest("radiusKm must be positive");
+            }
+            return circle(lat, lon, radiusKm);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a coordinate is a valid latitude and longitude.
+     *
+     * @param latitude The latitude in degrees
+     * @param longitude The longitude in degrees
+     * @return true if the latitude is between -90 and 90 and the longitude between -180 and 180
+     */
+    public static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90.0 && latitude <= 90.0 && longitude >= -180.0 && longitude <= 180.0;
+    }
+
+    /**
+     * Checks whether the area is a circle.
+     *
+     * @return true for a circle, false for a bounding box
+     */
+    public boolean isCircle() {
+        return radiusKm != null;
+    }
+
+    /**
+     * Checks whether a coordinate lies inside the area.
+     *
+     * @param latitude The latitude in degrees
+     * @param longitude The longitude in degrees
+     * @return true if the coordinate is inside the area or on its edge
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+        return !isCircle() || haversine(this.latitude, this.longitude, latitude, longitude) <= getMaxHaversine();
+    }
+
+    /**
+     * Gets the largest haversine of the central angle between the center of a circle and a point inside it,
+     * so distances can be compared without the inverse trigonometric functions.
+     *
+     * @return The haversine of the radius as a central angle
+     */
+    public double getMaxHaversine() {
+        double halfAngle = Math.sin(radiusKm / EARTH_RADIUS_KM / 2);
+        return halfAngle * halfAngle;
+    }
+
+    /**
+     * Gets the ranges of geohashes of the grid cells covering the bounding box of the area.
+     *
+     * @return Inclusive ranges of geohashes as {from, to} pairs
+     */
+    public List<long[]> getCoveringRanges() {
+        return GeoHash.coveringRanges(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+
+    /**
+     * Computes the haversine of the central angle between two coordinates.
+     *
+     * @param latitude1 The latitude of the first coordinate
+     * @param longitude1 The longitude of the first coordinate
+     * @param latitude2 The latitude of the second coordinate
+     * @param longitude2 The longitude of the second coordinate
+     * @return The haversine, from 0 for the same point to 1 for antipodes
+     */
+    public static double haversine(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double halfLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double halfLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        return halfLatitude * halfLatitude
+            + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * halfLongitude * halfLongitude;
+    }
+
+    /**
+     * Checks that a coordinate of the request is in range.
+     *
+     * @param latitude The latitude in degrees
+     * @param longitude The longitude in degrees
+     * @throws ResponseStatusException if the coordinate is out of range
+     */
+    private static void checkCoordinates(double latitude, double longitude) {
+        if (!isValid(latitude, longitude)) {
+            throw badRequest("Latitudes must be between -90 and 90 and longitudes between -180 and 180");
+        }
+    }
+
+    /**
+     * Creates the exception rejecting invalid area parameters.
+     *
+     * @param reason The reason the parameters are rejected
+     * @return The exception to throw
+     */
+    private static ResponseStatusException badRequest(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+}
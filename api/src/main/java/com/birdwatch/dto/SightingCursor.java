@@ -0,0 +1,64 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset cursor for paging through sightings ordered by sighting date and ID.
+ * Encoded on the wire as {@code <sightingDate>,<id>}, e.g. {@code 2024-04-14T17:36:21,42}.
+ */
+@Data
+@AllArgsConstructor
+public class SightingCursor {
+    /**
+     * Sighting date of the last sighting on the previous page.
+     */
+    private LocalDateTime sightingDate;
+
+    /**
+     * ID of the last sighting on the previous page.
+     */
+    private Long id;
+
+    /**
+     * Parses a cursor from its wire format.
+     *
+     * @param value The encoded cursor, may be null or empty for the first page
+     * @return The parsed cursor, or null if no cursor was given
+     * @throws ResponseStatusException if the cursor is malformed
+     */
+    public static SightingCursor parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        int separator = value.lastIndexOf(',');
+        try {
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new SightingCursor(
+                LocalDateTime.parse(value.substring(0, separator), DateTimeFormatter.ISO_DATE_TIME),
+                Long.parseLong(value.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Invalid cursor. Expected <sightingDate>,<id> (e.g., 2024-04-14T17:36:21,42)");
+        }
+    }
+
+    /**
+     * Encodes this cursor to its wire format.
+     *
+     * @return The encoded cursor
+     */
+    public String encode() {
+        return sightingDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "," + id;
+    }
+}
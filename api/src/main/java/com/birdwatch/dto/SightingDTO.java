@@ -21,6 +21,16 @@ public class SightingDTO {
      */
     private String location;
 
+    /**
+     * Latitude of the sighting in degrees, null if the sighting has no coordinates.
+     */
+    private Double latitude;
+
+    /**
+     * Longitude of the sighting in degrees, null if the sighting has no coordinates.
+     */
+    private Double longitude;
+
     /**
      * Date and time when the bird was sighted.
      */
@@ -35,4 +45,28 @@ public class SightingDTO {
      * The bird that was sighted.
      */
     private BirdDTO bird;
-} 
\ No newline at end of file
+
+    /**
+     * Constructor taking the bird's fields flattened, used by repository projection queries.
+     *
+     * @param id The unique identifier of the sighting
+     * @param location The location where the bird was sighted
+     * @param latitude The latitude of the sighting, or null
+     * @param longitude The longitude of the sighting, or null
+     * @param sightingDate The date and time when the bird was sighted
+     * @param createdAt The timestamp when the sighting was created
+     * @param birdId The unique identifier of the sighted bird
+     * @param birdName The name of the sighted bird
+     * @param birdColor The color of the sighted bird
+     * @param birdWeight The weight of the sighted bird
+     * @param birdHeight The height of the sighted bird
+     * @param birdCreatedAt The timestamp when the sighted bird was created
+     */
+    public SightingDTO(Long id, String location, Double latitude, Double longitude,
+                       LocalDateTime sightingDate, LocalDateTime createdAt,
+                       Long birdId, String birdName, String birdColor, Double birdWeight, Double birdHeight,
+                       LocalDateTime birdCreatedAt) {
+        this(id, location, latitude, longitude, sightingDate, createdAt,
+            new BirdDTO(birdId, birdName, birdColor, birdWeight, birdHeight, birdCreatedAt));
+    }
+}
@@ -0,0 +1,59 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for a change pushed on the sighting event stream.
+ * The kind of change is also sent as the name of the server-sent event; the fields
+ * that do not apply to that kind of change are null.
+ */
+@Data
+@AllArgsConstructor
+public class SightingEvent {
+    /**
+     * Event sent when a sighting was created, with the sighting.
+     */
+    public static final String CREATED = "created";
+
+    /**
+     * Event sent when a sighting was updated, with the sighting.
+     */
+    public static final String UPDATED = "updated";
+
+    /**
+     * Event sent when a sighting was deleted, with its ID.
+     */
+    public static final String DELETED = "deleted";
+
+    /**
+     * Event sent when a bird was deleted together with all of its sightings, with the bird ID.
+     */
+    public static final String BIRD_DELETED = "bird-deleted";
+
+    /**
+     * Event sent when events were dropped because the subscriber fell behind.
+     * The subscriber must reload the sightings, e.g. with the delta sync.
+     */
+    public static final String RESYNC = "resync";
+
+    /**
+     * Kind of change, one of the event names above.
+     */
+    private String type;
+
+    /**
+     * ID of the created, updated or deleted sighting.
+     */
+    private Long id;
+
+    /**
+     * ID of the deleted bird.
+     */
+    private Long birdId;
+
+    /**
+     * The created or updated sighting.
+     */
+    private SightingDTO sighting;
+}
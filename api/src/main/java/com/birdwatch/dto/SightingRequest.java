@@ -19,6 +19,16 @@ public class SightingRequest {
      */
     private String location;
 
+    /**
+     * Optional latitude of the sighting in degrees, given together with the longitude.
+     */
+    private Double latitude;
+
+    /**
+     * Optional longitude of the sighting in degrees, given together with the latitude.
+     */
+    private Double longitude;
+
     /**
      * Date and time when the bird was sighted.
      */
@@ -0,0 +1,79 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Data Transfer Object holding sighting counts grouped by bird, location and/or time bucket.
+ * Rows are sent as arrays of values in the order of the column names instead of objects,
+ * so that large summaries stay compact; the last column is always the count.
+ */
+@Data
+@AllArgsConstructor
+public class SightingStats {
+    /**
+     * Name of the column holding the number of sightings in a group.
+     */
+    public static final String COUNT_COLUMN = "count";
+
+    /**
+     * Names of the values in each row.
+     */
+    private List<String> columns;
+
+    /**
+     * One row of values per group, ordered by the grouped values.
+     */
+    private List<Object[]> rows;
+
+    /**
+     * Dimension the sightings can be grouped by.
+     * At most one time bucket dimension can be used at a time.
+     */
+    public enum Dimension {
+        BIRD(false, "birdId", "birdName"),
+        LOCATION(false, "location"),
+        HOUR(true, "hour"),
+        DAY(true, "day"),
+        WEEK(true, "week"),
+        MONTH(true, "month");
+
+        private final boolean timeBucket;
+        private final List<String> columns;
+
+        Dimension(boolean timeBucket, String... columns) {
+            this.timeBucket = timeBucket;
+            this.columns = List.of(columns);
+        }
+
+        /**
+         * Checks whether the dimension groups sightings by a time bucket of their sighting date.
+         *
+         * @return true for the hour, day, week and month dimensions
+         */
+        public boolean isTimeBucket() {
+            return timeBucket;
+        }
+
+        /**
+         * Gets the names of the columns the dimension adds to every row.
+         *
+         * @return The column names
+         */
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        /**
+         * Gets the name of the dimension as used in the groupBy parameter.
+         *
+         * @return The lowercase dimension name
+         */
+        public String getParameterName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
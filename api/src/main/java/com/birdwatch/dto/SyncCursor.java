@@ -0,0 +1,120 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Keyset cursor for paging through the changes of one delta sync.
+ * A sync returns the changes up to a fixed time, kind by kind: changed birds, changed sightings,
+ * deleted birds and deleted sightings, each ordered by change time and ID.
+ * Encoded on the wire as {@code <until>,<kind>,<afterTime>,<afterId>},
+ * e.g. {@code 2024-04-14T17:36:21.123456,sightings,2024-04-14T17:30:00.5,42}.
+ */
+@Data
+@AllArgsConstructor
+public class SyncCursor {
+    /**
+     * Kinds of changes, in the order a sync returns them.
+     */
+    public enum Kind {
+        BIRDS,
+        SIGHTINGS,
+        DELETED_BIRDS,
+        DELETED_SIGHTINGS;
+
+        /**
+         * Gets the kind returned after this one.
+         *
+         * @return The next kind, or null if this is the last one
+         */
+        public Kind next() {
+            return ordinal() + 1 < values().length ? values()[ordinal() + 1] : null;
+        }
+
+        /**
+         * Encodes this kind to its wire format, e.g. {@code deleted-birds}.
+         *
+         * @return The encoded kind
+         */
+        public String encode() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        /**
+         * Parses a kind from its wire format.
+         *
+         * @param value The encoded kind
+         * @return The parsed kind
+         * @throws IllegalArgumentException if the value is not a kind
+         */
+        public static Kind parse(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * Inclusive upper bound of the change times returned by the sync, the token of the next sync.
+     */
+    private LocalDateTime until;
+
+    /**
+     * Kind of the changes the next page continues with.
+     */
+    private Kind kind;
+
+    /**
+     * Change time of the last change of this kind on the previous page.
+     */
+    private LocalDateTime afterTime;
+
+    /**
+     * ID of the last change of this kind on the previous page.
+     */
+    private Long afterId;
+
+    /**
+     * Parses a cursor from its wire format.
+     *
+     * @param value The encoded cursor, may be null or empty for the first page
+     * @return The parsed cursor, or null if no cursor was given
+     * @throws ResponseStatusException if the cursor is malformed
+     */
+    public static SyncCursor parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        String[] parts = value.split(",", -1);
+        try {
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Expected four parts");
+            }
+            return new SyncCursor(
+                LocalDateTime.parse(parts[0], DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                Kind.parse(parts[1]),
+                LocalDateTime.parse(parts[2], DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                Long.parseLong(parts[3])
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Invalid cursor. Expected the X-Next-Cursor header of the previous sync page");
+        }
+    }
+
+    /**
+     * Encodes this cursor to its wire format.
+     *
+     * @return The encoded cursor
+     */
+    public String encode() {
+        return until.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "," + kind.encode() + ","
+            + afterTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "," + afterId;
+    }
+}
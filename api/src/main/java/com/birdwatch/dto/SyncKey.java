@@ -0,0 +1,30 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position of a change read by the delta sync.
+ * For a created or updated bird or sighting, the time is its last update time and the ID its own;
+ * for a deletion, they are the deletion time and the ID of the tombstone recording it.
+ */
+@Data
+@AllArgsConstructor
+public class SyncKey {
+    /**
+     * Time of the change.
+     */
+    private LocalDateTime time;
+
+    /**
+     * ID of the changed row, ordering changes made at the same time.
+     */
+    private Long id;
+
+    /**
+     * ID of the changed bird or sighting.
+     */
+    private Long entityId;
+}
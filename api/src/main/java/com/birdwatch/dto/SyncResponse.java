@@ -0,0 +1,48 @@
+package com.birdwatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the changes returned by the delta sync.
+ * Contains a page of the birds and sightings created or updated since the requested sync token
+ * and of the IDs of the birds and sightings deleted since then, the token to request the next changes with
+ * and the cursor of the next page.
+ * Deleting a bird deletes its sightings, which are not listed separately.
+ */
+@Data
+@AllArgsConstructor
+public class SyncResponse {
+    /**
+     * Token to pass as {@code since} on the next sync, once the last page has been read.
+     * Every page of a sync returns the same token.
+     */
+    private String token;
+
+    /**
+     * Birds created or updated since the requested token.
+     */
+    private List<BirdDTO> birds;
+
+    /**
+     * Sightings created or updated since the requested token.
+     */
+    private List<SightingDTO> sightings;
+
+    /**
+     * IDs of the birds deleted since the requested token, together with their sightings.
+     */
+    private List<Long> deletedBirdIds;
+
+    /**
+     * IDs of the sightings deleted since the requested token.
+     */
+    private List<Long> deletedSightingIds;
+
+    /**
+     * Cursor to pass as {@code after} with the same {@code since} to read the next page,
+     * null on the last page.
+     */
+    private String nextCursor;
+}
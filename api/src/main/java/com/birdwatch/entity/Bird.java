@@ -4,25 +4,37 @@ import javax.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.time.LocalDateTime;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.birdwatch.utils.SyncWatermark;
 
 /**
  * Entity class representing a bird in the system.
  * Contains information about the bird's physical characteristics and its sightings.
+ * Birds are kept in the Hibernate second-level cache, so loading a bird by ID
+ * does not reach the database while its cache entry is valid.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "birds")
+@Table(name = "birds", indexes = @Index(name = "idx_birds_updated_at_id", columnList = "updated_at, id"))
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Bird {
     /**
      * Unique identifier for the bird.
+     * Allocated in blocks from the birds_id_seq sequence, so that new birds
+     * get their IDs without a round trip per row and can be inserted in JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "birds_id_seq")
+    @GenericGenerator(name = "birds_id_seq", strategy = "com.birdwatch.entity.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "birds_id_seq"))
     private Long id;
 
     /**
@@ -59,6 +71,13 @@ public class Bird {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    /**
+     * Timestamp when the bird record was last created or updated.
+     * Used by the delta sync to find the birds changed since a sync token.
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     /**
      * List of sightings associated with this bird.
      * Uses JSON managed reference to prevent infinite recursion in JSON serialization.
@@ -69,6 +88,12 @@ public class Bird {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        createdAt = SyncWatermark.stamp();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = SyncWatermark.stamp();
     }
 } 
\ No newline at end of file
@@ -4,24 +4,41 @@ import javax.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.birdwatch.utils.GeoHash;
+import com.birdwatch.utils.SyncWatermark;
 
 /**
  * Entity class representing a bird sighting in the system.
  * Contains information about when and where a bird was sighted.
+ * The sightings table may be range-partitioned by month of the sighting date (migration
+ * 011_sightings_partitioning.sql); the mapping is the same either way, the partition a sighting
+ * is stored in is chosen, and changed on updates of the date, by the database.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "sightings")
+@Table(name = "sightings", indexes = {
+    @Index(name = "idx_sightings_sighting_date_id", columnList = "sighting_date, id"),
+    @Index(name = "idx_sightings_bird_id_sighting_date", columnList = "bird_id, sighting_date"),
+    @Index(name = "idx_sightings_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_sightings_geo_hash", columnList = "geo_hash")
+})
 public class Sighting {
     /**
      * Unique identifier for the sighting.
+     * Allocated in blocks from the sightings_id_seq sequence, so that new sightings
+     * get their IDs without a round trip per row and can be inserted in JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "sightings_id_seq")
+    @GenericGenerator(name = "sightings_id_seq", strategy = "com.birdwatch.entity.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "sightings_id_seq"))
     private Long id;
 
     /**
@@ -40,6 +57,27 @@ public class Sighting {
     @Column(nullable = false, length = 100)
     private String location;
 
+    /**
+     * Latitude of the sighting in degrees, from -90 to 90.
+     * Optional, but set together with the longitude.
+     */
+    private Double latitude;
+
+    /**
+     * Longitude of the sighting in degrees, from -180 to 180.
+     * Optional, but set together with the latitude.
+     */
+    private Double longitude;
+
+    /**
+     * Geohash of the latitude and longitude, null if the sighting has no coordinates.
+     * Derived from the coordinates whenever the sighting is written, and indexed so that area
+     * searches read only the sightings in the grid cells covering the area.
+     */
+    @JsonIgnore
+    @Column(name = "geo_hash")
+    private Long geoHash;
+
     /**
      * Date and time when the bird was sighted.
      * Must not be null.
@@ -53,8 +91,27 @@ public class Sighting {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    /**
+     * Timestamp when the sighting record was last created or updated.
+     * Used by the delta sync to find the sightings changed since a sync token.
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        createdAt = SyncWatermark.stamp();
+        updatedAt = createdAt;
+        geoHash = computeGeoHash();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = SyncWatermark.stamp();
+        geoHash = computeGeoHash();
+    }
+
+    private Long computeGeoHash() {
+        return latitude != null && longitude != null ? GeoHash.encode(latitude, longitude) : null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.birdwatch.entity;
+
+import javax.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * Entity class holding the number of sightings of a bird at a location on one day.
+ * The rollup is kept up to date by the SightingService whenever sightings are written, so
+ * sighting statistics at day granularity or coarser are summed from it instead of being
+ * counted from the sightings table.
+ * Counts that dropped to zero are left in place until the next compaction.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@IdClass(SightingDailyRollupId.class)
+@Table(name = "sighting_daily_rollup", indexes = @Index(name = "idx_sighting_daily_rollup_day", columnList = "day"))
+public class SightingDailyRollup {
+    /**
+     * ID of the sighted bird.
+     */
+    @Id
+    @Column(name = "bird_id")
+    private Long birdId;
+
+    /**
+     * Location of the sightings, as stored on the sightings.
+     */
+    @Id
+    @Column(length = 100)
+    private String location;
+
+    /**
+     * Day of the sightings.
+     */
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    /**
+     * Number of sightings of the bird at the location on the day.
+     */
+    @Column(name = "sighting_count", nullable = false)
+    private long sightingCount;
+}
@@ -0,0 +1,37 @@
+package com.birdwatch.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Composite key of a SightingDailyRollup: the bird, location and day a sighting is counted under.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SightingDailyRollupId implements Serializable {
+    private Long birdId;
+
+    private String location;
+
+    private LocalDate day;
+
+    /**
+     * Constructor for the key a sighting is counted under, used in JPQL constructor expressions.
+     *
+     * @param birdId The ID of the sighted bird
+     * @param location The location of the sighting
+     * @param sightingDate The date and time of the sighting, of which only the day is kept
+     */
+    public SightingDailyRollupId(Long birdId, String location, LocalDateTime sightingDate) {
+        this(birdId, location, sightingDate.toLocalDate());
+    }
+}
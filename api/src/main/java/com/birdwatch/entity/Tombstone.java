@@ -0,0 +1,73 @@
+package com.birdwatch.entity;
+
+import javax.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import java.time.LocalDateTime;
+import com.birdwatch.utils.SyncWatermark;
+
+/**
+ * Entity class recording the deletion of a bird or a sighting.
+ * Deleted rows are gone from their tables, so the delta sync reads the tombstones
+ * to tell clients which birds and sightings to remove from their local copy.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "tombstones", indexes = @Index(name = "idx_tombstones_entity_type_deleted_at_id", columnList = "entity_type, deleted_at, id"))
+public class Tombstone {
+    /**
+     * Kind of entity a tombstone records the deletion of.
+     */
+    public enum EntityType {
+        BIRD,
+        SIGHTING
+    }
+
+    /**
+     * Unique identifier for the tombstone.
+     * Allocated in blocks from the tombstones_id_seq sequence.
+     */
+    @Id
+    @GeneratedValue(generator = "tombstones_id_seq")
+    @GenericGenerator(name = "tombstones_id_seq", strategy = "com.birdwatch.entity.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "tombstones_id_seq"))
+    private Long id;
+
+    /**
+     * Kind of the deleted entity.
+     * Must not be null.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityType entityType;
+
+    /**
+     * ID of the deleted bird or sighting.
+     * Must not be null.
+     */
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /**
+     * Timestamp when the entity was deleted.
+     */
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    /**
+     * Constructor recording the deletion of an entity now.
+     *
+     * @param entityType The kind of the deleted entity
+     * @param entityId The ID of the deleted entity
+     */
+    public Tombstone(EntityType entityType, Long entityId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deletedAt = SyncWatermark.stamp();
+    }
+}
@@ -1,18 +1,37 @@
 package com.birdwatch.repository;
 
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.SyncKey;
 import com.birdwatch.entity.Bird;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * Repository interface for Bird entities.
  * Provides database operations for Bird entities including custom search functionality.
+ * Name and color searches compare LOWER(column) so they can use the pg_trgm GIN indexes
+ * created by migration 004_birds_trigram_indexes.sql.
  */
 @Repository
 public interface BirdRepository extends JpaRepository<Bird, Long> {
+    /**
+     * Select clause projecting a bird into a BirdDTO, aliased b.
+     */
+    String SELECT_BIRD_DTO = "SELECT new com.birdwatch.dto.BirdDTO(" +
+           "b.id, b.name, b.color, b.weight, b.height, b.createdAt) " +
+           "FROM Bird b ";
+
     /**
      * Searches for birds based on name and/or color using case-insensitive partial matching.
      * If a parameter is null, it will not be included in the search criteria.
@@ -22,7 +41,106 @@ public interface BirdRepository extends JpaRepository<Bird, Long> {
      * @return A list of birds matching the search criteria
      */
     @Query("SELECT b FROM Bird b WHERE " +
-           "(:name IS NULL OR LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-           "(:color IS NULL OR LOWER(b.color) LIKE LOWER(CONCAT('%', :color, '%')))")
+           "(:name IS NULL OR LOWER(b.name) LIKE CONCAT('%', LOWER(:name), '%')) AND " +
+           "(:color IS NULL OR LOWER(b.color) LIKE CONCAT('%', LOWER(:color), '%'))")
     List<Bird> searchBirds(@Param("name") String name, @Param("color") String color);
-} 
\ No newline at end of file
+
+    /**
+     * Retrieves the page of birds that follows the given ID, ordered by ID.
+     * The cost of a page depends only on the page size, not on how deep the page is.
+     * Rows are selected straight into DTOs, without managed entities.
+     *
+     * @param afterId ID of the last bird on the previous page
+     * @param pageable Page size limit, the page number is ignored
+     * @return The next page of birds as DTOs
+     */
+    @Query(SELECT_BIRD_DTO + "WHERE b.id > :afterId ORDER BY b.id")
+    List<BirdDTO> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Searches for the page of birds that follows the given ID, filtered by name and/or color
+     * and ordered by ID.
+     * Rows are selected straight into DTOs, without managed entities.
+     * Pages are kept in the Hibernate query cache until the birds table changes.
+     *
+     * @param name Optional parameter to filter birds by name
+     * @param color Optional parameter to filter birds by color
+     * @param afterId ID of the last bird on the previous page
+     * @param pageable Page size limit, the page number is ignored
+     * @return The next page of matching birds as DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(SELECT_BIRD_DTO + "WHERE " +
+           "(:name IS NULL OR LOWER(b.name) LIKE CONCAT('%', LOWER(:name), '%')) AND " +
+           "(:color IS NULL OR LOWER(b.color) LIKE CONCAT('%', LOWER(:color), '%')) AND " +
+           "b.id > :afterId " +
+           "ORDER BY b.id")
+    List<BirdDTO> searchBirdsPageAfter(
+            @Param("name") String name,
+            @Param("color") String color,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * Retrieves the keys of the page of birds created or updated in the given time window
+     * that follows the given keyset position, ordered by last update time and ID.
+     *
+     * @param since Exclusive lower bound of the last update time
+     * @param until Inclusive upper bound of the last update time
+     * @param afterTime Last update time of the last bird on the previous page
+     * @param afterId ID of the last bird on the previous page
+     * @param pageable Page size limit, the page number is ignored
+     * @return The keys of the next page of changed birds
+     */
+    @Query("SELECT new com.birdwatch.dto.SyncKey(b.updatedAt, b.id, b.id) FROM Bird b " +
+           "WHERE b.updatedAt > :since AND b.updatedAt <= :until AND " +
+           "b.updatedAt >= :afterTime AND (b.updatedAt > :afterTime OR b.id > :afterId) " +
+           "ORDER BY b.updatedAt, b.id")
+    List<SyncKey> findChangedKeys(
+            @Param("since") LocalDateTime since,
+            @Param("until") LocalDateTime until,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * Retrieves the birds with the given IDs.
+     * Rows are selected straight into DTOs, without managed entities.
+     *
+     * @param ids The IDs of the birds
+     * @return The found birds as DTOs, in no particular order
+     */
+    @Query(SELECT_BIRD_DTO + "WHERE b.id IN :ids")
+    List<BirdDTO> findDTOsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the bird with the given ID with a single DELETE statement, without loading it first.
+     * Its sightings must be deleted before, see SightingRepository.deleteAllByBirdId.
+     *
+     * @param id The ID of the bird to delete
+     * @return The number of deleted birds, 0 if no bird has the ID
+     */
+    @Modifying
+    @Query("DELETE FROM Bird b WHERE b.id = :id")
+    int deleteBirdById(@Param("id") Long id);
+
+    /**
+     * Retrieves which of the given bird IDs exist.
+     *
+     * @param ids The bird IDs to look up
+     * @return The IDs of the existing birds
+     */
+    @Query("SELECT b.id FROM Bird b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the birds with the given IDs with a single DELETE statement, without loading them first.
+     * Their sightings must be deleted before, see SightingRepository.deleteAllByBirdIds.
+     *
+     * @param ids The IDs of the birds to delete
+     * @return The number of deleted birds
+     */
+    @Modifying
+    @Query("DELETE FROM Bird b WHERE b.id IN :ids")
+    int deleteBirdsByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,50 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository fragment searching sightings inside a geographic area.
+ * Part of the SightingRepository; the number of geohash ranges covering the area varies,
+ * so the query is built per call instead of being declared with @Query.
+ */
+public interface SightingAreaRepository {
+
+    /**
+     * Searches for the page of sightings inside the area that follows the given keyset position,
+     * filtered like searchSightingsPageAfter and ordered by sighting date and ID.
+     * Rows are selected straight into DTOs, without managed entities.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @param area The area the sightings' coordinates must lie in
+     * @param afterDate Sighting date of the last sighting on the previous page
+     * @param afterId ID of the last sighting on the previous page
+     * @param limit Maximum number of sightings to return
+     * @return The next page of matching sightings as DTOs
+     */
+    List<SightingDTO> searchSightingsInAreaPageAfter(String birdName, String location,
+            LocalDateTime startDate, LocalDateTime endDate, GeoArea area,
+            LocalDateTime afterDate, Long afterId, int limit);
+
+    /**
+     * Retrieves a page of the IDs of the sightings inside the area matching the bird name, location
+     * and sighting date window, ordered by ID.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @param area The area the sightings' coordinates must lie in
+     * @param afterId The last ID of the previous page, 0 for the first page
+     * @param limit Maximum number of IDs to return
+     * @return The IDs of the matching sightings after the given ID
+     */
+    List<Long> findIdsInAreaAfter(String birdName, String location,
+            LocalDateTime startDate, LocalDateTime endDate, GeoArea area, Long afterId, int limit);
+}
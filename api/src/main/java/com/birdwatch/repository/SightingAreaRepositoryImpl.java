@@ -0,0 +1,112 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingDTO;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the SightingAreaRepository fragment.
+ * The area is matched in the database in two steps: range scans of the geohash index over the
+ * few grid cells covering the area's bounding box, then the exact bounding box and, for a circle,
+ * the great-circle distance on the remaining rows. Distances are compared through the haversine
+ * of the central angle, so no inverse trigonometric function runs per row.
+ */
+public class SightingAreaRepositoryImpl implements SightingAreaRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SightingDTO> searchSightingsInAreaPageAfter(String birdName, String location,
+            LocalDateTime startDate, LocalDateTime endDate, GeoArea area,
+            LocalDateTime afterDate, Long afterId, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String conditions = conditions(birdName, location, startDate, endDate, area, parameters);
+        parameters.put("afterDate", afterDate);
+        parameters.put("afterId", afterId);
+
+        TypedQuery<SightingDTO> query = entityManager.createQuery(SightingRepository.SELECT_SIGHTING_DTO +
+            "WHERE " + conditions + " AND s.sightingDate >= :afterDate AND " +
+            "(s.sightingDate > :afterDate OR s.id > :afterId) ORDER BY s.sightingDate, s.id", SightingDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Long> findIdsInAreaAfter(String birdName, String location,
+            LocalDateTime startDate, LocalDateTime endDate, GeoArea area, Long afterId, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String conditions = conditions(birdName, location, startDate, endDate, area, parameters);
+        parameters.put("afterId", afterId);
+
+        TypedQuery<Long> query = entityManager.createQuery(
+            "SELECT s.id FROM Sighting s JOIN s.bird b WHERE " + conditions + " AND s.id > :afterId ORDER BY s.id",
+            Long.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Builds the search conditions over the sighting s and its bird b, with the same text and
+     * bird name filters as the fixed search queries, and collects their parameter values.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @param area The area the sightings' coordinates must lie in
+     * @param parameters The map the parameter values are added to
+     * @return The conditions joined with AND
+     */
+    private static String conditions(String birdName, String location, LocalDateTime startDate,
+            LocalDateTime endDate, GeoArea area, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (birdName != null) {
+            conditions.add("LOWER(b.name) LIKE CONCAT('%', LOWER(:birdName), '%')");
+            parameters.put("birdName", birdName);
+        }
+        if (location != null) {
+            conditions.add("LOWER(s.location) LIKE CONCAT('%', LOWER(:location), '%')");
+            parameters.put("location", location);
+        }
+        conditions.add("s.sightingDate >= :startDate AND s.sightingDate <= :endDate");
+        parameters.put("startDate", startDate);
+        parameters.put("endDate", endDate);
+
+        List<String> cells = new ArrayList<>();
+        List<long[]> ranges = area.getCoveringRanges();
+        for (int i = 0; i < ranges.size(); i++) {
+            cells.add("s.geoHash BETWEEN :cellFrom" + i + " AND :cellTo" + i);
+            parameters.put("cellFrom" + i, ranges.get(i)[0]);
+            parameters.put("cellTo" + i, ranges.get(i)[1]);
+        }
+        conditions.add("(" + String.join(" OR ", cells) + ")");
+
+        conditions.add("s.latitude BETWEEN :minLatitude AND :maxLatitude AND " +
+            "s.longitude BETWEEN :minLongitude AND :maxLongitude");
+        parameters.put("minLatitude", area.getMinLatitude());
+        parameters.put("maxLatitude", area.getMaxLatitude());
+        parameters.put("minLongitude", area.getMinLongitude());
+        parameters.put("maxLongitude", area.getMaxLongitude());
+
+        if (area.isCircle()) {
+            conditions.add(
+                "sin(radians(s.latitude - :latitude) / 2) * sin(radians(s.latitude - :latitude) / 2) + " +
+                "cos(radians(:latitude)) * cos(radians(s.latitude)) * " +
+                "sin(radians(s.longitude - :longitude) / 2) * sin(radians(s.longitude - :longitude) / 2) " +
+                "<= :maxHaversine");
+            parameters.put("latitude", area.getLatitude());
+            parameters.put("longitude", area.getLongitude());
+            parameters.put("maxHaversine", area.getMaxHaversine());
+        }
+        return String.join(" AND ", conditions);
+    }
+}
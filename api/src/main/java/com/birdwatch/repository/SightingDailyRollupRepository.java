@@ -0,0 +1,141 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.entity.SightingDailyRollup;
+import com.birdwatch.entity.SightingDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Repository interface for SightingDailyRollup entities.
+ * Counts are adjusted with set-based statements that group the affected sightings in the database,
+ * so writing a batch of sightings costs one statement per chunk of IDs, not one per sighting.
+ * Sightings are counted under the day of their sighting date.
+ */
+@Repository
+public interface SightingDailyRollupRepository extends JpaRepository<SightingDailyRollup, SightingDailyRollupId> {
+    /**
+     * Select of the number of sightings per bird, location and day, over the sightings table aliased s.
+     */
+    String SIGHTINGS_PER_DAY = "SELECT s.bird_id, s.location, CAST(s.sighting_date AS date) AS day, count(*) AS n " +
+           "FROM sightings s ";
+
+    /**
+     * Adds the sightings with the given IDs to the counts of their bird, location and day.
+     * Pending inserts are flushed first, so sightings saved in the same transaction are counted.
+     *
+     * @param ids The IDs of the sightings to add
+     * @return The number of rollup rows inserted or updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO sighting_daily_rollup (bird_id, location, day, sighting_count) " +
+           "SELECT bird_id, location, day, n FROM (" + SIGHTINGS_PER_DAY + "WHERE s.id IN (:ids) " +
+           "GROUP BY s.bird_id, s.location, CAST(s.sighting_date AS date)) added " +
+           "ON CONFLICT (bird_id, location, day) " +
+           "DO UPDATE SET sighting_count = sighting_daily_rollup.sighting_count + EXCLUDED.sighting_count",
+           nativeQuery = true)
+    int addSightings(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Subtracts the sightings with the given IDs from the counts of their bird, location and day.
+     * Must run before the sightings are deleted.
+     *
+     * @param ids The IDs of the sightings to subtract
+     * @return The number of rollup rows updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE sighting_daily_rollup r SET sighting_count = r.sighting_count - removed.n " +
+           "FROM (" + SIGHTINGS_PER_DAY + "WHERE s.id IN (:ids) " +
+           "GROUP BY s.bird_id, s.location, CAST(s.sighting_date AS date)) removed " +
+           "WHERE r.bird_id = removed.bird_id AND r.location = removed.location AND r.day = removed.day",
+           nativeQuery = true)
+    int removeSightings(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Subtracts one sighting from the count of a bird, location and day.
+     *
+     * @param birdId The ID of the sighted bird
+     * @param location The location of the sighting
+     * @param day The day of the sighting
+     * @return The number of rollup rows updated
+     */
+    @Modifying
+    @Query("UPDATE SightingDailyRollup r SET r.sightingCount = r.sightingCount - 1 " +
+           "WHERE r.birdId = :birdId AND r.location = :location AND r.day = :day")
+    int removeSighting(
+            @Param("birdId") Long birdId,
+            @Param("location") String location,
+            @Param("day") LocalDate day
+       );
+
+    /**
+     * Deletes the counts of the given birds.
+     *
+     * @param birdIds The IDs of the birds whose counts are deleted
+     * @return The number of deleted rollup rows
+     */
+    @Modifying
+    @Query("DELETE FROM SightingDailyRollup r WHERE r.birdId IN :birdIds")
+    int deleteByBirdIds(@Param("birdIds") Collection<Long> birdIds);
+
+    /**
+     * Deletes the counts of the days in a range.
+     *
+     * @param from Inclusive first day
+     * @param to Exclusive last day
+     * @return The number of deleted rollup rows
+     */
+    @Modifying
+    @Query("DELETE FROM SightingDailyRollup r WHERE r.day >= :from AND r.day < :to")
+    int deleteDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Deletes the counts that dropped to zero.
+     *
+     * @return The number of deleted rollup rows
+     */
+    @Modifying
+    @Query("DELETE FROM SightingDailyRollup r WHERE r.sightingCount <= 0")
+    int deleteEmpty();
+
+    /**
+     * Counts all sightings into the rollup; the rollup must be empty.
+     *
+     * @return The number of inserted rollup rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO sighting_daily_rollup (bird_id, location, day, sighting_count) " +
+           "SELECT bird_id, location, day, n FROM (" + SIGHTINGS_PER_DAY +
+           "GROUP BY s.bird_id, s.location, CAST(s.sighting_date AS date)) counted",
+           nativeQuery = true)
+    int insertAllSightings();
+
+    /**
+     * Counts the birds, locations and days whose rollup count differs from the number of sightings,
+     * including sightings missing from the rollup and rollup counts without sightings.
+     * Reads every sighting, so it is meant for occasional consistency checks.
+     *
+     * @return The number of mismatching rollup keys, 0 if the rollup is consistent
+     */
+    @Query(value = "SELECT count(*) FROM (" + SIGHTINGS_PER_DAY +
+           "GROUP BY s.bird_id, s.location, CAST(s.sighting_date AS date)) counted " +
+           "FULL OUTER JOIN (SELECT * FROM sighting_daily_rollup WHERE sighting_count <> 0) r " +
+           "ON r.bird_id = counted.bird_id AND r.location = counted.location AND r.day = counted.day " +
+           "WHERE counted.n IS DISTINCT FROM r.sighting_count",
+           nativeQuery = true)
+    long countMismatches();
+
+    /**
+     * Checks whether there are sightings while the rollup is empty, as after the rollup table was created
+     * on an existing database.
+     *
+     * @return true if the rollup has to be built
+     */
+    @Query(value = "SELECT NOT EXISTS (SELECT 1 FROM sighting_daily_rollup) AND EXISTS (SELECT 1 FROM sightings)",
+           nativeQuery = true)
+    boolean isMissing();
+}
@@ -1,18 +1,65 @@
 package com.birdwatch.repository;
 
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SyncKey;
 import com.birdwatch.entity.Sighting;
+import com.birdwatch.entity.SightingDailyRollupId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
 
 /**
  * Repository interface for Sighting entities.
  * Provides database operations for Sighting entities including custom search functionality.
+ * Listing and search queries fetch the sighted bird in the same statement to avoid
+ * one additional select per distinct bird.
+ * Substring filters compare LOWER(column) against a lowercased pattern, the shape of the
+ * trigram indexes on lower(sightings.location) and lower(birds.name); bird name matches
+ * reach their sightings through the (bird_id, sighting_date) index.
+ * Grouped sighting counts are computed by the SightingStatsRepository fragment and searches
+ * inside a geographic area by the SightingAreaRepository fragment.
  */
 @Repository
-public interface SightingRepository extends JpaRepository<Sighting, Long> {
+public interface SightingRepository extends JpaRepository<Sighting, Long>, SightingStatsRepository,
+        SightingAreaRepository {
+    /**
+     * Select clause projecting a sighting and its bird into a SightingDTO, aliased s and b.
+     */
+    String SELECT_SIGHTING_DTO = "SELECT new com.birdwatch.dto.SightingDTO(" +
+           "s.id, s.location, s.latitude, s.longitude, s.sightingDate, s.createdAt, " +
+           "b.id, b.name, b.color, b.weight, b.height, b.createdAt) " +
+           "FROM Sighting s JOIN s.bird b ";
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming sightings.
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
+    /**
+     * Retrieves all sightings together with their sighted birds.
+     *
+     * @return A list of all sightings
+     */
+    @Override
+    @EntityGraph(attributePaths = "bird")
+    List<Sighting> findAll();
+
     /**
      * Searches for sightings based on bird name and/or location using case-insensitive partial matching.
      * If a parameter is null, it will not be included in the search criteria.
@@ -21,11 +68,299 @@ public interface SightingRepository extends JpaRepository<Sighting, Long> {
      * @param location Optional parameter to filter sightings by location
      * @return A list of sightings matching the search criteria
      */
-    @Query("SELECT s FROM Sighting s WHERE " +
-           "(:birdName IS NULL OR LOWER(s.bird.name) LIKE LOWER(CONCAT('%', :birdName, '%'))) AND " +
-           "(:location IS NULL OR LOWER(s.location) LIKE LOWER(CONCAT('%', :location, '%')))")
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird b WHERE " +
+           "(:birdName IS NULL OR LOWER(b.name) LIKE CONCAT('%', LOWER(:birdName), '%')) AND " +
+           "(:location IS NULL OR LOWER(s.location) LIKE CONCAT('%', LOWER(:location), '%'))")
     List<Sighting> searchSightings(
             @Param("birdName") String birdName,
             @Param("location") String location
        );
-} 
\ No newline at end of file
+
+    /**
+     * Retrieves the page of sightings that follows the given keyset position,
+     * ordered by sighting date and ID.
+     * The cost of a page depends only on the page size, not on how deep the page is.
+     * Rows are selected straight into DTOs, without managed entities.
+     *
+     * @param afterDate Sighting date of the last sighting on the previous page
+     * @param afterId ID of the last sighting on the previous page
+     * @param pageable Page size limit, the page number is ignored
+     * @return The next page of sightings as DTOs
+     */
+    @Query(SELECT_SIGHTING_DTO + "WHERE " +
+           "s.sightingDate >= :afterDate AND " +
+           "(s.sightingDate > :afterDate OR s.id > :afterId) " +
+           "ORDER BY s.sightingDate, s.id")
+    List<SightingDTO> findPageAfter(
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+       );
+
+    /**
+     * Searches for the page of sightings that follows the given keyset position,
+     * filtered by bird name, location and sighting date window and ordered by sighting date and ID.
+     * Rows are selected straight into DTOs, without managed entities.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @param afterDate Sighting date of the last sighting on the previous page
+     * @param afterId ID of the last sighting on the previous page
+     * @param pageable Page size limit, the page number is ignored
+     * @return The next page of matching sightings as DTOs
+     */
+    @Query(SELECT_SIGHTING_DTO + "WHERE " +
+           "(:birdName IS NULL OR LOWER(b.name) LIKE CONCAT('%', LOWER(:birdName), '%')) AND " +
+           "(:location IS NULL OR LOWER(s.location) LIKE CONCAT('%', LOWER(:location), '%')) AND " +
+           "s.sightingDate >= :startDate AND s.sightingDate <= :endDate AND " +
+           "s.sightingDate >= :afterDate AND " +
+           "(s.sightingDate > :afterDate OR s.id > :afterId) " +
+           "ORDER BY s.sightingDate, s.id")
+    List<SightingDTO> searchSightingsPageAfter(
+            @Param("birdName") String birdName,
+            @Param("location") String location,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+       );
+
+    /**
+     * Streams all sightings ordered by sighting date and ID.
+     * Rows are read through a forward-only cursor, {@value #STREAM_FETCH_SIZE} at a time,
+     * straight into DTOs, so memory use does not grow with the number of sightings.
+     * Must be called inside a transaction and the stream must be closed after use.
+     *
+     * @return A stream of all sightings as DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_SIGHTING_DTO + "ORDER BY s.sightingDate, s.id")
+    Stream<SightingDTO> streamAll();
+
+    /**
+     * Streams the sightings with coordinates sighted at or after the given time.
+     * Rows are read through a forward-only cursor, {@value #STREAM_FETCH_SIZE} at a time, straight into DTOs.
+     * Must be called inside a transaction and the stream must be closed after use.
+     *
+     * @param since Inclusive lower bound of the sighting date
+     * @return A stream of the recent sightings with coordinates as DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_SIGHTING_DTO + "WHERE s.sightingDate >= :since " +
+           "AND s.latitude IS NOT NULL AND s.longitude IS NOT NULL")
+    Stream<SightingDTO> streamWithCoordinatesSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Retrieves the keys of the page of sightings created or updated in the given time window
+     * that follows the given keyset position, ordered by last update time and ID.
+     *
+     * @param since Exclusive lower bound of the last update time
+     * @param until Inclusive upper bound of the last update time
+     * @param afterTime Last update time of the last sighting on the previous page
+     * @param afterId ID of the last sighting on the previous page
+     * @param pageable Page size limit, the page number is ignored
+     * @return The keys of the next page of changed sightings
+     */
+    @Query("SELECT new com.birdwatch.dto.SyncKey(s.updatedAt, s.id, s.id) FROM Sighting s " +
+           "WHERE s.updatedAt > :since AND s.updatedAt <= :until AND " +
+           "s.updatedAt >= :afterTime AND (s.updatedAt > :afterTime OR s.id > :afterId) " +
+           "ORDER BY s.updatedAt, s.id")
+    List<SyncKey> findChangedKeys(
+            @Param("since") LocalDateTime since,
+            @Param("until") LocalDateTime until,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+       );
+
+    /**
+     * Retrieves the sightings with the given IDs.
+     * Rows are selected straight into DTOs, without managed entities.
+     *
+     * @param ids The IDs of the sightings
+     * @return The found sightings as DTOs, in no particular order
+     */
+    @Query(SELECT_SIGHTING_DTO + "WHERE s.id IN :ids")
+    List<SightingDTO> findDTOsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the date of the oldest sighting before the given time.
+     *
+     * @param before Exclusive upper bound of the sighting date
+     * @return The oldest sighting date, null if no sighting is older
+     */
+    @Query("SELECT MIN(s.sightingDate) FROM Sighting s WHERE s.sightingDate < :before")
+    LocalDateTime findOldestSightingDateBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Streams the sightings of a sighting date window, ordered by sighting date and ID.
+     * Rows are read through a forward-only cursor, {@value #STREAM_FETCH_SIZE} at a time, straight into DTOs.
+     * Must be called inside a transaction and the stream must be closed after use.
+     *
+     * @param start Inclusive lower bound of the sighting date
+     * @param end Exclusive upper bound of the sighting date
+     * @return The sightings of the window as DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_SIGHTING_DTO + "WHERE s.sightingDate >= :start AND s.sightingDate < :end " +
+           "ORDER BY s.sightingDate, s.id")
+    Stream<SightingDTO> streamInDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Retrieves the bird, location and day the sighting with the given ID is stored with.
+     * Pending changes are not flushed first, so for a sighting modified in the current
+     * persistence context the stored values, under which it is counted in the daily rollup, are returned.
+     *
+     * @param id The ID of the sighting
+     * @return The daily rollup key of the stored sighting, empty if no sighting has the ID
+     */
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT new com.birdwatch.entity.SightingDailyRollupId(s.bird.id, s.location, s.sightingDate) " +
+           "FROM Sighting s WHERE s.id = :id")
+    Optional<SightingDailyRollupId> findRollupKey(@Param("id") Long id);
+
+    /**
+     * Checks whether the sightings table is range-partitioned by month, as done by migration
+     * 011_sightings_partitioning.sql.
+     *
+     * @return true if the sightings table is partitioned
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('sightings'))",
+           nativeQuery = true)
+    boolean isPartitioned();
+
+    /**
+     * Creates the missing monthly partitions of the sightings table, from the current month up to the given
+     * number of months ahead and for the months of the sightings stored in the default partition.
+     * Only valid on a partitioned sightings table; runs in a read-write transaction as it creates tables.
+     *
+     * @param monthsAhead Number of months after the current one to create partitions for
+     * @return The number of partitions created
+     */
+    @Transactional
+    @Query(value = "SELECT create_sighting_partitions(:monthsAhead)", nativeQuery = true)
+    int createPartitions(@Param("monthsAhead") int monthsAhead);
+
+    /**
+     * Locks the sightings table against reads and writes of other transactions until the end of the transaction.
+     * Taken before a partition is detached, which needs this lock, so the lock is never upgraded while
+     * other transactions wait for it.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE sightings IN ACCESS EXCLUSIVE MODE", nativeQuery = true)
+    void lockExclusively();
+
+    /**
+     * Removes the sightings of a month from the partitioned sightings table by detaching and dropping
+     * the partition of the month, as done by migration 012_sighting_archive.sql; sightings of the month
+     * in the default partition are deleted. Only valid on a partitioned sightings table.
+     *
+     * @param firstDay The first day of the month
+     * @return true if the partition of the month was dropped
+     */
+    @Query(value = "SELECT drop_sighting_month(:firstDay)", nativeQuery = true)
+    boolean dropMonth(@Param("firstDay") LocalDate firstDay);
+
+    /**
+     * Deletes the sighting with the given ID with a single DELETE statement, without loading it first.
+     *
+     * @param id The ID of the sighting to delete
+     * @return The number of deleted sightings, 0 if no sighting has the ID
+     */
+    @Modifying
+    @Query("DELETE FROM Sighting s WHERE s.id = :id")
+    int deleteSightingById(@Param("id") Long id);
+
+    /**
+     * Deletes the sightings with the given IDs and subtracts them from the daily rollup, in a single statement.
+     * Only the rows this statement deleted are subtracted, so a sighting deleted concurrently
+     * by another transaction is subtracted once.
+     *
+     * @param ids The IDs of the sightings to delete
+     * @return The IDs of the deleted sightings
+     */
+    @Transactional
+    @Query(value = "WITH deleted AS (DELETE FROM sightings WHERE id IN (:ids) " +
+           "RETURNING id, bird_id, location, sighting_date), " +
+           "uncounted AS (UPDATE sighting_daily_rollup r SET sighting_count = r.sighting_count - removed.n " +
+           "FROM (SELECT bird_id, location, CAST(sighting_date AS date) AS day, count(*) AS n FROM deleted " +
+           "GROUP BY bird_id, location, CAST(sighting_date AS date)) removed " +
+           "WHERE r.bird_id = removed.bird_id AND r.location = removed.location AND r.day = removed.day) " +
+           "SELECT id FROM deleted",
+           nativeQuery = true)
+    List<Long> deleteCountedSightingsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes all sightings of a bird with a single DELETE statement, however many there are.
+     *
+     * @param birdId The ID of the bird whose sightings are deleted
+     * @return The number of deleted sightings
+     */
+    @Modifying
+    @Query("DELETE FROM Sighting s WHERE s.bird.id = :birdId")
+    int deleteAllByBirdId(@Param("birdId") Long birdId);
+
+    /**
+     * Retrieves which of the given sighting IDs exist.
+     *
+     * @param ids The sighting IDs to look up
+     * @return The IDs of the existing sightings
+     */
+    @Query("SELECT s.id FROM Sighting s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves a page of the IDs of the sightings matching the bird name, location and sighting date window,
+     * with the same filters as searchSightingsPageAfter, ordered by ID.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @param afterId The last ID of the previous page, 0 for the first page
+     * @param pageable The page size; the page number must be 0
+     * @return The IDs of the matching sightings after the given ID
+     */
+    @Query("SELECT s.id FROM Sighting s JOIN s.bird b WHERE " +
+           "(:birdName IS NULL OR LOWER(b.name) LIKE CONCAT('%', LOWER(:birdName), '%')) AND " +
+           "(:location IS NULL OR LOWER(s.location) LIKE CONCAT('%', LOWER(:location), '%')) AND " +
+           "s.sightingDate >= :startDate AND s.sightingDate <= :endDate AND s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsMatchingAfter(
+            @Param("birdName") String birdName,
+            @Param("location") String location,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+       );
+
+    /**
+     * Deletes the sightings with the given IDs inside a sighting date window with a single DELETE statement.
+     * The date bounds let a partitioned sightings table only touch the partitions of the window.
+     *
+     * @param ids The IDs of the sightings to delete
+     * @param start Inclusive lower bound of the sighting date
+     * @param end Exclusive upper bound of the sighting date
+     * @return The number of deleted sightings
+     */
+    @Modifying
+    @Query("DELETE FROM Sighting s WHERE s.id IN :ids AND s.sightingDate >= :start AND s.sightingDate < :end")
+    int deleteSightingsByIdsInDateRange(
+            @Param("ids") Collection<Long> ids,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+       );
+
+    /**
+     * Deletes all sightings of the given birds with a single DELETE statement.
+     *
+     * @param birdIds The IDs of the birds whose sightings are deleted
+     * @return The number of deleted sightings
+     */
+    @Modifying
+    @Query("DELETE FROM Sighting s WHERE s.bird.id IN :birdIds")
+    int deleteAllByBirdIds(@Param("birdIds") Collection<Long> birdIds);
+}
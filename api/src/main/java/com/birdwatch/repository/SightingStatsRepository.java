@@ -0,0 +1,31 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.dto.SightingStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository fragment computing sighting counts with SQL aggregates.
+ * Part of the SightingRepository; the grouping is chosen per call, so the query is built
+ * from the requested dimensions instead of being declared with @Query.
+ */
+public interface SightingStatsRepository {
+
+    /**
+     * Counts the sightings matching the filters, grouped by the given dimensions.
+     * Only the group rows are read from the database, never the sightings themselves.
+     * Counts by day or coarser time buckets over whole days are summed from the daily rollup
+     * instead of counting the sightings table.
+     *
+     * @param groupBy The dimensions to group by, empty for a single total
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     * @return One row per group, holding the values of the dimension columns followed by the count
+     */
+    List<Object[]> countSightings(Set<SightingStats.Dimension> groupBy, String birdName, String location,
+            LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,155 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.dto.SightingStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of the SightingStatsRepository fragment.
+ * Builds the aggregate JPQL query from a fixed set of expressions per dimension, so no request
+ * value is ever part of the query text; filter values are bound as parameters.
+ * Time buckets are computed with PostgreSQL's date_trunc on the sighting date, and the bird
+ * is only joined when it is grouped or filtered by.
+ * When no hourly bucket is requested and the date bounds fall on whole days, the counts are summed
+ * from the sighting_daily_rollup table, which holds one row per bird, location and day
+ * instead of one per sighting.
+ */
+public class SightingStatsRepositoryImpl implements SightingStatsRepository {
+
+    /**
+     * Earliest time of day an end date may have for the rollup to count its whole day:
+     * the last microsecond, the precision sighting dates are stored with.
+     */
+    private static final LocalTime LAST_MICROSECOND_OF_DAY = LocalTime.MAX.truncatedTo(ChronoUnit.MICROS);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> countSightings(Set<SightingStats.Dimension> groupBy, String birdName, String location,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        Set<SightingStats.Dimension> dimensions = groupBy.isEmpty()
+            ? EnumSet.noneOf(SightingStats.Dimension.class) : EnumSet.copyOf(groupBy);
+        boolean fromRollup = coveredByRollup(dimensions, startDate, endDate);
+        String alias = fromRollup ? "r" : "s";
+
+        List<String> groupExpressions = new ArrayList<>();
+        for (SightingStats.Dimension dimension : dimensions) {
+            groupExpressions.addAll(expressionsOf(dimension, fromRollup));
+        }
+
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (birdName != null && !birdName.isEmpty()) {
+            conditions.add("LOWER(b.name) LIKE CONCAT('%', LOWER(:birdName), '%')");
+            parameters.put("birdName", birdName);
+        }
+        if (location != null && !location.isEmpty()) {
+            conditions.add("LOWER(" + alias + ".location) LIKE CONCAT('%', LOWER(:location), '%')");
+            parameters.put("location", location);
+        }
+        if (startDate != null) {
+            conditions.add(fromRollup ? "r.day >= :startDate" : "s.sightingDate >= :startDate");
+            parameters.put("startDate", fromRollup ? startDate.toLocalDate() : startDate);
+        }
+        if (endDate != null) {
+            conditions.add(fromRollup ? "r.day <= :endDate" : "s.sightingDate <= :endDate");
+            parameters.put("endDate", fromRollup ? endDate.toLocalDate() : endDate);
+        }
+
+        boolean joinBird = dimensions.contains(SightingStats.Dimension.BIRD) || parameters.containsKey("birdName");
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        groupExpressions.forEach(expression -> jpql.append(expression).append(", "));
+        if (fromRollup) {
+            jpql.append("SUM(r.sightingCount) FROM SightingDailyRollup r");
+            if (joinBird) {
+                jpql.append(" JOIN Bird b ON b.id = r.birdId");
+            }
+        } else {
+            jpql.append("COUNT(s) FROM Sighting s");
+            if (joinBird) {
+                jpql.append(" JOIN s.bird b");
+            }
+        }
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (!groupExpressions.isEmpty()) {
+            String groups = String.join(", ", groupExpressions);
+            jpql.append(" GROUP BY ").append(groups);
+            if (fromRollup) {
+                // Counts that dropped to zero stay in the rollup until the next compaction
+                jpql.append(" HAVING SUM(r.sightingCount) > 0");
+            }
+            jpql.append(" ORDER BY ").append(groups);
+        }
+
+        Query query = entityManager.createQuery(jpql.toString());
+        parameters.forEach(query::setParameter);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Object result : query.getResultList()) {
+            Object[] row = result instanceof Object[] ? (Object[]) result : new Object[] { result };
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] instanceof Timestamp) {
+                    row[i] = ((Timestamp) row[i]).toLocalDateTime();
+                }
+            }
+            // The sum over no rollup rows is null where the count over no sightings is 0
+            if (row[row.length - 1] == null) {
+                row[row.length - 1] = 0L;
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Checks whether the counts can be summed from the daily rollup: every time bucket spans whole days
+     * and the date bounds include whole days, starting at midnight and ending in the last microsecond of a day.
+     * An end date of 23:59:59 does not qualify, as it excludes the sightings later in that second.
+     *
+     * @param dimensions The dimensions to group by
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     * @return true if the daily rollup gives the same counts as the sightings table
+     */
+    static boolean coveredByRollup(Set<SightingStats.Dimension> dimensions,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        return !dimensions.contains(SightingStats.Dimension.HOUR)
+            && (startDate == null || startDate.toLocalTime().equals(LocalTime.MIDNIGHT))
+            && (endDate == null || !endDate.toLocalTime().isBefore(LAST_MICROSECOND_OF_DAY));
+    }
+
+    /**
+     * Gets the JPQL expressions selecting and grouping the values of a dimension,
+     * one per column of the dimension.
+     *
+     * @param dimension The dimension
+     * @param fromRollup Whether the counts are summed from the daily rollup
+     * @return The expressions, over the sighting s or the rollup r, and the bird b
+     */
+    private static List<String> expressionsOf(SightingStats.Dimension dimension, boolean fromRollup) {
+        switch (dimension) {
+            case BIRD:
+                return List.of("b.id", "b.name");
+            case LOCATION:
+                return List.of(fromRollup ? "r.location" : "s.location");
+            default:
+                return List.of("date_trunc('" + dimension.getParameterName() + "', "
+                    + (fromRollup ? "CAST(r.day AS timestamp)" : "s.sightingDate") + ")");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.dto.SyncKey;
+import com.birdwatch.entity.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for Tombstone entities.
+ * Provides the deletions of birds and sightings for the delta sync.
+ */
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+    /**
+     * Retrieves the keys of the page of deletions of the given kind in the given time window
+     * that follows the given keyset position, ordered by deletion time and tombstone ID.
+     *
+     * @param entityType The kind of the deleted entities
+     * @param since Exclusive lower bound of the deletion time
+     * @param until Inclusive upper bound of the deletion time
+     * @param afterTime Deletion time of the last deletion on the previous page
+     * @param afterId Tombstone ID of the last deletion on the previous page
+     * @param pageable Page size limit, the page number is ignored
+     * @return The keys of the next page of deletions, carrying the IDs of the deleted entities
+     */
+    @Query("SELECT new com.birdwatch.dto.SyncKey(t.deletedAt, t.id, t.entityId) FROM Tombstone t " +
+           "WHERE t.entityType = :entityType AND t.deletedAt > :since AND t.deletedAt <= :until AND " +
+           "t.deletedAt >= :afterTime AND (t.deletedAt > :afterTime OR t.id > :afterId) " +
+           "ORDER BY t.deletedAt, t.id")
+    List<SyncKey> findDeletedKeys(
+            @Param("entityType") Tombstone.EntityType entityType,
+            @Param("since") LocalDateTime since,
+            @Param("until") LocalDateTime until,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+       );
+
+    /**
+     * Records the deletion of the sightings with the given IDs with a single INSERT statement.
+     *
+     * @param ids The IDs of the deleted sightings
+     * @param deletedAt The time of the deletion
+     * @return The number of recorded tombstones
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tombstones (id, entity_type, entity_id, deleted_at) " +
+           "SELECT nextval('tombstones_id_seq'), 'SIGHTING', s.id, :deletedAt FROM sightings s " +
+           "WHERE s.id IN (:ids)",
+           nativeQuery = true)
+    int insertSightingTombstones(@Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Records the deletion of every sighting of a sighting date window with a single INSERT statement.
+     *
+     * @param start Inclusive lower bound of the sighting date
+     * @param end Exclusive upper bound of the sighting date
+     * @param deletedAt The time of the deletion
+     * @return The number of recorded tombstones
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tombstones (id, entity_type, entity_id, deleted_at) " +
+           "SELECT nextval('tombstones_id_seq'), 'SIGHTING', s.id, :deletedAt FROM sightings s " +
+           "WHERE s.sighting_date >= :start AND s.sighting_date < :end",
+           nativeQuery = true)
+    int insertSightingTombstonesInDateRange(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("deletedAt") LocalDateTime deletedAt
+       );
+}
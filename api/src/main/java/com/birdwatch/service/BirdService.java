@@ -1,23 +1,75 @@
 package com.birdwatch.service;
 
+import com.birdwatch.dto.BirdDTO;
 import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Tombstone;
 import com.birdwatch.repository.BirdRepository;
+import com.birdwatch.repository.SightingRepository;
+import com.birdwatch.repository.TombstoneRepository;
+import com.birdwatch.utils.Chunks;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.birdwatch.utils.TransactionCallbacks;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing bird-related operations.
  * Handles business logic for bird CRUD operations and searching.
+ * Lookups by ID are served from an in-process cache. A saved or deleted bird is evicted from it
+ * once the write has committed, so a lookup running concurrently cannot cache the old row again.
+ * Writes are reported to the DataVersionService so that listing entity tags change,
+ * and to the SightingGeoIndexService and SightingAnalyticsService so that their sightings show the current birds.
  */
 @Service
 public class BirdService {
+
+    /**
+     * ID preceding every bird, used to request the first page.
+     */
+    static final long FIRST_PAGE = 0L;
+
+    /**
+     * Cache of birds by ID.
+     */
+    static final String BIRD_CACHE = "birds";
     
     @Autowired
     private BirdRepository birdRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private SightingEventService sightingEventService;
+
+    @Autowired
+    private SightingRollupService sightingRollupService;
+
+    @Autowired
+    private SightingGeoIndexService sightingGeoIndexService;
+
+    @Autowired
+    private SightingAnalyticsService sightingAnalyticsService;
+
     /**
      * Retrieves all birds from the database.
      *
@@ -27,16 +79,41 @@ public class BirdService {
         return birdRepository.findAll();
     }
 
+    /**
+     * Retrieves a page of birds ordered by ID.
+     * Birds are read straight into DTOs in a read-only transaction.
+     *
+     * @param afterId ID of the last bird on the previous page, or null for the first page
+     * @param limit Maximum number of birds to return
+     * @return The requested page of birds as DTOs
+     */
+    @Transactional(readOnly = true)
+    public List<BirdDTO> findPage(Long afterId, int limit) {
+        return birdRepository.findPageAfter(afterId != null ? afterId : FIRST_PAGE, PageRequest.of(0, limit));
+    }
+
     /**
      * Retrieves a specific bird by its ID.
      *
      * @param id The ID of the bird to retrieve
      * @return Optional containing the bird if found, empty if not found
      */
+    @Cacheable(cacheNames = BIRD_CACHE, unless = "#result == null")
     public Optional<Bird> findById(Long id) {
         return birdRepository.findById(id);
     }
 
+    /**
+     * Retrieves the birds with the given IDs using a single query.
+     * IDs without a matching bird are ignored.
+     *
+     * @param ids The IDs of the birds to retrieve
+     * @return A list of the birds found
+     */
+    public List<Bird> findAllById(Collection<Long> ids) {
+        return birdRepository.findAllById(ids);
+    }
+
     /**
      * Saves a bird to the database.
      *
@@ -44,16 +121,72 @@ public class BirdService {
      * @return The saved bird entity
      */
     public Bird save(Bird bird) {
-        return birdRepository.save(bird);
+        Bird saved = birdRepository.save(bird);
+        evictAfterCommit(List.of(saved.getId()));
+        sightingGeoIndexService.birdSaved(saved);
+        sightingAnalyticsService.birdSaved(saved);
+        dataVersionService.birdsChanged();
+        return saved;
     }
 
     /**
-     * Deletes a bird by its ID.
+     * Deletes a bird by its ID, together with its sightings.
+     * The sightings and the bird are each removed with one DELETE statement, without loading
+     * either into the persistence context.
+     * A tombstone is recorded in the same transaction so the delta sync reports the deletion.
      *
      * @param id The ID of the bird to delete
+     * @return true if the bird was deleted, false if no bird has the ID
+     */
+    @Transactional
+    public boolean deleteById(Long id) {
+        sightingRollupService.birdsDeleted(List.of(id));
+        sightingRepository.deleteAllByBirdId(id);
+        if (birdRepository.deleteBirdById(id) == 0) {
+            return false;
+        }
+        tombstoneRepository.save(new Tombstone(Tombstone.EntityType.BIRD, id));
+        evictAfterCommit(List.of(id));
+        sightingGeoIndexService.birdsDeleted(List.of(id));
+        sightingAnalyticsService.birdsDeleted(List.of(id));
+        dataVersionService.birdsChanged();
+        sightingEventService.birdDeleted(id);
+        return true;
+    }
+
+    /**
+     * Deletes the birds with the given IDs, together with their sightings; IDs without a bird are ignored.
+     * The sightings and the birds are each removed with one DELETE statement per
+     * {@value Chunks#MAX_CHUNK_SIZE} birds, without loading any of them.
+     *
+     * @param ids The IDs of the birds to delete
+     * @return The number of deleted birds
      */
-    public void deleteById(Long id) {
-        birdRepository.deleteById(id);
+    @Transactional
+    public int deleteAllById(Collection<Long> ids) {
+        List<Long> existing = new ArrayList<>();
+        int deleted = 0;
+        for (List<Long> chunk : Chunks.of(new ArrayList<>(ids))) {
+            List<Long> found = birdRepository.findExistingIds(chunk);
+            if (!found.isEmpty()) {
+                sightingRollupService.birdsDeleted(found);
+                sightingRepository.deleteAllByBirdIds(found);
+                deleted += birdRepository.deleteBirdsByIds(found);
+                existing.addAll(found);
+            }
+        }
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        tombstoneRepository.saveAll(existing.stream()
+            .map(id -> new Tombstone(Tombstone.EntityType.BIRD, id))
+            .collect(Collectors.toList()));
+        evictAfterCommit(existing);
+        sightingGeoIndexService.birdsDeleted(existing);
+        sightingAnalyticsService.birdsDeleted(existing);
+        dataVersionService.birdsChanged();
+        sightingEventService.birdsDeleted(existing);
+        return deleted;
     }
 
     /**
@@ -66,4 +199,40 @@ public class BirdService {
     public List<Bird> searchBirds(String name, String color) {
         return birdRepository.searchBirds(name, color);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Searches for a page of birds based on name and/or color, ordered by ID.
+     * Birds are read straight into DTOs in a read-only transaction.
+     *
+     * @param name Optional parameter to filter birds by name
+     * @param color Optional parameter to filter birds by color
+     * @param afterId ID of the last bird on the previous page, or null for the first page
+     * @param limit Maximum number of birds to return
+     * @return The requested page of matching birds as DTOs
+     */
+    @Transactional(readOnly = true)
+    public List<BirdDTO> searchBirdsPage(String name, String color, Long afterId, int limit) {
+        return birdRepository.searchBirdsPageAfter(
+            name,
+            color,
+            afterId != null ? afterId : FIRST_PAGE,
+            PageRequest.of(0, limit)
+        );
+    }
+
+    /**
+     * Evicts birds from the cache once the current transaction has committed, or now without a transaction.
+     * Evicting earlier would let a concurrent lookup cache the row that is still visible until the commit.
+     *
+     * @param ids The IDs of the saved or deleted birds
+     */
+    private void evictAfterCommit(Collection<Long> ids) {
+        List<Long> evicted = new ArrayList<>(ids);
+        TransactionCallbacks.afterCommit(() -> {
+            Cache cache = cacheManager.getCache(BIRD_CACHE);
+            if (cache != null) {
+                evicted.forEach(cache::evict);
+            }
+        });
+    }
+}
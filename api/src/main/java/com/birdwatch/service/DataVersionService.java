@@ -0,0 +1,61 @@
+package com.birdwatch.service;
+
+import com.birdwatch.utils.TransactionCallbacks;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service keeping a version counter for the bird and sighting data.
+ * The counters are increased whenever birds or sightings are written and are used to build
+ * the entity tags of the listing endpoints, so an unchanged listing can be recognized
+ * without reading it from the database.
+ * Tags start with the time the application started, so tags handed out before a restart
+ * never match again.
+ */
+@Service
+public class DataVersionService {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong birdsVersion = new AtomicLong();
+
+    private final AtomicLong sightingsVersion = new AtomicLong();
+
+    /**
+     * Records that birds were created, updated or deleted.
+     * Inside a transaction the version is increased once the transaction has committed,
+     * so a new tag is never handed out together with data read before the change.
+     */
+    public void birdsChanged() {
+        TransactionCallbacks.afterCommit(birdsVersion::incrementAndGet);
+    }
+
+    /**
+     * Records that sightings were created, updated or deleted.
+     * Inside a transaction the version is increased once the transaction has committed,
+     * so a new tag is never handed out together with data read before the change.
+     */
+    public void sightingsChanged() {
+        TransactionCallbacks.afterCommit(sightingsVersion::incrementAndGet);
+    }
+
+    /**
+     * Builds the entity tag of the current bird data.
+     *
+     * @return The quoted entity tag, changed by every bird write
+     */
+    public String getBirdsTag() {
+        return "\"" + epoch + "-" + birdsVersion.get() + "\"";
+    }
+
+    /**
+     * Builds the entity tag of the current sighting data.
+     * Sightings are returned together with their birds, so bird writes change the tag as well.
+     *
+     * @return The quoted entity tag, changed by every sighting or bird write
+     */
+    public String getSightingsTag() {
+        return "\"" + epoch + "-" + birdsVersion.get() + "-" + sightingsVersion.get() + "\"";
+    }
+}
@@ -0,0 +1,384 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SightingStats;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.repository.SightingRepository;
+import com.birdwatch.utils.SightingColumns;
+import com.birdwatch.utils.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service keeping an in-memory columnar snapshot of all sightings for ad hoc analytics,
+ * so counts by bird, location and time bucket are computed without a query and without
+ * loading a Sighting entity or DTO per sighting.
+ * The birds, locations and sighting dates are held off-heap in a SightingColumns store, which
+ * filters and groups them with tight loops over primitive columns; birds are stored as dense int codes,
+ * and only the dictionary of bird IDs and names by code is kept on the heap.
+ * Sighting dates are stored to the second.
+ * The snapshot is loaded once the application has started and follows sighting and bird writes
+ * once their transaction has committed. Writes committed while the snapshot is loading are held back
+ * and applied after the load, so the load cannot bring back a deleted sighting or an old bird name.
+ * Until the first load has completed the snapshot is partial, see isLoaded.
+ */
+@Service
+public class SightingAnalyticsService {
+
+    private static final LocalDateTime MIN_SIGHTING_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    private static final LocalDateTime MAX_SIGHTING_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * Number of loaded sightings added to the snapshot per acquisition of the write lock,
+     * so counts and committed writes are not held up for the whole load.
+     */
+    static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final SightingColumns columns = new SightingColumns();
+
+    private final Map<Long, Integer> birdCodes = new HashMap<>();
+
+    private final List<Long> birdIds = new ArrayList<>();
+
+    private final List<String> birdNames = new ArrayList<>();
+
+    /**
+     * Writes committed during a load, to be applied after it; null when no load is running.
+     */
+    private List<Runnable> heldBackWrites;
+
+    /**
+     * Whether a load has completed, so the snapshot holds every sighting.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Loads all sightings once the application has started, {@value #LOAD_BATCH_SIZE} at a time.
+     * Sightings already in the snapshot are not replaced; writes committed during the load are applied after it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        write(() -> heldBackWrites = new ArrayList<>());
+        boolean complete = false;
+        try (Stream<SightingDTO> all = sightingRepository.streamAll()) {
+            List<SightingDTO> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            all.forEach(sighting -> {
+                batch.add(sighting);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    addLoaded(batch);
+                    batch.clear();
+                }
+            });
+            addLoaded(batch);
+            complete = true;
+        } finally {
+            boolean completed = complete;
+            write(() -> {
+                heldBackWrites.forEach(Runnable::run);
+                heldBackWrites = null;
+                loaded = loaded || completed;
+            });
+        }
+    }
+
+    /**
+     * Checks whether the snapshot has been loaded. Before, it only holds part of the sightings
+     * and its counts are too low.
+     *
+     * @return true once a load has completed
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Adds or updates a saved sighting once the current transaction has committed.
+     *
+     * @param sighting The saved sighting
+     */
+    public void saved(Sighting sighting) {
+        saved(List.of(sighting));
+    }
+
+    /**
+     * Adds or updates saved sightings once the current transaction has committed.
+     *
+     * @param saved The saved sightings
+     */
+    public void saved(List<Sighting> saved) {
+        List<SightingDTO> dtos = saved.stream().map(SightingEventService::toDTO).collect(Collectors.toList());
+        writeAfterCommit(() -> dtos.forEach(this::add));
+    }
+
+    /**
+     * Removes deleted or archived sightings once the current transaction has committed.
+     *
+     * @param ids The IDs of the removed sightings
+     */
+    public void deleted(Collection<Long> ids) {
+        List<Long> deleted = new ArrayList<>(ids);
+        writeAfterCommit(() -> deleted.forEach(columns::remove));
+    }
+
+    /**
+     * Updates the name of a saved bird once the current transaction has committed.
+     *
+     * @param bird The saved bird
+     */
+    public void birdSaved(Bird bird) {
+        Long birdId = bird.getId();
+        String name = bird.getName();
+        writeAfterCommit(() -> birdNames.set(codeOf(birdId), name));
+    }
+
+    /**
+     * Removes the sightings of deleted birds once the current transaction has committed.
+     *
+     * @param birdIds The IDs of the deleted birds
+     */
+    public void birdsDeleted(Collection<Long> birdIds) {
+        List<Long> deleted = new ArrayList<>(birdIds);
+        writeAfterCommit(() -> {
+            BitSet codes = new BitSet();
+            for (Long birdId : deleted) {
+                Integer code = birdCodes.remove(birdId);
+                if (code != null) {
+                    codes.set(code);
+                    birdNames.set(code, null);
+                }
+            }
+            columns.removeBirds(codes);
+        });
+    }
+
+    /**
+     * Counts the sightings matching the filters, grouped by bird, location and/or time bucket,
+     * with the same columns and rows as the statistics computed by the database.
+     *
+     * @param groupBy The dimensions to group by, empty for a single total
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     * @return The column names and one row of values per group, ordered by the grouped values
+     */
+    public SightingStats count(Set<SightingStats.Dimension> groupBy, String birdName, String location,
+                               LocalDateTime startDate, LocalDateTime endDate) {
+        List<String> names = new ArrayList<>();
+        for (SightingStats.Dimension dimension : SightingStats.Dimension.values()) {
+            if (groupBy.contains(dimension)) {
+                names.addAll(dimension.getColumns());
+            }
+        }
+        names.add(SightingStats.COUNT_COLUMN);
+
+        long fromSecond = (startDate != null ? startDate : MIN_SIGHTING_DATE).toEpochSecond(ZoneOffset.UTC);
+        long toSecond = (endDate != null ? endDate : MAX_SIGHTING_DATE).toEpochSecond(ZoneOffset.UTC);
+        List<Object[]> rows = read(() -> {
+            BitSet birds = birdName != null && !birdName.isEmpty() ? matchBirds(birdName) : null;
+            BitSet locations = location != null && !location.isEmpty() ? columns.matchLocations(location) : null;
+            SightingColumns.Groups groups = columns.count(groupBy, birds, locations, fromSecond, toSecond);
+
+            List<Object[]> values = new ArrayList<>(groups.size());
+            for (int group = 0; group < groups.size(); group++) {
+                values.add(toRow(groups, group, groupBy));
+            }
+            return values;
+        });
+        rows.sort(byGroupedValues(names.size() - 1));
+        return new SightingStats(names, rows);
+    }
+
+    /**
+     * Gets the number of sightings in the snapshot.
+     *
+     * @return The number of sightings
+     */
+    public int size() {
+        return read(columns::size);
+    }
+
+    /**
+     * Adds a batch of loaded sightings under one acquisition of the write lock,
+     * leaving sightings already in the snapshot unchanged.
+     *
+     * @param batch The loaded sightings
+     */
+    private void addLoaded(List<SightingDTO> batch) {
+        write(() -> {
+            for (SightingDTO sighting : batch) {
+                if (!columns.contains(sighting.getId())) {
+                    add(sighting);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds or replaces a sighting in the snapshot; the write lock must be held.
+     *
+     * @param sighting The sighting
+     */
+    private void add(SightingDTO sighting) {
+        int birdCode = codeOf(sighting.getBird().getId());
+        birdNames.set(birdCode, sighting.getBird().getName());
+        columns.put(sighting.getId(), birdCode, sighting.getLocation(),
+            sighting.getSightingDate().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Gets the dense code of a bird, assigning the next one if the bird is new; the write lock must be held.
+     * Codes of deleted birds are not reused, as the dictionary only grows with distinct birds.
+     *
+     * @param birdId The ID of the bird
+     * @return The bird code
+     */
+    private int codeOf(Long birdId) {
+        return birdCodes.computeIfAbsent(birdId, added -> {
+            birdIds.add(added);
+            birdNames.add(null);
+            return birdIds.size() - 1;
+        });
+    }
+
+    /**
+     * Finds the birds whose name contains a text, ignoring case; the read lock must be held.
+     *
+     * @param text The text the name must contain
+     * @return The codes of the matching birds
+     */
+    private BitSet matchBirds(String text) {
+        String pattern = text.toLowerCase(Locale.ROOT);
+        BitSet matching = new BitSet();
+        for (int code = 0; code < birdNames.size(); code++) {
+            String name = birdNames.get(code);
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(pattern)) {
+                matching.set(code);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Converts a counted group to a row of values; the read lock must be held.
+     *
+     * @param groups The counted groups
+     * @param group The group
+     * @param groupBy The dimensions grouped by
+     * @return The values of the grouped dimensions in column order, followed by the count
+     */
+    private Object[] toRow(SightingColumns.Groups groups, int group, Set<SightingStats.Dimension> groupBy) {
+        List<Object> row = new ArrayList<>();
+        for (SightingStats.Dimension dimension : SightingStats.Dimension.values()) {
+            if (!groupBy.contains(dimension)) {
+                continue;
+            }
+            switch (dimension) {
+                case BIRD:
+                    row.add(birdIds.get(groups.getBirdCode(group)));
+                    row.add(birdNames.get(groups.getBirdCode(group)));
+                    break;
+                case LOCATION:
+                    row.add(columns.getLocation(groups.getLocationCode(group)));
+                    break;
+                default:
+                    row.add(LocalDateTime.ofEpochSecond(groups.getBucket(group), 0, ZoneOffset.UTC));
+            }
+        }
+        row.add(groups.getCount(group));
+        return row.toArray();
+    }
+
+    /**
+     * Orders rows by their grouped values, column by column.
+     *
+     * @param groupedColumns The number of grouped values in front of the count
+     * @return The comparator
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object[]> byGroupedValues(int groupedColumns) {
+        return (a, b) -> {
+            for (int i = 0; i < groupedColumns; i++) {
+                int compared = ((Comparable) a[i]).compareTo(b[i]);
+                if (compared != 0) {
+                    return compared;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Applies a write to the snapshot once the current transaction has committed,
+     * or after the running load if the snapshot is being loaded.
+     *
+     * @param change The change to the snapshot
+     */
+    private void writeAfterCommit(Runnable change) {
+        TransactionCallbacks.afterCommit(() -> write(() -> {
+            if (heldBackWrites != null) {
+                heldBackWrites.add(change);
+            } else {
+                change.run();
+            }
+        }));
+    }
+
+    /**
+     * Runs an action under the write lock.
+     *
+     * @param action The action
+     */
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Computes a result under the read lock.
+     *
+     * @param reader The computation
+     * @param <T> The type of the result
+     * @return The result
+     */
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingCursor;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.repository.SightingRepository;
+import com.birdwatch.repository.TombstoneRepository;
+import com.birdwatch.utils.Chunks;
+import com.birdwatch.utils.SightingArchiveFile;
+import com.birdwatch.utils.SyncWatermark;
+import com.birdwatch.utils.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service moving old sightings out of the sightings table into compressed archive files, one per month,
+ * and searching the archived sightings.
+ * A scheduled job archives every month that ended more than birdwatch.archive.retention-days days ago:
+ * its sightings are streamed into a SightingArchiveFile in birdwatch.archive.directory, then removed from
+ * the sightings table, by dropping the month's partition where the table is partitioned, and from the
+ * daily rollup in one transaction, so the table only holds recent history. Archived sightings get
+ * tombstones for the delta sync and event stream subscribers are told to reload.
+ * Sightings added to an archived month later are merged into its file by the next run.
+ * Archived sightings are read-only; they are found by the sighting search when its date range reaches
+ * into an archived month, and statistics and the other endpoints only cover the sightings table. Archived sightings of deleted
+ * birds are skipped.
+ * Decoded archive files are kept in a cache of at most birdwatch.archive.cache-max-rows sightings,
+ * so searches over the same months do not read and decompress their files again.
+ */
+@Service
+public class SightingArchiveService {
+
+    private static final Pattern FILE_NAME = Pattern.compile("sightings-(\\d{4})-(\\d{2})\\.bwa\\.gz");
+
+    @Value("${birdwatch.archive.directory:archive}")
+    private String directory;
+
+    @Value("${birdwatch.archive.retention-days:730}")
+    private int retentionDays;
+
+    @Value("${birdwatch.archive.cache-max-rows:1000000}")
+    private long cacheMaxRows;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private SightingRollupService sightingRollupService;
+
+    @Autowired
+    private SightingGeoIndexService sightingGeoIndexService;
+
+    @Autowired
+    private SightingAnalyticsService sightingAnalyticsService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private SightingEventService sightingEventService;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Set<YearMonth> archivedMonths = new ConcurrentSkipListSet<>();
+
+    private Cache<YearMonth, SightingArchiveFile> archives;
+
+    /**
+     * Creates the archive directory if needed, lists the months already archived in it
+     * and empties the cache of decoded archive files.
+     *
+     * @throws IOException if the directory cannot be created or listed
+     */
+    @PostConstruct
+    public void loadArchivedMonths() throws IOException {
+        Files.createDirectories(Paths.get(directory));
+        if (archives == null) {
+            archives = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxRows)
+                .weigher((YearMonth month, SightingArchiveFile archive) -> archive.size())
+                .build();
+        }
+        archives.invalidateAll();
+        archivedMonths.clear();
+        try (Stream<Path> files = Files.list(Paths.get(directory))) {
+            files.forEach(file -> {
+                Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    archivedMonths.add(YearMonth.of(Integer.parseInt(name.group(1)), Integer.parseInt(name.group(2))));
+                }
+            });
+        }
+    }
+
+    /**
+     * Archives the sightings of every month that ended more than the retention period ago, oldest month first.
+     * Runs on the schedule of the birdwatch.archive.cron setting.
+     *
+     * @return The number of sightings archived
+     */
+    @Scheduled(cron = "${birdwatch.archive.cron:0 0 4 * * *}")
+    public int archiveExpired() {
+        LocalDateTime horizon = YearMonth.from(LocalDate.now().minusDays(retentionDays)).atDay(1).atStartOfDay();
+        int archived = 0;
+        LocalDateTime oldest;
+        while ((oldest = sightingRepository.findOldestSightingDateBefore(horizon)) != null) {
+            archived += archiveMonth(YearMonth.from(oldest));
+        }
+        return archived;
+    }
+
+    /**
+     * Moves the sightings of a month to its archive file in one transaction.
+     * The sightings are streamed from the table into the columns of the file, which is written to a staging
+     * path and only replaces the archive file of the month once the transaction has committed; if the
+     * transaction rolls back, the staged file is deleted and the sightings stay in the table only.
+     * On a partitioned sightings table, the table is locked exclusively before the month is read, as
+     * dropping its partition needs that lock and upgrading a weaker lock could deadlock with requests that
+     * read and then write sightings; other requests wait while the month is archived. Otherwise the
+     * archived sightings are deleted by ID.
+     * Tombstones are recorded for the archived sightings so the delta sync removes them from clients,
+     * and event stream subscribers are told to reload.
+     *
+     * @param month The month
+     * @return The number of sightings archived
+     */
+    private int archiveMonth(YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        return transactionTemplate.execute(status -> {
+            boolean partitioned = sightingRepository.isPartitioned();
+            if (partitioned) {
+                sightingRepository.lockExclusively();
+            }
+
+            SightingArchiveFile.Builder builder = new SightingArchiveFile.Builder();
+            try (Stream<SightingDTO> sightings = sightingRepository.streamInDateRange(start, end)) {
+                sightings.forEach(builder::add);
+            }
+            SightingArchiveFile added = builder.build();
+            try {
+                stage(month, added);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            List<Long> ids = added.getIds();
+            LocalDateTime deletedAt = SyncWatermark.stamp();
+            if (partitioned) {
+                tombstoneRepository.insertSightingTombstonesInDateRange(start, end, deletedAt);
+                sightingRollupService.daysRemoved(start.toLocalDate(), end.toLocalDate());
+                sightingRepository.dropMonth(month.atDay(1));
+            } else {
+                sightingRollupService.removed(ids);
+                for (List<Long> chunk : Chunks.of(ids)) {
+                    tombstoneRepository.insertSightingTombstones(chunk, deletedAt);
+                    sightingRepository.deleteSightingsByIdsInDateRange(chunk, start, end);
+                }
+            }
+            sightingGeoIndexService.deleted(ids);
+            sightingAnalyticsService.deleted(ids);
+            dataVersionService.sightingsChanged();
+            sightingEventService.resyncAll();
+            return added.size();
+        });
+    }
+
+    /**
+     * Writes the archive file of a month with the given sightings and those it already holds to a staging
+     * path, and publishes it in place of the month's archive file once the current transaction has committed.
+     * The staged file is deleted if the transaction rolls back.
+     *
+     * @param month The month
+     * @param added The sightings to add, replacing archived sightings with the same ID
+     * @throws IOException if the file cannot be read or written
+     */
+    private void stage(YearMonth month, SightingArchiveFile added) throws IOException {
+        Path file = fileOf(month);
+        Path staged = file.resolveSibling(file.getFileName() + ".staged");
+        SightingArchiveFile merged = Files.exists(file)
+            ? SightingArchiveFile.merge(SightingArchiveFile.read(file), added)
+            : added;
+        merged.write(staged);
+
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            archives.invalidate(month);
+            archivedMonths.add(month);
+        });
+        TransactionCallbacks.afterRollback(() -> {
+            try {
+                Files.deleteIfExists(staged);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Checks whether a sighting date window overlaps an archived month.
+     *
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @return true if archived sightings may fall into the window
+     */
+    public boolean covers(LocalDateTime startDate, LocalDateTime endDate) {
+        return !months(startDate, endDate).isEmpty();
+    }
+
+    /**
+     * Searches for a page of archived sightings with the filters of the sighting search,
+     * ordered by sighting date and ID.
+     * Only the archive files of the months overlapping the date window after the cursor are read, and
+     * only from the first sighting of the window on.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @param area Optional area the sightings' coordinates must lie in
+     * @param after Cursor of the last sighting on the previous page
+     * @param limit Maximum number of sightings to return
+     * @return The requested page of matching archived sightings as DTOs
+     */
+    public List<SightingDTO> search(String birdName, String location, LocalDateTime startDate, LocalDateTime endDate,
+                                    GeoArea area, SightingCursor after, int limit) {
+        LocalDateTime from = after.getSightingDate().isAfter(startDate) ? after.getSightingDate() : startDate;
+        String birdNamePattern = birdName != null ? birdName.toLowerCase(Locale.ROOT) : null;
+        String locationPattern = location != null ? location.toLowerCase(Locale.ROOT) : null;
+        Map<Long, BirdDTO> birds = new HashMap<>();
+
+        List<SightingDTO> found = new ArrayList<>();
+        for (YearMonth month : months(from, endDate)) {
+            SightingArchiveFile archive = readArchive(month);
+            List<Integer> rows = new ArrayList<>();
+            for (int row = archive.firstRowFrom(from); row < archive.size(); row++) {
+                LocalDateTime sightingDate = archive.getSightingDate(row);
+                if (sightingDate.isAfter(endDate)) {
+                    break;
+                }
+                if (sightingDate.isEqual(after.getSightingDate()) && archive.getId(row) <= after.getId()) {
+                    continue;
+                }
+                if (locationPattern != null && !archive.getLocation(row).toLowerCase(Locale.ROOT).contains(locationPattern)) {
+                    continue;
+                }
+                if (area != null && !(archive.hasCoordinates(row)
+                        && area.contains(archive.getLatitude(row), archive.getLongitude(row)))) {
+                    continue;
+                }
+                rows.add(row);
+            }
+
+            loadBirds(rows.stream().map(archive::getBirdId).collect(Collectors.toSet()), birds);
+            for (int row : rows) {
+                BirdDTO bird = birds.get(archive.getBirdId(row));
+                if (bird == null || (birdNamePattern != null
+                        && !bird.getName().toLowerCase(Locale.ROOT).contains(birdNamePattern))) {
+                    continue;
+                }
+                found.add(archive.toDTO(row, bird));
+                if (found.size() == limit) {
+                    return found;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets the archived months overlapping a sighting date window, in order.
+     *
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @return The archived months of the window
+     */
+    private List<YearMonth> months(LocalDateTime startDate, LocalDateTime endDate) {
+        YearMonth first = YearMonth.from(startDate);
+        YearMonth last = YearMonth.from(endDate);
+        return archivedMonths.stream()
+            .filter(month -> !month.isBefore(first) && !month.isAfter(last))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Adds the birds with the given IDs that are not loaded yet to a map of bird DTOs by ID.
+     * IDs of deleted birds stay missing from the map.
+     *
+     * @param ids The bird IDs
+     * @param birds The loaded birds by ID
+     */
+    private void loadBirds(Set<Long> ids, Map<Long, BirdDTO> birds) {
+        List<Long> missing = new ArrayList<>(ids);
+        missing.removeAll(birds.keySet());
+        for (List<Long> chunk : Chunks.of(missing)) {
+            birdService.findAllById(chunk).forEach(bird -> birds.put(bird.getId(), new BirdDTO(bird.getId(),
+                bird.getName(), bird.getColor(), bird.getWeight(), bird.getHeight(), bird.getCreatedAt())));
+        }
+    }
+
+    /**
+     * Gets the archived sightings of a month from the cache, reading its archive file on a miss.
+     *
+     * @param month The archived month
+     * @return The archived sightings of the month
+     */
+    private SightingArchiveFile readArchive(YearMonth month) {
+        return archives.get(month, missing -> {
+            try {
+                return SightingArchiveFile.read(fileOf(missing));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Gets the archive file of a month.
+     *
+     * @param month The month
+     * @return The path of its archive file
+     */
+    private Path fileOf(YearMonth month) {
+        return Paths.get(directory, String.format("sightings-%04d-%02d.bwa.gz", month.getYear(), month.getMonthValue()));
+    }
+}
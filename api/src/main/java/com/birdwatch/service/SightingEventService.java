@@ -0,0 +1,517 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SightingEvent;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.utils.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service pushing sighting changes to subscribers as server-sent events.
+ * Every subscriber has a bounded buffer of pending events, drained by a small shared pool of sender threads,
+ * so a slow subscriber never holds up the write that caused an event or the other subscribers.
+ * A send that takes longer than birdwatch.events.send-timeout-ms closes its subscriber, and the pool gets
+ * an extra sender thread until the stalled send returns, so stalled clients never use up the pool.
+ * When a buffer is full the oldest event is dropped and the subscriber is sent a
+ * {@value SightingEvent#RESYNC} event before the remaining ones, telling it to reload.
+ * Bulk changes of more than {@value #MAX_BATCH_EVENTS} sightings or birds are announced with a single
+ * {@value SightingEvent#RESYNC} event instead of one event each.
+ * Events are published once the transaction of the change has committed.
+ */
+@Service
+public class SightingEventService {
+
+    /**
+     * Time after which an event stream is closed, so clients reconnect periodically.
+     */
+    static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    /**
+     * Number of threads sending events to subscribers.
+     */
+    private static final int SENDER_THREADS = 2;
+
+    /**
+     * Largest bulk change published as one event per sighting or bird.
+     */
+    static final int MAX_BATCH_EVENTS = 50;
+
+    @Value("${birdwatch.events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${birdwatch.events.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Collection<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+    private final ThreadPoolExecutor senders = new ThreadPoolExecutor(SENDER_THREADS, SENDER_THREADS,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new SenderThreadFactory("sighting-events-"));
+
+    private final ScheduledThreadPoolExecutor deadlines = createDeadlineScheduler();
+
+    /**
+     * Opens a new event stream.
+     * The subscriber is removed when the stream completes, times out or fails,
+     * and the stream is completed when an event cannot be sent to it.
+     *
+     * @return The emitter of the new stream
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        Subscriber subscriber = subscribe(event ->
+            emitter.send(SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON)),
+            emitter::complete);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Registers a subscriber receiving events through the given sink.
+     *
+     * @param sink The sink the events are sent to
+     * @return The registered subscriber
+     */
+    Subscriber subscribe(EventSink sink) {
+        return subscribe(sink, () -> { });
+    }
+
+    /**
+     * Registers a subscriber receiving events through the given sink.
+     *
+     * @param sink The sink the events are sent to
+     * @param onClose Called when the subscriber is removed because its sink failed or the service stops
+     * @return The registered subscriber
+     */
+    Subscriber subscribe(EventSink sink, Runnable onClose) {
+        Subscriber subscriber = new Subscriber(sink, onClose);
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Publishes the creation of a sighting.
+     *
+     * @param sighting The created sighting
+     */
+    public void created(Sighting sighting) {
+        publishAfterCommit(SightingEvent.CREATED, sighting);
+    }
+
+    /**
+     * Publishes the creation of many sightings, one event per sighting,
+     * or a single resync event when there are more than {@value #MAX_BATCH_EVENTS}.
+     *
+     * @param sightings The created sightings
+     */
+    public void created(List<Sighting> sightings) {
+        if (subscribers.isEmpty() || sightings.isEmpty()) {
+            return;
+        }
+        if (sightings.size() > batchLimit()) {
+            publishAfterCommit(List.of(resync()));
+            return;
+        }
+        publishAfterCommit(sightings.stream()
+            .map(sighting -> event(SightingEvent.CREATED, sighting))
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Publishes the update of a sighting.
+     *
+     * @param sighting The updated sighting
+     */
+    public void updated(Sighting sighting) {
+        publishAfterCommit(SightingEvent.UPDATED, sighting);
+    }
+
+    /**
+     * Publishes the deletion of a sighting.
+     *
+     * @param id The ID of the deleted sighting
+     */
+    public void deleted(Long id) {
+        publishAfterCommit(new SightingEvent(SightingEvent.DELETED, id, null, null));
+    }
+
+    /**
+     * Publishes the deletion of many sightings, one event per sighting,
+     * or a single resync event when there are more than {@value #MAX_BATCH_EVENTS}.
+     *
+     * @param ids The IDs of the deleted sightings
+     */
+    public void deleted(Collection<Long> ids) {
+        publishBatch(ids, id -> new SightingEvent(SightingEvent.DELETED, id, null, null));
+    }
+
+    /**
+     * Publishes the deletion of a bird together with all of its sightings.
+     *
+     * @param birdId The ID of the deleted bird
+     */
+    public void birdDeleted(Long birdId) {
+        publishAfterCommit(new SightingEvent(SightingEvent.BIRD_DELETED, null, birdId, null));
+    }
+
+    /**
+     * Publishes the deletion of many birds together with their sightings, one event per bird,
+     * or a single resync event when there are more than {@value #MAX_BATCH_EVENTS}.
+     *
+     * @param birdIds The IDs of the deleted birds
+     */
+    public void birdsDeleted(Collection<Long> birdIds) {
+        publishBatch(birdIds, birdId -> new SightingEvent(SightingEvent.BIRD_DELETED, null, birdId, null));
+    }
+
+    /**
+     * Tells every subscriber to reload, once the current transaction has committed.
+     * Used for changes too large to be published one event at a time.
+     */
+    public void resyncAll() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publishAfterCommit(List.of(resync()));
+    }
+
+    /**
+     * Stops the sender threads and closes the open event streams.
+     */
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        deadlines.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+    }
+
+    /**
+     * Creates the scheduler checking the deadlines of sends, which drops cancelled deadlines right away.
+     *
+     * @return The scheduler
+     */
+    private static ScheduledThreadPoolExecutor createDeadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+            new SenderThreadFactory("sighting-events-deadlines-"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Changes the number of sender threads, adding one for every stalled send in progress.
+     *
+     * @param delta The number of threads to add, negative to remove
+     */
+    private synchronized void resizeSenders(int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Publishes one event per ID of a bulk change, or a single resync event when the change is too large.
+     *
+     * @param ids The IDs of the changed sightings or birds
+     * @param toEvent Creates the event of one ID
+     */
+    private void publishBatch(Collection<Long> ids, Function<Long, SightingEvent> toEvent) {
+        if (subscribers.isEmpty() || ids.isEmpty()) {
+            return;
+        }
+        if (ids.size() > batchLimit()) {
+            publishAfterCommit(List.of(resync()));
+            return;
+        }
+        publishAfterCommit(ids.stream().map(toEvent).collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets the largest bulk change published one event at a time, which also has to fit into a subscriber buffer.
+     *
+     * @return The number of events
+     */
+    private int batchLimit() {
+        return Math.min(MAX_BATCH_EVENTS, bufferSize);
+    }
+
+    /**
+     * Creates an event telling a subscriber to reload.
+     *
+     * @return The resync event
+     */
+    private static SightingEvent resync() {
+        return new SightingEvent(SightingEvent.RESYNC, null, null, null);
+    }
+
+    /**
+     * Publishes a sighting event once the current transaction has committed.
+     * The sighting is converted while still attached, so its bird can be read.
+     *
+     * @param type The kind of change
+     * @param sighting The created or updated sighting
+     */
+    private void publishAfterCommit(String type, Sighting sighting) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publishAfterCommit(event(type, sighting));
+    }
+
+    /**
+     * Publishes an event to every subscriber once the current transaction has committed.
+     *
+     * @param event The event to publish
+     */
+    private void publishAfterCommit(SightingEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publishAfterCommit(List.of(event));
+    }
+
+    /**
+     * Publishes events to every subscriber, in order, once the current transaction has committed.
+     *
+     * @param events The events to publish
+     */
+    private void publishAfterCommit(List<SightingEvent> events) {
+        TransactionCallbacks.afterCommit(() -> subscribers.forEach(subscriber -> subscriber.offer(events)));
+    }
+
+    /**
+     * Creates the event of a created or updated sighting.
+     * The sighting is converted while still attached, so its bird can be read.
+     *
+     * @param type The kind of change
+     * @param sighting The created or updated sighting
+     * @return The event
+     */
+    private static SightingEvent event(String type, Sighting sighting) {
+        return new SightingEvent(type, sighting.getId(), sighting.getBird().getId(), toDTO(sighting));
+    }
+
+    /**
+     * Converts a sighting to the DTO sent in its events, also kept by the SightingGeoIndexService.
+     *
+     * @param sighting The sighting to convert
+     * @return The sighting DTO
+     */
+    static SightingDTO toDTO(Sighting sighting) {
+        return new SightingDTO(
+            sighting.getId(),
+            sighting.getLocation(),
+            sighting.getLatitude(),
+            sighting.getLongitude(),
+            sighting.getSightingDate(),
+            sighting.getCreatedAt(),
+            new BirdDTO(
+                sighting.getBird().getId(),
+                sighting.getBird().getName(),
+                sighting.getBird().getColor(),
+                sighting.getBird().getWeight(),
+                sighting.getBird().getHeight(),
+                sighting.getBird().getCreatedAt()
+            )
+        );
+    }
+
+    /**
+     * Destination of the events of one subscriber.
+     */
+    @FunctionalInterface
+    interface EventSink {
+        void send(SightingEvent event) throws IOException;
+    }
+
+    /**
+     * A subscriber with its buffer of events waiting to be sent.
+     * At most one sender thread drains a subscriber at a time, so its events are sent in order.
+     */
+    class Subscriber {
+        private final EventSink sink;
+        private final Runnable onClose;
+        private final Deque<SightingEvent> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean overflowed;
+        private boolean closed;
+        private boolean sending;
+        private long sends;
+        private boolean stalled;
+
+        Subscriber(EventSink sink, Runnable onClose) {
+            this.sink = sink;
+            this.onClose = onClose;
+        }
+
+        /**
+         * Adds events to the buffer, dropping the oldest pending events if the buffer is full,
+         * and schedules the buffer to be drained.
+         *
+         * @param events The events to send
+         */
+        synchronized void offer(List<SightingEvent> events) {
+            if (closed) {
+                return;
+            }
+            for (SightingEvent event : events) {
+                if (pending.size() >= bufferSize) {
+                    pending.pollFirst();
+                    overflowed = true;
+                }
+                pending.addLast(event);
+            }
+
+            if (!draining) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        /**
+         * Sends the buffered events until the buffer is empty.
+         * A subscriber that cannot be written to is closed.
+         */
+        private void drain() {
+            while (true) {
+                SightingEvent event;
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    } else if (overflowed) {
+                        overflowed = false;
+                        event = resync();
+                    } else if (!pending.isEmpty()) {
+                        event = pending.pollFirst();
+                    } else {
+                        draining = false;
+                        return;
+                    }
+                }
+
+                long send;
+                synchronized (this) {
+                    sending = true;
+                    send = ++sends;
+                }
+                ScheduledFuture<?> deadline = deadlines.schedule(() -> sendTimedOut(send),
+                    sendTimeoutMs, TimeUnit.MILLISECONDS);
+                boolean failed = false;
+                try {
+                    sink.send(event);
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                }
+                deadline.cancel(false);
+
+                boolean timedOut;
+                synchronized (this) {
+                    sending = false;
+                    timedOut = stalled;
+                }
+                if (timedOut) {
+                    resizeSenders(-1);
+                    runOnClose();
+                    return;
+                }
+                if (failed) {
+                    close();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Closes the subscriber if the given send is still in progress after the send timeout, and adds
+         * a sender thread in place of the one it blocks. Its stream is closed once the send returns,
+         * as the stream cannot be completed while it is being written to.
+         *
+         * @param send The number of the send that timed out
+         */
+        private void sendTimedOut(long send) {
+            synchronized (this) {
+                if (!sending || send != sends || closed) {
+                    return;
+                }
+                stalled = true;
+                closed = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+            resizeSenders(1);
+        }
+
+        /**
+         * Removes the subscriber, discards its pending events and closes its stream.
+         */
+        void close() {
+            subscribers.remove(this);
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+                draining = false;
+            }
+            runOnClose();
+        }
+
+        /**
+         * Closes the stream of the subscriber.
+         */
+        private void runOnClose() {
+            try {
+                onClose.run();
+            } catch (RuntimeException e) {
+                // the stream is already closed
+            }
+        }
+    }
+
+    /**
+     * Thread factory naming the sender threads and marking them as daemon threads.
+     */
+    private static class SenderThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        SenderThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
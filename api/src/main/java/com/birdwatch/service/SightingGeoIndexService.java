@@ -0,0 +1,521 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.repository.SightingRepository;
+import com.birdwatch.utils.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service keeping an in-memory spatial index of the recent sightings that have coordinates,
+ * so map clients asking for the same regions over and over are answered without a query.
+ * Sightings are bucketed into a uniform grid of cells of 2^-{@value #CELL_BITS} of the latitude
+ * and longitude range (about 1.2 km north to south); each cell holds the IDs and coordinates of
+ * its sightings in primitive arrays that are scanned for an area, and the DTOs are only looked up
+ * for the sightings found.
+ * The index is loaded once the application has started, follows sighting and bird writes once their
+ * transaction has committed, and drops sightings older than birdwatch.geo-index.recent-days on a schedule.
+ * Writes committed while the index is loading are held back and applied after the load, so the load
+ * cannot bring back a sighting deleted or an old version of a sighting or bird changed in the meantime.
+ * Until the first load has completed the index is partial, see isLoaded.
+ */
+@Service
+public class SightingGeoIndexService {
+
+    /**
+     * Bits per axis of the grid cell coordinates.
+     */
+    static final int CELL_BITS = 14;
+
+    /**
+     * Number of loaded sightings indexed per acquisition of the write lock,
+     * so lookups and committed writes are not held up for the whole load.
+     */
+    static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final double CELLS_PER_AXIS = 1 << CELL_BITS;
+
+    /**
+     * Cell height in kilometres, the first radius tried when looking for the nearest sightings.
+     */
+    private static final double CELL_HEIGHT_KM = Math.toRadians(180.0 / CELLS_PER_AXIS) * GeoArea.EARTH_RADIUS_KM;
+
+    /**
+     * Half the circumference of the earth, a radius that covers every point.
+     */
+    private static final double MAX_RADIUS_KM = Math.PI * GeoArea.EARTH_RADIUS_KM;
+
+    private static final Comparator<SightingDTO> NEWEST_FIRST = Comparator
+        .comparing(SightingDTO::getSightingDate)
+        .thenComparing(SightingDTO::getId)
+        .reversed();
+
+    @Value("${birdwatch.geo-index.recent-days:30}")
+    private int recentDays;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, SightingDTO> sightings = new HashMap<>();
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    /**
+     * Writes committed during a load, to be applied after it; null when no load is running.
+     */
+    private List<Runnable> heldBackWrites;
+
+    /**
+     * Whether a load has completed, so the index holds every recent sighting with coordinates.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Loads the recent sightings with coordinates once the application has started, {@value #LOAD_BATCH_SIZE} at a time.
+     * Sightings already indexed are not replaced; writes committed during the load are applied after it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        write(() -> heldBackWrites = new ArrayList<>());
+        boolean complete = false;
+        try (Stream<SightingDTO> recent = sightingRepository.streamWithCoordinatesSince(horizon())) {
+            List<SightingDTO> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            recent.forEach(sighting -> {
+                batch.add(sighting);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    addLoaded(batch);
+                    batch.clear();
+                }
+            });
+            addLoaded(batch);
+            complete = true;
+        } finally {
+            boolean completed = complete;
+            write(() -> {
+                heldBackWrites.forEach(Runnable::run);
+                heldBackWrites = null;
+                loaded = loaded || completed;
+            });
+        }
+    }
+
+    /**
+     * Checks whether the index has been loaded. Before, it only holds part of the recent sightings
+     * and lookups can miss sightings.
+     *
+     * @return true once a load has completed
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Indexes a created or updated sighting once the current transaction has committed,
+     * or removes it if it no longer has coordinates or is no longer recent.
+     *
+     * @param sighting The saved sighting
+     */
+    public void saved(Sighting sighting) {
+        saved(List.of(sighting));
+    }
+
+    /**
+     * Indexes created or updated sightings once the current transaction has committed.
+     *
+     * @param saved The saved sightings
+     */
+    public void saved(List<Sighting> saved) {
+        List<SightingDTO> dtos = saved.stream().map(SightingEventService::toDTO).collect(Collectors.toList());
+        writeAfterCommit(() -> {
+            LocalDateTime horizon = horizon();
+            for (SightingDTO sighting : dtos) {
+                remove(sighting.getId());
+                if (isIndexed(sighting, horizon)) {
+                    add(sighting);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes deleted sightings once the current transaction has committed.
+     *
+     * @param ids The IDs of the deleted sightings
+     */
+    public void deleted(Collection<Long> ids) {
+        List<Long> deleted = new ArrayList<>(ids);
+        writeAfterCommit(() -> deleted.forEach(this::remove));
+    }
+
+    /**
+     * Replaces the bird on the indexed sightings of a saved bird once the current transaction has committed.
+     * The DTOs are replaced rather than modified, as returned DTOs may still be being serialized.
+     *
+     * @param bird The saved bird
+     */
+    public void birdSaved(Bird bird) {
+        BirdDTO dto = new BirdDTO(bird.getId(), bird.getName(), bird.getColor(),
+            bird.getWeight(), bird.getHeight(), bird.getCreatedAt());
+        writeAfterCommit(() -> sightings.replaceAll((id, sighting) ->
+            !sighting.getBird().getId().equals(dto.getId()) ? sighting : new SightingDTO(sighting.getId(),
+                sighting.getLocation(), sighting.getLatitude(), sighting.getLongitude(),
+                sighting.getSightingDate(), sighting.getCreatedAt(), dto)));
+    }
+
+    /**
+     * Removes the sightings of deleted birds once the current transaction has committed.
+     *
+     * @param birdIds The IDs of the deleted birds
+     */
+    public void birdsDeleted(Collection<Long> birdIds) {
+        Set<Long> deleted = new HashSet<>(birdIds);
+        writeAfterCommit(() -> sightings.values().stream()
+            .filter(sighting -> deleted.contains(sighting.getBird().getId()))
+            .map(SightingDTO::getId)
+            .collect(Collectors.toList())
+            .forEach(this::remove));
+    }
+
+    /**
+     * Drops the sightings that are no longer recent.
+     * Runs on the schedule of the birdwatch.geo-index.evict-interval-ms setting.
+     */
+    @Scheduled(fixedDelayString = "${birdwatch.geo-index.evict-interval-ms:3600000}")
+    public void evictExpired() {
+        write(() -> {
+            LocalDateTime horizon = horizon();
+            sightings.values().stream()
+                .filter(sighting -> sighting.getSightingDate().isBefore(horizon))
+                .map(SightingDTO::getId)
+                .collect(Collectors.toList())
+                .forEach(this::remove);
+        });
+    }
+
+    /**
+     * Finds the indexed sightings inside an area, newest first.
+     *
+     * @param area The area
+     * @param limit Maximum number of sightings to return
+     * @return The newest sightings inside the area
+     */
+    public List<SightingDTO> findInArea(GeoArea area, int limit) {
+        List<SightingDTO> found = read(() -> scan(area));
+        found.sort(NEWEST_FIRST);
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Finds the indexed sightings nearest to a point, nearest first.
+     * Searches circles of doubling radius until one holds enough sightings, so only the cells
+     * around the point are scanned when sightings are dense there.
+     *
+     * @param latitude The latitude of the point
+     * @param longitude The longitude of the point
+     * @param k Number of sightings to return
+     * @return The k nearest sightings, fewer if fewer are indexed
+     */
+    public List<SightingDTO> findNearest(double latitude, double longitude, int k) {
+        List<SightingDTO> found = read(() -> {
+            double radiusKm = CELL_HEIGHT_KM;
+            List<SightingDTO> candidates = scan(GeoArea.circle(latitude, longitude, radiusKm));
+            while (candidates.size() < k && radiusKm < MAX_RADIUS_KM) {
+                radiusKm = Math.min(2 * radiusKm, MAX_RADIUS_KM);
+                candidates = scan(GeoArea.circle(latitude, longitude, radiusKm));
+            }
+            return candidates;
+        });
+        found.sort(Comparator.comparingDouble((SightingDTO sighting) ->
+            GeoArea.haversine(latitude, longitude, sighting.getLatitude(), sighting.getLongitude()))
+            .thenComparing(SightingDTO::getId));
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    /**
+     * Gets the number of indexed sightings.
+     *
+     * @return The number of recent sightings with coordinates
+     */
+    public int size() {
+        return read(sightings::size);
+    }
+
+    /**
+     * Collects the indexed sightings inside an area; the read lock must be held.
+     * Only the cells overlapping the area's bounding box are scanned, or every non-empty cell
+     * if there are fewer of those.
+     *
+     * @param area The area
+     * @return The sightings inside the area, in no particular order
+     */
+    private List<SightingDTO> scan(GeoArea area) {
+        long x0 = column(area.getMinLongitude());
+        long x1 = column(area.getMaxLongitude());
+        long y0 = row(area.getMinLatitude());
+        long y1 = row(area.getMaxLatitude());
+
+        List<SightingDTO> found = new ArrayList<>();
+        if ((x1 - x0 + 1) * (y1 - y0 + 1) > cells.size()) {
+            cells.values().forEach(cell -> cell.collect(area, found));
+        } else {
+            for (long x = x0; x <= x1; x++) {
+                for (long y = y0; y <= y1; y++) {
+                    Cell cell = cells.get(key(x, y));
+                    if (cell != null) {
+                        cell.collect(area, found);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Indexes a batch of loaded sightings under one acquisition of the write lock,
+     * leaving sightings already indexed unchanged.
+     *
+     * @param batch The loaded sightings
+     */
+    private void addLoaded(List<SightingDTO> batch) {
+        write(() -> {
+            for (SightingDTO sighting : batch) {
+                if (!sightings.containsKey(sighting.getId())) {
+                    add(sighting);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a sighting to its cell; the write lock must be held.
+     *
+     * @param sighting The sighting, with coordinates
+     */
+    private void add(SightingDTO sighting) {
+        sightings.put(sighting.getId(), sighting);
+        cells.computeIfAbsent(cellOf(sighting), key -> new Cell()).add(sighting);
+    }
+
+    /**
+     * Removes a sighting from its cell if it is indexed; the write lock must be held.
+     *
+     * @param id The ID of the sighting
+     */
+    private void remove(Long id) {
+        SightingDTO sighting = sightings.remove(id);
+        if (sighting == null) {
+            return;
+        }
+        long key = cellOf(sighting);
+        Cell cell = cells.get(key);
+        cell.remove(id);
+        if (cell.size == 0) {
+            cells.remove(key);
+        }
+    }
+
+    /**
+     * Checks whether a sighting belongs in the index.
+     *
+     * @param sighting The sighting
+     * @param horizon The earliest sighting date kept
+     * @return true if the sighting has coordinates and is recent
+     */
+    private static boolean isIndexed(SightingDTO sighting, LocalDateTime horizon) {
+        return sighting.getLatitude() != null && sighting.getLongitude() != null
+            && !sighting.getSightingDate().isBefore(horizon);
+    }
+
+    /**
+     * Gets the earliest sighting date kept in the index.
+     *
+     * @return The current time minus the recent days
+     */
+    private LocalDateTime horizon() {
+        return LocalDateTime.now().minusDays(recentDays);
+    }
+
+    /**
+     * Applies a write to the index once the current transaction has committed,
+     * or after the running load if the index is being loaded.
+     *
+     * @param change The change to the index
+     */
+    private void writeAfterCommit(Runnable change) {
+        TransactionCallbacks.afterCommit(() -> write(() -> {
+            if (heldBackWrites != null) {
+                heldBackWrites.add(change);
+            } else {
+                change.run();
+            }
+        }));
+    }
+
+    /**
+     * Runs an action under the write lock.
+     *
+     * @param action The action
+     */
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Computes a result under the read lock.
+     *
+     * @param reader The computation
+     * @param <T> The type of the result
+     * @return The result
+     */
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the key of the cell a sighting lies in.
+     *
+     * @param sighting The sighting, with coordinates
+     * @return The cell key
+     */
+    private static long cellOf(SightingDTO sighting) {
+        return key(column(sighting.getLongitude()), row(sighting.getLatitude()));
+    }
+
+    /**
+     * Gets the grid column of a longitude.
+     *
+     * @param longitude The longitude
+     * @return The column, between 0 and 2^CELL_BITS - 1
+     */
+    private static long column(double longitude) {
+        return clamp((long) Math.floor((longitude + 180.0) / 360.0 * CELLS_PER_AXIS));
+    }
+
+    /**
+     * Gets the grid row of a latitude.
+     *
+     * @param latitude The latitude
+     * @return The row, between 0 and 2^CELL_BITS - 1
+     */
+    private static long row(double latitude) {
+        return clamp((long) Math.floor((latitude + 90.0) / 180.0 * CELLS_PER_AXIS));
+    }
+
+    /**
+     * Clamps a column or row to the grid.
+     *
+     * @param cell The column or row
+     * @return The column or row inside the grid
+     */
+    private static long clamp(long cell) {
+        return Math.max(0, Math.min((long) CELLS_PER_AXIS - 1, cell));
+    }
+
+    /**
+     * Combines a column and a row into a cell key.
+     *
+     * @param column The column
+     * @param row The row
+     * @return The cell key
+     */
+    private static long key(long column, long row) {
+        return column << 32 | row;
+    }
+
+    /**
+     * Grid cell holding the IDs and coordinates of its sightings in parallel primitive arrays.
+     * Guarded by the lock of the service.
+     */
+    private final class Cell {
+        private long[] ids = new long[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int size;
+
+        /**
+         * Appends a sighting, growing the arrays when full.
+         *
+         * @param sighting The sighting, with coordinates
+         */
+        void add(SightingDTO sighting) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            ids[size] = sighting.getId();
+            latitudes[size] = sighting.getLatitude();
+            longitudes[size] = sighting.getLongitude();
+            size++;
+        }
+
+        /**
+         * Removes a sighting by moving the last one into its slot.
+         *
+         * @param id The ID of the sighting
+         */
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    latitudes[i] = latitudes[size];
+                    longitudes[i] = longitudes[size];
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Adds the sightings of the cell inside an area to a list.
+         *
+         * @param area The area
+         * @param found The list the sightings are added to
+         */
+        void collect(GeoArea area, List<SightingDTO> found) {
+            for (int i = 0; i < size; i++) {
+                if (area.contains(latitudes[i], longitudes[i])) {
+                    found.add(sightings.get(ids[i]));
+                }
+            }
+        }
+    }
+}
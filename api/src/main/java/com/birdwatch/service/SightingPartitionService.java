@@ -0,0 +1,42 @@
+package com.birdwatch.service;
+
+import com.birdwatch.repository.SightingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service creating the monthly partitions of the sightings table ahead of time.
+ * Once migration 011_sightings_partitioning.sql has partitioned the table, sightings of a month
+ * without a partition land in the default partition, which every date-bounded query has to read.
+ * Partitions for the coming months are therefore created on startup and on a schedule, and sightings
+ * that did land in the default partition are moved to the partitions of their months.
+ * Does nothing while the sightings table is not partitioned, as with a schema generated by Hibernate.
+ */
+@Service
+public class SightingPartitionService {
+
+    @Value("${birdwatch.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    /**
+     * Creates the missing partitions of the current month, of the birdwatch.partitions.months-ahead
+     * following months and of the months with sightings in the default partition.
+     * Runs once the application has started and on the schedule of the birdwatch.partitions.cron setting.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${birdwatch.partitions.cron:0 0 2 * * *}")
+    @Transactional
+    public void createUpcomingPartitions() {
+        if (sightingRepository.isPartitioned()) {
+            sightingRepository.createPartitions(monthsAhead);
+        }
+    }
+}
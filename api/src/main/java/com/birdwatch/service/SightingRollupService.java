@@ -0,0 +1,138 @@
+package com.birdwatch.service;
+
+import com.birdwatch.entity.SightingDailyRollupId;
+import com.birdwatch.repository.SightingDailyRollupRepository;
+import com.birdwatch.utils.Chunks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service maintaining the daily rollup of sighting counts per bird, location and day.
+ * The SightingService and BirdService report every write in the transaction of the write,
+ * so the rollup changes together with the sightings it counts.
+ * A scheduled compaction removes the counts that dropped to zero and checks the rollup
+ * against the sightings table, rebuilding it if they disagree, which repairs sightings
+ * written around the application, for example by SQL scripts.
+ */
+@Service
+public class SightingRollupService {
+
+    @Autowired
+    private SightingDailyRollupRepository rollupRepository;
+
+    /**
+     * Counts newly saved sightings into the rollup.
+     *
+     * @param ids The IDs of the saved sightings
+     */
+    @Transactional
+    public void added(Collection<Long> ids) {
+        for (List<Long> chunk : Chunks.of(new ArrayList<>(ids))) {
+            rollupRepository.addSightings(chunk);
+        }
+    }
+
+    /**
+     * Removes sightings about to be deleted from the rollup.
+     * Must be called before the sightings are deleted.
+     *
+     * @param ids The IDs of the sightings
+     */
+    @Transactional
+    public void removed(Collection<Long> ids) {
+        for (List<Long> chunk : Chunks.of(new ArrayList<>(ids))) {
+            rollupRepository.removeSightings(chunk);
+        }
+    }
+
+    /**
+     * Removes the counts of the days in a range, whose sightings are all about to be deleted.
+     *
+     * @param from Inclusive first day
+     * @param to Exclusive last day
+     */
+    @Transactional
+    public void daysRemoved(LocalDate from, LocalDate to) {
+        rollupRepository.deleteDays(from, to);
+    }
+
+    /**
+     * Removes a sighting from the count it was stored under, before it is saved with new values.
+     *
+     * @param countedAs The bird, location and day the sighting was stored with
+     */
+    @Transactional
+    public void removed(SightingDailyRollupId countedAs) {
+        rollupRepository.removeSighting(countedAs.getBirdId(), countedAs.getLocation(), countedAs.getDay());
+    }
+
+    /**
+     * Removes the counts of deleted birds from the rollup.
+     *
+     * @param birdIds The IDs of the deleted birds
+     */
+    @Transactional
+    public void birdsDeleted(Collection<Long> birdIds) {
+        for (List<Long> chunk : Chunks.of(new ArrayList<>(birdIds))) {
+            rollupRepository.deleteByBirdIds(chunk);
+        }
+    }
+
+    /**
+     * Checks the rollup against the sightings table.
+     * Counts every sighting, so it is only meant to run occasionally.
+     *
+     * @return The number of birds, locations and days whose count is wrong, 0 if the rollup is consistent
+     */
+    @Transactional(readOnly = true)
+    public long check() {
+        return rollupRepository.countMismatches();
+    }
+
+    /**
+     * Rebuilds the rollup from the sightings table in a single transaction.
+     */
+    @Transactional
+    public void rebuild() {
+        rollupRepository.deleteAllInBatch();
+        rollupRepository.insertAllSightings();
+    }
+
+    /**
+     * Removes the counts that dropped to zero, then checks the rollup and rebuilds it if it is inconsistent.
+     * Runs on the schedule of the birdwatch.rollup.compaction-cron setting.
+     *
+     * @return The number of wrong counts found, 0 if the rollup was consistent
+     */
+    @Scheduled(cron = "${birdwatch.rollup.compaction-cron:0 30 3 * * *}")
+    @Transactional
+    public long compact() {
+        rollupRepository.deleteEmpty();
+        long mismatches = rollupRepository.countMismatches();
+        if (mismatches > 0) {
+            rebuild();
+        }
+        return mismatches;
+    }
+
+    /**
+     * Builds the rollup once the application has started if there are sightings but no counts,
+     * as after upgrading a database that had no rollup yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void buildIfMissing() {
+        if (rollupRepository.isMissing()) {
+            rebuild();
+        }
+    }
+}
@@ -1,23 +1,90 @@
 package com.birdwatch.service;
 
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingCursor;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SightingStats;
 import com.birdwatch.entity.Sighting;
+import com.birdwatch.entity.Tombstone;
 import com.birdwatch.repository.SightingRepository;
+import com.birdwatch.repository.TombstoneRepository;
+import com.birdwatch.utils.Chunks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing bird sighting operations.
  * Handles business logic for sighting CRUD operations and searching.
+ * Writes are reported to the DataVersionService so that listing entity tags change,
+ * and to the SightingEventService so that subscribers of the event stream are notified.
+ * Every write also adjusts the daily rollup through the SightingRollupService in the same transaction,
+ * and statistics at day granularity or coarser are summed from that rollup.
+ * Committed writes are applied to the in-memory index of recent sightings of the SightingGeoIndexService
+ * and to the columnar analytics snapshot of the SightingAnalyticsService.
+ * Searches whose date range, open-ended or not, reaches into months moved out of the sightings table
+ * by the SightingArchiveService also return the archived sightings.
  */
 @Service
 public class SightingService {
+
+    /**
+     * Lower bound used when a date range search has no start date.
+     */
+    static final LocalDateTime MIN_SIGHTING_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    /**
+     * Upper bound used when a date range search has no end date.
+     */
+    static final LocalDateTime MAX_SIGHTING_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * Keyset position preceding every sighting, used to request the first page.
+     */
+    static final SightingCursor FIRST_PAGE = new SightingCursor(MIN_SIGHTING_DATE, 0L);
+
+    /**
+     * Maximum number of sightings deleted by one search deletion.
+     */
+    static final int MAX_DELETE_MATCHING = 10_000;
     
     @Autowired
     private SightingRepository sightingRepository;
 
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private SightingEventService sightingEventService;
+
+    @Autowired
+    private SightingRollupService sightingRollupService;
+
+    @Autowired
+    private SightingGeoIndexService sightingGeoIndexService;
+
+    @Autowired
+    private SightingAnalyticsService sightingAnalyticsService;
+
+    @Autowired
+    private SightingArchiveService sightingArchiveService;
+
     /**
      * Retrieves all bird sightings from the database.
      *
@@ -27,6 +94,38 @@ public class SightingService {
         return sightingRepository.findAll();
     }
 
+    /**
+     * Passes every sighting, ordered by sighting date and ID, to the given action.
+     * Sightings are streamed from the database in a read-only transaction instead of
+     * being collected into a list, so the action can write them out one at a time.
+     *
+     * @param action The action to perform for each sighting DTO
+     */
+    @Transactional(readOnly = true)
+    public void forEachSighting(Consumer<SightingDTO> action) {
+        try (Stream<SightingDTO> sightings = sightingRepository.streamAll()) {
+            sightings.forEach(action);
+        }
+    }
+
+    /**
+     * Retrieves a page of sightings ordered by sighting date and ID.
+     * Sightings are read straight into DTOs in a read-only transaction.
+     *
+     * @param after Cursor of the last sighting on the previous page, or null for the first page
+     * @param limit Maximum number of sightings to return
+     * @return The requested page of sightings as DTOs
+     */
+    @Transactional(readOnly = true)
+    public List<SightingDTO> findPage(SightingCursor after, int limit) {
+        SightingCursor cursor = after != null ? after : FIRST_PAGE;
+        return sightingRepository.findPageAfter(
+            cursor.getSightingDate(),
+            cursor.getId(),
+            PageRequest.of(0, limit)
+        );
+    }
+
     /**
      * Retrieves a specific sighting by its ID.
      *
@@ -39,21 +138,173 @@ public class SightingService {
 
     /**
      * Saves a sighting to the database.
+     * An updated sighting is moved from the daily rollup count it was stored under to the one of its new values.
      *
      * @param sighting The sighting to save
      * @return The saved sighting entity
      */
+    @Transactional
     public Sighting save(Sighting sighting) {
-        return sightingRepository.save(sighting);
+        boolean created = sighting.getId() == null;
+        if (!created) {
+            sightingRepository.findRollupKey(sighting.getId()).ifPresent(sightingRollupService::removed);
+        }
+        Sighting saved = sightingRepository.save(sighting);
+        sightingRollupService.added(List.of(saved.getId()));
+        sightingGeoIndexService.saved(saved);
+        sightingAnalyticsService.saved(saved);
+        dataVersionService.sightingsChanged();
+        if (created) {
+            sightingEventService.created(saved);
+        } else {
+            sightingEventService.updated(saved);
+        }
+        return saved;
     }
 
     /**
-     * Deletes a sighting by its ID.
+     * Saves a batch of new sightings to the database in a single transaction.
+     * Sighting IDs come from a pooled sequence, so the inserts are sent in JDBC batches.
+     *
+     * @param sightings The sightings to save
+     * @return The saved sighting entities, in the same order
+     */
+    @Transactional
+    public List<Sighting> saveAll(List<Sighting> sightings) {
+        List<Sighting> saved = sightingRepository.saveAll(sightings);
+        sightingRollupService.added(saved.stream().map(Sighting::getId).collect(Collectors.toList()));
+        sightingGeoIndexService.saved(saved);
+        sightingAnalyticsService.saved(saved);
+        dataVersionService.sightingsChanged();
+        sightingEventService.created(saved);
+        return saved;
+    }
+
+    /**
+     * Deletes a sighting by its ID with a single DELETE statement, without loading it first.
+     * A tombstone is recorded in the same transaction so the delta sync reports the deletion.
      *
      * @param id The ID of the sighting to delete
+     * @return true if the sighting was deleted, false if no sighting has the ID
      */
-    public void deleteById(Long id) {
-        sightingRepository.deleteById(id);
+    @Transactional
+    public boolean deleteById(Long id) {
+        if (sightingRepository.deleteCountedSightingsByIds(List.of(id)).isEmpty()) {
+            return false;
+        }
+        tombstoneRepository.save(new Tombstone(Tombstone.EntityType.SIGHTING, id));
+        sightingGeoIndexService.deleted(List.of(id));
+        sightingAnalyticsService.deleted(List.of(id));
+        dataVersionService.sightingsChanged();
+        sightingEventService.deleted(id);
+        return true;
+    }
+
+    /**
+     * Deletes the sightings with the given IDs; IDs without a sighting are ignored.
+     * The existing IDs are looked up and deleted with one statement per
+     * {@value Chunks#MAX_CHUNK_SIZE} IDs, without loading any sighting.
+     *
+     * @param ids The IDs of the sightings to delete
+     * @return The number of deleted sightings
+     */
+    @Transactional
+    public int deleteAllById(Collection<Long> ids) {
+        List<Long> existing = new ArrayList<>();
+        for (List<Long> chunk : Chunks.of(new ArrayList<>(ids))) {
+            existing.addAll(sightingRepository.findExistingIds(chunk));
+        }
+        return deleteExisting(existing);
+    }
+
+    /**
+     * Deletes the sightings matching the bird name, location, date range and area filters,
+     * the same sightings a search with these filters returns from the sightings table.
+     * Archived sightings are read-only, so a date range reaching into an archived month is rejected
+     * instead of deleting fewer sightings than the search returns.
+     * The matching IDs are read and deleted one page of {@value Chunks#MAX_CHUNK_SIZE} at a time,
+     * and at most {@value #MAX_DELETE_MATCHING} sightings can be deleted at once: if more match,
+     * nothing is deleted.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     * @param area Optional area the sightings' coordinates must lie in
+     * @return The number of deleted sightings
+     * @throws ResponseStatusException if the date range reaches into an archived month
+     *         or more than {@value #MAX_DELETE_MATCHING} sightings match
+     */
+    @Transactional
+    public int deleteMatching(String birdName, String location, LocalDateTime startDate, LocalDateTime endDate,
+                              GeoArea area) {
+        LocalDateTime start = startDate != null ? startDate : MIN_SIGHTING_DATE;
+        LocalDateTime end = endDate != null ? endDate : MAX_SIGHTING_DATE;
+        if (sightingArchiveService.covers(start, end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "The date range reaches into archived months, whose sightings cannot be deleted");
+        }
+        List<Long> deleted = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            List<Long> page = area != null
+                ? sightingRepository.findIdsInAreaAfter(birdName, location, start, end, area,
+                    afterId, Chunks.MAX_CHUNK_SIZE)
+                : sightingRepository.findIdsMatchingAfter(birdName, location, start, end,
+                    afterId, PageRequest.of(0, Chunks.MAX_CHUNK_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            if (deleted.size() + page.size() > MAX_DELETE_MATCHING) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "More than " + MAX_DELETE_MATCHING + " sightings match, narrow the search filters");
+            }
+            removeExisting(page);
+            deleted.addAll(page);
+            afterId = page.get(page.size() - 1);
+        }
+        if (!deleted.isEmpty()) {
+            dataVersionService.sightingsChanged();
+            sightingEventService.deleted(deleted);
+        }
+        return deleted.size();
+    }
+
+    /**
+     * Deletes existing sightings by ID, one statement per chunk of IDs, and records their tombstones.
+     *
+     * @param ids The IDs of existing sightings
+     * @return The number of deleted sightings
+     */
+    private int deleteExisting(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        for (List<Long> chunk : Chunks.of(ids)) {
+            deleted += removeExisting(chunk);
+        }
+        dataVersionService.sightingsChanged();
+        sightingEventService.deleted(ids);
+        return deleted;
+    }
+
+    /**
+     * Deletes at most {@value Chunks#MAX_CHUNK_SIZE} existing sightings and removes them from the rollup
+     * with one statement, records their tombstones and, once committed, removes them from the in-memory indexes.
+     * Sightings deleted by another transaction in the meantime are left to that transaction.
+     *
+     * @param chunk The IDs of existing sightings
+     * @return The number of deleted sightings
+     */
+    private int removeExisting(List<Long> chunk) {
+        List<Long> deleted = sightingRepository.deleteCountedSightingsByIds(chunk);
+        tombstoneRepository.saveAll(deleted.stream()
+            .map(id -> new Tombstone(Tombstone.EntityType.SIGHTING, id))
+            .collect(Collectors.toList()));
+        sightingGeoIndexService.deleted(deleted);
+        sightingAnalyticsService.deleted(deleted);
+        return deleted.size();
     }
 
     /**
@@ -66,4 +317,124 @@ public class SightingService {
     public List<Sighting> searchSightings(String birdName, String location) {
         return sightingRepository.searchSightings(birdName, location);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Searches for a page of sightings based on bird name, location, a sighting date range
+     * and/or a geographic area, ordered by sighting date and ID.
+     * Sightings are read straight into DTOs in a read-only transaction; sightings without
+     * coordinates never match an area. If the date range, with a missing bound taken as open,
+     * reaches into archived months, the page of archived sightings is merged with the page read
+     * from the sightings table.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     * @param area Optional area the sightings' coordinates must lie in
+     * @param after Cursor of the last sighting on the previous page, or null for the first page
+     * @param limit Maximum number of sightings to return
+     * @return The requested page of matching sightings as DTOs
+     */
+    @Transactional(readOnly = true)
+    public List<SightingDTO> searchSightingsPage(String birdName, String location,
+                                                 LocalDateTime startDate, LocalDateTime endDate,
+                                                 GeoArea area, SightingCursor after, int limit) {
+        SightingCursor cursor = after != null ? after : FIRST_PAGE;
+        LocalDateTime start = startDate != null ? startDate : MIN_SIGHTING_DATE;
+        LocalDateTime end = endDate != null ? endDate : MAX_SIGHTING_DATE;
+        List<SightingDTO> sightings;
+        if (area != null) {
+            sightings = sightingRepository.searchSightingsInAreaPageAfter(
+                birdName,
+                location,
+                start,
+                end,
+                area,
+                cursor.getSightingDate(),
+                cursor.getId(),
+                limit
+            );
+        } else {
+            sightings = sightingRepository.searchSightingsPageAfter(
+                birdName,
+                location,
+                start,
+                end,
+                cursor.getSightingDate(),
+                cursor.getId(),
+                PageRequest.of(0, limit)
+            );
+        }
+
+        if (!sightingArchiveService.covers(start, end)) {
+            return sightings;
+        }
+        return mergePages(
+            sightingArchiveService.search(birdName, location, start, end, area, cursor, limit), sightings, limit);
+    }
+
+    /**
+     * Merges two pages of sightings ordered by sighting date and ID into one page.
+     * A sighting on both pages, as while it is being archived, is only returned once.
+     *
+     * @param first The first page
+     * @param second The second page
+     * @param limit Maximum number of sightings to return
+     * @return The first sightings of both pages, ordered by sighting date and ID
+     */
+    static List<SightingDTO> mergePages(List<SightingDTO> first, List<SightingDTO> second, int limit) {
+        List<SightingDTO> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            SightingDTO next;
+            if (j == second.size() || (i < first.size() && compare(first.get(i), second.get(j)) <= 0)) {
+                next = first.get(i++);
+            } else {
+                next = second.get(j++);
+            }
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).getId().equals(next.getId())) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Compares two sightings by sighting date and ID.
+     *
+     * @param a The first sighting
+     * @param b The second sighting
+     * @return A negative number, zero or a positive number if a comes before, with or after b
+     */
+    private static int compare(SightingDTO a, SightingDTO b) {
+        int byDate = a.getSightingDate().compareTo(b.getSightingDate());
+        return byDate != 0 ? byDate : a.getId().compareTo(b.getId());
+    }
+
+    /**
+     * Counts the sightings matching the filters, grouped by bird, location and/or time bucket.
+     * The counts are computed by the database, so only one row per group is transferred.
+     *
+     * @param groupBy The dimensions to group by, empty for a single total
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     * @return The column names and one row of values per group
+     */
+    @Transactional(readOnly = true)
+    public SightingStats getStats(Set<SightingStats.Dimension> groupBy, String birdName, String location,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        List<String> columns = new ArrayList<>();
+        for (SightingStats.Dimension dimension : SightingStats.Dimension.values()) {
+            if (groupBy.contains(dimension)) {
+                columns.addAll(dimension.getColumns());
+            }
+        }
+        columns.add(SightingStats.COUNT_COLUMN);
+
+        return new SightingStats(columns,
+            sightingRepository.countSightings(groupBy, birdName, location, startDate, endDate));
+    }
+}
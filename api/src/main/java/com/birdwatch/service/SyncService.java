@@ -0,0 +1,193 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SyncCursor;
+import com.birdwatch.dto.SyncKey;
+import com.birdwatch.dto.SyncResponse;
+import com.birdwatch.entity.Tombstone;
+import com.birdwatch.repository.BirdRepository;
+import com.birdwatch.repository.SightingRepository;
+import com.birdwatch.repository.TombstoneRepository;
+import com.birdwatch.utils.SyncWatermark;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for the delta sync of birds and sightings.
+ * Finds the rows changed since a sync token through their updated_at timestamps
+ * and the deletions through the tombstones written when birds and sightings are deleted.
+ * A sync returns the changes up to the sync watermark, see SyncWatermark, in pages:
+ * changed birds, changed sightings, deleted birds and deleted sightings, each ordered by change time and ID.
+ */
+@Service
+public class SyncService {
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    /**
+     * Retrieves a page of the bird and sighting changes since the given time.
+     * Without a start time no changes are returned, only a token to start syncing from;
+     * a client takes this token before loading the full listings.
+     * Every page of a sync returns the same token, which the client keeps once it has read the last page.
+     *
+     * @param since Optional exclusive lower bound of the changes, as decoded from a sync token
+     * @param after Cursor returned by the previous page of the sync, or null for the first page
+     * @param limit Maximum number of changes to return
+     * @return The page of changes, the token to request the next changes with and the next page cursor, if any
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse changesSince(LocalDateTime since, SyncCursor after, int limit) {
+        if (since == null) {
+            return new SyncResponse(format(watermark()), Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), null);
+        }
+
+        SyncCursor cursor = after != null ? after : new SyncCursor(watermark(), SyncCursor.Kind.BIRDS, since, 0L);
+        LocalDateTime until = cursor.getUntil();
+        SyncResponse response = new SyncResponse(format(until), new ArrayList<>(), new ArrayList<>(),
+            new ArrayList<>(), new ArrayList<>(), null);
+
+        int remaining = limit;
+        for (SyncCursor.Kind kind = cursor.getKind(); kind != null; kind = kind.next()) {
+            if (remaining == 0) {
+                response.setNextCursor(new SyncCursor(until, kind, since, 0L).encode());
+                break;
+            }
+
+            boolean resumed = kind == cursor.getKind();
+            // One key more than requested tells whether another page follows
+            List<SyncKey> keys = findKeys(kind, since, until,
+                resumed ? cursor.getAfterTime() : since, resumed ? cursor.getAfterId() : 0L,
+                PageRequest.of(0, remaining + 1));
+            boolean more = keys.size() > remaining;
+            if (more) {
+                keys = keys.subList(0, remaining);
+            }
+            addChanges(response, kind, keys);
+            remaining -= keys.size();
+
+            if (more) {
+                SyncKey last = keys.get(keys.size() - 1);
+                response.setNextCursor(new SyncCursor(until, kind, last.getTime(), last.getId()).encode());
+                break;
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Computes the upper bound of the changes of a new sync.
+     * Database timestamps are rounded to microseconds, so the bound stays one microsecond
+     * below the watermark to leave out changes stamped just before it but rounded up to it.
+     *
+     * @return The inclusive upper bound of the change times
+     */
+    private LocalDateTime watermark() {
+        return SyncWatermark.current().truncatedTo(ChronoUnit.MICROS).minus(1, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Formats a time as a sync token.
+     *
+     * @param time The time
+     * @return The sync token
+     */
+    private String format(LocalDateTime time) {
+        return time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /**
+     * Retrieves the keys of the next page of changes of one kind.
+     *
+     * @param kind The kind of the changes
+     * @param since Exclusive lower bound of the change time
+     * @param until Inclusive upper bound of the change time
+     * @param afterTime Change time of the last change on the previous page
+     * @param afterId ID of the last change on the previous page
+     * @param pageable Page size limit
+     * @return The keys of the changes, ordered by change time and ID
+     */
+    private List<SyncKey> findKeys(SyncCursor.Kind kind, LocalDateTime since, LocalDateTime until,
+                                   LocalDateTime afterTime, Long afterId, Pageable pageable) {
+        switch (kind) {
+            case BIRDS:
+                return birdRepository.findChangedKeys(since, until, afterTime, afterId, pageable);
+            case SIGHTINGS:
+                return sightingRepository.findChangedKeys(since, until, afterTime, afterId, pageable);
+            case DELETED_BIRDS:
+                return tombstoneRepository.findDeletedKeys(Tombstone.EntityType.BIRD,
+                    since, until, afterTime, afterId, pageable);
+            default:
+                return tombstoneRepository.findDeletedKeys(Tombstone.EntityType.SIGHTING,
+                    since, until, afterTime, afterId, pageable);
+        }
+    }
+
+    /**
+     * Adds the changes of one kind to a sync response, in the order of their keys.
+     * Birds and sightings deleted since their keys were read are left out; their deletion follows.
+     *
+     * @param response The response to add to
+     * @param kind The kind of the changes
+     * @param keys The keys of the changes
+     */
+    private void addChanges(SyncResponse response, SyncCursor.Kind kind, List<SyncKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = keys.stream().map(SyncKey::getEntityId).collect(Collectors.toList());
+        switch (kind) {
+            case BIRDS:
+                response.getBirds().addAll(inOrder(ids,
+                    birdRepository.findDTOsByIds(ids), BirdDTO::getId));
+                break;
+            case SIGHTINGS:
+                response.getSightings().addAll(inOrder(ids,
+                    sightingRepository.findDTOsByIds(ids), SightingDTO::getId));
+                break;
+            case DELETED_BIRDS:
+                response.getDeletedBirdIds().addAll(ids);
+                break;
+            default:
+                response.getDeletedSightingIds().addAll(ids);
+        }
+    }
+
+    /**
+     * Orders rows by a list of IDs.
+     *
+     * @param ids The IDs in the order to return
+     * @param rows The rows to order
+     * @param id Function returning the ID of a row
+     * @param <T> The type of the rows
+     * @return The rows in the order of the IDs, leaving out IDs without a row
+     */
+    private <T> List<T> inOrder(List<Long> ids, List<T> rows, Function<T, Long> id) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(id, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+}
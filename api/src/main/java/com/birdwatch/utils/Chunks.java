@@ -0,0 +1,32 @@
+package com.birdwatch.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for splitting lists of IDs into chunks.
+ * Used to keep the number of bind parameters of IN (...) statements bounded
+ * when working on an arbitrary number of rows.
+ */
+public class Chunks {
+    // Largest number of IDs bound to a single IN (...) statement
+    public static final int MAX_CHUNK_SIZE = 1000;
+
+    private Chunks() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Splits a list into consecutive chunks of at most {@value #MAX_CHUNK_SIZE} elements.
+     *
+     * @param list The list to split
+     * @return Views of the consecutive chunks of the list, none if the list is empty
+     */
+    public static <T> List<List<T>> of(List<T> list) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < list.size(); start += MAX_CHUNK_SIZE) {
+            chunks.add(list.subList(start, Math.min(start + MAX_CHUNK_SIZE, list.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,63 @@
+package com.birdwatch.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utility class for conditional requests with entity tags.
+ * Compares the If-None-Match header of a request with the current entity tag of a resource,
+ * so that an unchanged resource can be answered with 304 Not Modified and no body.
+ */
+public class ETags {
+    // Wildcard matching any current representation
+    private static final String ANY = "*";
+
+    // Prefix of a weak entity tag, ignored by the weak comparison of If-None-Match
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Checks whether the If-None-Match header of a request matches the current entity tag.
+     *
+     * @param ifNoneMatch The If-None-Match header value, may be null or a comma separated list of tags
+     * @param eTag The current quoted entity tag of the resource
+     * @return true if the client already has the current representation
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+
+        String current = stripWeakPrefix(eTag);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals(ANY) || stripWeakPrefix(candidate).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a 304 Not Modified response carrying the current entity tag.
+     *
+     * @param eTag The current quoted entity tag of the resource
+     * @return ResponseEntity with status 304 and no body
+     */
+    public static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
+    /**
+     * Removes the weak indicator from an entity tag.
+     *
+     * @param eTag The entity tag
+     * @return The entity tag without a leading W/
+     */
+    private static String stripWeakPrefix(String eTag) {
+        return eTag.startsWith(WEAK_PREFIX) ? eTag.substring(WEAK_PREFIX.length()) : eTag;
+    }
+}
@@ -0,0 +1,137 @@
+package com.birdwatch.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for numeric geohashes of coordinates.
+ * Latitude and longitude are each quantized to {@value #BITS_PER_AXIS} bits and interleaved into
+ * a Z-order value, so every geohash prefix is a grid cell and the points of a cell form one
+ * contiguous range of hash values. An area is searched through a B-tree index on the hash by
+ * scanning the ranges of the few cells covering it and filtering the exact coordinates.
+ */
+public class GeoHash {
+    // Bits per coordinate axis, giving cells of about 0.6 m at full precision
+    public static final int BITS_PER_AXIS = 26;
+
+    // Largest number of grid cells used to cover an area
+    public static final int MAX_COVERING_CELLS = 4;
+
+    private static final long AXIS_CELLS = 1L << BITS_PER_AXIS;
+
+    private GeoHash() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Computes the geohash of a coordinate.
+     *
+     * @param latitude The latitude in degrees, from -90 to 90
+     * @param longitude The longitude in degrees, from -180 to 180
+     * @return The geohash, from 0 to 2^(2 * {@value #BITS_PER_AXIS}) - 1
+     */
+    public static long encode(double latitude, double longitude) {
+        return interleave(longitudeCell(longitude), latitudeCell(latitude));
+    }
+
+    /**
+     * Computes the ranges of geohashes of the grid cells covering a bounding box.
+     * Uses the finest grid level at which at most {@value #MAX_COVERING_CELLS} cells cover the box,
+     * so the ranges may include points outside the box, which have to be filtered separately.
+     *
+     * @param minLatitude The southern edge of the box
+     * @param minLongitude The western edge of the box
+     * @param maxLatitude The northern edge of the box
+     * @param maxLongitude The eastern edge of the box
+     * @return Inclusive ranges of geohashes as {from, to} pairs, ordered and not adjacent to each other
+     */
+    public static List<long[]> coveringRanges(double minLatitude, double minLongitude,
+                                              double maxLatitude, double maxLongitude) {
+        long x0 = longitudeCell(minLongitude);
+        long x1 = longitudeCell(maxLongitude);
+        long y0 = latitudeCell(minLatitude);
+        long y1 = latitudeCell(maxLatitude);
+
+        int shift = 0;
+        while (((x1 >> shift) - (x0 >> shift) + 1) * ((y1 >> shift) - (y0 >> shift) + 1) > MAX_COVERING_CELLS) {
+            shift++;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (long x = x0 >> shift; x <= x1 >> shift; x++) {
+            for (long y = y0 >> shift; y <= y1 >> shift; y++) {
+                long from = interleave(x, y) << (2 * shift);
+                ranges.add(new long[] { from, from + (1L << (2 * shift)) - 1 });
+            }
+        }
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last[1] + 1 == range[0]) {
+                last[1] = range[1];
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Quantizes a latitude to its row in the finest grid.
+     *
+     * @param latitude The latitude in degrees
+     * @return The row, from 0 to 2^{@value #BITS_PER_AXIS} - 1
+     */
+    private static long latitudeCell(double latitude) {
+        return quantize((latitude + 90.0) / 180.0);
+    }
+
+    /**
+     * Quantizes a longitude to its column in the finest grid.
+     *
+     * @param longitude The longitude in degrees
+     * @return The column, from 0 to 2^{@value #BITS_PER_AXIS} - 1
+     */
+    private static long longitudeCell(double longitude) {
+        return quantize((longitude + 180.0) / 360.0);
+    }
+
+    /**
+     * Maps a fraction of an axis to its cell, clamping the upper edge into the last cell.
+     *
+     * @param fraction The position on the axis, from 0 to 1
+     * @return The cell, from 0 to 2^{@value #BITS_PER_AXIS} - 1
+     */
+    private static long quantize(double fraction) {
+        return Math.max(0, Math.min(AXIS_CELLS - 1, (long) Math.floor(fraction * AXIS_CELLS)));
+    }
+
+    /**
+     * Interleaves the bits of a column and a row, the column bit first as in geohashes.
+     *
+     * @param x The column
+     * @param y The row
+     * @return The Z-order value of the cell
+     */
+    private static long interleave(long x, long y) {
+        return (spread(x) << 1) | spread(y);
+    }
+
+    /**
+     * Spreads the lower 32 bits of a value to the even bit positions of a long.
+     *
+     * @param value The value
+     * @return The value with a zero bit inserted above every bit
+     */
+    private static long spread(long value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+}
@@ -0,0 +1,43 @@
+package com.birdwatch.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for cursor-based pagination of list endpoints.
+ * Provides the page size limits and the header used to return the next page cursor.
+ */
+public class Pagination {
+    // Response header carrying the cursor of the next page, absent on the last page
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Page size used when the client does not request one
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    // Largest page size served, regardless of what the client requests
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private Pagination() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Resolves the requested page size against the server-side limits.
+     *
+     * @param limit The page size requested by the client, may be null
+     * @return The default page size if none was requested, otherwise the requested size capped at the maximum
+     * @throws ResponseStatusException if the requested page size is not positive
+     */
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Limit must be a positive number");
+        }
+
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,468 @@
+package com.birdwatch.utils;
+
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.SightingDTO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed columnar file of archived sightings, ordered by sighting date and ID.
+ * Each column is stored as one run of values: IDs, bird IDs, locations as codes into a dictionary of
+ * the distinct locations, latitudes and longitudes (NaN without coordinates) and the sighting and creation
+ * times as epoch seconds and nanoseconds. The whole file is GZIP-compressed; runs of similar values,
+ * like neighbouring IDs and times or repeated location codes, compress well.
+ * Files are written to a temporary file first and moved into place, so readers never see a partial file.
+ * New files are put together column by column with a Builder.
+ */
+public class SightingArchiveFile {
+
+    private static final int MAGIC = 0x42574131; // "BWA1"
+
+    // Stored for a missing creation time
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final long[] ids;
+    private final long[] birdIds;
+    private final String[] dictionary;
+    private final int[] locationCodes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] sightingSeconds;
+    private final int[] sightingNanos;
+    private final long[] createdSeconds;
+    private final int[] createdNanos;
+
+    private SightingArchiveFile(int size, String[] dictionary) {
+        this(new long[size], new long[size], dictionary, new int[size], new double[size], new double[size],
+            new long[size], new int[size], new long[size], new int[size]);
+    }
+
+    private SightingArchiveFile(long[] ids, long[] birdIds, String[] dictionary, int[] locationCodes,
+                                double[] latitudes, double[] longitudes, long[] sightingSeconds,
+                                int[] sightingNanos, long[] createdSeconds, int[] createdNanos) {
+        this.ids = ids;
+        this.birdIds = birdIds;
+        this.dictionary = dictionary;
+        this.locationCodes = locationCodes;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.sightingSeconds = sightingSeconds;
+        this.sightingNanos = sightingNanos;
+        this.createdSeconds = createdSeconds;
+        this.createdNanos = createdNanos;
+    }
+
+    /**
+     * Merges the sightings of an archive file with newly archived sightings into one file.
+     * Both are ordered by sighting date and ID; a newly archived sighting replaces the archived
+     * sighting with the same ID.
+     *
+     * @param archived The sightings already in the archive file
+     * @param added The newly archived sightings
+     * @return The merged sightings, ordered by sighting date and ID
+     */
+    public static SightingArchiveFile merge(SightingArchiveFile archived, SightingArchiveFile added) {
+        long[] addedIds = added.ids.clone();
+        Arrays.sort(addedIds);
+        Builder merged = new Builder();
+        int row = 0;
+        for (int addedRow = 0; addedRow < added.size(); addedRow++) {
+            while (row < archived.size() && archived.compareRows(row, added, addedRow) < 0) {
+                if (Arrays.binarySearch(addedIds, archived.ids[row]) < 0) {
+                    merged.addRow(archived, row);
+                }
+                row++;
+            }
+            merged.addRow(added, addedRow);
+        }
+        for (; row < archived.size(); row++) {
+            if (Arrays.binarySearch(addedIds, archived.ids[row]) < 0) {
+                merged.addRow(archived, row);
+            }
+        }
+        return merged.build();
+    }
+
+    /**
+     * Writes the sightings to an archive file, replacing the file if it exists.
+     *
+     * @param file The archive file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(size());
+            out.writeInt(dictionary.length);
+            for (String location : dictionary) {
+                out.writeUTF(location);
+            }
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+            for (long birdId : birdIds) {
+                out.writeLong(birdId);
+            }
+            for (int locationCode : locationCodes) {
+                out.writeInt(locationCode);
+            }
+            for (double latitude : latitudes) {
+                out.writeDouble(latitude);
+            }
+            for (double longitude : longitudes) {
+                out.writeDouble(longitude);
+            }
+            for (long second : sightingSeconds) {
+                out.writeLong(second);
+            }
+            for (int nano : sightingNanos) {
+                out.writeInt(nano);
+            }
+            for (long second : createdSeconds) {
+                out.writeLong(second);
+            }
+            for (int nano : createdNanos) {
+                out.writeInt(nano);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an archive file.
+     *
+     * @param file The archive file
+     * @return The columns of the archived sightings
+     * @throws IOException if the file cannot be read or is not an archive file
+     */
+    public static SightingArchiveFile read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a sighting archive file: " + file);
+            }
+            int size = in.readInt();
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.readUTF();
+            }
+
+            SightingArchiveFile archive = new SightingArchiveFile(size, dictionary);
+            for (int i = 0; i < size; i++) {
+                archive.ids[i] = in.readLong();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.birdIds[i] = in.readLong();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.locationCodes[i] = in.readInt();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.latitudes[i] = in.readDouble();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.longitudes[i] = in.readDouble();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.sightingSeconds[i] = in.readLong();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.sightingNanos[i] = in.readInt();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.createdSeconds[i] = in.readLong();
+            }
+            for (int i = 0; i < size; i++) {
+                archive.createdNanos[i] = in.readInt();
+            }
+            return archive;
+        }
+    }
+
+    /**
+     * Gets the number of archived sightings.
+     *
+     * @return The number of rows
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Finds the first archived sighting sighted at or after a time, by binary search over the
+     * sighting dates, which are in ascending order.
+     *
+     * @param from The earliest sighting date
+     * @return The first row sighted at or after the time, or the number of rows if there is none
+     */
+    public int firstRowFrom(LocalDateTime from) {
+        long second = from.toEpochSecond(ZoneOffset.UTC);
+        int nano = from.getNano();
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sightingSeconds[middle] < second
+                    || (sightingSeconds[middle] == second && sightingNanos[middle] < nano)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the ID of an archived sighting.
+     *
+     * @param row The row
+     * @return The sighting ID
+     */
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Gets the bird ID of an archived sighting.
+     *
+     * @param row The row
+     * @return The ID of the sighted bird
+     */
+    public long getBirdId(int row) {
+        return birdIds[row];
+    }
+
+    /**
+     * Gets the location of an archived sighting.
+     *
+     * @param row The row
+     * @return The location
+     */
+    public String getLocation(int row) {
+        return dictionary[locationCodes[row]];
+    }
+
+    /**
+     * Checks whether an archived sighting has coordinates.
+     *
+     * @param row The row
+     * @return true if the latitude and longitude are set
+     */
+    public boolean hasCoordinates(int row) {
+        return !Double.isNaN(latitudes[row]);
+    }
+
+    /**
+     * Gets the latitude of an archived sighting.
+     *
+     * @param row The row
+     * @return The latitude, NaN without coordinates
+     */
+    public double getLatitude(int row) {
+        return latitudes[row];
+    }
+
+    /**
+     * Gets the longitude of an archived sighting.
+     *
+     * @param row The row
+     * @return The longitude, NaN without coordinates
+     */
+    public double getLongitude(int row) {
+        return longitudes[row];
+    }
+
+    /**
+     * Gets the sighting date of an archived sighting.
+     *
+     * @param row The row
+     * @return The date and time of the sighting
+     */
+    public LocalDateTime getSightingDate(int row) {
+        return LocalDateTime.ofEpochSecond(sightingSeconds[row], sightingNanos[row], ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts an archived sighting to a DTO.
+     *
+     * @param row The row
+     * @param bird The sighted bird
+     * @return The sighting DTO
+     */
+    public SightingDTO toDTO(int row, BirdDTO bird) {
+        return new SightingDTO(
+            ids[row],
+            getLocation(row),
+            hasCoordinates(row) ? latitudes[row] : null,
+            hasCoordinates(row) ? longitudes[row] : null,
+            getSightingDate(row),
+            createdSeconds[row] != NO_TIME
+                ? LocalDateTime.ofEpochSecond(createdSeconds[row], createdNanos[row], ZoneOffset.UTC)
+                : null,
+            bird
+        );
+    }
+
+    /**
+     * Gets the IDs of all archived sightings.
+     *
+     * @return The sighting IDs, ordered by sighting date and ID
+     */
+    public List<Long> getIds() {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Compares a row of this file with a row of another file by sighting date and ID.
+     *
+     * @param row The row of this file
+     * @param other The other file
+     * @param otherRow The row of the other file
+     * @return A negative number, zero or a positive number if the row sorts before, with or after the other row
+     */
+    private int compareRows(int row, SightingArchiveFile other, int otherRow) {
+        int bySecond = Long.compare(sightingSeconds[row], other.sightingSeconds[otherRow]);
+        if (bySecond != 0) {
+            return bySecond;
+        }
+        int byNano = Integer.compare(sightingNanos[row], other.sightingNanos[otherRow]);
+        return byNano != 0 ? byNano : Long.compare(ids[row], other.ids[otherRow]);
+    }
+
+    /**
+     * Collects sightings into the columns of an archive file, one sighting at a time, so sightings
+     * streamed from the database are not held as objects.
+     * Sightings must be added in order of sighting date and ID.
+     */
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int size;
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private long[] birdIds = new long[INITIAL_CAPACITY];
+        private int[] locationCodes = new int[INITIAL_CAPACITY];
+        private double[] latitudes = new double[INITIAL_CAPACITY];
+        private double[] longitudes = new double[INITIAL_CAPACITY];
+        private long[] sightingSeconds = new long[INITIAL_CAPACITY];
+        private int[] sightingNanos = new int[INITIAL_CAPACITY];
+        private long[] createdSeconds = new long[INITIAL_CAPACITY];
+        private int[] createdNanos = new int[INITIAL_CAPACITY];
+
+        /**
+         * Adds a sighting.
+         *
+         * @param sighting The sighting, sighted at or after the sightings added before
+         * @return This builder
+         */
+        public Builder add(SightingDTO sighting) {
+            add(
+                sighting.getId(),
+                sighting.getBird().getId(),
+                sighting.getLocation(),
+                sighting.getLatitude() != null ? sighting.getLatitude() : Double.NaN,
+                sighting.getLongitude() != null ? sighting.getLongitude() : Double.NaN,
+                sighting.getSightingDate().toEpochSecond(ZoneOffset.UTC),
+                sighting.getSightingDate().getNano(),
+                sighting.getCreatedAt() != null ? sighting.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : NO_TIME,
+                sighting.getCreatedAt() != null ? sighting.getCreatedAt().getNano() : 0
+            );
+            return this;
+        }
+
+        /**
+         * Adds a row of an archive file.
+         *
+         * @param archive The archive file
+         * @param row The row
+         */
+        private void addRow(SightingArchiveFile archive, int row) {
+            add(archive.ids[row], archive.birdIds[row], archive.getLocation(row), archive.latitudes[row],
+                archive.longitudes[row], archive.sightingSeconds[row], archive.sightingNanos[row],
+                archive.createdSeconds[row], archive.createdNanos[row]);
+        }
+
+        /**
+         * Appends the values of one sighting to the columns, growing them when full.
+         *
+         * @param id The sighting ID
+         * @param birdId The ID of the sighted bird
+         * @param location The location
+         * @param latitude The latitude, NaN without coordinates
+         * @param longitude The longitude, NaN without coordinates
+         * @param sightingSecond The sighting time in epoch seconds
+         * @param sightingNano The nanoseconds of the sighting time
+         * @param createdSecond The creation time in epoch seconds, NO_TIME if missing
+         * @param createdNano The nanoseconds of the creation time
+         */
+        private void add(long id, long birdId, String location, double latitude, double longitude,
+                         long sightingSecond, int sightingNano, long createdSecond, int createdNano) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                birdIds = Arrays.copyOf(birdIds, capacity);
+                locationCodes = Arrays.copyOf(locationCodes, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                sightingSeconds = Arrays.copyOf(sightingSeconds, capacity);
+                sightingNanos = Arrays.copyOf(sightingNanos, capacity);
+                createdSeconds = Arrays.copyOf(createdSeconds, capacity);
+                createdNanos = Arrays.copyOf(createdNanos, capacity);
+            }
+            ids[size] = id;
+            birdIds[size] = birdId;
+            locationCodes[size] = codes.computeIfAbsent(location, added -> {
+                dictionary.add(added);
+                return dictionary.size() - 1;
+            });
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            sightingSeconds[size] = sightingSecond;
+            sightingNanos[size] = sightingNano;
+            createdSeconds[size] = createdSecond;
+            createdNanos[size] = createdNano;
+            size++;
+        }
+
+        /**
+         * Creates the archive file of the added sightings.
+         *
+         * @return The columns of the added sightings
+         */
+        public SightingArchiveFile build() {
+            return new SightingArchiveFile(
+                Arrays.copyOf(ids, size),
+                Arrays.copyOf(birdIds, size),
+                dictionary.toArray(new String[0]),
+                Arrays.copyOf(locationCodes, size),
+                Arrays.copyOf(latitudes, size),
+                Arrays.copyOf(longitudes, size),
+                Arrays.copyOf(sightingSeconds, size),
+                Arrays.copyOf(sightingNanos, size),
+                Arrays.copyOf(createdSeconds, size),
+                Arrays.copyOf(createdNanos, size)
+            );
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package com.birdwatch.utils;
+
+import com.birdwatch.dto.SightingStats;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columnar store of the sightings' birds, locations and sighting dates, kept outside the Java heap.
+ * Each column is a direct buffer holding one primitive value per row: the sighting ID, a dense int code
+ * of the bird assigned by the caller, the location as a code into a dictionary of the distinct locations,
+ * and the sighting date as epoch seconds.
+ * Rows are unordered; a removed row is replaced by the last one, and the columns double in size when full.
+ * Counts are computed by scanning the columns in batches of {@value #BATCH_SIZE} rows: each filter narrows
+ * a selection vector of row numbers in a tight loop over one column, and the selected rows are then counted
+ * into a primitive hash table of groups, so no object is created per row.
+ * Not thread-safe; callers must synchronize access.
+ */
+public class SightingColumns {
+
+    /**
+     * Number of rows filtered together before their groups are counted.
+     */
+    static final int BATCH_SIZE = 1024;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final long SECONDS_PER_HOUR = 3600;
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private LongBuffer ids = LongBuffer.allocate(0);
+    private IntBuffer birdCodes = IntBuffer.allocate(0);
+    private IntBuffer locationCodes = IntBuffer.allocate(0);
+    private LongBuffer sightingSeconds = LongBuffer.allocate(0);
+    private int capacity;
+    private int size;
+
+    private final RowIndex rows = new RowIndex();
+
+    private final List<String> dictionary = new ArrayList<>();
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * Creates an empty store.
+     */
+    public SightingColumns() {
+        grow(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds a sighting, or replaces the values of the sighting with the same ID.
+     *
+     * @param id The sighting ID
+     * @param birdCode The code of the sighted bird, assigned by the caller
+     * @param location The location
+     * @param epochSecond The sighting date as seconds since the epoch
+     */
+    public void put(long id, int birdCode, String location, long epochSecond) {
+        int row = rows.get(id);
+        if (row < 0) {
+            if (size == capacity) {
+                grow(capacity * 2);
+            }
+            row = size++;
+            ids.put(row, id);
+            rows.put(id, row);
+        }
+        birdCodes.put(row, birdCode);
+        locationCodes.put(row, codeOf(location));
+        sightingSeconds.put(row, epochSecond);
+    }
+
+    /**
+     * Checks whether a sighting is stored.
+     *
+     * @param id The sighting ID
+     * @return true if the sighting has a row
+     */
+    public boolean contains(long id) {
+        return rows.get(id) >= 0;
+    }
+
+    /**
+     * Removes a sighting if it is stored.
+     *
+     * @param id The sighting ID
+     */
+    public void remove(long id) {
+        int row = rows.remove(id);
+        if (row >= 0) {
+            removeRow(row);
+        }
+    }
+
+    /**
+     * Removes the sightings of the given birds.
+     *
+     * @param birds The codes of the birds
+     */
+    public void removeBirds(BitSet birds) {
+        for (int row = size - 1; row >= 0; row--) {
+            if (birds.get(birdCodes.get(row))) {
+                rows.remove(ids.get(row));
+                removeRow(row);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of stored sightings.
+     *
+     * @return The number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the location of a dictionary code.
+     *
+     * @param code The location code
+     * @return The location
+     */
+    public String getLocation(int code) {
+        return dictionary.get(code);
+    }
+
+    /**
+     * Finds the dictionary codes of the locations containing a text, ignoring case,
+     * so a location filter is evaluated once per distinct location instead of once per row.
+     *
+     * @param text The text the location must contain
+     * @return The matching location codes
+     */
+    public BitSet matchLocations(String text) {
+        String pattern = text.toLowerCase(Locale.ROOT);
+        BitSet matching = new BitSet(dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            if (dictionary.get(code).toLowerCase(Locale.ROOT).contains(pattern)) {
+                matching.set(code);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Counts the sightings matching a filter, grouped by bird, location and/or time bucket.
+     *
+     * @param groupBy The dimensions to group by, empty for a single total
+     * @param birds Optional codes of the birds to count, null for every bird
+     * @param locations Optional codes of the locations to count, null for every location
+     * @param fromSecond Inclusive lower bound of the sighting date in epoch seconds
+     * @param toSecond Inclusive upper bound of the sighting date in epoch seconds
+     * @return The groups with their counts; a single group without values if nothing is grouped by
+     */
+    public Groups count(Set<SightingStats.Dimension> groupBy, BitSet birds, BitSet locations,
+                        long fromSecond, long toSecond) {
+        boolean byBird = groupBy.contains(SightingStats.Dimension.BIRD);
+        boolean byLocation = groupBy.contains(SightingStats.Dimension.LOCATION);
+        SightingStats.Dimension bucket = groupBy.stream()
+            .filter(SightingStats.Dimension::isTimeBucket)
+            .findFirst()
+            .orElse(null);
+
+        boolean total = !byBird && !byLocation && bucket == null;
+        Groups groups = new Groups();
+        if (total) {
+            groups.add(0, 0, 0, 0);
+        }
+        int[] selection = new int[BATCH_SIZE];
+        for (int start = 0; start < size; start += BATCH_SIZE) {
+            int end = Math.min(start + BATCH_SIZE, size);
+
+            int selected = 0;
+            for (int row = start; row < end; row++) {
+                long second = sightingSeconds.get(row);
+                selection[selected] = row;
+                selected += second >= fromSecond && second <= toSecond ? 1 : 0;
+            }
+            if (birds != null) {
+                selected = select(selection, selected, birdCodes, birds);
+            }
+            if (locations != null) {
+                selected = select(selection, selected, locationCodes, locations);
+            }
+
+            if (total) {
+                groups.counts[0] += selected;
+                continue;
+            }
+            for (int i = 0; i < selected; i++) {
+                int row = selection[i];
+                groups.add(byBird ? birdCodes.get(row) : 0,
+                    byLocation ? locationCodes.get(row) : 0,
+                    bucket != null ? bucketOf(sightingSeconds.get(row), bucket) : 0,
+                    1);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Narrows a selection vector to the rows whose value in an int column is in a set.
+     *
+     * @param selection The selected row numbers, overwritten with the remaining ones
+     * @param selected The number of selected rows
+     * @param column The column
+     * @param values The accepted values
+     * @return The number of remaining rows
+     */
+    private static int select(int[] selection, int selected, IntBuffer column, BitSet values) {
+        int kept = 0;
+        for (int i = 0; i < selected; i++) {
+            int row = selection[i];
+            selection[kept] = row;
+            kept += values.get(column.get(row)) ? 1 : 0;
+        }
+        return kept;
+    }
+
+    /**
+     * Truncates a sighting date to the start of its time bucket, as PostgreSQL's date_trunc does;
+     * weeks start on Monday.
+     *
+     * @param second The sighting date in epoch seconds
+     * @param bucket The time bucket dimension
+     * @return The start of the bucket in epoch seconds
+     */
+    static long bucketOf(long second, SightingStats.Dimension bucket) {
+        long day = Math.floorDiv(second, SECONDS_PER_DAY);
+        switch (bucket) {
+            case HOUR:
+                return second - Math.floorMod(second, SECONDS_PER_HOUR);
+            case DAY:
+                return day * SECONDS_PER_DAY;
+            case WEEK:
+                // Day 0 of the epoch was a Thursday
+                return (day - Math.floorMod(day + 3, 7)) * SECONDS_PER_DAY;
+            default:
+                return firstDayOfMonth(day) * SECONDS_PER_DAY;
+        }
+    }
+
+    /**
+     * Gets the first day of the month of a day, without creating a date object.
+     * Converts the day to its day of the month with the days-to-civil algorithm of the proleptic
+     * Gregorian calendar, counting years from March so that leap days come last.
+     *
+     * @param epochDay The day as days since the epoch
+     * @return The first day of its month as days since the epoch
+     */
+    static long firstDayOfMonth(long epochDay) {
+        long shifted = epochDay + 719468;
+        long era = Math.floorDiv(shifted, 146097);
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long month = (5 * dayOfYear + 2) / 153;
+        long dayOfMonth = dayOfYear - (153 * month + 2) / 5 + 1;
+        return epochDay - dayOfMonth + 1;
+    }
+
+    /**
+     * Gets the dictionary code of a location, adding it to the dictionary if new.
+     * Codes of locations no longer used are kept, as the dictionary only grows with distinct locations.
+     *
+     * @param location The location
+     * @return The location code
+     */
+    private int codeOf(String location) {
+        return codes.computeIfAbsent(location, added -> {
+            dictionary.add(added);
+            return dictionary.size() - 1;
+        });
+    }
+
+    /**
+     * Removes a row by moving the last row into its place.
+     *
+     * @param row The row, already removed from the row index
+     */
+    private void removeRow(int row) {
+        size--;
+        if (row != size) {
+            long movedId = ids.get(size);
+            ids.put(row, movedId);
+            birdCodes.put(row, birdCodes.get(size));
+            locationCodes.put(row, locationCodes.get(size));
+            sightingSeconds.put(row, sightingSeconds.get(size));
+            rows.put(movedId, row);
+        }
+    }
+
+    /**
+     * Moves the columns to new direct buffers of a larger capacity.
+     *
+     * @param newCapacity The new number of rows the columns can hold
+     */
+    private void grow(int newCapacity) {
+        LongBuffer newIds = allocate(newCapacity, Long.BYTES).asLongBuffer();
+        IntBuffer newBirdCodes = allocate(newCapacity, Integer.BYTES).asIntBuffer();
+        IntBuffer newLocationCodes = allocate(newCapacity, Integer.BYTES).asIntBuffer();
+        LongBuffer newSightingSeconds = allocate(newCapacity, Long.BYTES).asLongBuffer();
+        for (int row = 0; row < size; row++) {
+            newIds.put(row, ids.get(row));
+            newBirdCodes.put(row, birdCodes.get(row));
+            newLocationCodes.put(row, locationCodes.get(row));
+            newSightingSeconds.put(row, sightingSeconds.get(row));
+        }
+        ids = newIds;
+        birdCodes = newBirdCodes;
+        locationCodes = newLocationCodes;
+        sightingSeconds = newSightingSeconds;
+        capacity = newCapacity;
+    }
+
+    /**
+     * Allocates a direct buffer in the native byte order.
+     *
+     * @param rows The number of values
+     * @param bytes The size of a value in bytes
+     * @return The buffer
+     */
+    private static ByteBuffer allocate(int rows, int bytes) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(rows, bytes)).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Groups counted by a scan: the bird code, location code and time bucket start of each group
+     * with its count, in parallel arrays. Values of dimensions not grouped by are 0.
+     * Groups are found through an open-addressing hash table over their values.
+     */
+    public static final class Groups {
+        private int[] birdCodes = new int[1];
+        private int[] locationCodes = new int[1];
+        private long[] buckets = new long[1];
+        private long[] counts = new long[1];
+        private int[] slots = new int[16];
+        private int size;
+
+        /**
+         * Gets the number of groups.
+         *
+         * @return The number of groups
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets the bird code of a group.
+         *
+         * @param group The group
+         * @return The bird code
+         */
+        public int getBirdCode(int group) {
+            return birdCodes[group];
+        }
+
+        /**
+         * Gets the location code of a group.
+         *
+         * @param group The group
+         * @return The location code
+         */
+        public int getLocationCode(int group) {
+            return locationCodes[group];
+        }
+
+        /**
+         * Gets the time bucket of a group.
+         *
+         * @param group The group
+         * @return The start of the time bucket in epoch seconds
+         */
+        public long getBucket(int group) {
+            return buckets[group];
+        }
+
+        /**
+         * Gets the number of sightings in a group.
+         *
+         * @param group The group
+         * @return The count
+         */
+        public long getCount(int group) {
+            return counts[group];
+        }
+
+        /**
+         * Adds to the count of a group, creating the group if new.
+         *
+         * @param birdCode The bird code
+         * @param locationCode The location code
+         * @param bucket The time bucket start
+         * @param count The count to add
+         */
+        void add(int birdCode, int locationCode, long bucket, long count) {
+            int mask = slots.length - 1;
+            int slot = hash(birdCode, locationCode, bucket) & mask;
+            while (slots[slot] != 0) {
+                int group = slots[slot] - 1;
+                if (birdCodes[group] == birdCode && locationCodes[group] == locationCode && buckets[group] == bucket) {
+                    counts[group] += count;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (size == counts.length) {
+                birdCodes = Arrays.copyOf(birdCodes, size * 2);
+                locationCodes = Arrays.copyOf(locationCodes, size * 2);
+                buckets = Arrays.copyOf(buckets, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            birdCodes[size] = birdCode;
+            locationCodes[size] = locationCode;
+            buckets[size] = bucket;
+            counts[size] = count;
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+        }
+
+        /**
+         * Doubles the hash table and reinserts the groups.
+         */
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int group = 0; group < size; group++) {
+                int slot = hash(birdCodes[group], locationCodes[group], buckets[group]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = group + 1;
+            }
+        }
+
+        /**
+         * Hashes the values of a group.
+         *
+         * @param birdCode The bird code
+         * @param locationCode The location code
+         * @param bucket The time bucket start
+         * @return The hash
+         */
+        private static int hash(int birdCode, int locationCode, long bucket) {
+            long hash = (birdCode * 31L + locationCode) * 0x9E3779B97F4A7C15L + bucket;
+            hash *= 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ hash >>> 32);
+        }
+    }
+
+    /**
+     * Map from sighting IDs to row numbers, as an open-addressing hash table of primitive arrays
+     * with linear probing. Removed entries are filled by shifting back the entries after them.
+     */
+    private static final class RowIndex {
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        /**
+         * Gets the row of a sighting.
+         *
+         * @param id The sighting ID
+         * @return The row, or -1 if the sighting is not stored
+         */
+        int get(long id) {
+            int mask = keys.length - 1;
+            for (int slot = slotOf(id, mask); used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Sets the row of a sighting.
+         *
+         * @param id The sighting ID
+         * @param row The row
+         */
+        void put(long id, int row) {
+            int mask = keys.length - 1;
+            int slot = slotOf(id, mask);
+            while (used[slot]) {
+                if (keys[slot] == id) {
+                    values[slot] = row;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = id;
+            values[slot] = row;
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        /**
+         * Removes a sighting.
+         *
+         * @param id The sighting ID
+         * @return The row it had, or -1 if the sighting is not stored
+         */
+        int remove(long id) {
+            int mask = keys.length - 1;
+            int slot = slotOf(id, mask);
+            while (used[slot] && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                return -1;
+            }
+            int row = values[slot];
+            size--;
+
+            // Shift back the following entries that would no longer be found past the free slot
+            int free = slot;
+            for (int next = (free + 1) & mask; used[next]; next = (next + 1) & mask) {
+                int home = slotOf(keys[next], mask);
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    keys[free] = keys[next];
+                    values[free] = values[next];
+                    free = next;
+                }
+            }
+            used[free] = false;
+            return row;
+        }
+
+        /**
+         * Doubles the table and reinserts the entries.
+         */
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slotOf(oldKeys[i], mask);
+                    while (used[slot]) {
+                        slot = (slot + 1) & mask;
+                    }
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        /**
+         * Gets the home slot of a sighting ID.
+         *
+         * @param id The sighting ID
+         * @param mask The table size minus one
+         * @return The slot
+         */
+        private static int slotOf(long id, int mask) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ hash >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.birdwatch.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Utility class for the change times read by the delta sync.
+ * Changes are stamped before their transaction commits, so a change can become visible after
+ * later stamped ones. Every transaction that stamps a change is therefore tracked from its first
+ * stamp until it completes, and the watermark stops at the oldest of them: every change stamped
+ * before the watermark has been committed or rolled back, so no sync can miss it.
+ */
+public class SyncWatermark {
+
+    // Key under which the current transaction is bound once it has stamped a change
+    private static final Object TRANSACTION_KEY = new Object();
+
+    // First stamp of every transaction that has stamped a change and not completed yet, guarded by itself
+    private static final Map<Object, LocalDateTime> IN_FLIGHT = new IdentityHashMap<>();
+
+    private SyncWatermark() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Returns the time to stamp a change of the current transaction with.
+     * The first stamp of a transaction holds back the watermark until the transaction completes.
+     *
+     * @return The current time
+     */
+    public static LocalDateTime stamp() {
+        synchronized (IN_FLIGHT) {
+            LocalDateTime now = LocalDateTime.now();
+            if (TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.hasResource(TRANSACTION_KEY)) {
+                Object transaction = new Object();
+                IN_FLIGHT.put(transaction, now);
+                TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, transaction);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+                        synchronized (IN_FLIGHT) {
+                            IN_FLIGHT.remove(transaction);
+                        }
+                    }
+                });
+            }
+            return now;
+        }
+    }
+
+    /**
+     * Returns the watermark: the current time, or the first stamp of the oldest transaction
+     * still in flight if there is one. Every change stamped before it is final.
+     *
+     * @return The watermark
+     */
+    public static LocalDateTime current() {
+        synchronized (IN_FLIGHT) {
+            LocalDateTime watermark = LocalDateTime.now();
+            for (LocalDateTime start : IN_FLIGHT.values()) {
+                if (start.isBefore(watermark)) {
+                    watermark = start;
+                }
+            }
+            return watermark;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.birdwatch.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for running work once the current transaction has committed.
+ * Used to announce changes only when other transactions can already see them,
+ * and to clean up work done outside the database when a transaction rolls back.
+ */
+public class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Runs an action after the current transaction has committed, or now if there is no transaction.
+     * The action is dropped if the transaction rolls back.
+     *
+     * @param action The action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs an action after the current transaction has rolled back.
+     * Nothing is run if there is no transaction or it commits.
+     *
+     * @param action The action to run
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.birdwatch;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Test utility applying scripts from the db/migration directory to the test database.
+ * The test schema is generated by Hibernate, so objects it cannot express from the entity
+ * mappings (extensions, expression or GIN indexes, ...) are created from the same scripts
+ * the Docker database is initialized with.
+ */
+public final class MigrationScripts {
+    // Tests run from the api module, next to the db directory
+    private static final Path MIGRATION_DIRECTORY = Paths.get("..", "db", "migration");
+
+    private MigrationScripts() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Executes the given migration scripts, in order, against the data source.
+     *
+     * @param dataSource The data source of the test database
+     * @param scripts File names of the scripts in the db/migration directory
+     */
+    public static void apply(DataSource dataSource, String... scripts) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        for (String script : scripts) {
+            populator.addScript(new FileSystemResource(MIGRATION_DIRECTORY.resolve(script)));
+        }
+        populator.execute(dataSource);
+    }
+
+    /**
+     * Executes a migration script as a single statement against the data source.
+     * For scripts defining functions, whose bodies contain semicolons that must not end a statement;
+     * the PostgreSQL driver runs the statements of the script one after the other.
+     *
+     * @param dataSource The data source of the test database
+     * @param script File name of the script in the db/migration directory
+     */
+    public static void applyAsOneStatement(DataSource dataSource, String script) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+            new FileSystemResource(MIGRATION_DIRECTORY.resolve(script)));
+        populator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+        populator.execute(dataSource);
+    }
+}
@@ -0,0 +1,116 @@
+package com.birdwatch.benchmark;
+
+import com.birdwatch.MigrationScripts;
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.service.BirdService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Benchmark comparing case-insensitive substring search on bird name and color
+ * with and without the pg_trgm GIN indexes of migration 004_birds_trigram_indexes.sql.
+ * Seeds the test database with a configurable number of birds (system property
+ * {@code benchmark.birds}, default 1000000) with random names.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BirdSearchBenchmarkTest {
+
+    private static final int BIRDS = Integer.getInteger("benchmark.birds", 1_000_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BirdService birdService;
+
+    /**
+     * Seeds the birds table with the benchmark dataset.
+     */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update(
+            "INSERT INTO birds (id, name, color, weight, height, created_at) " +
+            "SELECT nextval('birds_id_seq'), 'Bird ' || md5(g::text), " +
+            "(ARRAY['Red', 'Blue', 'Green', 'Gray', 'Black', 'Brown'])[1 + g % 6] || ' ' || (g % 97), " +
+            "1.0, 10.0, now() " +
+            "FROM generate_series(1, ?) g", BIRDS);
+        jdbcTemplate.execute("ANALYZE birds");
+    }
+
+    /**
+     * Removes the benchmark dataset and the trigram indexes.
+     */
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_birds_name_trgm");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_birds_color_trgm");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    /**
+     * Compares the latency of a rare name search and a combined name and color search
+     * before and after creating the trigram indexes.
+     */
+    @Test
+    void substringSearch_SequentialScanVersusTrigramIndex() {
+        List<BirdDTO> nameBefore = measure("name search, no index", () ->
+            birdService.searchBirdsPage("abc12", null, null, PAGE_SIZE));
+        List<BirdDTO> nameAndColorBefore = measure("name and color search, no index", () ->
+            birdService.searchBirdsPage("abc1", "blue 7", null, PAGE_SIZE));
+
+        MigrationScripts.apply(dataSource, "004_birds_trigram_indexes.sql");
+        jdbcTemplate.execute("ANALYZE birds");
+
+        List<BirdDTO> nameAfter = measure("name search, trigram index", () ->
+            birdService.searchBirdsPage("abc12", null, null, PAGE_SIZE));
+        List<BirdDTO> nameAndColorAfter = measure("name and color search, trigram index", () ->
+            birdService.searchBirdsPage("abc1", "blue 7", null, PAGE_SIZE));
+
+        assertFalse(nameAfter.isEmpty());
+        assertEquals(nameBefore, nameAfter);
+        assertEquals(nameAndColorBefore, nameAndColorAfter);
+    }
+
+    /**
+     * Runs the given search a number of times and prints the median latency.
+     *
+     * @param label The label printed with the result
+     * @param search The search to measure
+     * @return The result of the last run
+     */
+    private List<BirdDTO> measure(String label, Supplier<List<BirdDTO>> search) {
+        List<BirdDTO> result = search.get(); // warm-up
+        long[] timings = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            result = search.get();
+            timings[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(timings);
+        System.out.printf("%s: median %.2f ms over %d runs, %d rows%n",
+            label, timings[ITERATIONS / 2] / 1_000_000.0, ITERATIONS, result.size());
+        return result;
+    }
+}
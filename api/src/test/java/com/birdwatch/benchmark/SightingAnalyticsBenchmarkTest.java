@@ -0,0 +1,210 @@
+package com.birdwatch.benchmark;
+
+import com.birdwatch.dto.SightingStats;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.service.SightingAnalyticsService;
+import com.birdwatch.service.SightingRollupService;
+import com.birdwatch.service.SightingService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark comparing grouped sighting counts computed from the columnar analytics snapshot with
+ * the same counts computed from loaded Sighting entities and by the database.
+ * Seeds the test database with a configurable number of sightings (system property
+ * {@code benchmark.sightings}, default 200000) of 20 birds at 50 locations over one year.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SightingAnalyticsBenchmarkTest {
+
+    private static final int SIGHTINGS = Integer.getInteger("benchmark.sightings", 200_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final int BIRDS = 20;
+    private static final int LOCATIONS = 50;
+
+    private static final Comparator<List<Object>> BY_BIRD_AND_MONTH = Comparator
+        .comparing((List<Object> group) -> (Long) group.get(0))
+        .thenComparing(group -> (LocalDateTime) group.get(2));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private SightingRollupService sightingRollupService;
+
+    @Autowired
+    private SightingAnalyticsService sightingAnalyticsService;
+
+    /**
+     * Seeds the birds and sightings tables with the benchmark dataset, rebuilds the daily rollup
+     * and loads the dataset into the analytics snapshot.
+     */
+    @BeforeAll
+    void seed() {
+        List<Object[]> birds = new ArrayList<>();
+        for (int i = 1; i <= BIRDS; i++) {
+            birds.add(new Object[] { "Benchmark Bird " + i });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO birds (id, name, color, weight, height, created_at) " +
+            "VALUES (nextval('birds_id_seq'), ?, 'Gray', 1.0, 10.0, now())",
+            birds);
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds ORDER BY id", Long.class);
+
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusYears(1);
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(SIGHTINGS);
+        for (int i = 0; i < SIGHTINGS; i++) {
+            rows.add(new Object[] {
+                birdIds.get(random.nextInt(birdIds.size())),
+                "Location " + random.nextInt(LOCATIONS),
+                Timestamp.valueOf(start.plusSeconds(random.nextInt(365 * 24 * 3600)))
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO sightings (id, bird_id, location, sighting_date, created_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, ?, ?, now())",
+            rows);
+        jdbcTemplate.execute("ANALYZE sightings");
+
+        sightingRollupService.rebuild();
+        sightingAnalyticsService.warmUp();
+    }
+
+    /**
+     * Removes the benchmark dataset from the database and the analytics snapshot.
+     */
+    @AfterAll
+    void cleanUp() {
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds", Long.class);
+        sightingAnalyticsService.birdsDeleted(birdIds);
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM sighting_daily_rollup");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    /**
+     * Compares monthly counts per bird computed from loaded entities, summed by the database
+     * from the daily rollup, and computed from the snapshot.
+     */
+    @Test
+    void countsPerBirdAndMonth_EntitiesVersusDatabaseVersusSnapshot() {
+        Set<SightingStats.Dimension> groupBy = EnumSet.of(SightingStats.Dimension.BIRD, SightingStats.Dimension.MONTH);
+
+        SightingStats entities = measure("per bird and month, JPA entities", this::countEntitiesPerBirdAndMonth);
+        SightingStats database = measure("per bird and month, database", () ->
+            sightingService.getStats(groupBy, null, null, null, null));
+        SightingStats snapshot = measure("per bird and month, columnar snapshot", () ->
+            sightingAnalyticsService.count(groupBy, null, null, null, null));
+
+        assertEquals(rows(database), rows(entities));
+        assertEquals(rows(database), rows(snapshot));
+    }
+
+    /**
+     * Compares hourly counts per location of one bird over a quarter, which the daily rollup does not
+     * cover, between the database and the snapshot.
+     */
+    @Test
+    void countsPerLocationAndHour_DatabaseVersusSnapshot() {
+        Set<SightingStats.Dimension> groupBy = EnumSet.of(SightingStats.Dimension.LOCATION, SightingStats.Dimension.HOUR);
+        LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime start = end.minusMonths(3);
+
+        SightingStats database = measure("per location and hour, database", () ->
+            sightingService.getStats(groupBy, "Benchmark Bird 7", null, start, end));
+        SightingStats snapshot = measure("per location and hour, columnar snapshot", () ->
+            sightingAnalyticsService.count(groupBy, "Benchmark Bird 7", null, start, end));
+
+        assertEquals(rows(database).size(), rows(snapshot).size());
+        assertEquals(rows(database).stream().mapToLong(row -> (Long) row.get(2)).sum(),
+            rows(snapshot).stream().mapToLong(row -> (Long) row.get(2)).sum());
+    }
+
+    /**
+     * Counts the sightings per bird and month by loading every sighting entity.
+     *
+     * @return The counts in the format of the statistics
+     */
+    private SightingStats countEntitiesPerBirdAndMonth() {
+        Map<List<Object>, Long> counts = sightingService.findAll().stream()
+            .collect(Collectors.groupingBy(sighting -> List.of(
+                sighting.getBird().getId(),
+                sighting.getBird().getName(),
+                monthOf(sighting)), () -> new TreeMap<>(BY_BIRD_AND_MONTH), Collectors.counting()));
+        List<Object[]> rows = counts.entrySet().stream()
+            .map(group -> new Object[] { group.getKey().get(0), group.getKey().get(1), group.getKey().get(2), group.getValue() })
+            .collect(Collectors.toList());
+        return new SightingStats(List.of("birdId", "birdName", "month", SightingStats.COUNT_COLUMN), rows);
+    }
+
+    /**
+     * Gets the start of the month of a sighting.
+     *
+     * @param sighting The sighting
+     * @return Midnight of the first day of its month
+     */
+    private static LocalDateTime monthOf(Sighting sighting) {
+        return sighting.getSightingDate().truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+    }
+
+    /**
+     * Converts the rows of statistics to lists, so they can be compared by value.
+     *
+     * @param stats The statistics
+     * @return The rows as lists of values
+     */
+    private static List<List<Object>> rows(SightingStats stats) {
+        return stats.getRows().stream().map(Arrays::asList).collect(Collectors.toList());
+    }
+
+    /**
+     * Runs the given computation a number of times and prints the median latency.
+     *
+     * @param label The label printed with the result
+     * @param computation The computation to measure
+     * @return The result of the last run
+     */
+    private SightingStats measure(String label, Supplier<SightingStats> computation) {
+        SightingStats result = computation.get(); // warm-up
+        long[] timings = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            result = computation.get();
+            timings[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(timings);
+        System.out.printf("%s: median %.2f ms over %d runs, %d rows%n",
+            label, timings[ITERATIONS / 2] / 1_000_000.0, ITERATIONS, result.getRows().size());
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+package com.birdwatch.benchmark;
+
+import com.birdwatch.dto.SightingRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Benchmark comparing the throughput of uploading sightings one request at a time
+ * with uploading them in a single bulk request.
+ * Each upload contains a configurable number of sightings (system property
+ * {@code benchmark.uploadSize}, default 5000) spread over 100 birds.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SightingBulkInsertBenchmarkTest {
+
+    private static final int UPLOAD_SIZE = Integer.getInteger("benchmark.uploadSize", 5_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final int BIRDS = 100;
+    private static final LocalDateTime FIRST_SIGHTING = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<SightingRequest> upload;
+
+    /**
+     * Seeds the birds table and builds the upload.
+     */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update(
+            "INSERT INTO birds (id, name, color, weight, height, created_at) " +
+            "SELECT nextval('birds_id_seq'), 'Benchmark Bird ' || g, 'Gray', 1.0, 10.0, now() " +
+            "FROM generate_series(1, ?) g", BIRDS);
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds ORDER BY id", Long.class);
+
+        upload = new ArrayList<>(UPLOAD_SIZE);
+        for (int i = 0; i < UPLOAD_SIZE; i++) {
+            SightingRequest request = new SightingRequest();
+            request.setBirdId(birdIds.get(i % birdIds.size()));
+            request.setLocation("Station " + (i % 20));
+            request.setSightingDate(FIRST_SIGHTING.plusMinutes(i));
+            upload.add(request);
+        }
+    }
+
+    /**
+     * Removes the benchmark dataset.
+     */
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    /**
+     * Compares the time and throughput of creating the upload with one POST /api/sightings
+     * per sighting and with a single POST /api/sightings/bulk.
+     */
+    @Test
+    void upload_SingleRequestsVersusBulkRequest() throws Exception {
+        int before = countSightings();
+
+        measure("one request per sighting", () -> {
+            for (SightingRequest request : upload) {
+                mockMvc.perform(post("/api/sightings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+            }
+        });
+        String body = objectMapper.writeValueAsString(upload);
+        measure("bulk request", () ->
+            mockMvc.perform(post("/api/sightings/bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                .andExpect(status().isOk()));
+
+        assertEquals(before + 2 * (ITERATIONS + 1) * UPLOAD_SIZE, countSightings());
+    }
+
+    /**
+     * Counts the sightings in the database.
+     *
+     * @return The number of sightings
+     */
+    private int countSightings() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM sightings", Integer.class);
+    }
+
+    /**
+     * Runs the given upload a number of times and prints the median latency and throughput.
+     *
+     * @param label The label printed with the result
+     * @param upload The upload to measure
+     * @throws Exception if the upload fails
+     */
+    private void measure(String label, Upload upload) throws Exception {
+        upload.run(); // warm-up
+        long[] timings = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            upload.run();
+            timings[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(timings);
+        double medianMillis = timings[ITERATIONS / 2] / 1_000_000.0;
+        System.out.printf("%s: median %.2f ms for %d sightings (%.0f sightings/s) over %d runs%n",
+            label, medianMillis, UPLOAD_SIZE, UPLOAD_SIZE / (medianMillis / 1000), ITERATIONS);
+    }
+
+    /**
+     * An upload of the benchmark sightings.
+     */
+    @FunctionalInterface
+    private interface Upload {
+        void run() throws Exception;
+    }
+}
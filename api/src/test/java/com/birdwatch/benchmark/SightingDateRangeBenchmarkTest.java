@@ -0,0 +1,130 @@
+package com.birdwatch.benchmark;
+
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.service.SightingService;
+import com.birdwatch.utils.Pagination;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark comparing the in-memory date range filter previously used by the sighting search
+ * with the keyset page search the search endpoint runs, which evaluates the date range in the database.
+ * Seeds the test database with a configurable number of sightings (system property
+ * {@code benchmark.sightings}, default 100000) spread evenly over one year.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SightingDateRangeBenchmarkTest {
+
+    private static final int SIGHTINGS = Integer.getInteger("benchmark.sightings", 100_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final LocalDateTime FIRST_SIGHTING = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SightingService sightingService;
+
+    /**
+     * Seeds the birds and sightings tables with the benchmark dataset.
+     */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO birds (id, name, color, weight, height, created_at) " +
+            "VALUES (nextval('birds_id_seq'), ?, 'Gray', 1.0, 10.0, now())",
+            Arrays.asList(new Object[] { "Benchmark Bird 1" }, new Object[] { "Benchmark Bird 2" }));
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds ORDER BY id", Long.class);
+
+        int minutesBetweenSightings = Math.max(1, 365 * 24 * 60 / SIGHTINGS);
+        List<Object[]> rows = new ArrayList<>(SIGHTINGS);
+        for (int i = 0; i < SIGHTINGS; i++) {
+            rows.add(new Object[] {
+                birdIds.get(i % birdIds.size()),
+                "Location " + (i % 50),
+                Timestamp.valueOf(FIRST_SIGHTING.plusMinutes((long) i * minutesBetweenSightings))
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO sightings (id, bird_id, location, sighting_date, created_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, ?, ?, now())",
+            rows);
+        jdbcTemplate.execute("ANALYZE sightings");
+    }
+
+    /**
+     * Removes the benchmark dataset.
+     */
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    /**
+     * Compares rows fetched and latency for a one-day window between the in-memory filter
+     * and the database-side range predicate.
+     */
+    @Test
+    void oneDayWindow_InMemoryFilterVersusDatabaseRange() {
+        LocalDateTime start = FIRST_SIGHTING.plusMonths(6);
+        LocalDateTime end = start.plusDays(1);
+
+        int[] rowsFetchedBefore = new int[1];
+        List<Sighting> before = measure("in-memory filter", () -> {
+            List<Sighting> all = sightingService.searchSightings(null, null);
+            rowsFetchedBefore[0] = all.size();
+            return all.stream()
+                .filter(s -> !s.getSightingDate().isBefore(start) && !s.getSightingDate().isAfter(end))
+                .collect(Collectors.toList());
+        });
+        List<SightingDTO> after = measure("database range", () ->
+            sightingService.searchSightingsPage(null, null, start, end, null, null, Pagination.MAX_PAGE_SIZE));
+
+        System.out.printf("rows fetched: in-memory filter=%d, database range=%d%n",
+            rowsFetchedBefore[0], after.size());
+        assertEquals(SIGHTINGS, rowsFetchedBefore[0]);
+        assertEquals(before.size(), after.size());
+    }
+
+    /**
+     * Runs the given search a number of times and prints the median latency.
+     *
+     * @param label The label printed with the result
+     * @param search The search to measure
+     * @param <T> The type of the results
+     * @return The result of the last run
+     */
+    private <T> List<T> measure(String label, Supplier<List<T>> search) {
+        List<T> result = search.get(); // warm-up
+        long[] timings = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            result = search.get();
+            timings[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(timings);
+        System.out.printf("%s: median %.2f ms over %d runs%n", label, timings[ITERATIONS / 2] / 1_000_000.0, ITERATIONS);
+        return result;
+    }
+}
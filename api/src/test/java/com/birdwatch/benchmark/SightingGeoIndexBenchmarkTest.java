@@ -0,0 +1,181 @@
+package com.birdwatch.benchmark;
+
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.service.SightingGeoIndexService;
+import com.birdwatch.service.SightingService;
+import com.birdwatch.utils.GeoHash;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Benchmark comparing bounding box and radius queries over recent sightings answered by the
+ * in-memory geo index with the same queries evaluated by the database through the geohash index.
+ * Seeds the test database with a configurable number of sightings (system property
+ * {@code benchmark.sightings}, default 200000) at random points of a 10 by 10 degree region,
+ * sighted over the last two weeks.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SightingGeoIndexBenchmarkTest {
+
+    private static final int SIGHTINGS = Integer.getInteger("benchmark.sightings", 200_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final int LIMIT = 1000;
+    private static final double MIN_LATITUDE = 45.0;
+    private static final double MIN_LONGITUDE = 5.0;
+    private static final double REGION_DEGREES = 10.0;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private SightingGeoIndexService sightingGeoIndexService;
+
+    private LocalDateTime horizon;
+
+    /**
+     * Seeds the birds and sightings tables with the benchmark dataset and loads it into the geo index.
+     */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO birds (id, name, color, weight, height, created_at) " +
+            "VALUES (nextval('birds_id_seq'), ?, 'Gray', 1.0, 10.0, now())",
+            Arrays.asList(new Object[] { "Benchmark Bird 1" }, new Object[] { "Benchmark Bird 2" }));
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds ORDER BY id", Long.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        horizon = now.minusDays(30);
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(SIGHTINGS);
+        for (int i = 0; i < SIGHTINGS; i++) {
+            double latitude = MIN_LATITUDE + random.nextDouble() * REGION_DEGREES;
+            double longitude = MIN_LONGITUDE + random.nextDouble() * REGION_DEGREES;
+            rows.add(new Object[] {
+                birdIds.get(i % birdIds.size()),
+                "Location " + (i % 50),
+                latitude,
+                longitude,
+                GeoHash.encode(latitude, longitude),
+                Timestamp.valueOf(now.minusSeconds(random.nextInt(14 * 24 * 3600)))
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO sightings (id, bird_id, location, latitude, longitude, geo_hash, sighting_date, created_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, ?, ?, ?, ?, ?, now())",
+            rows);
+        jdbcTemplate.execute("ANALYZE sightings");
+
+        sightingGeoIndexService.warmUp();
+    }
+
+    /**
+     * Removes the benchmark dataset from the database and the geo index.
+     */
+    @AfterAll
+    void cleanUp() {
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds", Long.class);
+        sightingGeoIndexService.birdsDeleted(birdIds);
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    /**
+     * Compares the latency of a bounding box query between the database and the geo index.
+     */
+    @Test
+    void boundingBox_DatabaseVersusGeoIndex() {
+        compare("bounding box", GeoArea.boundingBox(50.0, 10.0, 50.2, 10.2));
+    }
+
+    /**
+     * Compares the latency of a radius query between the database and the geo index.
+     */
+    @Test
+    void radius_DatabaseVersusGeoIndex() {
+        compare("10 km radius", GeoArea.circle(50.0, 10.0, 10.0));
+    }
+
+    /**
+     * Measures the latency of a nearest sightings query, which only the geo index answers.
+     */
+    @Test
+    void nearest_GeoIndex() {
+        List<SightingDTO> nearest = measure("100 nearest, geo index", () ->
+            sightingGeoIndexService.findNearest(50.0, 10.0, 100));
+
+        assertEquals(100, nearest.size());
+    }
+
+    /**
+     * Runs an area query against the database and the geo index and checks both find the same sightings.
+     *
+     * @param label The label printed with the results
+     * @param area The area
+     */
+    private void compare(String label, GeoArea area) {
+        List<SightingDTO> database = measure(label + ", database", () ->
+            sightingService.searchSightingsPage(null, null, horizon, null, area, null, LIMIT));
+        List<SightingDTO> index = measure(label + ", geo index", () ->
+            sightingGeoIndexService.findInArea(area, LIMIT));
+
+        assertFalse(index.isEmpty());
+        assertEquals(ids(database), ids(index));
+    }
+
+    /**
+     * Gets the IDs of sightings.
+     *
+     * @param sightings The sightings
+     * @return The set of their IDs
+     */
+    private static Set<Long> ids(List<SightingDTO> sightings) {
+        return sightings.stream().map(SightingDTO::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Runs the given query a number of times and prints the median latency.
+     *
+     * @param label The label printed with the result
+     * @param query The query to measure
+     * @return The result of the last run
+     */
+    private List<SightingDTO> measure(String label, Supplier<List<SightingDTO>> query) {
+        List<SightingDTO> result = query.get(); // warm-up
+        long[] timings = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            result = query.get();
+            timings[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(timings);
+        System.out.printf("%s: median %.2f ms over %d runs, %d rows%n",
+            label, timings[ITERATIONS / 2] / 1_000_000.0, ITERATIONS, result.size());
+        return result;
+    }
+}
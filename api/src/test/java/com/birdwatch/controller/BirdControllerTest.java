@@ -2,7 +2,10 @@ package com.birdwatch.controller;
 
 import com.birdwatch.entity.Bird;
 import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.BulkDeleteResult;
 import com.birdwatch.service.BirdService;
+import com.birdwatch.service.DataVersionService;
+import com.birdwatch.utils.Pagination;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -33,16 +37,21 @@ class BirdControllerTest {
     @Mock
     private BirdService birdService;
 
+    @Mock
+    private DataVersionService dataVersionService;
+
     @InjectMocks
     private BirdController birdController;
 
     private Bird testBird;
     private Bird testBird2;
+    private BirdDTO testBirdDTO;
+    private BirdDTO testBird2DTO;
 
     /**
      * Sets up test data before each test method.
      * Creates two test Bird instances with different properties
-     * to be used across various test methods.
+     * to be used across various test methods, and a current bird data entity tag.
      * This ensures each test starts with a fresh set of test data.
      */
     @BeforeEach
@@ -62,26 +71,140 @@ class BirdControllerTest {
         testBird2.setWeight(2.0);
         testBird2.setHeight(0.4);
         testBird2.setCreatedAt(LocalDateTime.now());
+
+        testBirdDTO = new BirdDTO(testBird.getId(), testBird.getName(), testBird.getColor(),
+            testBird.getWeight(), testBird.getHeight(), testBird.getCreatedAt());
+        testBird2DTO = new BirdDTO(testBird2.getId(), testBird2.getName(), testBird2.getColor(),
+            testBird2.getWeight(), testBird2.getHeight(), testBird2.getCreatedAt());
+
+        lenient().when(dataVersionService.getBirdsTag()).thenReturn("\"v1\"");
     }
 
     /**
      * Tests the GET /api/birds endpoint.
-     * Verifies that the endpoint returns a list of all birds with correct data.
-     * Checks that the service method is called exactly once and the returned list
-     * contains the expected number of birds.
+     * Verifies that the endpoint returns the first page of birds with correct data.
+     * Checks that the service method is called exactly once with the default page size
+     * and that no next page cursor is returned for a partial page.
      */
+    @SuppressWarnings("null")
     @Test
     void getAllBirds_ShouldReturnListOfBirds() {
         // Arrange
-        when(birdService.findAll()).thenReturn(Arrays.asList(testBird, testBird2));
+        when(birdService.findPage(null, Pagination.DEFAULT_PAGE_SIZE)).thenReturn(Arrays.asList(testBirdDTO, testBird2DTO));
 
         // Act
-        List<BirdDTO> result = birdController.getAllBirds();
+        ResponseEntity<List<BirdDTO>> response = birdController.getAllBirds(null, null, null);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(birdService, times(1)).findAll();
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().size());
+        assertFalse(response.getHeaders().containsKey(Pagination.NEXT_CURSOR_HEADER));
+        verify(birdService, times(1)).findPage(null, Pagination.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Tests the GET /api/birds endpoint when the returned page is full.
+     * Verifies that the ID of the last bird is returned as the next page cursor.
+     */
+    @Test
+    void getAllBirds_WhenPageIsFull_ShouldReturnNextCursor() {
+        // Arrange
+        when(birdService.findPage(1L, 1)).thenReturn(Arrays.asList(testBird2DTO));
+
+        // Act
+        ResponseEntity<List<BirdDTO>> response = birdController.getAllBirds(1L, 1, null);
+
+        // Assert
+        assertEquals("2", response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+        verify(birdService, times(1)).findPage(1L, 1);
+    }
+
+    /**
+     * Tests the GET /api/birds endpoint with a page size above the maximum.
+     * Verifies that the page size is capped server-side.
+     */
+    @Test
+    void getAllBirds_WithLimitAboveMaximum_ShouldCapPageSize() {
+        // Act
+        birdController.getAllBirds(null, Integer.MAX_VALUE, null);
+
+        // Assert
+        verify(birdService, times(1)).findPage(null, Pagination.MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Tests the GET /api/birds endpoint.
+     * Verifies that the page is returned with the entity tag of the current bird data.
+     */
+    @Test
+    void getAllBirds_ShouldReturnETag() {
+        // Arrange
+        when(birdService.findPage(null, Pagination.DEFAULT_PAGE_SIZE)).thenReturn(Arrays.asList(testBirdDTO));
+
+        // Act
+        ResponseEntity<List<BirdDTO>> response = birdController.getAllBirds(null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+    }
+
+    /**
+     * Tests the GET /api/birds endpoint with an If-None-Match header matching the current entity tag.
+     * Verifies that 304 NOT_MODIFIED is returned without a body and without loading any bird.
+     */
+    @Test
+    void getAllBirds_WhenETagMatches_ShouldReturnNotModified() {
+        // Arrange
+
+        // Act
+        ResponseEntity<List<BirdDTO>> response = birdController.getAllBirds(null, null, "\"v0\", \"v1\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verifyNoInteractions(birdService);
+    }
+
+    /**
+     * Tests the GET /api/birds endpoint with an If-None-Match header of an older entity tag.
+     * Verifies that the page is loaded and returned with the current entity tag.
+     */
+    @SuppressWarnings("null")
+    @Test
+    void getAllBirds_WhenETagIsStale_ShouldReturnPage() {
+        // Arrange
+        when(dataVersionService.getBirdsTag()).thenReturn("\"v2\"");
+        when(birdService.findPage(null, Pagination.DEFAULT_PAGE_SIZE)).thenReturn(Arrays.asList(testBirdDTO));
+
+        // Act
+        ResponseEntity<List<BirdDTO>> response = birdController.getAllBirds(null, null, "\"v1\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"v2\"", response.getHeaders().getETag());
+        assertEquals(1, response.getBody().size());
+    }
+
+    /**
+     * Tests the GET /api/birds/search endpoint.
+     * Verifies that the search criteria and the cursor are passed to the service.
+     */
+    @SuppressWarnings("null")
+    @Test
+    void searchBirds_ShouldReturnMatchingBirds() {
+        // Arrange
+        when(birdService.searchBirdsPage("Test", "Red", 1L, Pagination.DEFAULT_PAGE_SIZE))
+            .thenReturn(Arrays.asList(testBird2DTO));
+
+        // Act
+        ResponseEntity<List<BirdDTO>> response = birdController.searchBirds("Test", "Red", 1L, null, null);
+
+        // Assert
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().size());
+        assertEquals(testBird2.getId(), response.getBody().get(0).getId());
     }
 
     /**
@@ -96,7 +219,7 @@ class BirdControllerTest {
         when(birdService.findById(1L)).thenReturn(Optional.of(testBird));
 
         // Act
-        ResponseEntity<BirdDTO> response = birdController.getBirdById(1L);
+        ResponseEntity<BirdDTO> response = birdController.getBirdById(1L, null);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -105,6 +228,23 @@ class BirdControllerTest {
         verify(birdService, times(1)).findById(1L);
     }
 
+    /**
+     * Tests the GET /api/birds/{id} endpoint with a weak If-None-Match header matching the current entity tag.
+     * Verifies that 304 NOT_MODIFIED is returned without looking up the bird.
+     */
+    @Test
+    void getBirdById_WhenETagMatches_ShouldReturnNotModified() {
+        // Arrange
+
+        // Act
+        ResponseEntity<BirdDTO> response = birdController.getBirdById(1L, "W/\"v1\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verifyNoInteractions(birdService);
+    }
+
     /**
      * Tests the GET /api/birds/{id} endpoint for a non-existing bird.
      * Verifies that the endpoint returns a 404 NOT_FOUND status when
@@ -116,7 +256,7 @@ class BirdControllerTest {
         when(birdService.findById(999L)).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<BirdDTO> response = birdController.getBirdById(999L);
+        ResponseEntity<BirdDTO> response = birdController.getBirdById(999L, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -172,21 +312,71 @@ class BirdControllerTest {
     /**
      * Tests the DELETE /api/birds/{id} endpoint for an existing bird.
      * Verifies that a bird is deleted successfully when it exists.
-     * Checks that both findById and deleteById methods are called on the service
+     * Checks that deleteById is called on the service without a prior findById
      * and the response status indicates success.
      */
     @Test
     void deleteBird_WhenBirdExists_ShouldReturnOk() {
         // Arrange
-        when(birdService.findById(1L)).thenReturn(Optional.of(testBird));
-        doNothing().when(birdService).deleteById(1L);
+        when(birdService.deleteById(1L)).thenReturn(true);
 
         // Act
         ResponseEntity<Void> response = birdController.deleteBird(1L);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
-        verify(birdService, times(1)).findById(1L);
+        verify(birdService, never()).findById(any());
         verify(birdService, times(1)).deleteById(1L);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Tests the DELETE /api/birds/{id} endpoint for a non-existing bird.
+     * Verifies that the endpoint returns a 404 status when no bird was deleted.
+     */
+    @Test
+    void deleteBird_WhenBirdDoesNotExist_ShouldReturnNotFound() {
+        // Arrange
+        when(birdService.deleteById(1L)).thenReturn(false);
+
+        // Act
+        ResponseEntity<Void> response = birdController.deleteBird(1L);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    /**
+     * Tests the DELETE /api/birds endpoint with a list of IDs.
+     * Verifies that the birds are deleted with one service call and the number of deleted birds is returned.
+     */
+    @SuppressWarnings("null")
+    @Test
+    void deleteBirds_ShouldReturnDeletedCount() {
+        // Arrange
+        List<Long> ids = Arrays.asList(1L, 2L, 3L);
+        when(birdService.deleteAllById(ids)).thenReturn(2);
+
+        // Act
+        ResponseEntity<BulkDeleteResult> response = birdController.deleteBirds(ids);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getDeleted());
+        verify(birdService, times(1)).deleteAllById(ids);
+    }
+
+    /**
+     * Tests the DELETE /api/birds endpoint with a null ID in the list.
+     * Verifies that the request is rejected with a 400 status and nothing is deleted.
+     */
+    @Test
+    void deleteBirds_WhenIdIsNull_ShouldReturnBadRequest() {
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> birdController.deleteBirds(Arrays.asList(1L, null)));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(birdService, never()).deleteAllById(any());
+    }
+}
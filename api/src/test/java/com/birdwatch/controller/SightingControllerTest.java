@@ -4,24 +4,45 @@ import com.birdwatch.entity.Bird;
 import com.birdwatch.entity.Sighting;
 import com.birdwatch.dto.SightingDTO;
 import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.SightingCursor;
 import com.birdwatch.dto.SightingRequest;
+import com.birdwatch.dto.SightingStats;
 import com.birdwatch.service.SightingService;
 import com.birdwatch.service.BirdService;
+import com.birdwatch.service.DataVersionService;
+import com.birdwatch.service.SightingEventService;
+import com.birdwatch.service.SightingGeoIndexService;
+import com.birdwatch.service.SightingAnalyticsService;
+import com.birdwatch.utils.Pagination;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,15 +64,28 @@ public class SightingControllerTest {
     @MockBean
     private BirdService birdService;
 
+    @MockBean
+    private DataVersionService dataVersionService;
+
+    @MockBean
+    private SightingEventService sightingEventService;
+
+    @MockBean
+    private SightingGeoIndexService sightingGeoIndexService;
+
+    @MockBean
+    private SightingAnalyticsService sightingAnalyticsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Bird testBird;
     private Sighting testSighting;
-    @SuppressWarnings("unused")
     private SightingDTO testSightingDTO;
     private SightingRequest testSightingRequest;
 
+    private static final String SIGHTINGS_TAG = "\"v1\"";
+
     /**
      * Sets up test data before each test method.
      * Creates test instances of Bird, Sighting, SightingDTO, and SightingRequest
@@ -77,6 +111,8 @@ public class SightingControllerTest {
         testSightingDTO = new SightingDTO(
             testSighting.getId(),
             testSighting.getLocation(),
+            testSighting.getLatitude(),
+            testSighting.getLongitude(),
             testSighting.getSightingDate(),
             testSighting.getCreatedAt(),
             new BirdDTO(
@@ -93,6 +129,8 @@ public class SightingControllerTest {
         testSightingRequest.setBirdId(testBird.getId());
         testSightingRequest.setLocation(testSighting.getLocation());
         testSightingRequest.setSightingDate(testSighting.getSightingDate());
+
+        when(dataVersionService.getSightingsTag()).thenReturn(SIGHTINGS_TAG);
     }
 
     /**
@@ -103,16 +141,129 @@ public class SightingControllerTest {
      */
     @Test
     void getAllSightings_ShouldReturnListOfSightings() throws Exception {
-        when(sightingService.findAll()).thenReturn(Arrays.asList(testSighting));
+        when(sightingService.findPage(null, 100)).thenReturn(Arrays.asList(testSightingDTO));
 
         mockMvc.perform(get("/api/sightings"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(Pagination.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].id").value(testSighting.getId()))
                 .andExpect(jsonPath("$[0].location").value(testSighting.getLocation()))
                 .andExpect(jsonPath("$[0].bird.id").value(testBird.getId()));
     }
 
+    /**
+     * Tests the GET /api/sightings endpoint.
+     * Verifies that the page is returned with the entity tag of the current sighting data.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getAllSightings_ShouldReturnETag() throws Exception {
+        when(sightingService.findPage(null, 100)).thenReturn(Arrays.asList(testSightingDTO));
+
+        mockMvc.perform(get("/api/sightings"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, SIGHTINGS_TAG));
+    }
+
+    /**
+     * Tests the GET /api/sightings endpoint with an If-None-Match header matching the current entity tag.
+     * Verifies that 304 is returned with an empty body and that no sightings are loaded.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getAllSightings_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        mockMvc.perform(get("/api/sightings")
+                .header(HttpHeaders.IF_NONE_MATCH, SIGHTINGS_TAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, SIGHTINGS_TAG))
+                .andExpect(content().string(""));
+
+        verify(sightingService, never()).findPage(any(), anyInt());
+    }
+
+    /**
+     * Tests the GET /api/sightings endpoint with an If-None-Match header of an older entity tag.
+     * Verifies that the page is returned with the current entity tag.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getAllSightings_WhenETagIsStale_ShouldReturnPage() throws Exception {
+        when(sightingService.findPage(null, 100)).thenReturn(Arrays.asList(testSightingDTO));
+
+        mockMvc.perform(get("/api/sightings")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, SIGHTINGS_TAG))
+                .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
+    }
+
+    /**
+     * Tests the GET /api/sightings endpoint when the returned page is full.
+     * Verifies that the cursor of the last sighting is returned for requesting the next page.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getAllSightings_WhenPageIsFull_ShouldReturnNextCursor() throws Exception {
+        testSightingDTO.setSightingDate(LocalDateTime.of(2024, 4, 14, 17, 36, 21));
+        when(sightingService.findPage(null, 1)).thenReturn(Arrays.asList(testSightingDTO));
+
+        mockMvc.perform(get("/api/sightings")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(Pagination.NEXT_CURSOR_HEADER, "2024-04-14T17:36:21,1"))
+                .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
+    }
+
+    /**
+     * Tests the GET /api/sightings endpoint with a cursor.
+     * Verifies that the page following the cursor position is requested.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getAllSightings_WithCursor_ShouldReturnPageAfterCursor() throws Exception {
+        SightingCursor cursor = new SightingCursor(LocalDateTime.of(2024, 4, 14, 17, 36, 21), 42L);
+        when(sightingService.findPage(cursor, 100)).thenReturn(Arrays.asList(testSightingDTO));
+
+        mockMvc.perform(get("/api/sightings")
+                .param("after", "2024-04-14T17:36:21,42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
+    }
+
+    /**
+     * Tests the GET /api/sightings endpoint with a page size above the maximum.
+     * Verifies that the page size is capped server-side.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getAllSightings_WithLimitAboveMaximum_ShouldCapPageSize() throws Exception {
+        mockMvc.perform(get("/api/sightings")
+                .param("limit", "1000000"))
+                .andExpect(status().isOk());
+
+        verify(sightingService).findPage(null, Pagination.MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Tests the GET /api/sightings endpoint with a malformed cursor.
+     * Verifies that the endpoint returns a 400 Bad Request status.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getAllSightings_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sightings")
+                .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Tests the GET /api/sightings/search endpoint.
      * Verifies that the endpoint returns sightings matching the search criteria.
@@ -121,8 +272,8 @@ public class SightingControllerTest {
      */
     @Test
     void searchSightings_ShouldReturnMatchingSightings() throws Exception {
-        when(sightingService.searchSightings("Test", "Location"))
-                .thenReturn(Arrays.asList(testSighting));
+        when(sightingService.searchSightingsPage("Test", "Location", null, null, null, null, 100))
+                .thenReturn(Arrays.asList(testSightingDTO));
 
         mockMvc.perform(get("/api/sightings/search")
                 .param("birdName", "Test")
@@ -132,6 +283,159 @@ public class SightingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
     }
 
+    /**
+     * Tests the GET /api/sightings/search endpoint with a radius.
+     * Verifies that the center and radius are passed to the service as a circular area.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void searchSightings_WithRadius_ShouldSearchCircularArea() throws Exception {
+        when(sightingService.searchSightingsPage(any(), any(), any(), any(),
+                argThat(area -> area != null && area.isCircle() && area.getLatitude() == 52.5
+                    && area.getLongitude() == 13.4 && area.getRadiusKm() == 5.0),
+                any(), anyInt()))
+                .thenReturn(Arrays.asList(testSightingDTO));
+
+        mockMvc.perform(get("/api/sightings/search")
+                .param("lat", "52.5")
+                .param("lon", "13.4")
+                .param("radiusKm", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
+    }
+
+    /**
+     * Tests the GET /api/sightings/search endpoint with an incomplete bounding box.
+     * Verifies that 400 is returned without running the search.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void searchSightings_WithIncompleteBoundingBox_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/sightings/search")
+                .param("minLat", "52.0")
+                .param("minLon", "13.0")
+                .param("maxLat", "53.0"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).searchSightingsPage(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    /**
+     * Tests the GET /api/sightings/recent/area endpoint with a bounding box.
+     * Verifies that the box and the limit are passed to the geo index without a database search.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getRecentSightingsInArea_WithBoundingBox_ShouldQueryGeoIndex() throws Exception {
+        when(sightingGeoIndexService.isLoaded()).thenReturn(true);
+        when(sightingGeoIndexService.findInArea(
+                argThat(area -> area != null && !area.isCircle() && area.getMinLatitude() == 52.0
+                    && area.getMaxLongitude() == 14.0),
+                eq(10)))
+                .thenReturn(Arrays.asList(testSightingDTO));
+
+        mockMvc.perform(get("/api/sightings/recent/area")
+                .param("minLat", "52.0")
+                .param("minLon", "13.0")
+                .param("maxLat", "53.0")
+                .param("maxLon", "14.0")
+                .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
+
+        verify(sightingService, never()).searchSightingsPage(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    /**
+     * Tests the GET /api/sightings/recent/area endpoint without an area.
+     * Verifies that 400 is returned without querying the geo index.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getRecentSightingsInArea_WithoutArea_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/sightings/recent/area"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingGeoIndexService, never()).findInArea(any(), anyInt());
+    }
+
+    /**
+     * Tests the GET /api/sightings/recent/area endpoint while the geo index is still loading.
+     * Verifies that 503 is returned without querying the partial index.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getRecentSightingsInArea_WhileGeoIndexLoading_ShouldReturn503() throws Exception {
+        when(sightingGeoIndexService.isLoaded()).thenReturn(false);
+
+        mockMvc.perform(get("/api/sightings/recent/area")
+                .param("lat", "52.5")
+                .param("lon", "13.4")
+                .param("radiusKm", "5"))
+                .andExpect(status().isServiceUnavailable());
+
+        verify(sightingGeoIndexService, never()).findInArea(any(), anyInt());
+    }
+
+    /**
+     * Tests the GET /api/sightings/recent/nearest endpoint while the geo index is still loading.
+     * Verifies that 503 is returned without querying the partial index.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getNearestRecentSightings_WhileGeoIndexLoading_ShouldReturn503() throws Exception {
+        when(sightingGeoIndexService.isLoaded()).thenReturn(false);
+
+        mockMvc.perform(get("/api/sightings/recent/nearest")
+                .param("lat", "52.5")
+                .param("lon", "13.4"))
+                .andExpect(status().isServiceUnavailable());
+
+        verify(sightingGeoIndexService, never()).findNearest(anyDouble(), anyDouble(), anyInt());
+    }
+
+    /**
+     * Tests the GET /api/sightings/recent/nearest endpoint.
+     * Verifies that the point is passed to the geo index and k is capped at the maximum page size.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getNearestRecentSightings_ShouldQueryGeoIndexWithCappedK() throws Exception {
+        when(sightingGeoIndexService.isLoaded()).thenReturn(true);
+        when(sightingGeoIndexService.findNearest(52.5, 13.4, Pagination.MAX_PAGE_SIZE))
+                .thenReturn(Arrays.asList(testSightingDTO));
+
+        mockMvc.perform(get("/api/sightings/recent/nearest")
+                .param("lat", "52.5")
+                .param("lon", "13.4")
+                .param("k", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
+    }
+
+    /**
+     * Tests the GET /api/sightings/search endpoint with an If-None-Match header matching the current entity tag.
+     * Verifies that 304 is returned without running the search.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void searchSightings_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        mockMvc.perform(get("/api/sightings/search")
+                .param("birdName", "Test")
+                .header(HttpHeaders.IF_NONE_MATCH, SIGHTINGS_TAG))
+                .andExpect(status().isNotModified());
+
+        verify(sightingService, never()).searchSightingsPage(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
     /**
      * Tests the GET /api/sightings/search endpoint with a valid date range.
      * Verifies that sightings within the specified date range are returned correctly.
@@ -143,8 +447,8 @@ public class SightingControllerTest {
         LocalDateTime now = LocalDateTime.now();
         testSighting.setSightingDate(now);
         
-        when(sightingService.searchSightings(null, null))
-                .thenReturn(Arrays.asList(testSighting));
+        when(sightingService.searchSightingsPage(null, null, now.minusHours(1), now.plusHours(1), null, null, 100))
+                .thenReturn(Arrays.asList(testSightingDTO));
 
         mockMvc.perform(get("/api/sightings/search")
                 .param("startDate", now.minusHours(1).format(DateTimeFormatter.ISO_DATE_TIME))
@@ -165,8 +469,8 @@ public class SightingControllerTest {
         LocalDateTime now = LocalDateTime.now();
         testSighting.setSightingDate(now);
         
-        when(sightingService.searchSightings(null, null))
-                .thenReturn(Arrays.asList(testSighting));
+        when(sightingService.searchSightingsPage(null, null, now.plusHours(1), now.plusHours(2), null, null, 100))
+                .thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/sightings/search")
                 .param("startDate", now.plusHours(1).format(DateTimeFormatter.ISO_DATE_TIME))
@@ -174,6 +478,8 @@ public class SightingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isEmpty());
+
+        verify(sightingService).searchSightingsPage(null, null, now.plusHours(1), now.plusHours(2), null, null, 100);
     }
 
     /**
@@ -231,8 +537,8 @@ public class SightingControllerTest {
         LocalDateTime now = LocalDateTime.now();
         testSighting.setSightingDate(now);
         
-        when(sightingService.searchSightings("Test", "Location"))
-                .thenReturn(Arrays.asList(testSighting));
+        when(sightingService.searchSightingsPage("Test", "Location", now.minusHours(1), now.plusHours(1), null, null, 100))
+                .thenReturn(Arrays.asList(testSightingDTO));
 
         mockMvc.perform(get("/api/sightings/search")
                 .param("birdName", "Test")
@@ -244,6 +550,32 @@ public class SightingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(testSighting.getId()));
     }
 
+    /**
+     * Tests the GET /api/sightings/export endpoint.
+     * Verifies that every sighting is written as one JSON object per line.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void exportSightings_ShouldStreamOneSightingPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<SightingDTO> action = invocation.getArgument(0);
+            action.accept(testSightingDTO);
+            action.accept(testSightingDTO);
+            return null;
+        }).when(sightingService).forEachSighting(any());
+
+        MvcResult result = mockMvc.perform(get("/api/sightings/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(testSightingDTO) + "\n";
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(line + line));
+    }
+
     /**
      * Tests the GET /api/sightings/{id} endpoint for an existing sighting.
      * Verifies that the endpoint returns the correct sighting when it exists.
@@ -261,6 +593,21 @@ public class SightingControllerTest {
                 .andExpect(jsonPath("$.location").value(testSighting.getLocation()));
     }
 
+    /**
+     * Tests the GET /api/sightings/{id} endpoint with an If-None-Match header matching the current entity tag.
+     * Verifies that 304 is returned without looking up the sighting.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getSightingById_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        mockMvc.perform(get("/api/sightings/1")
+                .header(HttpHeaders.IF_NONE_MATCH, SIGHTINGS_TAG))
+                .andExpect(status().isNotModified());
+
+        verify(sightingService, never()).findById(any());
+    }
+
     /**
      * Tests the GET /api/sightings/{id} endpoint for a non-existing sighting.
      * Verifies that the endpoint returns a 404 status when the sighting doesn't exist.
@@ -311,6 +658,101 @@ public class SightingControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    /**
+     * Tests the POST /api/sightings endpoint with a latitude but no longitude.
+     * Verifies that 400 is returned without saving the sighting.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void createSighting_WithLatitudeOnly_ShouldReturn400() throws Exception {
+        testSightingRequest.setLatitude(52.5);
+
+        mockMvc.perform(post("/api/sightings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testSightingRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).save(any(Sighting.class));
+    }
+
+    /**
+     * Tests the POST /api/sightings/bulk endpoint with a JSON array.
+     * Verifies that valid sightings are created with one bird lookup and one batch save,
+     * and that sightings with an unknown bird or no location are reported as rejected.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void createSightingsBulk_WithJsonArray_ShouldReportResultPerSighting() throws Exception {
+        SightingRequest unknownBird = new SightingRequest();
+        unknownBird.setBirdId(99L);
+        unknownBird.setLocation("Test Location");
+        unknownBird.setSightingDate(testSighting.getSightingDate());
+
+        SightingRequest noLocation = new SightingRequest();
+        noLocation.setBirdId(testBird.getId());
+        noLocation.setSightingDate(testSighting.getSightingDate());
+
+        when(birdService.findAllById(any())).thenReturn(Arrays.asList(testBird));
+        when(sightingService.saveAll(any())).thenReturn(Arrays.asList(testSighting));
+
+        mockMvc.perform(post("/api/sightings/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    Arrays.asList(testSightingRequest, unknownBird, noLocation))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].id").value(testSighting.getId()))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].id").doesNotExist())
+                .andExpect(jsonPath("$[1].error").value("Bird not found: 99"))
+                .andExpect(jsonPath("$[2].error").value("Location is required"));
+
+        verify(birdService).findAllById(new HashSet<>(Arrays.asList(testBird.getId(), 99L)));
+    }
+
+    /**
+     * Tests the POST /api/sightings/bulk endpoint with newline-delimited JSON.
+     * Verifies that every line is read as one sighting.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void createSightingsBulk_WithNdjson_ShouldCreateSightings() throws Exception {
+        Sighting secondSighting = new Sighting();
+        secondSighting.setId(2L);
+
+        when(birdService.findAllById(any())).thenReturn(Arrays.asList(testBird));
+        when(sightingService.saveAll(any())).thenReturn(Arrays.asList(testSighting, secondSighting));
+
+        String line = objectMapper.writeValueAsString(testSightingRequest) + "\n";
+        mockMvc.perform(post("/api/sightings/bulk")
+                .contentType("application/x-ndjson")
+                .content(line + line))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    /**
+     * Tests the POST /api/sightings/bulk endpoint with a malformed NDJSON line.
+     * Verifies that the endpoint returns a 400 status without saving anything.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void createSightingsBulk_WithMalformedNdjson_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/sightings/bulk")
+                .contentType("application/x-ndjson")
+                .content(objectMapper.writeValueAsString(testSightingRequest) + "\n{\"birdId\": \n"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).saveAll(any());
+    }
+
     /**
      * Tests the PUT /api/sightings/{id} endpoint when both sighting and bird exist.
      * Verifies that the sighting is updated successfully with the correct data.
@@ -356,10 +798,12 @@ public class SightingControllerTest {
      */
     @Test
     void deleteSighting_WhenSightingExists_ShouldDeleteSighting() throws Exception {
-        when(sightingService.findById(1L)).thenReturn(Optional.of(testSighting));
+        when(sightingService.deleteById(1L)).thenReturn(true);
 
         mockMvc.perform(delete("/api/sightings/1"))
                 .andExpect(status().isOk());
+
+        verify(sightingService, never()).findById(any());
     }
 
     /**
@@ -371,9 +815,205 @@ public class SightingControllerTest {
      */
     @Test
     void deleteSighting_WhenSightingDoesNotExist_ShouldReturn404() throws Exception {
-        when(sightingService.findById(1L)).thenReturn(Optional.empty());
+        when(sightingService.deleteById(1L)).thenReturn(false);
 
         mockMvc.perform(delete("/api/sightings/1"))
                 .andExpect(status().isNotFound());
     }
-} 
\ No newline at end of file
+
+    /**
+     * Tests the GET /api/sightings/events endpoint.
+     * Verifies that the endpoint opens an asynchronous event stream registered with the SightingEventService.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void streamSightingEvents_ShouldStartEventStream() throws Exception {
+        when(sightingEventService.subscribe()).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/sightings/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(sightingEventService).subscribe();
+    }
+
+    /**
+     * Tests the DELETE /api/sightings endpoint with a list of IDs.
+     * Verifies that the sightings are deleted with one service call and the number of deleted sightings is returned.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void deleteSightings_ShouldReturnDeletedCount() throws Exception {
+        when(sightingService.deleteAllById(Arrays.asList(1L, 2L, 3L))).thenReturn(3);
+
+        mockMvc.perform(delete("/api/sightings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 3]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(3));
+    }
+
+    /**
+     * Tests the DELETE /api/sightings endpoint with a null ID in the list.
+     * Verifies that the endpoint returns a 400 status and nothing is deleted.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void deleteSightings_WhenIdIsNull_ShouldReturn400() throws Exception {
+        mockMvc.perform(delete("/api/sightings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, null]"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).deleteAllById(any());
+    }
+
+    /**
+     * Tests the DELETE /api/sightings/search endpoint with filters.
+     * Verifies that the filters are parsed and passed to the service and the number of deleted sightings is returned.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void deleteMatchingSightings_ShouldReturnDeletedCount() throws Exception {
+        LocalDateTime startDate = LocalDateTime.of(2024, 4, 1, 0, 0);
+        when(sightingService.deleteMatching("Robin", "Park", startDate, null, null)).thenReturn(5);
+
+        mockMvc.perform(delete("/api/sightings/search")
+                .param("birdName", "Robin")
+                .param("location", "Park")
+                .param("startDate", "2024-04-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(5));
+    }
+
+    /**
+     * Tests the DELETE /api/sightings/search endpoint without any filter.
+     * Verifies that the endpoint returns a 400 status instead of deleting every sighting.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void deleteMatchingSightings_WithoutFilter_ShouldReturn400() throws Exception {
+        mockMvc.perform(delete("/api/sightings/search"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).deleteMatching(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Tests the GET /api/sightings/stats endpoint with dimensions and a filter.
+     * Verifies that the dimensions and filters are passed to the service and the counts are returned
+     * as rows of values with the entity tag of the sighting data.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getSightingStats_ShouldReturnGroupedCounts() throws Exception {
+        SightingStats stats = new SightingStats(Arrays.asList("birdId", "birdName", "day", "count"),
+            Collections.singletonList(new Object[] { 1L, "Robin", LocalDateTime.of(2024, 4, 14, 0, 0), 12L }));
+        when(sightingService.getStats(EnumSet.of(SightingStats.Dimension.BIRD, SightingStats.Dimension.DAY),
+                null, "Park", null, null)).thenReturn(stats);
+
+        mockMvc.perform(get("/api/sightings/stats")
+                .param("groupBy", "day,bird")
+                .param("location", "Park"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, SIGHTINGS_TAG))
+                .andExpect(jsonPath("$.columns[2]").value("day"))
+                .andExpect(jsonPath("$.rows[0][1]").value("Robin"))
+                .andExpect(jsonPath("$.rows[0][3]").value(12));
+    }
+
+    /**
+     * Tests the GET /api/sightings/stats endpoint with an unknown dimension.
+     * Verifies that the endpoint returns a 400 status without computing any statistics.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getSightingStats_WithUnknownDimension_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/sightings/stats").param("groupBy", "color"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).getStats(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Tests the GET /api/sightings/stats endpoint with two time buckets.
+     * Verifies that the endpoint returns a 400 status.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getSightingStats_WithTwoTimeBuckets_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/sightings/stats").param("groupBy", "day,month"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests the GET /api/sightings/analytics endpoint with dimensions and filters.
+     * Verifies that the dimensions and filters are passed to the analytics snapshot instead of the database
+     * and the counts are returned as rows of values.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getSightingAnalytics_ShouldReturnGroupedCountsFromSnapshot() throws Exception {
+        SightingStats stats = new SightingStats(Arrays.asList("location", "hour", "count"),
+            Collections.singletonList(new Object[] { "Central Park", LocalDateTime.of(2024, 4, 14, 9, 0), 3L }));
+        when(sightingAnalyticsService.isLoaded()).thenReturn(true);
+        when(sightingAnalyticsService.count(EnumSet.of(SightingStats.Dimension.LOCATION, SightingStats.Dimension.HOUR),
+                "Robin", null, LocalDateTime.of(2024, 4, 14, 0, 0), null)).thenReturn(stats);
+
+        mockMvc.perform(get("/api/sightings/analytics")
+                .param("groupBy", "hour,location")
+                .param("birdName", "Robin")
+                .param("startDate", "2024-04-14T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.columns[1]").value("hour"))
+                .andExpect(jsonPath("$.rows[0][0]").value("Central Park"))
+                .andExpect(jsonPath("$.rows[0][2]").value(3));
+
+        verify(sightingService, never()).getStats(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Tests the GET /api/sightings/analytics endpoint while the snapshot is still loading.
+     * Verifies that the counts are computed by the database instead of the partial snapshot.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getSightingAnalytics_WhileSnapshotLoading_ShouldReturnDatabaseCounts() throws Exception {
+        SightingStats stats = new SightingStats(Arrays.asList("location", "count"),
+            Collections.singletonList(new Object[] { "Central Park", 5L }));
+        when(sightingAnalyticsService.isLoaded()).thenReturn(false);
+        when(sightingService.getStats(EnumSet.of(SightingStats.Dimension.LOCATION), null, null, null, null))
+            .thenReturn(stats);
+
+        mockMvc.perform(get("/api/sightings/analytics").param("groupBy", "location"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[0][0]").value("Central Park"))
+                .andExpect(jsonPath("$.rows[0][1]").value(5));
+
+        verify(sightingAnalyticsService, never()).count(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Tests the GET /api/sightings/analytics endpoint with an unknown dimension.
+     * Verifies that the endpoint returns a 400 status without counting any sightings.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getSightingAnalytics_WithUnknownDimension_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/sightings/analytics").param("groupBy", "color"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingAnalyticsService, never()).count(any(), any(), any(), any(), any());
+    }
+}
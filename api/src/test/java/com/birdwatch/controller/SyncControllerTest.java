@@ -0,0 +1,127 @@
+package com.birdwatch.controller;
+
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.SyncCursor;
+import com.birdwatch.dto.SyncResponse;
+import com.birdwatch.service.SyncService;
+import com.birdwatch.utils.Pagination;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the SyncController.
+ * Tests the delta sync endpoint, including the parsing of the sync token and the page cursor.
+ * Uses Spring's MockMvc for simulating HTTP requests and MockBean for the service layer.
+ */
+@WebMvcTest(SyncController.class)
+class SyncControllerTest {
+
+    private static final String TOKEN = "2024-04-14T17:36:21.123456";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SyncService syncService;
+
+    /**
+     * Tests the GET /api/sync endpoint without a token.
+     * Verifies that the token to start syncing from is returned without changes.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void sync_WithoutToken_ShouldReturnStartToken() throws Exception {
+        when(syncService.changesSince(null, null, Pagination.DEFAULT_PAGE_SIZE)).thenReturn(new SyncResponse(TOKEN,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), null));
+
+        mockMvc.perform(get("/api/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value(TOKEN))
+                .andExpect(jsonPath("$.birds").isEmpty());
+    }
+
+    /**
+     * Tests the GET /api/sync endpoint with a token.
+     * Verifies that the token is decoded and the changes since then are returned.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void sync_WithToken_ShouldReturnChangesSinceToken() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2024, 4, 14, 17, 36, 21, 123456000);
+        BirdDTO bird = new BirdDTO(1L, "Test Bird", "Blue", 1.0, 10.0, since);
+        when(syncService.changesSince(since, null, Pagination.DEFAULT_PAGE_SIZE)).thenReturn(new SyncResponse("next",
+            Arrays.asList(bird), Collections.emptyList(), Collections.emptyList(), Arrays.asList(7L), null));
+
+        mockMvc.perform(get("/api/sync").param("since", TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("next"))
+                .andExpect(jsonPath("$.birds[0].id").value(1))
+                .andExpect(jsonPath("$.deletedSightingIds[0]").value(7));
+    }
+
+    /**
+     * Tests the GET /api/sync endpoint with a malformed token.
+     * Verifies that a 400 status is returned without reading any changes.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void sync_WithInvalidToken_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sync").param("since", "yesterday"))
+                .andExpect(status().isBadRequest());
+
+        verify(syncService, never()).changesSince(any(), any(), anyInt());
+    }
+
+    /**
+     * Tests the GET /api/sync endpoint with a token, a page cursor and a page size.
+     * Verifies that the cursor is decoded and the next page cursor is returned.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void sync_WithCursor_ShouldReturnNextPage() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2024, 4, 14, 17, 36, 21, 123456000);
+        String cursor = TOKEN + ",deleted-sightings," + TOKEN + ",42";
+        SyncCursor after = new SyncCursor(since, SyncCursor.Kind.DELETED_SIGHTINGS, since, 42L);
+        when(syncService.changesSince(since, after, 2)).thenReturn(new SyncResponse(TOKEN,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Arrays.asList(43L, 44L),
+            TOKEN + ",deleted-sightings," + TOKEN + ",44"));
+
+        mockMvc.perform(get("/api/sync").param("since", TOKEN).param("after", cursor).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedSightingIds[1]").value(44))
+                .andExpect(jsonPath("$.nextCursor").value(TOKEN + ",deleted-sightings," + TOKEN + ",44"));
+    }
+
+    /**
+     * Tests the GET /api/sync endpoint with a malformed page cursor.
+     * Verifies that a 400 status is returned without reading any changes.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void sync_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sync").param("since", TOKEN).param("after", TOKEN + ",everything,0,0"))
+                .andExpect(status().isBadRequest());
+
+        verify(syncService, never()).changesSince(any(), any(), anyInt());
+    }
+}
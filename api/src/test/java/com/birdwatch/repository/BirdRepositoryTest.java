@@ -0,0 +1,76 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.PooledSequenceGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the BirdRepository.
+ * Verifies that bird IDs are allocated in configurable blocks from a pooled sequence,
+ * so that new birds are inserted in JDBC batches.
+ * Runs against the PostgreSQL test database with Hibernate statistics enabled.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BirdRepositoryTest {
+
+    private static final int BIRDS = 500;
+    private static final int ALLOCATION_SIZE = PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    private Statistics statistics;
+
+    /**
+     * Resets the Hibernate statistics before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Tests that saving many new birds reserves one block of IDs per sequence call
+     * and sends the inserts in JDBC batches.
+     */
+    @Test
+    void saveAll_ShouldAllocateIdsInBlocksAndBatchInserts() {
+        List<Bird> birds = new ArrayList<>();
+        for (int i = 0; i < BIRDS; i++) {
+            Bird bird = new Bird();
+            bird.setName("Bird " + i);
+            bird.setColor("Gray");
+            bird.setWeight(1.0);
+            bird.setHeight(10.0);
+            birds.add(bird);
+        }
+
+        birdRepository.saveAll(birds);
+        entityManager.flush();
+
+        for (int i = 1; i < BIRDS; i++) {
+            assertEquals(birds.get(i - 1).getId() + 1, birds.get(i).getId());
+        }
+        assertTrue(statistics.getPrepareStatementCount() <= 2 * (BIRDS / ALLOCATION_SIZE) + 2,
+            "Statements prepared: " + statistics.getPrepareStatementCount());
+    }
+}
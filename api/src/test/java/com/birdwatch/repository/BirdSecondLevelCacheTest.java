@@ -0,0 +1,169 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.entity.Bird;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test class for the Hibernate second-level cache of birds.
+ * Verifies that birds and the pages of the bird search endpoint are served from the cache regions
+ * without SQL once they have been loaded, and that updates reach the cache.
+ * The in-process service cache is emptied before every call, so each call reaches Hibernate.
+ * Runs against the PostgreSQL test database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BirdSecondLevelCacheTest {
+
+    private static final int CALLS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Bird bird;
+
+    /**
+     * Saves a test bird and empties the second-level and service caches.
+     */
+    @BeforeEach
+    void setUp() {
+        bird = new Bird();
+        bird.setName("Cached Bird");
+        bird.setColor("Green");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        bird = birdRepository.save(bird);
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        clearServiceCaches();
+    }
+
+    /**
+     * Removes the test bird.
+     */
+    @AfterEach
+    void cleanUp() {
+        birdRepository.deleteById(bird.getId());
+    }
+
+    /**
+     * Tests that after one warm-up call, repeated GET /api/birds/{id} calls issue no SQL
+     * and are served from the Bird cache region.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void getBirdById_AfterWarmUp_ShouldIssueNoSql() throws Exception {
+        getBird();
+        statistics.clear();
+
+        for (int i = 0; i < CALLS; i++) {
+            clearServiceCaches();
+            getBird();
+        }
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Bird.class.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(CALLS, region.getHitCount());
+        assertEquals(0, region.getMissCount());
+    }
+
+    /**
+     * Tests that repeating a GET /api/birds/search call issues no SQL once its page is in the query cache.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void searchBirds_AfterWarmUp_ShouldIssueNoSql() throws Exception {
+        searchBirds().andExpect(jsonPath("$.length()").value(1));
+        statistics.clear();
+
+        for (int i = 0; i < CALLS; i++) {
+            clearServiceCaches();
+            searchBirds().andExpect(jsonPath("$[0].id").value(bird.getId()));
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(CALLS, statistics.getQueryCacheHitCount());
+    }
+
+    /**
+     * Tests that a saved change to a cached bird is visible to the next lookup
+     * and invalidates cached search results.
+     *
+     * @throws Exception if the test encounters an error
+     */
+    @Test
+    void save_ShouldUpdateCachedBirdAndInvalidateSearches() throws Exception {
+        getBird();
+        searchBirds();
+
+        bird.setName("Renamed Bird");
+        birdRepository.save(bird);
+        clearServiceCaches();
+
+        mockMvc.perform(get("/api/birds/" + bird.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed Bird"));
+        searchBirds().andExpect(jsonPath("$.length()").value(0));
+    }
+
+    /**
+     * Calls GET /api/birds/search for the name of the test bird.
+     *
+     * @return The result actions of the successful request
+     * @throws Exception if the request fails
+     */
+    private ResultActions searchBirds() throws Exception {
+        return mockMvc.perform(get("/api/birds/search").param("name", "cached"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Calls GET /api/birds/{id} for the test bird and checks the response.
+     *
+     * @throws Exception if the request fails
+     */
+    private void getBird() throws Exception {
+        mockMvc.perform(get("/api/birds/" + bird.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(bird.getId()));
+    }
+
+    /**
+     * Empties the in-process caches of the BirdService.
+     */
+    private void clearServiceCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+}
@@ -0,0 +1,217 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.MigrationScripts;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.service.SightingPartitionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the monthly range partitioning of the sightings table.
+ * Applies migrations 011_sightings_partitioning.sql and 012_sighting_archive.sql to sightings of several
+ * months and verifies that
+ * every sighting lands in the partition of its month, that date-bounded queries only read the partitions
+ * of the months they cover, that the Sighting mapping keeps working on the partitioned table and that
+ * sightings of months without a partition are moved once the partition is created, and that archived
+ * months are removed by dropping their partition.
+ * Runs against the PostgreSQL test database; the migration is rolled back with the test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SightingPartitionService.class)
+class SightingPartitioningTest {
+
+    private static final int SIGHTINGS = 120;
+    private static final LocalDateTime FIRST_SIGHTING = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private SightingPartitionService sightingPartitionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Bird bird;
+
+    /**
+     * Seeds 120 sightings a day apart from January to April 2024, then partitions the sightings table.
+     */
+    @BeforeEach
+    void setUp() {
+        bird = new Bird();
+        bird.setName("Partition Bird");
+        bird.setColor("Gray");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        entityManager.persist(bird);
+        for (int i = 0; i < SIGHTINGS; i++) {
+            entityManager.persist(sighting(FIRST_SIGHTING.plusDays(i)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        MigrationScripts.applyAsOneStatement(dataSource, "011_sightings_partitioning.sql");
+        MigrationScripts.applyAsOneStatement(dataSource, "012_sighting_archive.sql");
+    }
+
+    /**
+     * Tests that the migration keeps every sighting, in the partition of its month, and creates
+     * the partitions of the current and the following months.
+     */
+    @Test
+    void migration_ShouldMoveSightingsIntoMonthlyPartitions() {
+        assertTrue(sightingRepository.isPartitioned());
+        assertEquals(SIGHTINGS, sightingRepository.count());
+        assertEquals(0, count("SELECT count(*) FROM sightings " +
+            "WHERE tableoid::regclass::text <> 'sightings_' || to_char(sighting_date, 'YYYY_MM')"));
+        assertEquals(0, count("SELECT count(*) FROM sightings_default"));
+        for (int month = 0; month <= 3; month++) {
+            assertTrue(partitionExists(LocalDate.now().plusMonths(month)));
+        }
+    }
+
+    /**
+     * Tests that a search over one month returns its sightings and only reads the partition of that month.
+     */
+    @Test
+    void searchByDateRange_ShouldOnlyReadPartitionOfMonth() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+
+        List<SightingDTO> march = sightingRepository.searchSightingsPageAfter(
+            null, null, start, end, start, 0L, PageRequest.of(0, 100));
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+            "EXPLAIN SELECT id FROM sightings WHERE sighting_date >= ? AND sighting_date <= ?",
+            String.class, start, end));
+
+        assertEquals(31, march.size());
+        assertTrue(plan.contains("sightings_2024_03"), plan);
+        assertFalse(plan.contains("sightings_2024_02"), plan);
+        assertFalse(plan.contains("sightings_2024_04"), plan);
+        assertFalse(plan.contains("sightings_default"), plan);
+    }
+
+    /**
+     * Tests that sightings saved through the entity mapping are stored in the partition of their month,
+     * move to another partition when their date changes and can be loaded and deleted by ID.
+     */
+    @Test
+    void entityWrites_ShouldStoreSightingsInPartitionOfMonth() {
+        Sighting saved = sightingRepository.saveAndFlush(sighting(LocalDateTime.of(2024, 2, 10, 8, 0)));
+        assertEquals("sightings_2024_02", partitionOf(saved.getId()));
+
+        saved.setSightingDate(LocalDateTime.of(2024, 4, 10, 8, 0));
+        sightingRepository.saveAndFlush(saved);
+        entityManager.clear();
+        assertEquals("sightings_2024_04", partitionOf(saved.getId()));
+        assertEquals(LocalDateTime.of(2024, 4, 10, 8, 0), sightingRepository.findById(saved.getId()).get().getSightingDate());
+
+        assertEquals(1, sightingRepository.deleteSightingById(saved.getId()));
+        assertEquals(SIGHTINGS, sightingRepository.count());
+    }
+
+    /**
+     * Tests that a sighting of a month without a partition is stored in the default partition
+     * and moved to the partition of its month once the partitions are created.
+     */
+    @Test
+    void createUpcomingPartitions_ShouldMoveSightingsOutOfDefaultPartition() {
+        Sighting old = sightingRepository.saveAndFlush(sighting(LocalDateTime.of(2019, 6, 15, 8, 0)));
+        assertEquals("sightings_default", partitionOf(old.getId()));
+
+        sightingPartitionService.createUpcomingPartitions();
+
+        assertEquals("sightings_2019_06", partitionOf(old.getId()));
+        assertEquals(0, count("SELECT count(*) FROM sightings_default"));
+    }
+
+    /**
+     * Tests that removing an archived month drops its partition, leaving the other months untouched,
+     * and deletes the sightings of the month held by the default partition.
+     */
+    @Test
+    void dropMonth_ShouldDropPartitionOfMonth() {
+        Sighting old = sightingRepository.saveAndFlush(sighting(LocalDateTime.of(2019, 6, 15, 8, 0)));
+
+        assertTrue(sightingRepository.dropMonth(LocalDate.of(2024, 2, 1)));
+        assertFalse(sightingRepository.dropMonth(LocalDate.of(2019, 6, 1)));
+
+        assertFalse(partitionExists(LocalDate.of(2024, 2, 1)));
+        assertTrue(partitionExists(LocalDate.of(2024, 3, 1)));
+        assertFalse(sightingRepository.existsById(old.getId()));
+        assertEquals(SIGHTINGS - 29, sightingRepository.count());
+    }
+
+    /**
+     * Creates an unsaved sighting of the test bird.
+     *
+     * @param sightingDate The date and time of the sighting
+     * @return The new sighting
+     */
+    private Sighting sighting(LocalDateTime sightingDate) {
+        Sighting sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation("Partition Station");
+        sighting.setSightingDate(sightingDate);
+        return sighting;
+    }
+
+    /**
+     * Gets the partition a sighting is stored in.
+     *
+     * @param id The ID of the sighting
+     * @return The name of the partition
+     */
+    private String partitionOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM sightings WHERE id = ?", String.class, id);
+    }
+
+    /**
+     * Checks whether the partition of a month exists.
+     *
+     * @param day A day of the month
+     * @return true if the partition exists
+     */
+    private boolean partitionExists(LocalDate day) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+            "sightings_" + day.format(PARTITION_SUFFIX));
+    }
+
+    /**
+     * Runs a count query.
+     *
+     * @param sql The query
+     * @return The count
+     */
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
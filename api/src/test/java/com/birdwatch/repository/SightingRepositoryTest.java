@@ -0,0 +1,394 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SightingStats;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the SightingRepository.
+ * Verifies that listing and searching sightings loads the sighted birds in the same statement,
+ * so the number of statements does not grow with the number of sightings or distinct birds,
+ * that deletes run as single statements without loading the deleted rows, and that sighting
+ * counts are aggregated by the database, from the daily rollup where it covers the requested grouping,
+ * and that area searches return exactly the sightings inside the area.
+ * Runs against the PostgreSQL test database with Hibernate statistics enabled.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SightingRepositoryTest {
+
+    private static final int SIGHTINGS = 1000;
+    private static final int BIRDS = 50;
+    private static final LocalDateTime FIRST_SIGHTING = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime LAST_SIGHTING = FIRST_SIGHTING.plusMinutes(SIGHTINGS);
+    private static final double LATITUDE = 50.0;
+    private static final double LONGITUDE = 10.0;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private SightingDailyRollupRepository rollupRepository;
+
+    private Statistics statistics;
+
+    private Bird[] birds;
+
+    /**
+     * Seeds 1,000 sightings spread over 50 birds on a grid of coordinates 0.01 degrees apart, counts them into the daily rollup and empties
+     * the persistence context, so that every bird has to be loaded from the database again.
+     */
+    @BeforeEach
+    void setUp() {
+        birds = new Bird[BIRDS];
+        for (int i = 0; i < BIRDS; i++) {
+            birds[i] = new Bird();
+            birds[i].setName("Bird " + i);
+            birds[i].setColor("Gray");
+            birds[i].setWeight(1.0);
+            birds[i].setHeight(10.0);
+            entityManager.persist(birds[i]);
+        }
+
+        for (int i = 0; i < SIGHTINGS; i++) {
+            Sighting sighting = new Sighting();
+            sighting.setBird(birds[i % BIRDS]);
+            sighting.setLocation("Location " + i);
+            sighting.setLatitude(LATITUDE + (i % 100) * 0.01);
+            sighting.setLongitude(LONGITUDE + (i / 100) * 0.01);
+            sighting.setSightingDate(FIRST_SIGHTING.plusMinutes(i));
+            entityManager.persist(sighting);
+        }
+
+        entityManager.flush();
+        rollupRepository.insertAllSightings();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Tests that findAll loads all sightings and their birds with a single statement.
+     */
+    @Test
+    void findAll_ShouldIssueSingleStatement() {
+        assertSingleStatement(() -> sightingRepository.findAll().stream()
+            .map(sighting -> sighting.getBird().getName())
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Tests that the keyset page projection reads the sightings and their birds with a single statement.
+     */
+    @Test
+    void findPageAfter_ShouldIssueSingleStatement() {
+        assertSingleStatement(() -> sightingRepository.findPageAfter(
+                FIRST_SIGHTING.minusDays(1), 0L, PageRequest.of(0, SIGHTINGS)).stream()
+            .map(sighting -> sighting.getBird().getName())
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Tests that the keyset page search projection reads the sightings and their birds with a single statement.
+     */
+    @Test
+    void searchSightingsPageAfter_ShouldIssueSingleStatement() {
+        assertSingleStatement(() -> sightingRepository.searchSightingsPageAfter(
+                "bird", "location", FIRST_SIGHTING.minusDays(1), FIRST_SIGHTING.plusDays(1),
+                FIRST_SIGHTING.minusDays(1), 0L, PageRequest.of(0, SIGHTINGS)).stream()
+            .map(sighting -> sighting.getBird().getName())
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Tests that the projection queries read DTOs without loading any managed entity.
+     */
+    @Test
+    void pageProjections_ShouldNotLoadEntities() {
+        sightingRepository.findPageAfter(FIRST_SIGHTING.minusDays(1), 0L, PageRequest.of(0, SIGHTINGS));
+        sightingRepository.searchSightingsPageAfter(
+            null, null, FIRST_SIGHTING.minusDays(1), FIRST_SIGHTING.plusDays(1),
+            FIRST_SIGHTING.minusDays(1), 0L, PageRequest.of(0, SIGHTINGS));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Tests that streaming all sightings reads them in keyset order with a single statement,
+     * without loading any managed entity.
+     */
+    @Test
+    void streamAll_ShouldStreamSightingsInOrderWithoutLoadingEntities() {
+        List<LocalDateTime> dates;
+        try (Stream<SightingDTO> sightings = sightingRepository.streamAll()) {
+            dates = sightings.map(SightingDTO::getSightingDate).collect(Collectors.toList());
+        }
+
+        assertEquals(SIGHTINGS, dates.size());
+        assertEquals(FIRST_SIGHTING, dates.get(0));
+        assertEquals(FIRST_SIGHTING.plusMinutes(SIGHTINGS - 1), dates.get(SIGHTINGS - 1));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Tests that saving many new sightings sends the inserts in JDBC batches,
+     * instead of one statement and one ID round trip per sighting.
+     */
+    @Test
+    void saveAll_ShouldBatchInserts() {
+        List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i < SIGHTINGS; i++) {
+            Sighting sighting = new Sighting();
+            sighting.setBird(birds[i % BIRDS]);
+            sighting.setLocation("Bulk location " + i);
+            sighting.setSightingDate(FIRST_SIGHTING.plusMinutes(i));
+            sightings.add(sighting);
+        }
+
+        sightingRepository.saveAll(sightings);
+        entityManager.flush();
+
+        assertTrue(sightings.stream().allMatch(sighting -> sighting.getId() != null));
+        assertTrue(statistics.getPrepareStatementCount() <= SIGHTINGS / 10,
+            "Statements prepared: " + statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that deleting a sighting by ID issues a single statement without loading the sighting
+     * and reports whether a row was deleted.
+     */
+    @Test
+    void deleteSightingById_ShouldDeleteWithSingleStatement() {
+        Long id = sightingRepository.findPageAfter(FIRST_SIGHTING.minusDays(1), 0L, PageRequest.of(0, 1)).get(0).getId();
+        statistics.clear();
+
+        assertEquals(1, sightingRepository.deleteSightingById(id));
+        assertEquals(0, sightingRepository.deleteSightingById(id));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(SIGHTINGS - 1, sightingRepository.count());
+    }
+
+    /**
+     * Tests that the sightings of a bird are deleted with a single statement, without loading them.
+     */
+    @Test
+    void deleteAllByBirdId_ShouldDeleteWithSingleStatement() {
+        assertEquals(SIGHTINGS / BIRDS, sightingRepository.deleteAllByBirdId(birds[0].getId()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(SIGHTINGS - SIGHTINGS / BIRDS, sightingRepository.count());
+    }
+
+    /**
+     * Tests that counting sightings per bird returns one row per bird with a single statement,
+     * without loading any sighting.
+     */
+    @Test
+    void countSightings_ByBird_ShouldReturnOneRowPerBird() {
+        List<Object[]> rows = sightingRepository.countSightings(
+            EnumSet.of(SightingStats.Dimension.BIRD), null, null, null, null);
+
+        assertEquals(BIRDS, rows.size());
+        assertEquals(birds[0].getId(), rows.get(0)[0]);
+        assertEquals("Bird 0", rows.get(0)[1]);
+        assertTrue(rows.stream().allMatch(row -> (Long) row[2] == SIGHTINGS / BIRDS));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Tests that counting sightings per hour within a date window returns the hourly buckets
+     * of the window in order.
+     */
+    @Test
+    void countSightings_ByHourWithinDateWindow_ShouldReturnHourlyBuckets() {
+        List<Object[]> rows = sightingRepository.countSightings(
+            EnumSet.of(SightingStats.Dimension.HOUR), null, null,
+            FIRST_SIGHTING.plusMinutes(30), FIRST_SIGHTING.plusMinutes(149));
+
+        assertEquals(3, rows.size());
+        assertEquals(FIRST_SIGHTING, rows.get(0)[0]);
+        assertEquals(30L, rows.get(0)[1]);
+        assertEquals(FIRST_SIGHTING.plusHours(1), rows.get(1)[0]);
+        assertEquals(60L, rows.get(1)[1]);
+        assertEquals(30L, rows.get(2)[1]);
+    }
+
+    /**
+     * Tests that counting without dimensions returns the number of matching sightings as a single row.
+     */
+    @Test
+    void countSightings_WithoutDimensions_ShouldReturnTotal() {
+        List<Object[]> rows = sightingRepository.countSightings(
+            EnumSet.noneOf(SightingStats.Dimension.class), "bird 1", null, null, null);
+
+        // Bird 1 and Bird 10 to Bird 19 match, each with SIGHTINGS / BIRDS sightings
+        assertEquals(1, rows.size());
+        assertEquals((long) 11 * SIGHTINGS / BIRDS, rows.get(0)[0]);
+    }
+
+    /**
+     * Tests that daily counts over whole days are summed from the daily rollup and match the counts
+     * of the sightings table, which are used when the end date cuts a day short, even by less than a second.
+     */
+    @Test
+    void countSightings_ByDayOverWholeDays_ShouldSumDailyRollup() {
+        LocalDateTime endOfDay = FIRST_SIGHTING.withHour(23).withMinute(59).withSecond(59).withNano(999_999_000);
+        LocalDateTime beforeEndOfDay = endOfDay.minusMinutes(1);
+        LocalDateTime lastSecondOfDay = endOfDay.withNano(0);
+
+        List<Object[]> fromRollup = sightingRepository.countSightings(
+            EnumSet.of(SightingStats.Dimension.DAY), null, "location 1", FIRST_SIGHTING, endOfDay);
+        List<Object[]> fromSightings = sightingRepository.countSightings(
+            EnumSet.of(SightingStats.Dimension.DAY), null, "location 1", FIRST_SIGHTING, beforeEndOfDay);
+
+        // Location 1, Location 10 to 19 and Location 100 to 199 match
+        assertEquals(1, fromRollup.size());
+        assertEquals(FIRST_SIGHTING, fromRollup.get(0)[0]);
+        assertEquals(111L, fromRollup.get(0)[1]);
+        assertArrayEquals(fromSightings.get(0), fromRollup.get(0));
+
+        rollupRepository.deleteAllInBatch();
+        assertTrue(sightingRepository.countSightings(
+            EnumSet.of(SightingStats.Dimension.DAY), null, "location 1", FIRST_SIGHTING, endOfDay).isEmpty());
+        assertEquals(1, sightingRepository.countSightings(
+            EnumSet.of(SightingStats.Dimension.DAY), null, "location 1", FIRST_SIGHTING, beforeEndOfDay).size());
+        assertEquals(1, sightingRepository.countSightings(
+            EnumSet.of(SightingStats.Dimension.DAY), null, "location 1", FIRST_SIGHTING, lastSecondOfDay).size());
+    }
+
+    /**
+     * Tests that a bounding box search returns the sightings inside the box, and only those,
+     * ordered by sighting date.
+     */
+    @Test
+    void searchSightingsInAreaPageAfter_BoundingBox_ShouldReturnSightingsInsideBox() {
+        GeoArea box = GeoArea.boundingBox(LATITUDE + 0.025, LONGITUDE + 0.005, LATITUDE + 0.075, LONGITUDE + 0.035);
+
+        List<SightingDTO> page = sightingRepository.searchSightingsInAreaPageAfter(
+            null, null, FIRST_SIGHTING, LAST_SIGHTING, box, FIRST_SIGHTING.minusDays(1), 0L, SIGHTINGS);
+
+        // Latitudes 50.03 to 50.07 and longitudes 10.01 to 10.03
+        assertEquals(15, page.size());
+        assertEquals(expectedIdsInside(box), ids(page));
+        assertTrue(page.stream().allMatch(sighting -> box.contains(sighting.getLatitude(), sighting.getLongitude())));
+    }
+
+    /**
+     * Tests that a radius search returns the sightings within the great-circle distance of the center,
+     * not the corners of its bounding box, and that the bird name filter applies as well.
+     */
+    @Test
+    void searchSightingsInAreaPageAfter_Radius_ShouldReturnSightingsWithinDistance() {
+        GeoArea circle = GeoArea.circle(LATITUDE + 0.5, LONGITUDE + 0.05, 3.0);
+
+        List<SightingDTO> page = sightingRepository.searchSightingsInAreaPageAfter(
+            null, null, FIRST_SIGHTING, LAST_SIGHTING, circle, FIRST_SIGHTING.minusDays(1), 0L, SIGHTINGS);
+        List<SightingDTO> ofBird = sightingRepository.searchSightingsInAreaPageAfter(
+            "bird 1", null, FIRST_SIGHTING, LAST_SIGHTING, circle, FIRST_SIGHTING.minusDays(1), 0L, SIGHTINGS);
+
+        List<Long> inside = expectedIdsInside(circle);
+        assertTrue(inside.size() > 0 && inside.size() < countInside(circle.getMinLatitude(), circle.getMinLongitude(),
+            circle.getMaxLatitude(), circle.getMaxLongitude()));
+        assertEquals(inside, ids(page));
+        assertEquals(expectedIdsInside(circle, "bird 1"), ids(ofBird));
+        assertEquals(inside, sightingRepository.findIdsInAreaAfter(
+            null, null, FIRST_SIGHTING, LAST_SIGHTING, circle, 0L, SIGHTINGS));
+        assertEquals(inside.subList(1, inside.size()), sightingRepository.findIdsInAreaAfter(
+            null, null, FIRST_SIGHTING, LAST_SIGHTING, circle, inside.get(0), SIGHTINGS));
+    }
+
+    /**
+     * Finds the IDs of the seeded sightings inside an area by checking every sighting.
+     *
+     * @param area The area
+     * @return The IDs of the sightings inside the area, in ID order
+     */
+    private List<Long> expectedIdsInside(GeoArea area) {
+        return expectedIdsInside(area, "");
+    }
+
+    /**
+     * Finds the IDs of the seeded sightings of matching birds inside an area by checking every sighting.
+     *
+     * @param area The area
+     * @param birdName The lowercase bird name fragment
+     * @return The IDs of the matching sightings inside the area, in ID order
+     */
+    private List<Long> expectedIdsInside(GeoArea area, String birdName) {
+        return sightingRepository.findAll().stream()
+            .filter(sighting -> area.contains(sighting.getLatitude(), sighting.getLongitude()))
+            .filter(sighting -> sighting.getBird().getName().toLowerCase().contains(birdName))
+            .map(Sighting::getId)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the seeded sightings inside a bounding box.
+     *
+     * @param minLatitude The southern edge of the box
+     * @param minLongitude The western edge of the box
+     * @param maxLatitude The northern edge of the box
+     * @param maxLongitude The eastern edge of the box
+     * @return The number of sightings inside the box
+     */
+    private int countInside(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        return expectedIdsInside(GeoArea.boundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude)).size();
+    }
+
+    /**
+     * Gets the IDs of a page of sightings in page order, which is ID order for the seeded sightings.
+     *
+     * @param page The page of sightings
+     * @return The IDs
+     */
+    private static List<Long> ids(List<SightingDTO> page) {
+        return page.stream().map(SightingDTO::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Runs the given listing, which reads the sighted bird name of every sighting the way
+     * the API does when building its response, and checks that one statement was issued.
+     *
+     * @param birdNames The listing to run, returning the bird name of each sighting
+     */
+    private void assertSingleStatement(Supplier<List<String>> birdNames) {
+        List<String> names = birdNames.get();
+
+        assertEquals(SIGHTINGS, names.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
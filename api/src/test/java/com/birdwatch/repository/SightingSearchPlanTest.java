@@ -0,0 +1,197 @@
+package com.birdwatch.repository;
+
+import com.birdwatch.MigrationScripts;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import javax.sql.DataSource;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the query plans of the sighting search, the query behind
+ * the search of the sightings view.
+ * Runs the repository query, captures the SQL Hibernate generates for it and checks the
+ * EXPLAIN output of that SQL, so that the test fails if the search regresses to a
+ * sequential scan of the sightings table.
+ * Runs against the PostgreSQL test database with the indexes of the migration scripts applied.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.birdwatch.repository.SightingSearchPlanTest$LastStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SightingSearchPlanTest {
+
+    private static final int SIGHTINGS = 50_000;
+    private static final int BIRDS = 5_000;
+    private static final LocalDateTime FIRST_SIGHTING = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final Pageable PAGE = PageRequest.of(0, 100);
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    /**
+     * Seeds 50,000 sightings, ten minutes apart, spread over 5,000 birds with random names
+     * and locations, creates the search indexes and refreshes the planner statistics.
+     */
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update(
+            "INSERT INTO birds (id, name, color, weight, height, created_at) " +
+            "SELECT nextval('birds_id_seq'), 'Bird ' || md5(g::text), 'Gray', 1.0, 10.0, now() FROM generate_series(1, ?) g", BIRDS);
+        jdbcTemplate.update(
+            "INSERT INTO sightings (id, bird_id, location, sighting_date, created_at) " +
+            "SELECT nextval('sightings_id_seq'), b.id, 'Location ' || md5(g::text), ? + g * interval '10 minutes', now() " +
+            "FROM generate_series(1, ?) g " +
+            "JOIN (SELECT id, row_number() OVER (ORDER BY id) AS n FROM birds) b ON b.n = 1 + g % ?",
+            FIRST_SIGHTING, SIGHTINGS, BIRDS);
+
+        MigrationScripts.apply(dataSource, "004_birds_trigram_indexes.sql", "005_sightings_search_indexes.sql");
+        jdbcTemplate.execute("ANALYZE birds");
+        jdbcTemplate.execute("ANALYZE sightings");
+    }
+
+    /**
+     * Tests that a location search reads the sightings through the location trigram index.
+     */
+    @Test
+    void searchByLocation_ShouldUseLocationTrigramIndex() {
+        String plan = explainSearch(null, md5Fragment(SIGHTINGS / 2), MIN_DATE, MAX_DATE);
+
+        assertNoSequentialScan(plan);
+        assertTrue(plan.contains("idx_sightings_location_trgm"), plan);
+    }
+
+    /**
+     * Tests that a bird name search finds the birds through the name trigram index
+     * and reaches their sightings through the (bird_id, sighting_date) index.
+     */
+    @Test
+    void searchByBirdName_ShouldUseBirdIdSightingDateIndex() {
+        String plan = explainSearch(md5Fragment(BIRDS / 2), null, MIN_DATE, MAX_DATE);
+
+        assertNoSequentialScan(plan);
+        assertTrue(plan.contains("idx_birds_name_trgm"), plan);
+        assertTrue(plan.contains("idx_sightings_bird_id_sighting_date"), plan);
+    }
+
+    /**
+     * Tests that a date window search reads the sightings through the (sighting_date, id) index.
+     */
+    @Test
+    void searchByDateRange_ShouldUseSightingDateIndex() {
+        String plan = explainSearch(null, null, FIRST_SIGHTING.plusDays(30), FIRST_SIGHTING.plusDays(31));
+
+        assertNoSequentialScan(plan);
+        assertTrue(plan.contains("idx_sightings_sighting_date_id"), plan);
+    }
+
+    /**
+     * Runs the first page of the sighting search, then explains the SQL Hibernate issued for it
+     * with the same parameter values.
+     *
+     * @param birdName Optional bird name filter
+     * @param location Optional location filter
+     * @param startDate Inclusive lower bound of the sighting date
+     * @param endDate Inclusive upper bound of the sighting date
+     * @return The text of the query plan
+     */
+    private String explainSearch(String birdName, String location, LocalDateTime startDate, LocalDateTime endDate) {
+        sightingRepository.searchSightingsPageAfter(
+            birdName, location, startDate, endDate, MIN_DATE, 0L, PAGE);
+        String sql = LastStatementInspector.lastSql;
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("birdName", new SqlParameterValue(Types.VARCHAR, birdName));
+        values.put("location", new SqlParameterValue(Types.VARCHAR, location));
+        values.put("startDate", startDate);
+        values.put("endDate", endDate);
+        values.put("afterDate", MIN_DATE);
+        values.put("afterId", 0L);
+
+        // Hibernate binds the named parameters in the order they appear in the query, then the limit
+        List<Object> arguments = new ArrayList<>();
+        Matcher parameters = NAMED_PARAMETER.matcher(searchQuery());
+        while (parameters.find()) {
+            arguments.add(values.get(parameters.group(1)));
+        }
+        arguments.add(PAGE.getPageSize());
+
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, arguments.toArray()));
+    }
+
+    /**
+     * Reads the JPQL of the keyset page search from its repository method.
+     *
+     * @return The JPQL of SightingRepository.searchSightingsPageAfter
+     */
+    private static String searchQuery() {
+        try {
+            return SightingRepository.class.getMethod("searchSightingsPageAfter",
+                    String.class, String.class, LocalDateTime.class, LocalDateTime.class,
+                    LocalDateTime.class, Long.class, Pageable.class)
+                .getAnnotation(Query.class).value();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a six character fragment of the MD5 hash used in the seeded name or location with
+     * the given number, uppercased so that the search has to match case-insensitively.
+     *
+     * @param n Number of the seeded row
+     * @return A fragment matching a handful of rows
+     */
+    private String md5Fragment(int n) {
+        return jdbcTemplate.queryForObject("SELECT upper(substr(md5(?::text), 3, 6))", String.class, n);
+    }
+
+    /**
+     * Checks that the plan does not read the sightings table sequentially.
+     *
+     * @param plan The text of the query plan
+     */
+    private static void assertNoSequentialScan(String plan) {
+        assertFalse(plan.contains("Seq Scan on sightings"), plan);
+    }
+
+    /**
+     * Statement inspector remembering the last SQL statement Hibernate prepared.
+     */
+    public static class LastStatementInspector implements StatementInspector {
+        static volatile String lastSql;
+
+        @Override
+        public String inspect(String sql) {
+            lastSql = sql;
+            return sql;
+        }
+    }
+}
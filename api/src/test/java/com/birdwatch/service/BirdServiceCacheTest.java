@@ -0,0 +1,160 @@
+package com.birdwatch.service;
+
+import com.birdwatch.entity.Bird;
+import com.birdwatch.repository.BirdRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the bird cache of the BirdService.
+ * Verifies that bird lookups are served from the cache, that saving or deleting a bird
+ * invalidates the cached entry once the write has committed and that cache hits and misses
+ * are exposed as metrics.
+ * Uses the application's cache configuration with a mocked BirdRepository.
+ */
+@SpringBootTest
+class BirdServiceCacheTest {
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private BirdRepository birdRepository;
+
+    private Bird testBird;
+
+    /**
+     * Empties the caches and sets up a test bird returned by the repository.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        testBird = new Bird();
+        testBird.setId(1L);
+        testBird.setName("Test Bird");
+        testBird.setColor("Blue");
+        testBird.setWeight(1.0);
+        testBird.setHeight(10.0);
+
+        when(birdRepository.findById(1L)).thenReturn(Optional.of(testBird));
+        when(birdRepository.save(any(Bird.class))).thenReturn(testBird);
+        when(birdRepository.deleteBirdById(1L)).thenReturn(1);
+    }
+
+    /**
+     * Tests that repeated lookups of the same bird reach the repository once
+     * and are counted as one miss followed by hits.
+     */
+    @Test
+    void findById_ShouldServeRepeatedLookupsFromCache() {
+        double hits = cacheGets(BirdService.BIRD_CACHE, "hit");
+        double misses = cacheGets(BirdService.BIRD_CACHE, "miss");
+
+        birdService.findById(1L);
+        birdService.findById(1L);
+        Optional<Bird> bird = birdService.findById(1L);
+
+        assertEquals(testBird, bird.get());
+        verify(birdRepository, times(1)).findById(1L);
+        assertEquals(hits + 2, cacheGets(BirdService.BIRD_CACHE, "hit"));
+        assertEquals(misses + 1, cacheGets(BirdService.BIRD_CACHE, "miss"));
+    }
+
+    /**
+     * Tests that looking up a bird that does not exist is not cached,
+     * so the bird is found once it has been created.
+     */
+    @Test
+    void findById_WhenBirdDoesNotExist_ShouldNotCacheMiss() {
+        when(birdRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertFalse(birdService.findById(2L).isPresent());
+        birdService.findById(2L);
+
+        verify(birdRepository, times(2)).findById(2L);
+    }
+
+    /**
+     * Tests that saving a bird evicts it, so it is read again.
+     */
+    @Test
+    void save_ShouldEvictCachedBird() {
+        birdService.findById(1L);
+
+        birdService.save(testBird);
+        birdService.findById(1L);
+
+        verify(birdRepository, times(2)).findById(1L);
+    }
+
+    /**
+     * Tests that deleting a bird evicts it, so it is read again.
+     */
+    @Test
+    void deleteById_ShouldEvictCachedBird() {
+        birdService.findById(1L);
+
+        birdService.deleteById(1L);
+        birdService.findById(1L);
+
+        verify(birdRepository, times(2)).findById(1L);
+    }
+
+    /**
+     * Tests that a bird deleted in a transaction is evicted once the transaction has committed,
+     * even if a lookup cached it again before the commit.
+     */
+    @Test
+    void deleteById_InTransaction_ShouldEvictAfterCommit() {
+        birdService.findById(1L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            birdService.deleteById(1L);
+            birdService.findById(1L);
+        });
+        clearInvocations(birdRepository);
+        birdService.findById(1L);
+
+        verify(birdRepository, times(1)).findById(1L);
+    }
+
+    /**
+     * Reads the number of cache lookups with the given result from the cache metrics.
+     *
+     * @param cache The name of the cache
+     * @param result The lookup result, hit or miss
+     * @return The number of lookups recorded so far
+     */
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets")
+            .tags("cache", cache, "result", result)
+            .functionCounter()
+            .count();
+    }
+}
@@ -0,0 +1,103 @@
+package com.birdwatch.service;
+
+import com.birdwatch.entity.Bird;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for deleting a bird with many sightings through the BirdService.
+ * Verifies that the sightings are removed with set-based statements inside the delete transaction,
+ * without loading the sightings collection, so that neither the number of statements nor the memory
+ * used grows with the number of sightings.
+ * Runs against the PostgreSQL test database with Hibernate statistics enabled.
+ */
+@SpringBootTest
+class BirdServiceDeleteTest {
+
+    private static final int SIGHTINGS = 100_000;
+    private static final LocalDateTime FIRST_SIGHTING = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Bird bird;
+
+    private Statistics statistics;
+
+    /**
+     * Creates a test bird and seeds 100,000 sightings of it directly in the database.
+     */
+    @BeforeEach
+    void setUp() {
+        bird = new Bird();
+        bird.setName("Heavily Sighted Bird");
+        bird.setColor("Brown");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        bird = birdService.save(bird);
+
+        jdbcTemplate.update(
+            "INSERT INTO sightings (id, bird_id, location, sighting_date, created_at, updated_at) " +
+            "SELECT nextval('sightings_id_seq'), ?, 'Location ' || g, ? + g * interval '1 minute', now(), now() " +
+            "FROM generate_series(1, ?) g",
+            bird.getId(), FIRST_SIGHTING, SIGHTINGS);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Removes what is left of the test data if a test failed before deleting it.
+     */
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sightings WHERE bird_id = ?", bird.getId());
+        jdbcTemplate.update("DELETE FROM birds WHERE id = ?", bird.getId());
+    }
+
+    /**
+     * Tests that deleting a bird with 100,000 sightings deletes them all without loading
+     * any sighting, with a handful of statements and within a bounded time.
+     */
+    @Test
+    void deleteById_WithManySightings_ShouldDeleteSightingsWithoutLoadingThem() {
+        boolean deleted = assertTimeout(Duration.ofSeconds(30), () -> birdService.deleteById(bird.getId()));
+
+        assertTrue(deleted);
+        assertEquals(0, countSightings());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 5,
+            "Statements prepared: " + statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Counts the remaining sightings of the test bird.
+     *
+     * @return The number of sightings of the test bird
+     */
+    private int countSightings() {
+        return jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM sightings WHERE bird_id = ?", Integer.class, bird.getId());
+    }
+}
@@ -0,0 +1,81 @@
+package com.birdwatch.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Test class for the DataVersionService.
+ * Verifies that bird and sighting writes change the entity tags of the affected listings
+ * and that writes inside a transaction only change them once the transaction has committed.
+ */
+class DataVersionServiceTest {
+
+    private DataVersionService dataVersionService;
+
+    /**
+     * Creates a fresh DataVersionService before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        dataVersionService = new DataVersionService();
+    }
+
+    /**
+     * Clears any transaction synchronization left by a test.
+     */
+    @AfterEach
+    void cleanUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Tests that a sighting write changes the sighting tag but not the bird tag.
+     */
+    @Test
+    void sightingsChanged_ShouldChangeSightingsTagOnly() {
+        String birdsTag = dataVersionService.getBirdsTag();
+        String sightingsTag = dataVersionService.getSightingsTag();
+
+        dataVersionService.sightingsChanged();
+
+        assertEquals(birdsTag, dataVersionService.getBirdsTag());
+        assertNotEquals(sightingsTag, dataVersionService.getSightingsTag());
+    }
+
+    /**
+     * Tests that a bird write changes both tags, since sightings are returned with their birds.
+     */
+    @Test
+    void birdsChanged_ShouldChangeBirdsAndSightingsTags() {
+        String birdsTag = dataVersionService.getBirdsTag();
+        String sightingsTag = dataVersionService.getSightingsTag();
+
+        dataVersionService.birdsChanged();
+
+        assertNotEquals(birdsTag, dataVersionService.getBirdsTag());
+        assertNotEquals(sightingsTag, dataVersionService.getSightingsTag());
+    }
+
+    /**
+     * Tests that a write inside a transaction keeps the tag until the transaction commits.
+     */
+    @Test
+    void sightingsChanged_InTransaction_ShouldChangeTagAfterCommit() {
+        String sightingsTag = dataVersionService.getSightingsTag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        dataVersionService.sightingsChanged();
+        assertEquals(sightingsTag, dataVersionService.getSightingsTag());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNotEquals(sightingsTag, dataVersionService.getSightingsTag());
+    }
+}
@@ -0,0 +1,246 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.SightingStats;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the columnar analytics snapshot of the sightings.
+ * Verifies that the counts of the snapshot equal the statistics computed by the database for every
+ * grouping, including time buckets across week, month and year boundaries, that sighting and bird
+ * writes are followed, and that the startup load picks up sightings already in the database, batch by batch.
+ * Counts are restricted to the test bird by its name, as the snapshot is shared by every test
+ * of the application context.
+ * Runs against the PostgreSQL test database.
+ */
+@SpringBootTest
+class SightingAnalyticsServiceTest {
+
+    private static final String BIRD_NAME = "Analytics Bird";
+
+    private static final List<LocalDateTime> SIGHTING_DATES = List.of(
+        LocalDateTime.of(2023, 12, 31, 23, 59, 59),
+        LocalDateTime.of(2024, 1, 1, 0, 0),
+        LocalDateTime.of(2024, 1, 7, 22, 30),
+        LocalDateTime.of(2024, 1, 8, 6, 15),
+        LocalDateTime.of(2024, 2, 29, 12, 0),
+        LocalDateTime.of(2024, 2, 29, 12, 45),
+        LocalDateTime.of(2024, 3, 1, 0, 0, 1),
+        LocalDateTime.of(2024, 6, 30, 18, 5),
+        LocalDateTime.of(2024, 7, 1, 7, 0));
+
+    @Autowired
+    private SightingAnalyticsService sightingAnalyticsService;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Bird bird;
+
+    /**
+     * Creates a test bird.
+     */
+    @BeforeEach
+    void setUp() {
+        bird = new Bird();
+        bird.setName(BIRD_NAME);
+        bird.setColor("Green");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        bird = birdService.save(bird);
+    }
+
+    /**
+     * Removes the test bird and its sightings from the database and the snapshot.
+     */
+    @AfterEach
+    void cleanUp() {
+        birdService.deleteById(bird.getId());
+    }
+
+    /**
+     * Tests that the snapshot returns the same rows as the database statistics for every grouping,
+     * with and without date bounds and location filter.
+     */
+    @Test
+    void count_ShouldMatchDatabaseStatistics() {
+        List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i < SIGHTING_DATES.size(); i++) {
+            sightings.add(sighting(i % 2 == 0 ? "North Marsh" : "South Lake", SIGHTING_DATES.get(i)));
+        }
+        sightingService.saveAll(sightings);
+
+        List<Set<SightingStats.Dimension>> groupings = List.of(
+            EnumSet.noneOf(SightingStats.Dimension.class),
+            EnumSet.of(SightingStats.Dimension.BIRD),
+            EnumSet.of(SightingStats.Dimension.LOCATION),
+            EnumSet.of(SightingStats.Dimension.HOUR),
+            EnumSet.of(SightingStats.Dimension.DAY),
+            EnumSet.of(SightingStats.Dimension.WEEK),
+            EnumSet.of(SightingStats.Dimension.MONTH),
+            EnumSet.of(SightingStats.Dimension.BIRD, SightingStats.Dimension.LOCATION, SightingStats.Dimension.WEEK));
+        for (Set<SightingStats.Dimension> groupBy : groupings) {
+            assertSameCounts(groupBy, null, null, null);
+            assertSameCounts(groupBy, "marsh", null, null);
+            assertSameCounts(groupBy, null, LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 29, 12, 30));
+        }
+    }
+
+    /**
+     * Tests that updated and deleted sightings and deleted birds are reflected in the counts.
+     */
+    @Test
+    void count_ShouldFollowSightingAndBirdWrites() {
+        List<Sighting> saved = sightingService.saveAll(List.of(
+            sighting("North Marsh", SIGHTING_DATES.get(0)),
+            sighting("North Marsh", SIGHTING_DATES.get(1)),
+            sighting("North Marsh", SIGHTING_DATES.get(2))));
+        assertEquals(List.of(List.of("North Marsh", 3L)), count(EnumSet.of(SightingStats.Dimension.LOCATION)));
+
+        Sighting moved = saved.get(0);
+        moved.setLocation("South Lake");
+        sightingService.save(moved);
+        sightingService.deleteById(saved.get(1).getId());
+        assertEquals(List.of(List.of("North Marsh", 1L), List.of("South Lake", 1L)),
+            count(EnumSet.of(SightingStats.Dimension.LOCATION)));
+
+        bird.setName(BIRD_NAME + " Renamed");
+        bird = birdService.save(bird);
+        assertEquals(List.of(List.of(bird.getId(), BIRD_NAME + " Renamed", 2L)),
+            count(EnumSet.of(SightingStats.Dimension.BIRD)));
+
+        birdService.deleteById(bird.getId());
+        assertEquals(List.of(List.of(0L)), count(EnumSet.noneOf(SightingStats.Dimension.class)));
+    }
+
+    /**
+     * Tests that birds with IDs beyond the int range are counted and grouped under their IDs.
+     */
+    @Test
+    void count_WithBirdIdAboveIntRange_ShouldGroupByBird() {
+        long birdId = Integer.MAX_VALUE + 10L;
+        jdbcTemplate.update("INSERT INTO birds (id, name, color, weight, height, created_at) " +
+            "VALUES (?, ?, 'Gray', 1.0, 10.0, now())", birdId, BIRD_NAME + " Large");
+        Bird large = birdService.findById(birdId).orElseThrow();
+        try {
+            Sighting sighting = sighting("North Marsh", SIGHTING_DATES.get(0));
+            sighting.setBird(large);
+            sightingService.saveAll(List.of(sighting, sighting("North Marsh", SIGHTING_DATES.get(1))));
+
+            assertEquals(List.of(List.of(bird.getId(), BIRD_NAME, 1L), List.of(birdId, BIRD_NAME + " Large", 1L)),
+                count(EnumSet.of(SightingStats.Dimension.BIRD)));
+        } finally {
+            birdService.deleteById(birdId);
+        }
+    }
+
+    /**
+     * Tests that the startup load adds sightings written to the database without the service.
+     */
+    @Test
+    void warmUp_ShouldLoadSightingsFromDatabase() {
+        jdbcTemplate.update("INSERT INTO sightings (id, bird_id, location, sighting_date, created_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, 'North Marsh', ?, now())",
+            bird.getId(), Timestamp.valueOf(SIGHTING_DATES.get(0)));
+        assertEquals(List.of(List.of(0L)), count(EnumSet.noneOf(SightingStats.Dimension.class)));
+
+        sightingAnalyticsService.warmUp();
+
+        assertEquals(List.of(List.of(1L)), count(EnumSet.noneOf(SightingStats.Dimension.class)));
+    }
+
+    /**
+     * Tests that the startup load adds sightings spanning several batches and marks the snapshot as loaded.
+     */
+    @Test
+    void warmUp_WithMoreSightingsThanOneBatch_ShouldLoadAllOfThem() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i <= SightingAnalyticsService.LOAD_BATCH_SIZE; i++) {
+            rows.add(new Object[] { bird.getId(), Timestamp.valueOf(SIGHTING_DATES.get(i % SIGHTING_DATES.size())) });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sightings (id, bird_id, location, sighting_date, created_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, 'North Marsh', ?, now())", rows);
+
+        sightingAnalyticsService.warmUp();
+
+        assertTrue(sightingAnalyticsService.isLoaded());
+        assertEquals(List.of(List.of((long) SightingAnalyticsService.LOAD_BATCH_SIZE + 1)),
+            count(EnumSet.noneOf(SightingStats.Dimension.class)));
+    }
+
+    /**
+     * Asserts that the snapshot and the database count the test bird's sightings alike.
+     *
+     * @param groupBy The dimensions to group by
+     * @param location Optional location filter
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     */
+    private void assertSameCounts(Set<SightingStats.Dimension> groupBy, String location,
+                                  LocalDateTime startDate, LocalDateTime endDate) {
+        SightingStats expected = sightingService.getStats(groupBy, BIRD_NAME, location, startDate, endDate);
+        SightingStats actual = sightingAnalyticsService.count(groupBy, BIRD_NAME, location, startDate, endDate);
+
+        assertEquals(expected.getColumns(), actual.getColumns());
+        assertEquals(rows(expected), rows(actual), groupBy + ", " + location + ", " + startDate + " to " + endDate);
+    }
+
+    /**
+     * Counts the test bird's sightings in the snapshot.
+     *
+     * @param groupBy The dimensions to group by
+     * @return The rows as lists of values
+     */
+    private List<List<Object>> count(Set<SightingStats.Dimension> groupBy) {
+        return rows(sightingAnalyticsService.count(groupBy, BIRD_NAME, null, null, null));
+    }
+
+    /**
+     * Converts the rows of statistics to lists, so they can be compared by value.
+     *
+     * @param stats The statistics
+     * @return The rows as lists of values
+     */
+    private static List<List<Object>> rows(SightingStats stats) {
+        return stats.getRows().stream().map(Arrays::asList).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an unsaved sighting of the test bird.
+     *
+     * @param location The location
+     * @param sightingDate The date and time of the sighting
+     * @return The new sighting
+     */
+    private Sighting sighting(String location, LocalDateTime sightingDate) {
+        Sighting sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(location);
+        sighting.setSightingDate(sightingDate);
+        return sighting;
+    }
+}
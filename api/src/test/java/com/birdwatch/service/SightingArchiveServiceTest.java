@@ -0,0 +1,346 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingCursor;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SightingEvent;
+import com.birdwatch.dto.SyncKey;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.entity.Tombstone;
+import com.birdwatch.repository.SightingRepository;
+import com.birdwatch.repository.TombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the archival of old sightings.
+ * Verifies that the archive job moves the sightings of expired months from the sightings table and
+ * the daily rollup into archive files, recording tombstones and telling subscribers to reload, that the
+ * sighting search pages through archived and current sightings together with the same filters when the
+ * date range reaches into the archive, that sightings added to an archived month later are merged into
+ * its file and that archived sightings cannot be deleted by filter.
+ * Runs against the PostgreSQL test database, with the archive directory emptied around every test.
+ */
+@SpringBootTest
+class SightingArchiveServiceTest {
+
+    private static final String LOCATION = "Archive Station";
+
+    @Value("${birdwatch.archive.directory}")
+    private String directory;
+
+    @Autowired
+    private SightingArchiveService sightingArchiveService;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private SightingRollupService sightingRollupService;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private SightingEventService sightingEventService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Bird bird;
+
+    private LocalDateTime oldMonth;
+
+    /**
+     * Empties the archive directory and creates a test bird.
+     *
+     * @throws IOException if the archive directory cannot be emptied
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        emptyArchive();
+        bird = new Bird();
+        bird.setName("Archive Bird");
+        bird.setColor("Brown");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        bird = birdService.save(bird);
+        sightingRollupService.rebuild();
+
+        oldMonth = LocalDateTime.now().minusYears(3).withDayOfMonth(1).withHour(12).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    /**
+     * Removes the test bird with its sightings and empties the archive directory,
+     * so other tests do not find archived sightings.
+     *
+     * @throws IOException if the archive directory cannot be emptied
+     */
+    @AfterEach
+    void cleanUp() throws IOException {
+        birdService.deleteById(bird.getId());
+        emptyArchive();
+    }
+
+    /**
+     * Tests that the sightings of months older than the retention period are moved to one archive file
+     * per month and removed from the sightings table and the rollup, while recent sightings stay.
+     */
+    @Test
+    void archiveExpired_ShouldMoveOldMonthsToArchiveFiles() {
+        List<Sighting> old = sightingService.saveAll(List.of(
+            sighting(oldMonth, 50.0, 10.0),
+            sighting(oldMonth.plusDays(3), 50.0, 10.0),
+            sighting(oldMonth.plusMonths(1), null, null)));
+        Sighting recent = sightingService.save(sighting(LocalDateTime.now().minusDays(10), null, null));
+
+        assertTrue(sightingArchiveService.archiveExpired() >= 3);
+
+        old.forEach(sighting -> assertFalse(sightingRepository.existsById(sighting.getId())));
+        assertTrue(sightingRepository.existsById(recent.getId()));
+        assertTrue(Files.exists(archiveFile(oldMonth)));
+        assertTrue(Files.exists(archiveFile(oldMonth.plusMonths(1))));
+        assertEquals(0, sightingRollupService.check());
+        assertEquals(0, sightingArchiveService.archiveExpired());
+    }
+
+    /**
+     * Tests that when the archiving transaction rolls back, the archive file is not published, no staged
+     * file is left behind and the sightings are only found once, in the sightings table.
+     */
+    @Test
+    void archiveExpired_WhenTransactionRollsBack_ShouldNotPublishArchiveFile() {
+        Sighting old = sightingService.save(sighting(oldMonth, null, null));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            sightingArchiveService.archiveExpired();
+            status.setRollbackOnly();
+        });
+
+        assertTrue(sightingRepository.existsById(old.getId()));
+        assertFalse(Files.exists(archiveFile(oldMonth)));
+        assertFalse(Files.exists(archiveFile(oldMonth).resolveSibling(archiveFile(oldMonth).getFileName() + ".staged")));
+        assertEquals(List.of(old.getId()), searchAllPages(null, null, 100));
+    }
+
+    /**
+     * Tests that archiving records a tombstone for every archived sighting, so the delta sync removes them,
+     * and tells event stream subscribers to reload.
+     *
+     * @throws InterruptedException if interrupted while waiting for the event
+     */
+    @Test
+    void archiveExpired_ShouldRecordTombstonesAndPublishResync() throws InterruptedException {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        List<Long> ids = sightingService.saveAll(List.of(
+                sighting(oldMonth, null, null),
+                sighting(oldMonth.plusDays(1), null, null))).stream()
+            .map(Sighting::getId)
+            .collect(Collectors.toList());
+        BlockingQueue<SightingEvent> received = new LinkedBlockingQueue<>();
+        SightingEventService.Subscriber subscriber = sightingEventService.subscribe(received::add);
+        try {
+            sightingArchiveService.archiveExpired();
+
+            List<Long> deletedIds = tombstoneRepository.findDeletedKeys(Tombstone.EntityType.SIGHTING,
+                    before, LocalDateTime.now(), before, 0L, PageRequest.of(0, 100)).stream()
+                .map(SyncKey::getEntityId)
+                .collect(Collectors.toList());
+            assertTrue(deletedIds.containsAll(ids));
+            SightingEvent event = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            assertEquals(SightingEvent.RESYNC, event.getType());
+        } finally {
+            subscriber.close();
+        }
+    }
+
+    /**
+     * Tests that the search returns archived and current sightings in one order, across pages,
+     * and applies its filters to archived sightings.
+     */
+    @Test
+    void searchSightingsPage_ShouldMergeArchivedAndCurrentSightings() {
+        List<Sighting> saved = new ArrayList<>(sightingService.saveAll(List.of(
+            sighting(oldMonth, 50.0, 10.0),
+            sighting(oldMonth.plusDays(3), 60.0, 10.0),
+            sighting(oldMonth.plusMonths(1), null, null))));
+        sightingArchiveService.archiveExpired();
+        saved.add(sightingService.save(sighting(oldMonth.plusDays(1), null, null)));
+        saved.add(sightingService.save(sighting(LocalDateTime.now().minusDays(10), null, null)));
+
+        List<Long> expected = saved.stream()
+            .sorted((a, b) -> a.getSightingDate().compareTo(b.getSightingDate()))
+            .map(Sighting::getId)
+            .collect(Collectors.toList());
+        assertEquals(expected, searchAllPages(null, null, 2));
+
+        assertEquals(List.of(saved.get(0).getId()), searchAllPages("archive bird",
+            GeoArea.circle(50.0, 10.0, 10.0), 100));
+        assertTrue(searchAllPages("another bird", null, 100).isEmpty());
+    }
+
+    /**
+     * Tests that a search with an open-ended date range reaching into archived months returns the
+     * archived sightings together with the current ones.
+     */
+    @Test
+    void searchSightingsPage_WithOpenEndedDateRange_ShouldReturnArchivedSightings() {
+        Sighting old = sightingService.save(sighting(oldMonth, null, null));
+        sightingArchiveService.archiveExpired();
+        Sighting recent = sightingService.save(sighting(LocalDateTime.now().minusDays(10), null, null));
+
+        assertEquals(List.of(old.getId(), recent.getId()), searchIds(oldMonth.minusDays(1), null));
+        assertEquals(List.of(old.getId(), recent.getId()), searchIds(null, LocalDateTime.now()));
+        assertEquals(List.of(old.getId(), recent.getId()), searchIds(null, null));
+    }
+
+    /**
+     * Tests that deleting by filter with a date range reaching into an archived month is rejected
+     * and deletes nothing, also when the range is open-ended, while a range outside the archive still deletes.
+     */
+    @Test
+    void deleteMatching_WithDateRangeReachingArchive_ShouldDeleteNothing() {
+        sightingService.save(sighting(oldMonth, null, null));
+        sightingArchiveService.archiveExpired();
+        LocalDateTime recentDate = LocalDateTime.now().minusDays(10);
+        Sighting recent = sightingService.save(sighting(recentDate, null, null));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+            sightingService.deleteMatching(null, LOCATION, oldMonth.minusDays(1), LocalDateTime.now(), null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertThrows(ResponseStatusException.class, () ->
+            sightingService.deleteMatching(null, LOCATION, null, LocalDateTime.now(), null));
+        assertThrows(ResponseStatusException.class, () ->
+            sightingService.deleteMatching(null, LOCATION, null, null, null));
+        assertTrue(sightingRepository.existsById(recent.getId()));
+        assertEquals(1, sightingService.deleteMatching(null, LOCATION, recentDate.minusDays(1),
+            LocalDateTime.now(), null));
+    }
+
+    /**
+     * Tests that a sighting added to an archived month is merged into the month's file by the next run.
+     */
+    @Test
+    void archiveExpired_WithSightingOfArchivedMonth_ShouldMergeIntoArchiveFile() {
+        Sighting first = sightingService.save(sighting(oldMonth, null, null));
+        sightingArchiveService.archiveExpired();
+        Sighting late = sightingService.save(sighting(oldMonth.plusDays(5), null, null));
+
+        assertEquals(1, sightingArchiveService.archiveExpired());
+
+        assertFalse(sightingRepository.existsById(late.getId()));
+        assertEquals(List.of(first.getId(), late.getId()), searchAllPages(null, null, 100));
+    }
+
+    /**
+     * Pages through the search results of the test location with the given page size,
+     * over a date range from before the archived months until now.
+     *
+     * @param birdName Optional bird name filter
+     * @param area Optional area filter
+     * @param limit The page size
+     * @return The IDs of all matching sightings, in search order
+     */
+    private List<Long> searchAllPages(String birdName, GeoArea area, int limit) {
+        List<Long> ids = new ArrayList<>();
+        SightingCursor cursor = null;
+        List<SightingDTO> page;
+        do {
+            page = sightingService.searchSightingsPage(birdName, LOCATION, oldMonth.minusMonths(1),
+                LocalDateTime.now(), area, cursor, limit);
+            page.forEach(sighting -> ids.add(sighting.getId()));
+            if (!page.isEmpty()) {
+                SightingDTO last = page.get(page.size() - 1);
+                cursor = new SightingCursor(last.getSightingDate(), last.getId());
+            }
+        } while (page.size() == limit);
+        return ids;
+    }
+
+    /**
+     * Searches the first page of sightings of the test location in a date range.
+     *
+     * @param startDate Optional inclusive lower bound of the sighting date
+     * @param endDate Optional inclusive upper bound of the sighting date
+     * @return The IDs of the matching sightings, in search order
+     */
+    private List<Long> searchIds(LocalDateTime startDate, LocalDateTime endDate) {
+        return sightingService.searchSightingsPage(null, LOCATION, startDate, endDate, null, null, 100).stream()
+            .map(SightingDTO::getId)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an unsaved sighting of the test bird at the test location.
+     *
+     * @param sightingDate The date and time of the sighting
+     * @param latitude The latitude, or null for none
+     * @param longitude The longitude, or null for none
+     * @return The new sighting
+     */
+    private Sighting sighting(LocalDateTime sightingDate, Double latitude, Double longitude) {
+        Sighting sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(LOCATION);
+        sighting.setSightingDate(sightingDate);
+        sighting.setLatitude(latitude);
+        sighting.setLongitude(longitude);
+        return sighting;
+    }
+
+    /**
+     * Gets the archive file of the month of a date.
+     *
+     * @param date A date in the month
+     * @return The path of the archive file
+     */
+    private Path archiveFile(LocalDateTime date) {
+        return Paths.get(directory, String.format("sightings-%04d-%02d.bwa.gz", date.getYear(), date.getMonthValue()));
+    }
+
+    /**
+     * Deletes the archive files and lets the service forget the archived months.
+     *
+     * @throws IOException if the archive directory cannot be emptied
+     */
+    private void emptyArchive() throws IOException {
+        FileSystemUtils.deleteRecursively(Paths.get(directory));
+        sightingArchiveService.loadArchivedMonths();
+    }
+}
@@ -0,0 +1,146 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.SightingEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test class for the SightingEventService.
+ * Verifies that events reach subscribers in order, that a subscriber falling behind
+ * loses its oldest events and is told to resync, that bulk changes are announced with a single resync event,
+ * and that failing or stalled subscribers are removed and their streams closed.
+ * Uses sinks recording the events instead of HTTP connections.
+ */
+class SightingEventServiceTest {
+
+    private static final int BUFFER_SIZE = 3;
+
+    private static final int LARGE_BUFFER_SIZE = 256;
+
+    private static final long SEND_TIMEOUT_MS = 200;
+
+    private SightingEventService sightingEventService;
+
+    /**
+     * Creates a SightingEventService with a small subscriber buffer and a short send timeout.
+     */
+    @BeforeEach
+    void setUp() {
+        sightingEventService = new SightingEventService();
+        ReflectionTestUtils.setField(sightingEventService, "bufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(sightingEventService, "sendTimeoutMs", SEND_TIMEOUT_MS);
+    }
+
+    /**
+     * Stops the sender threads.
+     */
+    @AfterEach
+    void cleanUp() {
+        sightingEventService.shutdown();
+    }
+
+    /**
+     * Tests that every subscriber receives the published events in order.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void deleted_ShouldSendEventsInOrderToEverySubscriber() throws InterruptedException {
+        BlockingQueue<SightingEvent> first = new LinkedBlockingQueue<>();
+        BlockingQueue<SightingEvent> second = new LinkedBlockingQueue<>();
+        sightingEventService.subscribe(first::add);
+        sightingEventService.subscribe(second::add);
+
+        sightingEventService.deleted(1L);
+        sightingEventService.birdDeleted(2L);
+
+        for (BlockingQueue<SightingEvent> events : List.of(first, second)) {
+            SightingEvent deleted = events.poll(5, TimeUnit.SECONDS);
+            assertEquals(SightingEvent.DELETED, deleted.getType());
+            assertEquals(1L, deleted.getId());
+            SightingEvent birdDeleted = events.poll(5, TimeUnit.SECONDS);
+            assertEquals(SightingEvent.BIRD_DELETED, birdDeleted.getType());
+            assertEquals(2L, birdDeleted.getBirdId());
+        }
+    }
+
+    /**
+     * Tests that a subscriber whose buffer overflows while it is blocked receives the event being sent,
+     * then a resync event, then the newest buffered events.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void deleted_WhenSubscriberFallsBehind_ShouldDropOldestAndSendResync() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch closed = new CountDownLatch(2);
+        BlockingQueue<SightingEvent> stalled = new LinkedBlockingQueue<>();
+        for (int i = 0; i < 2; i++) {
+            sightingEventService.subscribe(event -> {
+                stalled.add(event);
+                started.countDown();
+                awaitQuietly(release);
+            }, closed::countDown);
+        }
+        BlockingQueue<SightingEvent> received = new LinkedBlockingQueue<>();
+        sightingEventService.subscribe(received::add);
+
+        try {
+            sightingEventService.deleted(1L);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(1L, received.poll(5, TimeUnit.SECONDS).getId());
+            sightingEventService.deleted(2L);
+            assertEquals(2L, received.poll(5, TimeUnit.SECONDS).getId());
+            // let both stalled sends pass their deadline before they return
+            Thread.sleep(SEND_TIMEOUT_MS * 2);
+        } finally {
+            release.countDown();
+        }
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, stalled.size());
+    }
+
+    /**
+     * Tests that stopping the service closes the open streams.
+     */
+    @Test
+    void shutdown_ShouldCloseSubscribers() {
+        CountDownLatch closed = new CountDownLatch(2);
+        sightingEventService.subscribe(event -> { }, closed::countDown);
+        sightingEventService.subscribe(event -> { }, closed::countDown);
+
+        sightingEventService.shutdown();
+
+        assertEquals(0, closed.getCount());
+    }
+
+    /**
+     * Waits for a latch, ignoring interruption.
+     *
+     * @param latch The latch to wait for
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
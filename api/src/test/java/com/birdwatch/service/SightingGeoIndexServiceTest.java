@@ -0,0 +1,202 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.GeoArea;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the in-memory geo index of recent sightings.
+ * Verifies that bounding box, radius and nearest queries return the recent sightings with
+ * coordinates written through the services, that updates and deletes of sightings and birds
+ * are followed, and that the startup load picks up sightings already in the database.
+ * Sightings are placed around a point no other test uses and results are restricted to the test bird,
+ * as the index is shared by every test of the application context.
+ * Runs against the PostgreSQL test database.
+ */
+@SpringBootTest
+class SightingGeoIndexServiceTest {
+
+    private static final double LATITUDE = -62.0;
+    private static final double LONGITUDE = -58.0;
+    private static final GeoArea BOX = GeoArea.boundingBox(LATITUDE - 0.1, LONGITUDE - 0.1, LATITUDE + 0.1, LONGITUDE + 0.1);
+
+    @Autowired
+    private SightingGeoIndexService sightingGeoIndexService;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Bird bird;
+
+    private LocalDateTime now;
+
+    /**
+     * Creates a test bird.
+     */
+    @BeforeEach
+    void setUp() {
+        bird = new Bird();
+        bird.setName("Geo Index Bird");
+        bird.setColor("White");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        bird = birdService.save(bird);
+        now = LocalDateTime.now().withNano(0);
+    }
+
+    /**
+     * Removes the test bird and its sightings from the database and the index.
+     */
+    @AfterEach
+    void cleanUp() {
+        birdService.deleteById(bird.getId());
+    }
+
+    /**
+     * Tests that a bounding box query returns the recent sightings inside the box newest first,
+     * leaving out sightings outside it, older than the recent window or without coordinates.
+     */
+    @Test
+    void findInArea_WithBoundingBox_ShouldReturnRecentSightingsInsideNewestFirst() {
+        List<Sighting> saved = sightingService.saveAll(List.of(
+            sighting(LATITUDE, LONGITUDE, now.minusHours(3)),
+            sighting(LATITUDE + 0.05, LONGITUDE - 0.05, now.minusHours(1)),
+            sighting(LATITUDE + 0.5, LONGITUDE, now.minusHours(2)),
+            sighting(LATITUDE, LONGITUDE, now.minusDays(31)),
+            sighting(null, null, now)));
+
+        assertEquals(List.of(saved.get(1).getId(), saved.get(0).getId()), ids(sightingGeoIndexService.findInArea(BOX, 100)));
+        assertEquals(List.of(saved.get(1).getId()), ids(sightingGeoIndexService.findInArea(BOX, 1)));
+    }
+
+    /**
+     * Tests that a radius query only returns the sightings within the radius, not those in the
+     * corners of the bounding box around it.
+     */
+    @Test
+    void findInArea_WithRadius_ShouldReturnOnlySightingsWithinRadius() {
+        List<Sighting> saved = sightingService.saveAll(List.of(
+            sighting(LATITUDE, LONGITUDE + 0.01, now),
+            sighting(LATITUDE + 0.08, LONGITUDE + 0.08, now)));
+
+        GeoArea circle = GeoArea.circle(LATITUDE, LONGITUDE, 5.0);
+
+        assertEquals(List.of(saved.get(0).getId()), ids(sightingGeoIndexService.findInArea(circle, 100)));
+    }
+
+    /**
+     * Tests that a nearest query returns the k sightings closest to the point, nearest first,
+     * also when they lie far beyond the first cells searched.
+     */
+    @Test
+    void findNearest_ShouldReturnClosestSightingsByDistance() {
+        List<Sighting> saved = sightingService.saveAll(List.of(
+            sighting(LATITUDE + 2.0, LONGITUDE, now),
+            sighting(LATITUDE + 0.001, LONGITUDE, now),
+            sighting(LATITUDE + 0.5, LONGITUDE, now)));
+
+        List<SightingDTO> nearest = sightingGeoIndexService.findNearest(LATITUDE, LONGITUDE, 2);
+
+        assertEquals(List.of(saved.get(1).getId(), saved.get(2).getId()), ids(nearest));
+    }
+
+    /**
+     * Tests that updating a sighting moves it in the index, renaming its bird is reflected
+     * and deleting it removes it.
+     */
+    @Test
+    void sightingAndBirdWrites_ShouldUpdateIndex() {
+        Sighting moved = sightingService.save(sighting(LATITUDE + 1.0, LONGITUDE, now));
+        assertTrue(ids(sightingGeoIndexService.findInArea(BOX, 100)).isEmpty());
+
+        moved.setLatitude(LATITUDE);
+        sightingService.save(moved);
+        bird.setName("Renamed Geo Index Bird");
+        birdService.save(bird);
+
+        List<SightingDTO> found = ofTestBird(sightingGeoIndexService.findInArea(BOX, 100));
+        assertEquals(List.of(moved.getId()), ids(found));
+        assertEquals("Renamed Geo Index Bird", found.get(0).getBird().getName());
+
+        sightingService.deleteById(moved.getId());
+        assertTrue(ids(sightingGeoIndexService.findInArea(BOX, 100)).isEmpty());
+    }
+
+    /**
+     * Tests that the startup load indexes recent sightings written directly to the database
+     * and marks the index as loaded.
+     */
+    @Test
+    void warmUp_ShouldIndexRecentSightingsFromDatabase() {
+        jdbcTemplate.update(
+            "INSERT INTO sightings (id, bird_id, location, latitude, longitude, sighting_date, created_at, updated_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, 'Direct', ?, ?, ?, now(), now())",
+            bird.getId(), LATITUDE, LONGITUDE, now.minusDays(1));
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM sightings WHERE bird_id = ?", Long.class, bird.getId());
+
+        sightingGeoIndexService.warmUp();
+
+        assertTrue(sightingGeoIndexService.isLoaded());
+        assertEquals(List.of(id), ids(sightingGeoIndexService.findInArea(BOX, 100)));
+    }
+
+    /**
+     * Creates an unsaved sighting of the test bird.
+     *
+     * @param latitude The latitude, or null for none
+     * @param longitude The longitude, or null for none
+     * @param sightingDate The date and time of the sighting
+     * @return The new sighting
+     */
+    private Sighting sighting(Double latitude, Double longitude, LocalDateTime sightingDate) {
+        Sighting sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation("Geo Index Station");
+        sighting.setLatitude(latitude);
+        sighting.setLongitude(longitude);
+        sighting.setSightingDate(sightingDate);
+        return sighting;
+    }
+
+    /**
+     * Keeps the sightings of the test bird.
+     *
+     * @param sightings The sightings returned by the index
+     * @return The sightings of the test bird, in the same order
+     */
+    private List<SightingDTO> ofTestBird(List<SightingDTO> sightings) {
+        return sightings.stream()
+            .filter(sighting -> sighting.getBird().getId().equals(bird.getId()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the IDs of the sightings of the test bird.
+     *
+     * @param sightings The sightings returned by the index
+     * @return The IDs of the sightings of the test bird, in the same order
+     */
+    private List<Long> ids(List<SightingDTO> sightings) {
+        return ofTestBird(sightings).stream().map(SightingDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,238 @@
+package com.birdwatch.service;
+
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.entity.SightingDailyRollup;
+import com.birdwatch.entity.SightingDailyRollupId;
+import com.birdwatch.repository.SightingDailyRollupRepository;
+import com.birdwatch.repository.SightingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the daily rollup of sighting counts.
+ * Verifies that creating, updating and deleting sightings and birds through the services keeps the
+ * rollup equal to the counts of the sightings table, also when a sighting is deleted concurrently,
+ * and that the compaction repairs a rollup that
+ * missed sightings written directly to the database.
+ * Runs against the PostgreSQL test database.
+ */
+@SpringBootTest
+class SightingRollupServiceTest {
+
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @Autowired
+    private SightingRollupService sightingRollupService;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private SightingDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Bird bird;
+
+    /**
+     * Creates a test bird and brings the rollup in line with the sightings left by other tests.
+     */
+    @BeforeEach
+    void setUp() {
+        bird = new Bird();
+        bird.setName("Rollup Bird");
+        bird.setColor("Green");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        bird = birdService.save(bird);
+
+        sightingRollupService.rebuild();
+    }
+
+    /**
+     * Removes the test bird, its sightings and their counts.
+     */
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sighting_daily_rollup WHERE bird_id = ?", bird.getId());
+        jdbcTemplate.update("DELETE FROM sightings WHERE bird_id = ?", bird.getId());
+        jdbcTemplate.update("DELETE FROM birds WHERE id = ?", bird.getId());
+    }
+
+    /**
+     * Tests that bulk creates, single creates, updates of a managed sighting and deletes each
+     * adjust the counts of the affected bird, location and day, leaving the rollup consistent.
+     */
+    @Test
+    void sightingWrites_ShouldKeepRollupConsistent() {
+        List<Sighting> saved = sightingService.saveAll(List.of(
+            sighting("North", FIRST_DAY),
+            sighting("North", FIRST_DAY.plusHours(2)),
+            sighting("South", FIRST_DAY.plusDays(1))));
+        Sighting single = sightingService.save(sighting("North", FIRST_DAY.plusHours(4)));
+
+        assertEquals(3, count("North", FIRST_DAY));
+        assertEquals(1, count("South", FIRST_DAY.plusDays(1)));
+
+        // Updated the way the controller does, on the sighting loaded in the same persistence context
+        transactionTemplate.executeWithoutResult(status -> {
+            Sighting moved = sightingRepository.findById(single.getId()).get();
+            moved.setLocation("South");
+            moved.setSightingDate(FIRST_DAY.plusDays(1));
+            sightingService.save(moved);
+        });
+        assertEquals(2, count("North", FIRST_DAY));
+        assertEquals(2, count("South", FIRST_DAY.plusDays(1)));
+
+        sightingService.deleteById(saved.get(0).getId());
+        sightingService.deleteAllById(List.of(saved.get(1).getId(), saved.get(2).getId()));
+        assertEquals(0, count("North", FIRST_DAY));
+        assertEquals(1, count("South", FIRST_DAY.plusDays(1)));
+
+        assertEquals(0, sightingRollupService.check());
+    }
+
+    /**
+     * Tests that a sighting deleted by two transactions at once is subtracted from its count once,
+     * and only the transaction that deleted it reports the deletion.
+     *
+     * @throws Exception if a deleting transaction fails
+     */
+    @Test
+    void deleteById_WhenDeletedConcurrently_ShouldSubtractOnce() throws Exception {
+        List<Sighting> saved = sightingService.saveAll(List.of(sighting("North", FIRST_DAY), sighting("North", FIRST_DAY)));
+        Long id = saved.get(0).getId();
+        CountDownLatch deleted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                boolean result = sightingService.deleteById(id);
+                deleted.countDown();
+                try {
+                    commit.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return result;
+            }));
+            assertTrue(deleted.await(5, TimeUnit.SECONDS));
+
+            // Waits for the row lock of the first transaction, then finds the sighting gone
+            Future<Boolean> second = executor.submit(() -> sightingService.deleteById(id));
+            Thread.sleep(200);
+            commit.countDown();
+
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertFalse(second.get(5, TimeUnit.SECONDS));
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, count("North", FIRST_DAY));
+        assertEquals(0, sightingRollupService.check());
+    }
+
+    /**
+     * Tests that deleting a bird removes the counts of its sightings.
+     */
+    @Test
+    void birdDelete_ShouldRemoveCountsOfBird() {
+        sightingService.saveAll(List.of(sighting("North", FIRST_DAY), sighting("South", FIRST_DAY)));
+
+        birdService.deleteById(bird.getId());
+
+        assertFalse(rollupRepository.findById(key("North", FIRST_DAY)).isPresent());
+        assertFalse(rollupRepository.findById(key("South", FIRST_DAY)).isPresent());
+        assertEquals(0, sightingRollupService.check());
+    }
+
+    /**
+     * Tests that the compaction removes counts that dropped to zero and rebuilds the rollup
+     * when sightings were inserted around the services.
+     */
+    @Test
+    void compact_WhenSightingsWrittenDirectly_ShouldRebuildRollup() {
+        Sighting deleted = sightingService.save(sighting("North", FIRST_DAY));
+        sightingService.deleteById(deleted.getId());
+        jdbcTemplate.update(
+            "INSERT INTO sightings (id, bird_id, location, sighting_date, created_at, updated_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, 'South', ?, now(), now())",
+            bird.getId(), FIRST_DAY);
+
+        assertEquals(1, sightingRollupService.check());
+        assertEquals(1, sightingRollupService.compact());
+
+        assertFalse(rollupRepository.findById(key("North", FIRST_DAY)).isPresent());
+        assertEquals(1, count("South", FIRST_DAY));
+        assertEquals(0, sightingRollupService.check());
+    }
+
+    /**
+     * Creates an unsaved sighting of the test bird.
+     *
+     * @param location The location of the sighting
+     * @param sightingDate The date and time of the sighting
+     * @return The new sighting
+     */
+    private Sighting sighting(String location, LocalDateTime sightingDate) {
+        Sighting sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(location);
+        sighting.setSightingDate(sightingDate);
+        return sighting;
+    }
+
+    /**
+     * Builds the rollup key of the test bird at a location on the day of a date.
+     *
+     * @param location The location
+     * @param date A date and time on the day
+     * @return The rollup key
+     */
+    private SightingDailyRollupId key(String location, LocalDateTime date) {
+        return new SightingDailyRollupId(bird.getId(), location, date);
+    }
+
+    /**
+     * Reads the rollup count of the test bird at a location on the day of a date.
+     *
+     * @param location The location
+     * @param date A date and time on the day
+     * @return The count, 0 if the rollup has no row for them
+     */
+    private long count(String location, LocalDateTime date) {
+        return rollupRepository.findById(key(location, date))
+            .map(SightingDailyRollup::getSightingCount)
+            .orElse(0L);
+    }
+}
@@ -0,0 +1,337 @@
+package com.birdwatch.service;
+
+import com.birdwatch.dto.BirdDTO;
+import com.birdwatch.dto.SightingDTO;
+import com.birdwatch.dto.SyncCursor;
+import com.birdwatch.dto.SyncResponse;
+import com.birdwatch.entity.Bird;
+import com.birdwatch.entity.Sighting;
+import com.birdwatch.repository.BirdRepository;
+import com.birdwatch.utils.Pagination;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration test class for the SyncService.
+ * Verifies that creating, updating and deleting birds and sightings through their services
+ * is reported by the delta sync since an earlier token, including bulk deletes and the limit of search deletes,
+ * that nothing is reported for changes made before the token, that changes committed after a sync
+ * are not lost and that paging through a sync returns every change once.
+ * Runs against the PostgreSQL test database.
+ */
+@SpringBootTest
+class SyncServiceTest {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Bird bird;
+
+    /**
+     * Creates a test bird.
+     */
+    @BeforeEach
+    void setUp() {
+        bird = new Bird();
+        bird.setName("Sync Bird");
+        bird.setColor("Green");
+        bird.setWeight(1.0);
+        bird.setHeight(10.0);
+        bird = birdService.save(bird);
+    }
+
+    /**
+     * Removes the test bird, if a test did not delete it.
+     */
+    @AfterEach
+    void cleanUp() {
+        if (birdService.findById(bird.getId()).isPresent()) {
+            birdService.deleteById(bird.getId());
+        }
+    }
+
+    /**
+     * Tests that a sighting created and then updated after the token is returned once, in its updated state,
+     * and that a bird changed before the token is not returned.
+     */
+    @Test
+    void changesSince_ShouldReturnCreatedAndUpdatedRows() {
+        LocalDateTime since = LocalDateTime.now();
+        Sighting sighting = sightingService.save(newSighting("Sync Lake"));
+        sighting.setLocation("Sync River");
+        sightingService.save(sighting);
+
+        SyncResponse changes = syncAllPages(since, Pagination.DEFAULT_PAGE_SIZE);
+
+        SightingDTO synced = changes.getSightings().stream()
+            .filter(s -> s.getId().equals(sighting.getId()))
+            .collect(Collectors.toList())
+            .get(0);
+        assertEquals("Sync River", synced.getLocation());
+        assertFalse(changes.getBirds().stream().map(BirdDTO::getId).anyMatch(bird.getId()::equals));
+    }
+
+    /**
+     * Tests that deleting a sighting and a bird after the token is returned as deletions.
+     */
+    @Test
+    void changesSince_ShouldReturnDeletions() {
+        Sighting sighting = sightingService.save(newSighting("Sync Lake"));
+        LocalDateTime since = LocalDateTime.now();
+
+        sightingService.deleteById(sighting.getId());
+        birdService.deleteById(bird.getId());
+        SyncResponse changes = syncAllPages(since, Pagination.DEFAULT_PAGE_SIZE);
+
+        assertTrue(changes.getDeletedSightingIds().contains(sighting.getId()));
+        assertTrue(changes.getDeletedBirdIds().contains(bird.getId()));
+        assertFalse(changes.getSightings().stream().map(SightingDTO::getId).anyMatch(sighting.getId()::equals));
+    }
+
+    /**
+     * Tests that deleting sightings by an ID list removes only the listed sightings
+     * and returns them as deletions, ignoring IDs without a sighting.
+     */
+    @Test
+    void changesSince_ShouldReturnSightingsDeletedById() {
+        Sighting first = sightingService.save(newSighting("Sync Lake"));
+        Sighting second = sightingService.save(newSighting("Sync Lake"));
+        Sighting kept = sightingService.save(newSighting("Sync Lake"));
+        LocalDateTime since = LocalDateTime.now();
+
+        int deleted = sightingService.deleteAllById(Arrays.asList(first.getId(), second.getId(), -1L));
+        SyncResponse changes = syncAllPages(since, Pagination.DEFAULT_PAGE_SIZE);
+
+        assertEquals(2, deleted);
+        assertEquals(Arrays.asList(first.getId(), second.getId()), changes.getDeletedSightingIds());
+        assertTrue(sightingService.findById(kept.getId()).isPresent());
+    }
+
+    /**
+     * Tests that deleting sightings by a search filter removes only the matching sightings
+     * and returns them as deletions.
+     */
+    @Test
+    void changesSince_ShouldReturnSightingsDeletedByFilter() {
+        Sighting matching = sightingService.save(newSighting("Sync Marsh"));
+        Sighting other = sightingService.save(newSighting("Sync Lake"));
+        LocalDateTime since = LocalDateTime.now();
+
+        int deleted = sightingService.deleteMatching("Sync Bird", "marsh", null, null, null);
+        SyncResponse changes = syncAllPages(since, Pagination.DEFAULT_PAGE_SIZE);
+
+        assertEquals(1, deleted);
+        assertEquals(Collections.singletonList(matching.getId()), changes.getDeletedSightingIds());
+        assertTrue(sightingService.findById(other.getId()).isPresent());
+    }
+
+    /**
+     * Tests that deleting sightings by a search filter matching more than one page of IDs
+     * deletes and returns all of them.
+     */
+    @Test
+    void changesSince_ShouldReturnAllPagesOfSightingsDeletedByFilter() {
+        insertSightings("Sync Pond", 1500);
+        LocalDateTime since = LocalDateTime.now();
+
+        int deleted = sightingService.deleteMatching("Sync Bird", "pond", null, null, null);
+        SyncResponse changes = syncAllPages(since, Pagination.DEFAULT_PAGE_SIZE);
+
+        assertEquals(1500, deleted);
+        assertEquals(1500, changes.getDeletedSightingIds().size());
+    }
+
+    /**
+     * Tests that deleting sightings by a search filter matching too many sightings is rejected
+     * and deletes nothing.
+     */
+    @Test
+    void deleteMatching_WhenTooManyMatch_ShouldDeleteNothing() {
+        insertSightings("Sync Pond", SightingService.MAX_DELETE_MATCHING + 1);
+
+        assertThrows(ResponseStatusException.class,
+            () -> sightingService.deleteMatching("Sync Bird", "pond", null, null, null));
+
+        assertEquals(SightingService.MAX_DELETE_MATCHING + 1, jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM sightings WHERE bird_id = ?", Integer.class, bird.getId()));
+    }
+
+    /**
+     * Tests that deleting birds by an ID list also deletes their sightings
+     * and returns only the birds as deletions.
+     */
+    @Test
+    void changesSince_ShouldReturnBirdsDeletedById() {
+        Sighting sighting = sightingService.save(newSighting("Sync Lake"));
+        LocalDateTime since = LocalDateTime.now();
+
+        int deleted = birdService.deleteAllById(Arrays.asList(bird.getId(), -1L));
+        SyncResponse changes = syncAllPages(since, Pagination.DEFAULT_PAGE_SIZE);
+
+        assertEquals(1, deleted);
+        assertEquals(Collections.singletonList(bird.getId()), changes.getDeletedBirdIds());
+        assertTrue(changes.getDeletedSightingIds().isEmpty());
+        assertFalse(sightingService.findById(sighting.getId()).isPresent());
+    }
+
+    /**
+     * Tests that a change stamped before a sync but committed after it is returned by the next sync.
+     *
+     * @throws Exception if the concurrent transaction fails
+     */
+    @Test
+    void changesSince_WhenChangeCommitsAfterSync_ShouldReturnItNextTime() throws Exception {
+        LocalDateTime since = LocalDateTime.now();
+        CountDownLatch stamped = new CountDownLatch(1);
+        CountDownLatch synced = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> rename = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                bird.setName("Sync Bird Renamed");
+                birdRepository.saveAndFlush(bird);
+                stamped.countDown();
+                try {
+                    synced.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(stamped.await(5, TimeUnit.SECONDS));
+
+            SyncResponse first = syncAllPages(since, Pagination.DEFAULT_PAGE_SIZE);
+            synced.countDown();
+            rename.get(5, TimeUnit.SECONDS);
+            SyncResponse next = syncAllPages(
+                LocalDateTime.parse(first.getToken(), DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                Pagination.DEFAULT_PAGE_SIZE);
+
+            assertFalse(first.getBirds().stream().map(BirdDTO::getId).anyMatch(bird.getId()::equals));
+            assertEquals(List.of("Sync Bird Renamed"), next.getBirds().stream()
+                .filter(b -> b.getId().equals(bird.getId()))
+                .map(BirdDTO::getName)
+                .collect(Collectors.toList()));
+        } finally {
+            synced.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that paging through a sync with pages smaller than its changes returns every change once,
+     * with the same token on every page and no cursor on the last one.
+     */
+    @Test
+    void changesSince_WithSmallPages_ShouldReturnEveryChangeOnce() {
+        LocalDateTime since = LocalDateTime.now();
+        bird.setName("Sync Bird Renamed");
+        birdService.save(bird);
+        Sighting kept = sightingService.save(newSighting("Sync Lake"));
+        Sighting deleted = sightingService.save(newSighting("Sync Lake"));
+        sightingService.deleteById(deleted.getId());
+
+        List<SyncResponse> pages = new ArrayList<>();
+        SyncCursor after = null;
+        do {
+            SyncResponse page = syncService.changesSince(since, after, 1);
+            pages.add(page);
+            after = SyncCursor.parse(page.getNextCursor());
+        } while (after != null);
+        SyncResponse all = syncAllPages(since, 1);
+
+        assertTrue(pages.size() >= 3);
+        assertEquals(1, pages.stream().map(SyncResponse::getToken).distinct().count());
+        assertEquals(List.of(bird.getId()), all.getBirds().stream().map(BirdDTO::getId).collect(Collectors.toList()));
+        assertEquals(List.of(kept.getId()), all.getSightings().stream().map(SightingDTO::getId).collect(Collectors.toList()));
+        assertEquals(List.of(deleted.getId()), all.getDeletedSightingIds());
+    }
+
+    /**
+     * Reads every page of a sync and merges them.
+     *
+     * @param since Exclusive lower bound of the changes
+     * @param limit Maximum number of changes per page
+     * @return The changes of all pages, with the token of the sync
+     */
+    private SyncResponse syncAllPages(LocalDateTime since, int limit) {
+        SyncResponse all = syncService.changesSince(since, null, limit);
+        String cursor = all.getNextCursor();
+        while (cursor != null) {
+            SyncResponse page = syncService.changesSince(since, SyncCursor.parse(cursor), limit);
+            assertEquals(all.getToken(), page.getToken());
+            all.getBirds().addAll(page.getBirds());
+            all.getSightings().addAll(page.getSightings());
+            all.getDeletedBirdIds().addAll(page.getDeletedBirdIds());
+            all.getDeletedSightingIds().addAll(page.getDeletedSightingIds());
+            cursor = page.getNextCursor();
+        }
+        return all;
+    }
+
+    /**
+     * Creates a sighting of the test bird.
+     *
+     * @param location The location of the sighting
+     * @return The unsaved sighting
+     */
+    private Sighting newSighting(String location) {
+        Sighting sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(location);
+        sighting.setSightingDate(LocalDateTime.now());
+        return sighting;
+    }
+
+    /**
+     * Inserts sightings of the test bird directly into the database.
+     *
+     * @param location The location of the sightings
+     * @param count The number of sightings
+     */
+    private void insertSightings(String location, int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] { bird.getId(), location });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sightings (id, bird_id, location, sighting_date, created_at) " +
+            "VALUES (nextval('sightings_id_seq'), ?, ?, now(), now())", rows);
+    }
+}
@@ -0,0 +1,5 @@
+-- Composite index backing keyset pagination of sightings by (sighting_date, id)
+CREATE INDEX IF NOT EXISTS idx_sightings_sighting_date_id ON sightings(sighting_date, id);
+
+-- The single column index is a prefix of the composite one and no longer needed
+DROP INDEX IF EXISTS idx_sightings_sighting_date;
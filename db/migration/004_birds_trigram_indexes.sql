@@ -0,0 +1,5 @@
+-- Trigram indexes backing case-insensitive substring search on bird name and color
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_birds_name_trgm ON birds USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_birds_color_trgm ON birds USING gin (lower(color) gin_trgm_ops);
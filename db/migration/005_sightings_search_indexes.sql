@@ -0,0 +1,10 @@
+-- Trigram index backing case-insensitive substring search on sighting location
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_sightings_location_trgm ON sightings USING gin (lower(location) gin_trgm_ops);
+
+-- Composite index reaching the sightings of the birds matched by name, already narrowed to the date window
+CREATE INDEX IF NOT EXISTS idx_sightings_bird_id_sighting_date ON sightings(bird_id, sighting_date);
+
+-- The single column index is a prefix of the composite one and no longer needed
+DROP INDEX IF EXISTS idx_sightings_bird_id;
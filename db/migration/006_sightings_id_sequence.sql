@@ -0,0 +1,6 @@
+-- Sighting IDs are allocated by the application in blocks of 50 from the sequence behind the id column,
+-- so the sequence has to advance by the same step
+ALTER SEQUENCE sightings_id_seq INCREMENT BY 50;
+
+-- Every value handed out is the upper end of a block, align it with the existing rows
+SELECT setval('sightings_id_seq', GREATEST((SELECT MAX(id) FROM sightings), 1));
@@ -0,0 +1,9 @@
+-- Bird IDs are allocated by the application in blocks of 50 from the sequence behind the id column,
+-- the same way as sighting IDs (006_sightings_id_sequence.sql).
+-- The INCREMENT BY of both sequences must match spring.jpa.properties.birdwatch.id.allocation_size.
+CREATE SEQUENCE IF NOT EXISTS birds_id_seq OWNED BY birds.id;
+ALTER TABLE birds ALTER COLUMN id SET DEFAULT nextval('birds_id_seq');
+ALTER SEQUENCE birds_id_seq INCREMENT BY 50;
+
+-- Every value handed out is the upper end of a block, align it with the existing rows
+SELECT setval('birds_id_seq', GREATEST((SELECT MAX(id) FROM birds), 1));
@@ -0,0 +1,24 @@
+-- Last change time of every bird and sighting, read by the delta sync (GET /api/sync)
+ALTER TABLE birds ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
+UPDATE birds SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE birds ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_birds_updated_at ON birds(updated_at);
+
+ALTER TABLE sightings ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
+UPDATE sightings SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE sightings ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_sightings_updated_at ON sightings(updated_at);
+
+-- Deleted rows are gone from their tables, the sync reports them from their tombstones.
+-- IDs are allocated by the application in blocks of 50, like bird and sighting IDs (007_birds_id_sequence.sql)
+CREATE SEQUENCE IF NOT EXISTS tombstones_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tombstones (
+    id BIGINT PRIMARY KEY DEFAULT nextval('tombstones_id_seq'),
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+ALTER SEQUENCE tombstones_id_seq OWNED BY tombstones.id;
+CREATE INDEX IF NOT EXISTS idx_tombstones_deleted_at ON tombstones(deleted_at);
@@ -0,0 +1,18 @@
+-- Number of sightings per bird, location and day, kept up to date by the application on every
+-- sighting write and summed by GET /api/sightings/stats instead of counting the sightings table
+CREATE TABLE IF NOT EXISTS sighting_daily_rollup (
+    bird_id BIGINT NOT NULL,
+    location VARCHAR(100) NOT NULL,
+    day DATE NOT NULL,
+    sighting_count BIGINT NOT NULL,
+    PRIMARY KEY (bird_id, location, day)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sighting_daily_rollup_day ON sighting_daily_rollup(day);
+
+-- Count the existing sightings; the application rebuilds the rollup on startup if this was skipped
+INSERT INTO sighting_daily_rollup (bird_id, location, day, sighting_count)
+SELECT bird_id, location, CAST(sighting_date AS date), count(*)
+FROM sightings
+GROUP BY bird_id, location, CAST(sighting_date AS date)
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,8 @@
+-- Optional coordinates of a sighting and their geohash, searched by GET /api/sightings/search
+-- with a bounding box or radius. Area searches scan the geohash ranges of the grid cells
+-- covering the area through the B-tree index, then check the exact coordinates.
+ALTER TABLE sightings ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE sightings ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+ALTER TABLE sightings ADD COLUMN IF NOT EXISTS geo_hash BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_sightings_geo_hash ON sightings(geo_hash);
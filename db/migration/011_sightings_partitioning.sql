@@ -0,0 +1,92 @@
+-- Range partitioning of the sightings table by month of sighting_date, so that date-bounded
+-- searches and statistics only read the partitions of the months they cover and old months
+-- can be removed by dropping their partition.
+-- Every partition gets the indexes of the parent table; the primary key has to include the
+-- partition key and becomes (id, sighting_date), IDs stay unique as they come from sightings_id_seq.
+-- Sightings of months without a partition go to sightings_default until their partition is created.
+
+-- Creates the partition of the month of the given date, unless it exists, moving the sightings
+-- of that month out of the default partition. Returns the name of the new partition, or NULL.
+CREATE OR REPLACE FUNCTION create_sighting_partition(first_day DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', first_day);
+    partition_end DATE := date_trunc('month', first_day) + INTERVAL '1 month';
+    partition_name TEXT := 'sightings_' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE sightings INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    IF to_regclass('sightings_default') IS NOT NULL THEN
+        EXECUTE format('WITH moved AS (DELETE FROM sightings_default WHERE sighting_date >= %L AND sighting_date < %L RETURNING *) ' ||
+                       'INSERT INTO %I SELECT * FROM moved', partition_start, partition_end, partition_name);
+    END IF;
+    EXECUTE format('ALTER TABLE sightings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_start, partition_end);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates the partitions of the current month and the given number of following months, and of
+-- every month with sightings in the default partition. Called on a schedule by the application.
+-- Returns the number of partitions created.
+CREATE OR REPLACE FUNCTION create_sighting_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    partition_month DATE;
+    created INTEGER := 0;
+BEGIN
+    FOR partition_month IN
+        SELECT CAST(date_trunc('month', CURRENT_DATE) + n * INTERVAL '1 month' AS date)
+        FROM generate_series(0, months_ahead) n
+        UNION
+        SELECT DISTINCT CAST(date_trunc('month', sighting_date) AS date) FROM sightings_default
+    LOOP
+        IF create_sighting_partition(partition_month) IS NOT NULL THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Converts the table by copying the sightings into a new partitioned table of the same columns.
+-- Skipped if the table is already partitioned.
+DO $$
+DECLARE
+    partition_month DATE;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('sightings')) THEN
+        RETURN;
+    END IF;
+
+    ALTER SEQUENCE sightings_id_seq OWNED BY NONE;
+    ALTER TABLE sightings RENAME TO sightings_unpartitioned;
+    ALTER TABLE sightings_unpartitioned DROP CONSTRAINT IF EXISTS sightings_pkey;
+    DROP INDEX IF EXISTS idx_sightings_sighting_date_id, idx_sightings_bird_id_sighting_date,
+        idx_sightings_location_trgm, idx_sightings_updated_at, idx_sightings_geo_hash;
+
+    CREATE TABLE sightings (LIKE sightings_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE (sighting_date);
+    CREATE TABLE sightings_default PARTITION OF sightings DEFAULT;
+    FOR partition_month IN SELECT DISTINCT CAST(date_trunc('month', sighting_date) AS date) FROM sightings_unpartitioned LOOP
+        PERFORM create_sighting_partition(partition_month);
+    END LOOP;
+
+    INSERT INTO sightings SELECT * FROM sightings_unpartitioned;
+    DROP TABLE sightings_unpartitioned;
+    ALTER SEQUENCE sightings_id_seq OWNED BY sightings.id;
+
+    ALTER TABLE sightings ADD PRIMARY KEY (id, sighting_date);
+    ALTER TABLE sightings ADD FOREIGN KEY (bird_id) REFERENCES birds(id);
+    CREATE INDEX idx_sightings_sighting_date_id ON sightings(sighting_date, id);
+    CREATE INDEX idx_sightings_bird_id_sighting_date ON sightings(bird_id, sighting_date);
+    CREATE INDEX idx_sightings_location_trgm ON sightings USING gin (lower(location) gin_trgm_ops);
+    CREATE INDEX idx_sightings_updated_at ON sightings(updated_at);
+    CREATE INDEX idx_sightings_geo_hash ON sightings(geo_hash);
+END;
+$$;
+
+SELECT create_sighting_partitions(3);
@@ -0,0 +1,25 @@
+-- Removal of archived months from the partitioned sightings table, called by the archive job
+-- once the sightings of a month are written to its archive file.
+-- Detaching a partition takes an ACCESS EXCLUSIVE lock on sightings; the archive job takes that lock
+-- at the start of its transaction, so it is not upgraded from a weaker lock while requests wait.
+
+-- Detaches and drops the partition of the month of the given date and deletes the sightings
+-- of that month left in the default partition. Returns true if a partition was dropped.
+CREATE OR REPLACE FUNCTION drop_sighting_month(first_day DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    month_start DATE := date_trunc('month', first_day);
+    month_end DATE := date_trunc('month', first_day) + INTERVAL '1 month';
+    partition_name TEXT := 'sightings_' || to_char(first_day, 'YYYY_MM');
+    dropped BOOLEAN := false;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE sightings DETACH PARTITION %I', partition_name);
+        EXECUTE format('DROP TABLE %I', partition_name);
+        dropped := true;
+    END IF;
+    IF to_regclass('sightings_default') IS NOT NULL THEN
+        DELETE FROM sightings_default WHERE sighting_date >= month_start AND sighting_date < month_end;
+    END IF;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
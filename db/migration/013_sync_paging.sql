@@ -0,0 +1,10 @@
+-- Composite indexes backing keyset pagination of the delta sync (GET /api/sync)
+-- by (updated_at, id) for changed rows and by (entity_type, deleted_at, id) for deletions
+CREATE INDEX IF NOT EXISTS idx_birds_updated_at_id ON birds(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_sightings_updated_at_id ON sightings(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_tombstones_entity_type_deleted_at_id ON tombstones(entity_type, deleted_at, id);
+
+-- The single column indexes are prefixes of the composite ones and no longer needed
+DROP INDEX IF EXISTS idx_birds_updated_at;
+DROP INDEX IF EXISTS idx_sightings_updated_at;
+DROP INDEX IF EXISTS idx_tombstones_deleted_at;
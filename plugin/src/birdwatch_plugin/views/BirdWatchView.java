@@ -9,6 +9,8 @@ import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.ui.part.ViewPart;
 
+import birdwatch_plugin_datastore.model.LocalModel;
+
 /**
  * Main view class for the BirdWatch plugin.
  * Provides a tabbed interface containing Birds and Sightings views.
@@ -22,10 +24,12 @@ public class BirdWatchView extends ViewPart {
     private CTabFolder tabFolder;
     private BirdsView birdsView;
     private SightingsView sightingsView;
+    private final LocalModel model = new LocalModel();
 
     /**
      * Creates the view's controls and initializes the tabbed interface.
-     * Sets up the Birds and Sightings tabs with their respective views.
+     * Sets up the Birds and Sightings tabs with their respective views,
+     * which share one local copy of the birds and sightings.
      *
      * @param parent The parent composite
      */
@@ -38,13 +42,13 @@ public class BirdWatchView extends ViewPart {
         // Create Birds tab
         CTabItem birdsTab = new CTabItem(tabFolder, SWT.NONE);
         birdsTab.setText("Birds");
-        birdsView = new BirdsView();
+        birdsView = new BirdsView(model);
         birdsTab.setControl(birdsView.createControl(tabFolder));
         
         // Create Sightings tab
         CTabItem sightingsTab = new CTabItem(tabFolder, SWT.NONE);
         sightingsTab.setText("Sightings");
-        sightingsView = new SightingsView();
+        sightingsView = new SightingsView(model);
         sightingsTab.setControl(sightingsView.createControl(tabFolder));
 
         // Add tab selection listener to refresh data
@@ -24,8 +24,11 @@ import java.time.format.DateTimeFormatter;
 
 import birdwatch_plugin_datastore.api.ApiClient;
 import birdwatch_plugin_datastore.model.Bird;
+import birdwatch_plugin_datastore.model.LocalModel;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * View class for managing birds in the BirdWatch system.
@@ -38,6 +41,7 @@ public class BirdsView {
     private TableViewer viewer;
     private Table table;
     private ApiClient apiClient;
+    private final LocalModel model;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private Text nameSearchText;
     private Text colorSearchText;
@@ -45,9 +49,12 @@ public class BirdsView {
     /**
      * Constructs a new BirdsView.
      * Initializes the API client for bird operations.
+     *
+     * @param model The local copy of the birds and sightings, shared with the other views
      */
-    public BirdsView() {
+    public BirdsView(LocalModel model) {
         this.apiClient = new ApiClient();
+        this.model = model;
     }
 
     /**
@@ -145,13 +152,16 @@ public class BirdsView {
 
         // Delete Bird button
         Button deleteButton = new Button(buttonContainer, SWT.PUSH);
-        deleteButton.setText("Delete Selected Bird");
+        deleteButton.setText("Delete Selected Birds");
         deleteButton.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, true, false));
         deleteButton.addListener(SWT.Selection, event -> {
             IStructuredSelection selection = (IStructuredSelection) viewer.getSelection();
-            Bird selectedBird = (Bird) selection.getFirstElement();
+            List<Long> selectedIds = new ArrayList<>();
+            for (Object element : selection.toList()) {
+                selectedIds.add(((Bird) element).getId());
+            }
             
-            if (selectedBird == null) {
+            if (selectedIds.isEmpty()) {
                 MessageBox errorBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_ERROR | SWT.OK);
                 errorBox.setMessage("Please select a bird to delete");
                 errorBox.open();
@@ -159,16 +169,21 @@ public class BirdsView {
             }
 
             MessageBox confirmBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_QUESTION | SWT.YES | SWT.NO);
-            confirmBox.setMessage("Are you sure you want to delete this bird?");
+            confirmBox.setMessage(selectedIds.size() == 1
+                    ? "Are you sure you want to delete this bird?"
+                    : "Are you sure you want to delete these " + selectedIds.size() + " birds?");
             if (confirmBox.open() == SWT.YES) {
                 deleteButton.setEnabled(false); // Disable button while processing
-                apiClient.deleteBird(selectedBird.getId())
-                    .thenAccept(v -> {
+                // All selected birds are deleted with a single request
+                apiClient.deleteBirds(selectedIds)
+                    .thenAccept(deleted -> {
                         Display.getDefault().asyncExec(() -> {
                             try {
                                 loadData(); // Refresh the table
                                 MessageBox messageBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_INFORMATION);
-                                messageBox.setMessage("Bird deleted successfully!");
+                                messageBox.setMessage(deleted == 1
+                                        ? "Bird deleted successfully!"
+                                        : deleted + " birds deleted successfully!");
                                 messageBox.open();
                             } catch (Exception e) {
                                 MessageBox errorBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_ERROR);
@@ -182,7 +197,7 @@ public class BirdsView {
                     .exceptionally(throwable -> {
                         Display.getDefault().asyncExec(() -> {
                             MessageBox errorBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_ERROR);
-                            errorBox.setMessage("Error deleting bird: " + throwable.getMessage());
+                            errorBox.setMessage("Error deleting birds: " + throwable.getMessage());
                             errorBox.open();
                             deleteButton.setEnabled(true); // Re-enable button
                         });
@@ -310,11 +325,12 @@ public class BirdsView {
     }
 
     /**
-     * Loads bird data from the API and displays it in the table.
-     * Refreshes the table viewer with the latest bird information.
+     * Brings the local model up to date and displays its birds in the table.
+     * Only the changes since the previous sync are requested from the API.
      */
     protected void loadData() {
-        apiClient.getBirds().thenAccept(birds -> {
+        apiClient.sync(model).thenAccept(changed -> {
+            List<Bird> birds = model.getBirds();
             viewer.getTable().getDisplay().asyncExec(() -> {
                 try {
                     viewer.setInput(birds);
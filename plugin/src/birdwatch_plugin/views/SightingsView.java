@@ -20,22 +20,29 @@ import org.eclipse.swt.widgets.MessageBox;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.DateTime;
 
 import birdwatch_plugin_datastore.api.ApiClient;
 import birdwatch_plugin_datastore.model.Bird;
+import birdwatch_plugin_datastore.model.LocalModel;
 import birdwatch_plugin_datastore.model.Sighting;
+import birdwatch_plugin_datastore.model.SightingEvent;
 
 import java.time.format.DateTimeFormatter;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Flow;
 
 /**
  * View class for managing bird sightings in the BirdWatch system.
  * Provides functionality to view, add, delete, and search bird sightings.
+ * Sightings created, updated or deleted elsewhere are pushed by the server and patched
+ * into the table row by row, without reloading it.
  *
  * @author Costin Marinescu
  * @version 0.1
@@ -44,21 +51,34 @@ public class SightingsView {
     private TableViewer viewer;
     private Table table;
     private ApiClient apiClient;
+    private final LocalModel model;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private static final DateTimeFormatter ISO_DATE_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    private static final int MIN_RECONNECT_DELAY_MS = 1000;
+    private static final int MAX_RECONNECT_DELAY_MS = 60000;
     private Text birdNameSearchText;
     private Text locationSearchText;
     private DateTime startDateSearchDate;
     private DateTime startDateSearchTime;
     private DateTime endDateSearchDate;
     private DateTime endDateSearchTime;
+    private String filterBirdName = "";
+    private String filterLocation = "";
+    private LocalDateTime filterStartDate;
+    private LocalDateTime filterEndDate;
+    private Flow.Subscription eventSubscription;
+    private volatile int reconnectDelayMs = MIN_RECONNECT_DELAY_MS;
+    private volatile boolean disposed;
 
     /**
      * Constructs a new SightingsView.
      * Initializes the API client for sighting operations.
+     *
+     * @param model The local copy of the birds and sightings, shared with the other views
      */
-    public SightingsView() {
+    public SightingsView(LocalModel model) {
         this.apiClient = new ApiClient();
+        this.model = model;
     }
 
     /**
@@ -206,13 +226,16 @@ public class SightingsView {
 
         // Delete Sighting button
         Button deleteButton = new Button(buttonContainer, SWT.PUSH);
-        deleteButton.setText("Delete Selected Sighting");
+        deleteButton.setText("Delete Selected Sightings");
         deleteButton.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, true, false));
         deleteButton.addListener(SWT.Selection, event -> {
             IStructuredSelection selection = (IStructuredSelection) viewer.getSelection();
-            Sighting selectedSighting = (Sighting) selection.getFirstElement();
+            List<Long> selectedIds = new ArrayList<>();
+            for (Object element : selection.toList()) {
+                selectedIds.add(((Sighting) element).getId());
+            }
             
-            if (selectedSighting == null) {
+            if (selectedIds.isEmpty()) {
                 MessageBox errorBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_ERROR | SWT.OK);
                 errorBox.setMessage("Please select a sighting to delete");
                 errorBox.open();
@@ -220,16 +243,21 @@ public class SightingsView {
             }
 
             MessageBox confirmBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_QUESTION | SWT.YES | SWT.NO);
-            confirmBox.setMessage("Are you sure you want to delete this sighting?");
+            confirmBox.setMessage(selectedIds.size() == 1
+                    ? "Are you sure you want to delete this sighting?"
+                    : "Are you sure you want to delete these " + selectedIds.size() + " sightings?");
             if (confirmBox.open() == SWT.YES) {
                 deleteButton.setEnabled(false); // Disable button while processing
-                apiClient.deleteSighting(selectedSighting.getId())
-                    .thenAccept(v -> {
+                // All selected sightings are deleted with a single request
+                apiClient.deleteSightings(selectedIds)
+                    .thenAccept(deleted -> {
                         Display.getDefault().asyncExec(() -> {
                             try {
                                 loadData(); // Refresh the table
                                 MessageBox messageBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_INFORMATION);
-                                messageBox.setMessage("Sighting deleted successfully!");
+                                messageBox.setMessage(deleted == 1
+                                        ? "Sighting deleted successfully!"
+                                        : deleted + " sightings deleted successfully!");
                                 messageBox.open();
                             } catch (Exception e) {
                                 MessageBox errorBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_ERROR);
@@ -243,7 +271,7 @@ public class SightingsView {
                     .exceptionally(throwable -> {
                         Display.getDefault().asyncExec(() -> {
                             MessageBox errorBox = new MessageBox(Display.getCurrent().getActiveShell(), SWT.ICON_ERROR);
-                            errorBox.setMessage("Error deleting sighting: " + throwable.getMessage());
+                            errorBox.setMessage("Error deleting sightings: " + throwable.getMessage());
                             errorBox.open();
                             deleteButton.setEnabled(true); // Re-enable button
                         });
@@ -274,6 +302,9 @@ public class SightingsView {
         // Reset filter fields
         clearSearch();
 
+        // Patch the table with the changes pushed by the server
+        subscribeToEvents();
+
         return container;
     }
 
@@ -504,11 +535,12 @@ public class SightingsView {
     }
 
     /**
-     * Loads sighting data from the API and displays it in the table.
-     * Refreshes the table viewer with the latest sighting information.
+     * Brings the local model up to date and displays its sightings in the table.
+     * Only the changes since the previous sync are requested from the API.
      */
     protected void loadData() {
-        apiClient.getSightings().thenAccept(sightings -> {
+        apiClient.sync(model).thenAccept(changed -> {
+            List<Sighting> sightings = model.getSightings();
             viewer.getTable().getDisplay().asyncExec(() -> {
                 try {
                     viewer.setInput(sightings);
@@ -534,6 +566,10 @@ public class SightingsView {
         String location = locationSearchText.getText().trim();
         String startDate = null;
         String endDate = null;
+        filterBirdName = birdName;
+        filterLocation = location;
+        filterStartDate = null;
+        filterEndDate = null;
         
         if (startDateSearchDate != null && startDateSearchTime != null) {
         	LocalDateTime startDateTime = LocalDateTime.of(
@@ -541,6 +577,7 @@ public class SightingsView {
                     LocalTime.of(startDateSearchTime.getHours(), startDateSearchTime.getMinutes())
                     );
         	startDate = startDateTime.format(ISO_DATE_FORMATTER);
+        	filterStartDate = startDateTime;
         }
         
         if (endDateSearchDate != null && endDateSearchTime != null) {
@@ -550,6 +587,7 @@ public class SightingsView {
                     );
 
             endDate = endDateTime.format(ISO_DATE_FORMATTER);
+            filterEndDate = endDateTime;
         }
         
         if (!birdName.isEmpty() || !location.isEmpty() || !startDate.isEmpty() || !endDate.isEmpty()) {
@@ -573,6 +611,174 @@ public class SightingsView {
         }
     }
     
+    /**
+     * Subscribes to the sighting events of the server.
+     * Each event is applied to the local model and then to the rows of the table.
+     * When the stream ends, as the server closes it periodically, or fails, the view resubscribes.
+     */
+    private void subscribeToEvents() {
+        apiClient.getSightingEvents().subscribe(new Flow.Subscriber<SightingEvent>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                eventSubscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(SightingEvent event) {
+                reconnectDelayMs = MIN_RECONNECT_DELAY_MS;
+                model.apply(event);
+                Display.getDefault().asyncExec(() -> applyEvent(event));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                System.err.println("Sighting event stream closed: " + throwable.getMessage());
+                scheduleResubscribe();
+            }
+
+            @Override
+            public void onComplete() {
+                System.out.println("Sighting event stream completed");
+                reconnectDelayMs = MIN_RECONNECT_DELAY_MS;
+                scheduleResubscribe();
+            }
+        });
+    }
+
+    /**
+     * Schedules a new subscription to the sighting events after the current reconnect delay,
+     * which doubles after every failed attempt up to a maximum.
+     */
+    private void scheduleResubscribe() {
+        if (disposed) {
+            return;
+        }
+        int delay = reconnectDelayMs;
+        reconnectDelayMs = Math.min(delay * 2, MAX_RECONNECT_DELAY_MS);
+        Display display = Display.getDefault();
+        display.asyncExec(() -> display.timerExec(delay, this::resubscribe));
+    }
+
+    /**
+     * Brings the local model up to date with the changes missed while the event stream was closed,
+     * repeats the current search and subscribes to the sighting events again.
+     * If the sync fails, another attempt is scheduled.
+     */
+    private void resubscribe() {
+        if (disposed || table.isDisposed()) {
+            return;
+        }
+        apiClient.sync(model).thenAccept(changed -> {
+            subscribeToEvents();
+            Display.getDefault().asyncExec(() -> {
+                if (!table.isDisposed()) {
+                    performSearch();
+                }
+            });
+        }).exceptionally(throwable -> {
+            System.err.println("Error syncing sightings: " + throwable.getMessage());
+            scheduleResubscribe();
+            return null;
+        });
+    }
+
+    /**
+     * Patches the table with a sighting event.
+     * Created and updated sightings are inserted or replaced if they match the current search
+     * filters and removed otherwise; a resync event repeats the current search.
+     *
+     * @param event The sighting event
+     */
+    private void applyEvent(SightingEvent event) {
+        if (table.isDisposed()) {
+            return;
+        }
+        switch (event.getType()) {
+            case SightingEvent.CREATED:
+            case SightingEvent.UPDATED:
+                Sighting sighting = event.getSighting();
+                Sighting displayed = findDisplayed(sighting.getId());
+                if (displayed != null) {
+                    viewer.remove(displayed);
+                }
+                if (matchesFilter(sighting)) {
+                    viewer.insert(sighting, insertionIndex(sighting));
+                }
+                break;
+            case SightingEvent.DELETED:
+                Sighting deleted = findDisplayed(event.getId());
+                if (deleted != null) {
+                    viewer.remove(deleted);
+                }
+                break;
+            case SightingEvent.BIRD_DELETED:
+                for (TableItem item : table.getItems()) {
+                    Sighting row = (Sighting) item.getData();
+                    if (row.getBird() != null && event.getBirdId().equals(row.getBird().getId())) {
+                        viewer.remove(row);
+                    }
+                }
+                break;
+            case SightingEvent.RESYNC:
+                performSearch();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Finds the row of the table showing the sighting with the given ID.
+     *
+     * @param id The sighting ID
+     * @return The displayed sighting, or null if it is not in the table
+     */
+    private Sighting findDisplayed(Long id) {
+        for (TableItem item : table.getItems()) {
+            Sighting row = (Sighting) item.getData();
+            if (row.getId().equals(id)) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the position of a sighting in the table, which is ordered by sighting date and ID.
+     *
+     * @param sighting The sighting to insert
+     * @return The index of the first row that comes after the sighting
+     */
+    private int insertionIndex(Sighting sighting) {
+        TableItem[] items = table.getItems();
+        for (int i = 0; i < items.length; i++) {
+            Sighting row = (Sighting) items[i].getData();
+            int order = row.getSightingDate().compareTo(sighting.getSightingDate());
+            if (order > 0 || (order == 0 && row.getId() > sighting.getId())) {
+                return i;
+            }
+        }
+        return items.length;
+    }
+
+    /**
+     * Checks whether a sighting matches the filters of the last search,
+     * the same way the server matches them.
+     *
+     * @param sighting The sighting to check
+     * @return true if the sighting belongs in the table
+     */
+    private boolean matchesFilter(Sighting sighting) {
+        String birdName = sighting.getBird() != null && sighting.getBird().getName() != null
+                ? sighting.getBird().getName() : "";
+        String location = sighting.getLocation() != null ? sighting.getLocation() : "";
+        return birdName.toLowerCase().contains(filterBirdName.toLowerCase())
+                && location.toLowerCase().contains(filterLocation.toLowerCase())
+                && (filterStartDate == null || !sighting.getSightingDate().isBefore(filterStartDate))
+                && (filterEndDate == null || !sighting.getSightingDate().isAfter(filterEndDate));
+    }
+
     /**
      * Clears the search filters for sighting view.
      * Updates the table with un-filtered results.
@@ -594,6 +800,10 @@ public class SightingsView {
      * Cleans up any allocated resources.
      */
     public void dispose() {
+        disposed = true;
+        if (eventSubscription != null) {
+            eventSubscription.cancel();
+        }
         if (apiClient != null) {
             apiClient.shutdown();
         }
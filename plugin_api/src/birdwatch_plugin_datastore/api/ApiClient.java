@@ -1,9 +1,16 @@
 package birdwatch_plugin_datastore.api;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Function;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
@@ -13,21 +20,42 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import birdwatch_plugin_datastore.model.Bird;
+import birdwatch_plugin_datastore.model.CursorPage;
+import birdwatch_plugin_datastore.model.LocalModel;
 import birdwatch_plugin_datastore.model.Sighting;
+import birdwatch_plugin_datastore.model.SightingEvent;
 import birdwatch_plugin_datastore.model.SightingRequest;
+import birdwatch_plugin_datastore.model.SyncChanges;
 
 /**
  * Client class for interacting with the BirdWatch REST API.
  * Provides asynchronous methods for all API operations.
+ * Listing pages are remembered together with their entity tag and requested again with
+ * If-None-Match, so an unchanged page is answered with 304 and reused without parsing.
+ * Only the most recently used pages are remembered, as every search text and cursor is a page of its own.
+ * A {@link LocalModel} can be kept up to date with the delta sync, which only transfers
+ * what changed since the previous sync, and patched in between with the sighting events
+ * the server pushes as they happen.
  *
  * @author Costin Marinescu
  * @version 0.1
  */
 public class ApiClient {
     private static final String BASE_URL = "http://localhost:8080/api";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int NOT_MODIFIED = 304;
+    private static final int EVENT_BUFFER_SIZE = 256;
+    private static final int MAX_CACHED_PAGES = 100;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final ExecutorService executor;
+    private final Map<String, CachedPage<?>> pageCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedPage<?>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPage<?>> eldest) {
+                    return size() > MAX_CACHED_PAGES;
+                }
+            });
 
     /**
      * Constructs a new ApiClient with default configuration.
@@ -41,24 +69,27 @@ public class ApiClient {
     }
 
     /**
-     * Retrieves all birds from the API.
+     * Retrieves all birds from the API, following the pages until the last one.
      *
      * @return CompletableFuture containing a list of all birds
      */
     public CompletableFuture<List<Bird>> getBirds() {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + "/birds"))
-                .GET()
-                .build();
+        return fetchAllPages(cursor -> getBirdsPage(cursor, null));
+    }
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    try {
-                        return objectMapper.readValue(response.body(), new TypeReference<List<Bird>>() {});
-                    } catch (Exception e) {
-                        throw new RuntimeException("Failed to parse birds response", e);
-                    }
-                });
+    /**
+     * Retrieves one page of birds from the API, ordered by ID.
+     *
+     * @param after Optional cursor of the previous page, null for the first page
+     * @param limit Optional page size, null for the server default
+     * @return CompletableFuture containing the page of birds and the next page cursor
+     */
+    public CompletableFuture<CursorPage<Bird>> getBirdsPage(String after, Integer limit) {
+        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/birds?");
+        appendParam(uriBuilder, "after", after);
+        appendParam(uriBuilder, "limit", limit != null ? limit.toString() : null);
+
+        return getPage(uriBuilder.toString(), new TypeReference<List<Bird>>() {}, "Failed to parse birds response");
     }
 
     /**
@@ -100,24 +131,27 @@ public class ApiClient {
     }
 
     /**
-     * Retrieves all sightings from the API.
+     * Retrieves all sightings from the API, following the pages until the last one.
      *
      * @return CompletableFuture containing a list of all sightings
      */
     public CompletableFuture<List<Sighting>> getSightings() {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + "/sightings"))
-                .GET()
-                .build();
+        return fetchAllPages(cursor -> getSightingsPage(cursor, null));
+    }
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    try {
-                        return objectMapper.readValue(response.body(), new TypeReference<List<Sighting>>() {});
-                    } catch (Exception e) {
-                        throw new RuntimeException("Failed to parse sightings response", e);
-                    }
-                });
+    /**
+     * Retrieves one page of sightings from the API, ordered by sighting date and ID.
+     *
+     * @param after Optional cursor of the previous page, null for the first page
+     * @param limit Optional page size, null for the server default
+     * @return CompletableFuture containing the page of sightings and the next page cursor
+     */
+    public CompletableFuture<CursorPage<Sighting>> getSightingsPage(String after, Integer limit) {
+        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/sightings?");
+        appendParam(uriBuilder, "after", after);
+        appendParam(uriBuilder, "limit", limit != null ? limit.toString() : null);
+
+        return getPage(uriBuilder.toString(), new TypeReference<List<Sighting>>() {}, "Failed to parse sightings response");
     }
 
     /**
@@ -165,87 +199,72 @@ public class ApiClient {
     }
 
     /**
-     * Searches for birds based on name and/or color.
+     * Searches for birds based on name and/or color, following the pages until the last one.
      *
      * @param name Optional parameter to filter birds by name
      * @param color Optional parameter to filter birds by color
      * @return CompletableFuture containing a list of matching birds
      */
     public CompletableFuture<List<Bird>> searchBirds(String name, String color) {
-        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/birds/search?");
-        if (name != null && !name.isEmpty()) {
-            uriBuilder.append("name=").append(name);
-        }
-        if (color != null && !color.isEmpty()) {
-            if (uriBuilder.toString().endsWith("?")) {
-                uriBuilder.append("color=").append(color);
-            } else {
-                uriBuilder.append("&color=").append(color);
-            }
-        }
+        return fetchAllPages(cursor -> searchBirdsPage(name, color, cursor, null));
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(uriBuilder.toString()))
-                .GET()
-                .build();
+    /**
+     * Searches for one page of birds based on name and/or color, ordered by ID.
+     *
+     * @param name Optional parameter to filter birds by name
+     * @param color Optional parameter to filter birds by color
+     * @param after Optional cursor of the previous page, null for the first page
+     * @param limit Optional page size, null for the server default
+     * @return CompletableFuture containing the page of matching birds and the next page cursor
+     */
+    public CompletableFuture<CursorPage<Bird>> searchBirdsPage(String name, String color, String after, Integer limit) {
+        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/birds/search?");
+        appendParam(uriBuilder, "name", name);
+        appendParam(uriBuilder, "color", color);
+        appendParam(uriBuilder, "after", after);
+        appendParam(uriBuilder, "limit", limit != null ? limit.toString() : null);
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    try {
-                        return objectMapper.readValue(response.body(), new TypeReference<List<Bird>>() {});
-                    } catch (Exception e) {
-                        throw new RuntimeException("Failed to parse birds search response", e);
-                    }
-                });
+        return getPage(uriBuilder.toString(), new TypeReference<List<Bird>>() {}, "Failed to parse birds search response");
     }
 
     /**
-     * Searches for sightings based on bird name and/or location.
+     * Searches for sightings based on bird name, location and/or date range,
+     * following the pages until the last one.
      *
      * @param birdName Optional parameter to filter sightings by bird name
      * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional parameter to filter sightings by start date
+     * @param endDate Optional parameter to filter sightings by end date
      * @return CompletableFuture containing a list of matching sightings
      */
     public CompletableFuture<List<Sighting>> searchSightings(String birdName, String location, String startDate, String endDate) {
-        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/sightings/search?");
-        if (birdName != null && !birdName.isEmpty()) {
-            uriBuilder.append("birdName=").append(birdName);
-        }
-        if (location != null && !location.isEmpty()) {
-            if (uriBuilder.toString().endsWith("?")) {
-                uriBuilder.append("location=").append(location);
-            } else {
-                uriBuilder.append("&location=").append(location);
-            }
-        }
-        if (startDate != null && !startDate.isEmpty()) {
-            if (uriBuilder.toString().endsWith("?")) {
-                uriBuilder.append("startDate=").append(startDate);
-            } else {
-                uriBuilder.append("&startDate=").append(startDate);
-            }
-        }
-        if (endDate != null && !endDate.isEmpty()) {
-            if (uriBuilder.toString().endsWith("?")) {
-                uriBuilder.append("endDate=").append(endDate);
-            } else {
-                uriBuilder.append("&endDate=").append(endDate);
-            }
-        }
+        return fetchAllPages(cursor -> searchSightingsPage(birdName, location, startDate, endDate, cursor, null));
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(uriBuilder.toString()))
-                .GET()
-                .build();
+    /**
+     * Searches for one page of sightings based on bird name, location and/or date range,
+     * ordered by sighting date and ID.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional parameter to filter sightings by start date
+     * @param endDate Optional parameter to filter sightings by end date
+     * @param after Optional cursor of the previous page, null for the first page
+     * @param limit Optional page size, null for the server default
+     * @return CompletableFuture containing the page of matching sightings and the next page cursor
+     */
+    public CompletableFuture<CursorPage<Sighting>> searchSightingsPage(String birdName, String location,
+            String startDate, String endDate, String after, Integer limit) {
+        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/sightings/search?");
+        appendParam(uriBuilder, "birdName", birdName);
+        appendParam(uriBuilder, "location", location);
+        appendParam(uriBuilder, "startDate", startDate);
+        appendParam(uriBuilder, "endDate", endDate);
+        appendParam(uriBuilder, "after", after);
+        appendParam(uriBuilder, "limit", limit != null ? limit.toString() : null);
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    try {
-                        return objectMapper.readValue(response.body(), new TypeReference<List<Sighting>>() {});
-                    } catch (Exception e) {
-                        throw new RuntimeException("Failed to parse sightings search response", e);
-                    }
-                });
+        return getPage(uriBuilder.toString(), new TypeReference<List<Sighting>>() {}, "Failed to parse sightings search response");
     }
 
     /**
@@ -292,6 +311,363 @@ public class ApiClient {
                 });
     }
 
+    /**
+     * Deletes the birds with the given IDs, together with their sightings, in a single request.
+     *
+     * @param birdIds The IDs of the birds to delete
+     * @return CompletableFuture containing the number of deleted birds
+     */
+    public CompletableFuture<Integer> deleteBirds(List<Long> birdIds) {
+        return bulkDelete(BASE_URL + "/birds", birdIds);
+    }
+
+    /**
+     * Deletes the sightings with the given IDs in a single request.
+     *
+     * @param sightingIds The IDs of the sightings to delete
+     * @return CompletableFuture containing the number of deleted sightings
+     */
+    public CompletableFuture<Integer> deleteSightings(List<Long> sightingIds) {
+        return bulkDelete(BASE_URL + "/sightings", sightingIds);
+    }
+
+    /**
+     * Deletes the sightings matching bird name, location and/or date range in a single request,
+     * the same sightings searchSightings returns for these filters.
+     * At least one filter must be given.
+     *
+     * @param birdName Optional parameter to filter sightings by bird name
+     * @param location Optional parameter to filter sightings by location
+     * @param startDate Optional parameter to filter sightings by start date
+     * @param endDate Optional parameter to filter sightings by end date
+     * @return CompletableFuture containing the number of deleted sightings
+     */
+    public CompletableFuture<Integer> deleteMatchingSightings(String birdName, String location, String startDate, String endDate) {
+        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/sightings/search?");
+        appendParam(uriBuilder, "birdName", birdName);
+        appendParam(uriBuilder, "location", location);
+        appendParam(uriBuilder, "startDate", startDate);
+        appendParam(uriBuilder, "endDate", endDate);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uriBuilder.toString()))
+                .DELETE()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::readDeletedCount);
+    }
+
+    /**
+     * Retrieves one page of the bird and sighting changes since a sync token.
+     *
+     * @param since Optional token of the previous sync, null to only get a token to start syncing from
+     * @param after Optional cursor of the previous page of this sync, null for the first page
+     * @return CompletableFuture containing the page of changes, the token for the next sync and the next page cursor
+     */
+    public CompletableFuture<SyncChanges> getChanges(String since, String after) {
+        StringBuilder uriBuilder = new StringBuilder(BASE_URL + "/sync?");
+        appendParam(uriBuilder, "since", since);
+        appendParam(uriBuilder, "after", after);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uriBuilder.toString()))
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                        throw new RuntimeException("Server returned error status: " + response.statusCode());
+                    }
+                    try {
+                        return objectMapper.readValue(response.body(), SyncChanges.class);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to parse sync response", e);
+                    }
+                });
+    }
+
+    /**
+     * Brings a local model up to date with the server.
+     * The first sync takes a start token and then loads all birds and sightings; every later sync
+     * only requests and applies the changes since the token of the previous one, page by page.
+     *
+     * @param model The local model to update
+     * @return CompletableFuture containing true if the model changed
+     */
+    public CompletableFuture<Boolean> sync(LocalModel model) {
+        String since = model.getToken();
+        if (since != null) {
+            return applyRemainingChanges(model, since, null, false);
+        }
+
+        // The token is taken before the full load, so changes made during the load are synced next time
+        return getChanges(null, null).thenCompose(start ->
+                getBirds().thenCombine(getSightings(), (birds, sightings) -> {
+                    model.reset(start.getToken(), birds, sightings);
+                    return true;
+                }));
+    }
+
+    /**
+     * Requests and applies the pages of a sync one after the other until the last page.
+     *
+     * @param model The local model to update
+     * @param since The token of the previous sync
+     * @param after Cursor of the previous page, null for the first page
+     * @param changed Whether an earlier page changed the model
+     * @return CompletableFuture containing true if any page changed the model
+     */
+    private CompletableFuture<Boolean> applyRemainingChanges(LocalModel model, String since, String after, boolean changed) {
+        return getChanges(since, after).thenCompose(changes -> {
+            boolean changedNow = model.apply(changes) || changed;
+            if (changes.getNextCursor() == null) {
+                return CompletableFuture.completedFuture(changedNow);
+            }
+            return applyRemainingChanges(model, since, changes.getNextCursor(), changedNow);
+        });
+    }
+
+    /**
+     * Opens the stream of sighting changes pushed by the server.
+     * Every subscriber gets its own connection to GET /api/sightings/events, opened when it subscribes.
+     * Events are delivered on the client's executor and buffered up to {@value #EVENT_BUFFER_SIZE}
+     * per subscriber; a subscriber that does not keep up stops the stream from being read, and the
+     * server then drops its oldest events and sends a {@link SightingEvent#RESYNC} event.
+     * Cancelling the subscription closes the connection once the next event arrives.
+     *
+     * @return Publisher of the sighting events
+     */
+    public Flow.Publisher<SightingEvent> getSightingEvents() {
+        return subscriber -> {
+            SubmissionPublisher<SightingEvent> publisher = new SubmissionPublisher<>(executor, EVENT_BUFFER_SIZE);
+            publisher.subscribe(subscriber);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(BASE_URL + "/sightings/events"))
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new EventStreamReader(publisher)))
+                    .whenComplete((response, throwable) -> {
+                        if (throwable != null) {
+                            publisher.closeExceptionally(throwable);
+                        } else if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                            publisher.closeExceptionally(
+                                    new RuntimeException("Server returned error status: " + response.statusCode()));
+                        } else {
+                            publisher.close();
+                        }
+                    });
+        };
+    }
+
+    /**
+     * Sends a DELETE request with a JSON array of IDs as body.
+     *
+     * @param uri The URI of the bulk delete endpoint
+     * @param ids The IDs of the records to delete
+     * @return CompletableFuture containing the number of deleted records
+     */
+    private CompletableFuture<Integer> bulkDelete(String uri, List<Long> ids) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(uri))
+                    .header("Content-Type", "application/json")
+                    .method("DELETE", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(ids)))
+                    .build();
+
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(this::readDeletedCount);
+        } catch (Exception e) {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            future.completeExceptionally(new RuntimeException("Failed to delete", e));
+            return future;
+        }
+    }
+
+    /**
+     * Reads the number of deleted records from the response of a bulk delete.
+     *
+     * @param response The response of the bulk delete endpoint
+     * @return The number of deleted records
+     */
+    private int readDeletedCount(HttpResponse<String> response) {
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new RuntimeException("Server returned error status: " + response.statusCode());
+        }
+        try {
+            return objectMapper.readTree(response.body()).get("deleted").asInt();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse delete response", e);
+        }
+    }
+
+    /**
+     * Appends a query parameter to a URI being built, skipping empty values.
+     *
+     * @param uriBuilder The URI being built, ending with "?" or a previous parameter
+     * @param name The parameter name
+     * @param value The parameter value, skipped if null or empty
+     */
+    private static void appendParam(StringBuilder uriBuilder, String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (uriBuilder.charAt(uriBuilder.length() - 1) != '?') {
+            uriBuilder.append('&');
+        }
+        uriBuilder.append(name).append('=').append(value);
+    }
+
+    /**
+     * Requests a page of items, conditionally if the page was received before.
+     * A previously received page is sent with its entity tag in If-None-Match; when the server
+     * answers 304 Not Modified, the remembered page is returned instead of parsing a new body.
+     * The least recently used page is forgotten once more than {@value #MAX_CACHED_PAGES} are remembered.
+     *
+     * @param uri The URI of the page
+     * @param type The type of the list of items in the response body
+     * @param errorMessage The message of the exception thrown if the response cannot be parsed
+     * @return CompletableFuture containing the page of items and the next page cursor,
+     *         completed exceptionally if the server returns an error status
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<CursorPage<T>> getPage(String uri, TypeReference<List<T>> type, String errorMessage) {
+        CachedPage<T> cached = (CachedPage<T>) pageCache.get(uri);
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .GET();
+        if (cached != null) {
+            requestBuilder.header("If-None-Match", cached.eTag);
+        }
+
+        return httpClient.sendAsync(requestBuilder.build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() == NOT_MODIFIED && cached != null) {
+                        return copyOf(cached.page);
+                    }
+                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                        throw new RuntimeException("Server returned error status: " + response.statusCode());
+                    }
+                    try {
+                        CursorPage<T> page = new CursorPage<>(objectMapper.readValue(response.body(), type),
+                                response.headers().firstValue(NEXT_CURSOR_HEADER).orElse(null));
+                        response.headers().firstValue("ETag").ifPresentOrElse(
+                                eTag -> pageCache.put(uri, new CachedPage<>(eTag, page)),
+                                () -> pageCache.remove(uri));
+                        return copyOf(page);
+                    } catch (Exception e) {
+                        throw new RuntimeException(errorMessage, e);
+                    }
+                });
+    }
+
+    /**
+     * Copies a page, so that callers cannot change the items of a remembered page.
+     *
+     * @param page The page to copy
+     * @return A page with a copy of the item list and the same next page cursor
+     */
+    private static <T> CursorPage<T> copyOf(CursorPage<T> page) {
+        return new CursorPage<>(new ArrayList<>(page.getItems()), page.getNextCursor());
+    }
+
+    /**
+     * A received page of items together with the entity tag it was returned with.
+     */
+    private static class CachedPage<T> {
+        private final String eTag;
+        private final CursorPage<T> page;
+
+        CachedPage(String eTag, CursorPage<T> page) {
+            this.eTag = eTag;
+            this.page = page;
+        }
+    }
+
+    /**
+     * Reads the lines of a server-sent event stream and publishes the sighting events in it.
+     * Lines are requested one at a time and publishing blocks while a subscriber's buffer is full,
+     * so a slow subscriber slows down reading the stream instead of growing the buffer.
+     */
+    private class EventStreamReader implements Flow.Subscriber<String> {
+        private final SubmissionPublisher<SightingEvent> publisher;
+        private final StringBuilder data = new StringBuilder();
+        private Flow.Subscription subscription;
+
+        EventStreamReader(SubmissionPublisher<SightingEvent> publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        /**
+         * Collects the data lines of an event and publishes the event at the blank line ending it.
+         *
+         * @param line The next line of the stream
+         */
+        @Override
+        public void onNext(String line) {
+            if (publisher.isClosed() || !publisher.hasSubscribers()) {
+                subscription.cancel();
+                publisher.close();
+                return;
+            }
+            if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line.substring("data:".length()));
+            } else if (line.isEmpty() && data.length() > 0) {
+                try {
+                    publisher.submit(objectMapper.readValue(data.toString(), SightingEvent.class));
+                } catch (Exception e) {
+                    System.err.println("Skipping unreadable sighting event: " + e.getMessage());
+                }
+                data.setLength(0);
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            publisher.closeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Requests pages one after the other until the last page and collects all of their items.
+     *
+     * @param pageFetcher Function requesting the page after the given cursor (null for the first page)
+     * @return CompletableFuture containing the items of all pages
+     */
+    private <T> CompletableFuture<List<T>> fetchAllPages(Function<String, CompletableFuture<CursorPage<T>>> pageFetcher) {
+        return fetchRemainingPages(pageFetcher, null, new ArrayList<>());
+    }
+
+    private <T> CompletableFuture<List<T>> fetchRemainingPages(Function<String, CompletableFuture<CursorPage<T>>> pageFetcher,
+            String cursor, List<T> collected) {
+        return pageFetcher.apply(cursor).thenCompose(page -> {
+            collected.addAll(page.getItems());
+            if (!page.hasNext()) {
+                return CompletableFuture.completedFuture(collected);
+            }
+            return fetchRemainingPages(pageFetcher, page.getNextCursor(), collected);
+        });
+    }
+
     /**
      * Shuts down the executor service.
      * Should be called when the client is no longer needed.
@@ -0,0 +1,54 @@
+package birdwatch_plugin_datastore.model;
+
+import java.util.List;
+
+/**
+ * Model class representing one page of a cursor-paginated listing.
+ * Contains the items of the page and the cursor used to request the next page.
+ *
+ * @param <T> The type of the items on the page
+ * @author Costin Marinescu
+ * @version 0.1
+ */
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * Constructor with all fields.
+     *
+     * @param items The items on the page
+     * @param nextCursor The cursor of the next page, or null if this is the last page
+     */
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the items on the page.
+     *
+     * @return The page items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return The next page cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Checks whether there is a page after this one.
+     *
+     * @return true if a next page can be requested
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
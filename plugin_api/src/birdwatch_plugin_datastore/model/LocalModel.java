@@ -0,0 +1,135 @@
+package birdwatch_plugin_datastore.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local copy of the birds and sightings, kept up to date with the delta sync
+ * and with the sighting events pushed by the server in between.
+ * Holds the sync token of the last applied changes; changes are applied by ID, so applying
+ * the same changes twice leaves the model unchanged.
+ * All methods are synchronized, so the model can be updated from the client's response threads
+ * while a view reads it.
+ *
+ * @author Costin Marinescu
+ * @version 0.1
+ */
+public class LocalModel {
+    private static final Comparator<Sighting> SIGHTING_ORDER =
+            Comparator.comparing(Sighting::getSightingDate).thenComparing(Sighting::getId);
+
+    private final Map<Long, Bird> birds = new LinkedHashMap<>();
+    private final Map<Long, Sighting> sightings = new LinkedHashMap<>();
+    private String token;
+
+    /**
+     * Gets the sync token of the last applied changes.
+     *
+     * @return The sync token, or null if the model was never loaded
+     */
+    public synchronized String getToken() {
+        return token;
+    }
+
+    /**
+     * Gets the birds of the model, ordered by ID.
+     *
+     * @return A copy of the list of birds
+     */
+    public synchronized List<Bird> getBirds() {
+        List<Bird> list = new ArrayList<>(birds.values());
+        list.sort(Comparator.comparing(Bird::getId));
+        return list;
+    }
+
+    /**
+     * Gets the sightings of the model, ordered by sighting date and ID.
+     *
+     * @return A copy of the list of sightings
+     */
+    public synchronized List<Sighting> getSightings() {
+        List<Sighting> list = new ArrayList<>(sightings.values());
+        list.sort(SIGHTING_ORDER);
+        return list;
+    }
+
+    /**
+     * Replaces the content of the model with a full load.
+     *
+     * @param token The sync token taken before the full load was requested
+     * @param allBirds All birds
+     * @param allSightings All sightings
+     */
+    public synchronized void reset(String token, List<Bird> allBirds, List<Sighting> allSightings) {
+        birds.clear();
+        sightings.clear();
+        allBirds.forEach(bird -> birds.put(bird.getId(), bird));
+        allSightings.forEach(sighting -> sightings.put(sighting.getId(), sighting));
+        this.token = token;
+    }
+
+    /**
+     * Applies a page of the changes of a delta sync and remembers their token once the last page is applied.
+     * Changed birds replace the copies held by their sightings, and deleted birds
+     * are removed together with their sightings.
+     *
+     * @param changes The page of changes since the token of the model
+     * @return true if the changes contained anything to apply
+     */
+    public synchronized boolean apply(SyncChanges changes) {
+        Map<Long, Bird> changedBirds = new LinkedHashMap<>();
+        changes.getBirds().forEach(bird -> changedBirds.put(bird.getId(), bird));
+        birds.putAll(changedBirds);
+        if (!changedBirds.isEmpty()) {
+            for (Sighting sighting : sightings.values()) {
+                Bird changed = sighting.getBird() != null ? changedBirds.get(sighting.getBird().getId()) : null;
+                if (changed != null) {
+                    sighting.setBird(changed);
+                }
+            }
+        }
+        changes.getSightings().forEach(sighting -> sightings.put(sighting.getId(), sighting));
+        changes.getDeletedSightingIds().forEach(sightings::remove);
+        for (Long birdId : changes.getDeletedBirdIds()) {
+            birds.remove(birdId);
+            sightings.values().removeIf(sighting -> sighting.getBird() != null && birdId.equals(sighting.getBird().getId()));
+        }
+
+        if (changes.getNextCursor() == null) {
+            token = changes.getToken();
+        }
+        return !changes.isEmpty();
+    }
+
+    /**
+     * Applies a change received on the sighting event stream.
+     * The sync token is left unchanged, so the next delta sync still returns these changes
+     * and applies them again without effect.
+     *
+     * @param event The sighting event
+     * @return true if the event changed the sightings, false for events without changes such as resync
+     */
+    public synchronized boolean apply(SightingEvent event) {
+        switch (event.getType()) {
+            case SightingEvent.CREATED:
+            case SightingEvent.UPDATED:
+                Sighting sighting = event.getSighting();
+                if (sighting.getBird() != null) {
+                    birds.putIfAbsent(sighting.getBird().getId(), sighting.getBird());
+                }
+                sightings.put(sighting.getId(), sighting);
+                return true;
+            case SightingEvent.DELETED:
+                return sightings.remove(event.getId()) != null;
+            case SightingEvent.BIRD_DELETED:
+                Long birdId = event.getBirdId();
+                boolean removed = birds.remove(birdId) != null;
+                return sightings.values().removeIf(s -> s.getBird() != null && birdId.equals(s.getBird().getId())) || removed;
+            default:
+                return false;
+        }
+    }
+}
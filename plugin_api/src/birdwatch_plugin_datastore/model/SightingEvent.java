@@ -0,0 +1,115 @@
+package birdwatch_plugin_datastore.model;
+
+/**
+ * Model class representing a change received on the sighting event stream.
+ * The fields that do not apply to the kind of change are null.
+ *
+ * @author Costin Marinescu
+ * @version 0.1
+ */
+public class SightingEvent {
+    /**
+     * A sighting was created; the event holds the sighting.
+     */
+    public static final String CREATED = "created";
+
+    /**
+     * A sighting was updated; the event holds the sighting.
+     */
+    public static final String UPDATED = "updated";
+
+    /**
+     * A sighting was deleted; the event holds its ID.
+     */
+    public static final String DELETED = "deleted";
+
+    /**
+     * A bird was deleted together with all of its sightings; the event holds the bird ID.
+     */
+    public static final String BIRD_DELETED = "bird-deleted";
+
+    /**
+     * Events were dropped because the client fell behind; the sightings must be reloaded.
+     */
+    public static final String RESYNC = "resync";
+
+    private String type;
+    private Long id;
+    private Long birdId;
+    private Sighting sighting;
+
+    public SightingEvent() {
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return One of the event type constants
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the kind of change.
+     *
+     * @param type One of the event type constants
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the ID of the created, updated or deleted sighting.
+     *
+     * @return The sighting ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the created, updated or deleted sighting.
+     *
+     * @param id The sighting ID
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID of the deleted bird.
+     *
+     * @return The bird ID
+     */
+    public Long getBirdId() {
+        return birdId;
+    }
+
+    /**
+     * Sets the ID of the deleted bird.
+     *
+     * @param birdId The bird ID
+     */
+    public void setBirdId(Long birdId) {
+        this.birdId = birdId;
+    }
+
+    /**
+     * Gets the created or updated sighting.
+     *
+     * @return The sighting
+     */
+    public Sighting getSighting() {
+        return sighting;
+    }
+
+    /**
+     * Sets the created or updated sighting.
+     *
+     * @param sighting The sighting
+     */
+    public void setSighting(Sighting sighting) {
+        this.sighting = sighting;
+    }
+}
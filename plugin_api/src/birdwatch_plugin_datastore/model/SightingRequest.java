@@ -12,6 +12,8 @@ import java.time.LocalDateTime;
 public class SightingRequest {
     private Long birdId;
     private String location;
+    private Double latitude;
+    private Double longitude;
     private LocalDateTime sightingDate;
 
     public SightingRequest() {
@@ -66,6 +68,42 @@ public class SightingRequest {
         this.location = location;
     }
 
+    /**
+     * Gets the latitude where the bird was sighted.
+     *
+     * @return The latitude in degrees, or null if the sighting has no coordinates
+     */
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Sets the latitude where the bird was sighted.
+     *
+     * @param latitude The latitude in degrees, or null
+     */
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    /**
+     * Gets the longitude where the bird was sighted.
+     *
+     * @return The longitude in degrees, or null if the sighting has no coordinates
+     */
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Sets the longitude where the bird was sighted.
+     *
+     * @param longitude The longitude in degrees, or null
+     */
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     /**
      * Gets the date and time when the bird was sighted.
      *
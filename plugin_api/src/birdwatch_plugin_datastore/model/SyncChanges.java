@@ -0,0 +1,143 @@
+package birdwatch_plugin_datastore.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class representing a page of the changes returned by the delta sync.
+ * Contains the birds and sightings created or updated since a sync token, the IDs of the
+ * birds and sightings deleted since then, the token to request the next changes with
+ * and the cursor of the next page.
+ *
+ * @author Costin Marinescu
+ * @version 0.1
+ */
+public class SyncChanges {
+    private String token;
+    private List<Bird> birds = new ArrayList<>();
+    private List<Sighting> sightings = new ArrayList<>();
+    private List<Long> deletedBirdIds = new ArrayList<>();
+    private List<Long> deletedSightingIds = new ArrayList<>();
+    private String nextCursor;
+
+    public SyncChanges() {
+    }
+
+    /**
+     * Gets the token to request the next changes with.
+     *
+     * @return The next sync token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Sets the token to request the next changes with.
+     *
+     * @param token The next sync token
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Gets the birds created or updated since the requested token.
+     *
+     * @return The changed birds
+     */
+    public List<Bird> getBirds() {
+        return birds;
+    }
+
+    /**
+     * Sets the birds created or updated since the requested token.
+     *
+     * @param birds The changed birds
+     */
+    public void setBirds(List<Bird> birds) {
+        this.birds = birds;
+    }
+
+    /**
+     * Gets the sightings created or updated since the requested token.
+     *
+     * @return The changed sightings
+     */
+    public List<Sighting> getSightings() {
+        return sightings;
+    }
+
+    /**
+     * Sets the sightings created or updated since the requested token.
+     *
+     * @param sightings The changed sightings
+     */
+    public void setSightings(List<Sighting> sightings) {
+        this.sightings = sightings;
+    }
+
+    /**
+     * Gets the IDs of the birds deleted since the requested token.
+     * The sightings of a deleted bird are deleted with it and not listed separately.
+     *
+     * @return The deleted bird IDs
+     */
+    public List<Long> getDeletedBirdIds() {
+        return deletedBirdIds;
+    }
+
+    /**
+     * Sets the IDs of the birds deleted since the requested token.
+     *
+     * @param deletedBirdIds The deleted bird IDs
+     */
+    public void setDeletedBirdIds(List<Long> deletedBirdIds) {
+        this.deletedBirdIds = deletedBirdIds;
+    }
+
+    /**
+     * Gets the IDs of the sightings deleted since the requested token.
+     *
+     * @return The deleted sighting IDs
+     */
+    public List<Long> getDeletedSightingIds() {
+        return deletedSightingIds;
+    }
+
+    /**
+     * Sets the IDs of the sightings deleted since the requested token.
+     *
+     * @param deletedSightingIds The deleted sighting IDs
+     */
+    public void setDeletedSightingIds(List<Long> deletedSightingIds) {
+        this.deletedSightingIds = deletedSightingIds;
+    }
+
+    /**
+     * Gets the cursor to request the next page of this sync with.
+     *
+     * @return The next page cursor, or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor to request the next page of this sync with.
+     *
+     * @param nextCursor The next page cursor, or null on the last page
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Checks whether there are no changes.
+     *
+     * @return true if nothing was created, updated or deleted
+     */
+    public boolean isEmpty() {
+        return birds.isEmpty() && sightings.isEmpty() && deletedBirdIds.isEmpty() && deletedSightingIds.isEmpty();
+    }
+}